@@ -0,0 +1,49 @@
+package com.skyapi.weatherforecast;
+
+import java.util.Date;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.DailyWeatherId;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+// dữ liệu mẫu dùng chung: 1 location đủ realtime + 24 giờ + 7 ngày như API full
+public final class BenchmarkData {
+	public static final String LOCATION_CODE = "HN_VN";
+
+	private BenchmarkData() {
+	}
+
+	public static Location createFullLocation() {
+		Location location = Location.builder().code(LOCATION_CODE).cityName("Hanoi").regionName("Ha Noi")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode(LOCATION_CODE);
+		realtimeWeather.setTemperature(28);
+		realtimeWeather.setHumidity(75);
+		realtimeWeather.setPrecipitation(40);
+		realtimeWeather.setWindSpeed(12);
+		realtimeWeather.setStatus("Partly Cloudy");
+		realtimeWeather.setLastUpdated(new Date());
+		realtimeWeather.setLocation(location);
+		location.setRealtimeWeather(realtimeWeather);
+
+		for (int hourOfDay = 0; hourOfDay < 24; hourOfDay++) {
+			HourlyWeather hourlyWeather = HourlyWeather.builder().temperature(20 + hourOfDay % 10)
+					.precipitation(hourOfDay * 4).status("Cloudy").build();
+			hourlyWeather.getId().setHourOfDay(hourOfDay);
+			hourlyWeather.getId().setLocation(location);
+			location.getListHourlyWeather().add(hourlyWeather);
+		}
+
+		for (int day = 1; day <= 7; day++) {
+			DailyWeather dailyWeather = DailyWeather.builder().id(new DailyWeatherId(day, 10, location))
+					.maxTemp(32).minTemp(22).precipitation(day * 10).status("Sunny").build();
+			location.getListDailyWeathers().add(dailyWeather);
+		}
+
+		return location;
+	}
+}
@@ -0,0 +1,44 @@
+package com.skyapi.weatherforecast;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * giống org.openjdk.jmh.Main nhưng mặc định ghi kết quả dạng JSON ra
+ * jmh-result.json để so sánh giữa các lần chạy (phát hiện regression), vẫn
+ * ghi đè được bằng -rf/-rff
+ *
+ * vd: java -jar target/benchmarks.jar Geolocation -rff geolocation.json
+ */
+public final class BenchmarkRunner {
+	public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+	private BenchmarkRunner() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+
+		// -h, -l, -lprof,... ko chạy benchmark nên để JMH tự xử lý
+		if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()
+				|| commandLineOptions.shouldListWithParams() || commandLineOptions.shouldListProfilers()
+				|| commandLineOptions.shouldListResultFormats()) {
+			Main.main(args);
+			return;
+		}
+
+		ChainedOptionsBuilder optionsBuilder = new OptionsBuilder().parent(commandLineOptions);
+		if (!commandLineOptions.getResultFormat().hasValue()) {
+			optionsBuilder.resultFormat(ResultFormatType.JSON);
+		}
+		if (!commandLineOptions.getResult().hasValue()) {
+			optionsBuilder.result(DEFAULT_RESULT_FILE);
+		}
+
+		new Runner(optionsBuilder.build()).run();
+	}
+}
@@ -0,0 +1,106 @@
+package com.skyapi.weatherforecast;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * tra IP -> location qua GeolocationService, IP được sinh ngẫu nhiên với seed cố
+ * định nên các lần chạy so sánh được với nhau
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeolocationBenchmark {
+	// lũy thừa của 2 để lấy vòng bằng & thay cho %
+	private static final int IP_ADDRESS_COUNT = 4096;
+
+	private GeolocationService geolocationService;
+	private String[] ipv4Addresses;
+	private String[] ipv6Addresses;
+	private int index;
+
+	@Setup
+	public void setup() throws IOException {
+		/*
+		 * file BIN thật truyền qua -jvmArgsAppend
+		 * -Dapp.geolocation.database-file=..., ko có thì dùng file sinh ngẫu nhiên có
+		 * số dải IP tương đương bản LITE DB3
+		 */
+		String databaseFile = System.getProperty("app.geolocation.database-file");
+		if (databaseFile == null || !Files.isReadable(Paths.get(databaseFile))) {
+			databaseFile = SyntheticIp2LocationDatabase.create(250_000, 60_000, 4000, 42).toString();
+		}
+
+		GeolocationProperties geolocationProperties = new GeolocationProperties();
+		geolocationProperties.setDatabaseFile(databaseFile);
+		this.geolocationService = new GeolocationService(geolocationProperties);
+
+		Random random = new Random(42);
+		this.ipv4Addresses = this.generateIpAddresses(random, false);
+		this.ipv6Addresses = this.generateIpAddresses(random, true);
+	}
+
+	// chỉ giữ IP tra ra location (dải reserved/private ném GeolocationException)
+	private String[] generateIpAddresses(Random random, boolean ipv6) {
+		List<String> ipAddresses = new ArrayList<String>(IP_ADDRESS_COUNT);
+
+		while (ipAddresses.size() < IP_ADDRESS_COUNT) {
+			String ipAddress = ipv6 ? this.randomIpv6Address(random) : this.randomIpv4Address(random);
+
+			try {
+				this.geolocationService.getLocationByIp2Location(ipAddress);
+				ipAddresses.add(ipAddress);
+			} catch (GeolocationException e) {
+				// bỏ qua
+			}
+		}
+
+		return ipAddresses.toArray(new String[0]);
+	}
+
+	private String randomIpv4Address(Random random) {
+		return (1 + random.nextInt(223)) + "." + random.nextInt(256) + "." + random.nextInt(256) + "."
+				+ random.nextInt(256);
+	}
+
+	// IPv4-mapped (::ffff:a.b.c.d) và 6to4 (2002::/16) là 2 dạng IPv6 hay gặp nhất
+	private String randomIpv6Address(Random random) {
+		if (random.nextBoolean()) {
+			return "::ffff:" + this.randomIpv4Address(random);
+		}
+
+		return "2002:" + Integer.toHexString(0x0100 + random.nextInt(0xDE00)) + ":"
+				+ Integer.toHexString(random.nextInt(0x10000)) + "::" + Integer.toHexString(random.nextInt(0x10000));
+	}
+
+	@Benchmark
+	public Location getLocationByIpv4() throws GeolocationException {
+		return this.geolocationService.getLocationByIp2Location(this.ipv4Addresses[this.index++ & (IP_ADDRESS_COUNT - 1)]);
+	}
+
+	@Benchmark
+	public Location getLocationByIpv6() throws GeolocationException {
+		return this.geolocationService.getLocationByIp2Location(this.ipv6Addresses[this.index++ & (IP_ADDRESS_COUNT - 1)]);
+	}
+}
@@ -0,0 +1,102 @@
+package com.skyapi.weatherforecast;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.full.FullWeatherDTO;
+import com.skyapi.weatherforecast.full.FullWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherDTO;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+/*
+ * entity -> DTO: cấu hình ModelMapper cũ (ModelMapperConfig trong test-jar của
+ * WeatherApiService, modelMapper*) so với các *Mapper map tay mà controller
+ * đang dùng (mapper*)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+	private ModelMapper modelMapper;
+	private Location location;
+
+	@Setup
+	public void setup() {
+		this.modelMapper = ModelMapperConfig.createModelMapper();
+		this.location = BenchmarkData.createFullLocation();
+	}
+
+	@Benchmark
+	public RealtimeWeatherDTO modelMapperRealtimeWeather() {
+		return this.modelMapper.map(this.location.getRealtimeWeather(), RealtimeWeatherDTO.class);
+	}
+
+	@Benchmark
+	public RealtimeWeatherDTO mapperRealtimeWeather() {
+		return RealtimeWeatherMapper.toDTO(this.location.getRealtimeWeather());
+	}
+
+	// giống HourlyWeatherApiController: map từng phần tử
+	@Benchmark
+	public List<HourlyWeatherDTO> modelMapperHourlyWeathers() {
+		List<HourlyWeatherDTO> hourlyWeatherDTOs = new ArrayList<HourlyWeatherDTO>();
+		for (HourlyWeather hourlyWeather : this.location.getListHourlyWeather()) {
+			hourlyWeatherDTOs.add(this.modelMapper.map(hourlyWeather, HourlyWeatherDTO.class));
+		}
+
+		return hourlyWeatherDTOs;
+	}
+
+	@Benchmark
+	public List<HourlyWeatherDTO> mapperHourlyWeathers() {
+		return HourlyWeatherMapper.toDTOs(this.location.getListHourlyWeather());
+	}
+
+	@Benchmark
+	public List<DailyWeatherDTO> modelMapperDailyWeathers() {
+		List<DailyWeatherDTO> dailyWeatherDTOs = new ArrayList<DailyWeatherDTO>();
+		for (DailyWeather dailyWeather : this.location.getListDailyWeathers()) {
+			dailyWeatherDTOs.add(this.modelMapper.map(dailyWeather, DailyWeatherDTO.class));
+		}
+
+		return dailyWeatherDTOs;
+	}
+
+	@Benchmark
+	public List<DailyWeatherDTO> mapperDailyWeathers() {
+		return DailyWeatherMapper.toDTOs(this.location.getListDailyWeathers());
+	}
+
+	@Benchmark
+	public FullWeatherDTO modelMapperFullWeather() {
+		return this.modelMapper.map(this.location, FullWeatherDTO.class);
+	}
+
+	@Benchmark
+	public FullWeatherDTO mapperFullWeather() {
+		return FullWeatherMapper.toDTO(this.location);
+	}
+}
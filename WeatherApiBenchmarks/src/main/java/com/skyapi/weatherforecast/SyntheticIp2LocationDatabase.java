@@ -0,0 +1,111 @@
+package com.skyapi.weatherforecast;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * file BIN IP2Location DB3 (ip_from, country, region, city) sinh ngẫu nhiên với
+ * seed cố định, dùng khi máy chạy benchmark ko có file BIN thật (file thật ko
+ * nằm trong repo), số dải IP xấp xỉ bản LITE để độ sâu tìm kiếm tương đương
+ */
+public final class SyntheticIp2LocationDatabase {
+	private static final int HEADER_SIZE = 64;
+	private static final int IPV4_ROW_SIZE = 16;
+	private static final int IPV6_ROW_SIZE = 28;
+
+	private SyntheticIp2LocationDatabase() {
+	}
+
+	public static Path create(int ipv4Rows, int ipv6Rows, int locationCount, long seed) throws IOException {
+		int ipv6Offset = HEADER_SIZE + ipv4Rows * IPV4_ROW_SIZE;
+		int stringOffset = ipv6Offset + ipv6Rows * IPV6_ROW_SIZE;
+
+		// mỗi location tối đa 3 chuỗi ngắn (< 40 byte)
+		ByteBuffer buffer = ByteBuffer.allocate(stringOffset + 64 + locationCount * 128)
+				.order(ByteOrder.LITTLE_ENDIAN);
+
+		buffer.put(0, (byte) 3).put(1, (byte) 4).put(2, (byte) 24).put(3, (byte) 10).put(4, (byte) 1);
+		buffer.putInt(5, ipv4Rows).putInt(9, HEADER_SIZE + 1);
+		buffer.putInt(13, ipv6Rows).putInt(17, ipv6Offset + 1);
+		buffer.put(29, (byte) 1);
+
+		buffer.position(stringOffset);
+		int unknownCountry = putCountry(buffer, "-", "-");
+		int unknown = putString(buffer, "-");
+
+		int[][] locations = new int[locationCount][];
+		for (int i = 0; i < locationCount; i++) {
+			int country = putCountry(buffer, countryCode(i / 64), "Country " + (i / 64));
+			int region = putString(buffer, "Region " + (i / 8));
+			int city = putString(buffer, "City " + i);
+
+			locations[i] = new int[] { country, region, city };
+		}
+
+		Random random = new Random(seed);
+
+		// dòng đầu (0.0.0.0) là dải ko xác định giống file thật
+		putRow(buffer, HEADER_SIZE, IPV4_ROW_SIZE, unknownCountry, unknown, unknown);
+		long ipv4Step = (1L << 32) / ipv4Rows;
+		for (int i = 1; i < ipv4Rows; i++) {
+			int offset = HEADER_SIZE + i * IPV4_ROW_SIZE;
+			long ipFrom = i * ipv4Step + random.nextInt((int) Math.min(ipv4Step, Integer.MAX_VALUE));
+
+			int[] location = locations[random.nextInt(locationCount)];
+			buffer.putInt(offset, (int) ipFrom);
+			putRow(buffer, offset, IPV4_ROW_SIZE, location[0], location[1], location[2]);
+		}
+
+		// IPv6 chia đều dải 2000::/3 (global unicast)
+		putRow(buffer, ipv6Offset, IPV6_ROW_SIZE, unknownCountry, unknown, unknown);
+		long ipv6Step = (0x4000000000000000L - 0x2000000000000000L) / ipv6Rows;
+		for (int i = 1; i < ipv6Rows; i++) {
+			int offset = ipv6Offset + i * IPV6_ROW_SIZE;
+			long high = 0x2000000000000000L + i * ipv6Step;
+
+			int[] location = locations[random.nextInt(locationCount)];
+			buffer.putLong(offset, 0L).putLong(offset + 8, high);
+			putRow(buffer, offset, IPV6_ROW_SIZE, location[0], location[1], location[2]);
+		}
+
+		Path databaseFile = Files.createTempFile("ip2location-synthetic-", ".BIN");
+		databaseFile.toFile().deleteOnExit();
+		Files.write(databaseFile, Arrays.copyOf(buffer.array(), buffer.position()));
+
+		return databaseFile;
+	}
+
+	// 3 cột country/region/city nằm cuối mỗi dòng, trước đó là ip_from
+	private static void putRow(ByteBuffer buffer, int offset, int rowSize, int country, int region, int city) {
+		buffer.putInt(offset + rowSize - 12, country).putInt(offset + rowSize - 8, region)
+				.putInt(offset + rowSize - 4, city);
+	}
+
+	private static String countryCode(int index) {
+		return "" + (char) ('A' + index / 26 % 26) + (char) ('A' + index % 26);
+	}
+
+	private static int putString(ByteBuffer buffer, String value) {
+		int pointer = buffer.position();
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		buffer.put((byte) bytes.length).put(bytes);
+
+		return pointer;
+	}
+
+	// country long name nằm sau country short name 3 byte
+	private static int putCountry(ByteBuffer buffer, String countryCode, String countryName) {
+		int pointer = buffer.position();
+		putString(buffer, countryCode);
+		buffer.position(pointer + 3);
+		putString(buffer, countryName);
+
+		return pointer;
+	}
+}
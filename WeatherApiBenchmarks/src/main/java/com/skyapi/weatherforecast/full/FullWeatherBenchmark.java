@@ -0,0 +1,70 @@
+package com.skyapi.weatherforecast.full;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.BenchmarkData;
+import com.skyapi.weatherforecast.WeatherApiServiceApplication;
+
+/*
+ * 2 bước sau khi map của API full: dựng link HATEOAS (linkTo(methodOn(...)))
+ * và serialize FullWeatherDTO bằng ObjectMapper bên class Main
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FullWeatherBenchmark {
+	private FullWeatherModelAssembler fullWeatherModelAssembler;
+	private ObjectMapper objectMapper;
+	private FullWeatherDTO fullWeatherDTO;
+
+	@Setup
+	public void setup() {
+		this.fullWeatherModelAssembler = new FullWeatherModelAssembler();
+		this.objectMapper = new WeatherApiServiceApplication().objectMapper();
+
+		this.fullWeatherDTO = FullWeatherMapper.toDTO(BenchmarkData.createFullLocation());
+		this.fullWeatherDTO.getRealtimeWeather().setLocation(null);
+
+		// link tuyệt đối lấy host từ request hiện tại giống lúc chạy thật
+		MockHttpServletRequest request = new MockHttpServletRequest("GET",
+				"/v1/full/" + BenchmarkData.LOCATION_CODE);
+		request.setServerName("api.skyapi.com");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	@TearDown
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Benchmark
+	public EntityModel<FullWeatherDTO> addLinksByLocation() {
+		return this.fullWeatherModelAssembler.addLinksByLocation(BenchmarkData.LOCATION_CODE, this.fullWeatherDTO);
+	}
+
+	@Benchmark
+	public byte[] serializeFullWeatherDTO() throws JsonProcessingException {
+		return this.objectMapper.writeValueAsBytes(this.fullWeatherDTO);
+	}
+}
@@ -0,0 +1,241 @@
+package com.skyapi.weatherforecast.load;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * load test HTTP cho 1 instance WeatherApiService đang chạy: concurrency
+ * client gửi request liên tục (mỗi client 1 request tại 1 thời điểm) trong
+ * duration, bỏ qua warmup, rồi in throughput và latency p50/p99/max, đồng thời
+ * ghi thêm 1 dòng vào load-result.csv để so sánh giữa các lần chạy
+ *
+ * so sánh 2 cấu hình (cùng MySQL, cùng dữ liệu, vd trước/sau khi đổi
+ * maximum-pool-size): chạy instance theo từng cấu hình rồi với mỗi instance:
+ *   java -cp target/benchmarks.jar com.skyapi.weatherforecast.load.RequestLoadTest \
+ *     --label=pool-10 --concurrency=2000 --duration=60 --header="Authorization: Bearer <token>" \
+ *     --url="http://localhost:8080/v1/locations?cursor=&size=20" --url=http://localhost:8080/v1/realtime/HN_VN
+ *
+ * nên trộn URL ko cache (list location theo cursor luôn query DB) với URL có
+ * cache (realtime theo code) để xem request có cache có phải chờ thread Tomcat
+ * đang bị giữ bởi request chờ connection JDBC hay ko
+ */
+public final class RequestLoadTest {
+	public static final String DEFAULT_RESULT_FILE = "load-result.csv";
+
+	private static final String CSV_HEADER = "label,concurrency,duration_s,requests,errors,throughput_rps,p50_ms,p99_ms,max_ms";
+
+	private RequestLoadTest() {
+	}
+
+	record Options(String label, List<URI> urls, List<String[]> headers, int concurrency, int durationSeconds,
+			int warmupSeconds, Path resultFile) {
+
+		// tham số dạng --name=value, --url và --header lặp lại đc
+		static Options parse(String[] args) {
+			String label = "run";
+			List<URI> urls = new ArrayList<URI>();
+			List<String[]> headers = new ArrayList<String[]>();
+			int concurrency = 1000;
+			int durationSeconds = 30;
+			int warmupSeconds = 10;
+			Path resultFile = Path.of(DEFAULT_RESULT_FILE);
+
+			for (String arg : args) {
+				int separator = arg.indexOf('=');
+				if (!arg.startsWith("--") || separator < 0) {
+					throw new IllegalArgumentException("Expected --name=value but was " + arg);
+				}
+
+				String name = arg.substring(2, separator);
+				String value = arg.substring(separator + 1);
+				switch (name) {
+				case "label" -> label = value;
+				case "url" -> urls.add(URI.create(value));
+				case "header" -> {
+					int colon = value.indexOf(':');
+					if (colon < 0) {
+						throw new IllegalArgumentException("Expected --header=\"Name: value\" but was " + value);
+					}
+					headers.add(new String[] { value.substring(0, colon).trim(), value.substring(colon + 1).trim() });
+				}
+				case "concurrency" -> concurrency = Integer.parseInt(value);
+				case "duration" -> durationSeconds = Integer.parseInt(value);
+				case "warmup" -> warmupSeconds = Integer.parseInt(value);
+				case "result-file" -> resultFile = Path.of(value);
+				default -> throw new IllegalArgumentException("Unknown option --" + name);
+				}
+			}
+
+			if (urls.isEmpty()) {
+				throw new IllegalArgumentException("At least one --url is required");
+			}
+
+			return new Options(label, urls, headers, concurrency, durationSeconds, warmupSeconds, resultFile);
+		}
+	}
+
+	record Result(String label, int concurrency, int durationSeconds, long requests, long errors,
+			double throughput, double p50Millis, double p99Millis, double maxMillis) {
+
+		String toCsvLine() {
+			return String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%.1f,%.2f,%.2f,%.2f", this.label, this.concurrency,
+					this.durationSeconds, this.requests, this.errors, this.throughput, this.p50Millis, this.p99Millis,
+					this.maxMillis);
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Options options = Options.parse(args);
+
+		Result result = run(options);
+
+		System.out.println(CSV_HEADER);
+		System.out.println(result.toCsvLine());
+		appendResult(options.resultFile(), result);
+	}
+
+	static Result run(Options options) throws InterruptedException {
+		HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(10)).build();
+
+		List<HttpRequest> requests = new ArrayList<HttpRequest>();
+		for (URI url : options.urls()) {
+			HttpRequest.Builder requestBuilder = HttpRequest.newBuilder(url).timeout(Duration.ofSeconds(60)).GET();
+			for (String[] header : options.headers()) {
+				requestBuilder.header(header[0], header[1]);
+			}
+			requests.add(requestBuilder.build());
+		}
+
+		long startNanos = System.nanoTime();
+		long measureFromNanos = startNanos + Duration.ofSeconds(options.warmupSeconds()).toNanos();
+		long endNanos = measureFromNanos + Duration.ofSeconds(options.durationSeconds()).toNanos();
+
+		AtomicLong errors = new AtomicLong();
+		LatencyRecorder[] recorders = new LatencyRecorder[options.concurrency()];
+		CountDownLatch finished = new CountDownLatch(options.concurrency());
+
+		for (int i = 0; i < options.concurrency(); i++) {
+			LatencyRecorder recorder = new LatencyRecorder();
+			recorders[i] = recorder;
+
+			// mỗi client bắt đầu ở 1 URL khác nhau để trộn đều các URL
+			int firstRequest = i % requests.size();
+
+			Thread client = new Thread(() -> {
+				try {
+					for (int n = firstRequest; System.nanoTime() < endNanos; n++) {
+						HttpRequest request = requests.get(n % requests.size());
+
+						long sentNanos = System.nanoTime();
+						boolean succeeded = send(httpClient, request);
+						long receivedNanos = System.nanoTime();
+
+						// request gửi trong lúc warmup ko tính
+						if (sentNanos >= measureFromNanos && receivedNanos <= endNanos) {
+							recorder.record(receivedNanos - sentNanos);
+							if (!succeeded) {
+								errors.incrementAndGet();
+							}
+						}
+					}
+				} finally {
+					finished.countDown();
+				}
+			}, "load-client-" + i);
+			client.setDaemon(true);
+			client.start();
+		}
+
+		finished.await();
+
+		long[] latencies = LatencyRecorder.merge(recorders);
+		Arrays.sort(latencies);
+
+		return new Result(options.label(), options.concurrency(), options.durationSeconds(), latencies.length,
+				errors.get(), (double) latencies.length / options.durationSeconds(), percentileMillis(latencies, 50),
+				percentileMillis(latencies, 99), percentileMillis(latencies, 100));
+	}
+
+	// 2xx/304 là thành công, lỗi kết nối/timeout cũng tính là lỗi (vẫn đo latency)
+	private static boolean send(HttpClient httpClient, HttpRequest request) {
+		try {
+			int statusCode = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+			return (statusCode >= 200 && statusCode < 300) || statusCode == 304;
+		} catch (IOException e) {
+			return false;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	// nearest-rank trên mảng đã sort
+	static double percentileMillis(long[] sortedLatencies, int percentile) {
+		if (sortedLatencies.length == 0) {
+			return 0;
+		}
+
+		int rank = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length);
+		return sortedLatencies[Math.max(rank, 1) - 1] / 1_000_000.0;
+	}
+
+	private static void appendResult(Path resultFile, Result result) {
+		try {
+			boolean newFile = Files.notExists(resultFile);
+			try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(resultFile, StandardOpenOption.CREATE,
+					StandardOpenOption.APPEND))) {
+				if (newFile) {
+					writer.println(CSV_HEADER);
+				}
+				writer.println(result.toCsvLine());
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	// mỗi client 1 recorder riêng (ko tranh chấp), gộp lại sau khi chạy xong
+	static final class LatencyRecorder {
+		private long[] latencies = new long[1024];
+		private int size;
+
+		void record(long latencyNanos) {
+			if (this.size == this.latencies.length) {
+				this.latencies = Arrays.copyOf(this.latencies, this.size * 2);
+			}
+			this.latencies[this.size++] = latencyNanos;
+		}
+
+		static long[] merge(LatencyRecorder[] recorders) {
+			int total = 0;
+			for (LatencyRecorder recorder : recorders) {
+				total += recorder.size;
+			}
+
+			long[] merged = new long[total];
+			int position = 0;
+			for (LatencyRecorder recorder : recorders) {
+				System.arraycopy(recorder.latencies, 0, merged, position, recorder.size);
+				position += recorder.size;
+			}
+
+			return merged;
+		}
+	}
+}
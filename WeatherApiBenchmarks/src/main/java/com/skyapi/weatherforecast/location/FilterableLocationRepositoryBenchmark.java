@@ -0,0 +1,197 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * FilterableLocationRepositoryImpl.listWithFilter (criteria query + LEFT JOIN
+ * FETCH realtimeWeather + query đếm) trên H2 nhúng, chỉ dựng JPA + repository
+ * chứ ko chạy cả WeatherApiServiceApplication (security, cache, scheduler,...)
+ *
+ * listWithFilterAfter là cùng trang đó nhưng theo cursor (seek), so sánh để
+ * thấy trang sâu ko còn chậm theo offset
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FilterableLocationRepositoryBenchmark {
+	private static final int LOCATION_COUNT = 5000;
+	private static final String[] COUNTRY_CODES = { "VN", "US", "JP", "FR", "BR", "IN", "DE", "AU" };
+
+	// none | country_code | region_name_enabled
+	@Param({ "none", "country_code", "region_name_enabled" })
+	public String filter;
+
+	@Param({ "0", "200" })
+	public int pageNum;
+
+	private AnnotationConfigApplicationContext applicationContext;
+	private FilterableLocationRepository filterableLocationRepository;
+	private Map<String, Object> filterFields;
+	private Pageable pageable;
+	private List<Object> afterValues;
+
+	@Configuration
+	static class JpaConfig {
+		/*
+		 * pool Hikari giống lúc chạy thật, H2 chạy chế độ MySQL, month là từ khóa của
+		 * H2 nhưng là tên cột của daily_weather
+		 */
+		@Bean(destroyMethod = "close")
+		public HikariDataSource dataSource() {
+			HikariDataSource dataSource = new HikariDataSource();
+			dataSource.setJdbcUrl("jdbc:h2:mem:weatherdb;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH");
+			dataSource.setUsername("sa");
+
+			return dataSource;
+		}
+
+		@Bean
+		public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+			LocalContainerEntityManagerFactoryBean entityManagerFactory = new LocalContainerEntityManagerFactoryBean();
+			entityManagerFactory.setDataSource(dataSource);
+			entityManagerFactory.setPackagesToScan("com.skyapi.weatherforecast.common");
+			entityManagerFactory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+
+			Properties jpaProperties = new Properties();
+			jpaProperties.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+			entityManagerFactory.setJpaProperties(jpaProperties);
+
+			return entityManagerFactory;
+		}
+
+		// EntityManager dùng chung (proxy theo transaction) giống bean spring boot tạo sẵn
+		@Bean
+		public EntityManager entityManager(EntityManagerFactory entityManagerFactory) {
+			return SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory);
+		}
+
+		@Bean
+		public PlatformTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+			return new JpaTransactionManager(entityManagerFactory);
+		}
+
+		@Bean
+		public FilterableLocationRepositoryImpl filterableLocationRepository() {
+			return new FilterableLocationRepositoryImpl();
+		}
+	}
+
+	@Setup
+	public void setup() {
+		this.applicationContext = new AnnotationConfigApplicationContext(JpaConfig.class);
+		this.filterableLocationRepository = this.applicationContext.getBean(FilterableLocationRepository.class);
+
+		TransactionTemplate transactionTemplate = new TransactionTemplate(
+				this.applicationContext.getBean(PlatformTransactionManager.class));
+		EntityManager entityManager = this.applicationContext.getBean(EntityManager.class);
+		transactionTemplate.executeWithoutResult(status -> this.insertLocations(entityManager));
+
+		this.filterFields = new HashMap<String, Object>();
+		if ("country_code".equals(this.filter)) {
+			this.filterFields.put("countryCode", "VN");
+		} else if ("region_name_enabled".equals(this.filter)) {
+			this.filterFields.put("regionName", "Region 3");
+			this.filterFields.put("enabled", true);
+		}
+
+		// giống sort mặc định của API list location
+		this.pageable = PageRequest.of(this.pageNum, 10, Sort.by("code").ascending());
+
+		// cursor của trang pageNum = code của location cuối trang trước
+		if (this.pageNum > 0) {
+			List<Location> previousPage = this.filterableLocationRepository
+					.listWithFilter(this.pageable.previousOrFirst(), this.filterFields).getContent();
+
+			// bộ lọc ít row thì trang trước đã rỗng -> seek sau code lớn nhất, cũng rỗng như OFFSET
+			this.afterValues = List.of(previousPage.isEmpty() ? String.format("LOC_%05d", LOCATION_COUNT)
+					: previousPage.get(previousPage.size() - 1).getCode());
+		}
+	}
+
+	// location nào cũng có realtime, 1/10 bị trashed, 1/5 bị disable
+	private void insertLocations(EntityManager entityManager) {
+		for (int i = 0; i < LOCATION_COUNT; i++) {
+			Location location = Location.builder().code(String.format("LOC_%05d", i)).cityName("City " + i)
+					.regionName("Region " + (i % 50)).countryName("Country " + (i % COUNTRY_CODES.length))
+					.countryCode(COUNTRY_CODES[i % COUNTRY_CODES.length]).enabled(i % 5 != 0).trashed(i % 10 == 9)
+					.build();
+
+			RealtimeWeather realtimeWeather = new RealtimeWeather();
+			realtimeWeather.setTemperature(i % 40);
+			realtimeWeather.setHumidity(i % 100);
+			realtimeWeather.setPrecipitation(i % 100);
+			realtimeWeather.setWindSpeed(i % 30);
+			realtimeWeather.setStatus("Cloudy");
+			realtimeWeather.setLastUpdated(new Date());
+			realtimeWeather.setLocation(location);
+			location.setRealtimeWeather(realtimeWeather);
+
+			entityManager.persist(location);
+
+			if (i % 500 == 499) {
+				entityManager.flush();
+				entityManager.clear();
+			}
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		this.applicationContext.close();
+	}
+
+	@Benchmark
+	public Page<Location> listWithFilter() {
+		return this.filterableLocationRepository.listWithFilter(this.pageable, this.filterFields);
+	}
+
+	// +1 row giống LocationService để biết còn trang sau
+	@Benchmark
+	public List<Location> listWithFilterAfter() {
+		return this.filterableLocationRepository.listWithFilterAfter(this.pageable.getSort(), this.afterValues,
+				this.pageable.getPageSize() + 1, this.filterFields);
+	}
+}
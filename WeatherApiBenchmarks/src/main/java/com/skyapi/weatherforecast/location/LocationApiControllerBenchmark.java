@@ -0,0 +1,74 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.coyote.BadRequestException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.skyapi.weatherforecast.BenchmarkData;
+
+/*
+ * phần xử lý trong LocationApiController ko đụng DB: kiểm tra/đổi sort option
+ * (snake_case -> camelCase) và dựng 5 link HATEOAS cho mỗi location
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LocationApiControllerBenchmark {
+	private LocationApiController locationApiController;
+	private LocationDTO locationDTO;
+
+	@Setup
+	public void setup() {
+		// 2 hàm đo ko dùng tới LocationService
+		this.locationApiController = new LocationApiController(null);
+		this.locationDTO = LocationMapper.toDTO(BenchmarkData.createFullLocation());
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/locations");
+		request.setServerName("api.skyapi.com");
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	@TearDown
+	public void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	// @Param để riêng để addLinksByLocation ko bị chạy lặp theo từng sort option
+	@State(Scope.Benchmark)
+	public static class SortOption {
+		@Param({ "code", "-region_name", "country_code,-city_name,enabled" })
+		public String value;
+	}
+
+	@Benchmark
+	public String validateSortOption(SortOption sortOption) throws BadRequestException {
+		return this.locationApiController.validateSortOption(sortOption.value);
+	}
+
+	// DTO mới mỗi lần vì add() cộng dồn link vào DTO
+	@Benchmark
+	public LocationDTO addLinksByLocation() {
+		LocationDTO locationDTO = new LocationDTO();
+		locationDTO.setCode(this.locationDTO.getCode());
+
+		return this.locationApiController.addLinksByLocation(locationDTO);
+	}
+}
@@ -0,0 +1,85 @@
+-- schema ban đầu, giống bản ddl-auto=update của Hibernate đã tạo từ các entity bên WeatherApiCommon
+-- DB đã có sẵn bảng (tạo bởi ddl-auto) thì Flyway baseline ở version 1 và bỏ qua file này
+-- nằm ở WeatherApiCommon cùng các entity: WeatherApiService và WeatherApiClientManager dùng chung DB,
+-- app nào khởi động trước thì migrate, app sau thấy đã đủ version (Flyway khóa bảng lịch sử khi chạy)
+
+CREATE TABLE users (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    email VARCHAR(50) NOT NULL,
+    password VARCHAR(70) NOT NULL,
+    name VARCHAR(50) NOT NULL,
+    enabled BIT NOT NULL,
+    type ENUM ('ADMIN','CLIENT') NOT NULL,
+    trashed BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE locations (
+    code VARCHAR(12) NOT NULL,
+    city_name VARCHAR(128) NOT NULL,
+    region_name VARCHAR(128) NOT NULL,
+    country_name VARCHAR(64) NOT NULL,
+    country_code VARCHAR(2) NOT NULL,
+    enabled BIT NOT NULL,
+    trashed BIT NOT NULL,
+    PRIMARY KEY (code)
+) ENGINE=InnoDB;
+
+CREATE TABLE client_apps (
+    id INTEGER NOT NULL AUTO_INCREMENT,
+    name VARCHAR(50) NOT NULL,
+    client_id VARCHAR(100) NOT NULL,
+    client_secret VARCHAR(100) NOT NULL,
+    enabled BIT NOT NULL,
+    role ENUM ('READER','SYSTEM','UPDATER') NOT NULL,
+    user_id INTEGER,
+    trashed BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_client_apps_client_id UNIQUE (client_id),
+    CONSTRAINT uk_client_apps_client_secret UNIQUE (client_secret),
+    CONSTRAINT fk_client_apps_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE apps_locations (
+    app_id INTEGER NOT NULL,
+    location_code VARCHAR(12),
+    PRIMARY KEY (app_id),
+    CONSTRAINT uk_apps_locations_location_code UNIQUE (location_code),
+    CONSTRAINT fk_apps_locations_app FOREIGN KEY (app_id) REFERENCES client_apps (id),
+    CONSTRAINT fk_apps_locations_location FOREIGN KEY (location_code) REFERENCES locations (code)
+) ENGINE=InnoDB;
+
+CREATE TABLE realtime_weather (
+    location_code VARCHAR(12) NOT NULL,
+    temperature INTEGER NOT NULL,
+    humidity INTEGER NOT NULL,
+    precipitation INTEGER NOT NULL,
+    wind_speed INTEGER NOT NULL,
+    status VARCHAR(50),
+    last_updated DATETIME(6),
+    PRIMARY KEY (location_code),
+    CONSTRAINT fk_realtime_weather_location FOREIGN KEY (location_code) REFERENCES locations (code)
+) ENGINE=InnoDB;
+
+CREATE TABLE weather_hourly (
+    hour_of_day INTEGER NOT NULL,
+    location_code VARCHAR(12) NOT NULL,
+    temperature INTEGER,
+    precipitation INTEGER,
+    status VARCHAR(50),
+    PRIMARY KEY (hour_of_day, location_code),
+    CONSTRAINT fk_weather_hourly_location FOREIGN KEY (location_code) REFERENCES locations (code)
+) ENGINE=InnoDB;
+
+CREATE TABLE daily_weather (
+    day_of_month INTEGER NOT NULL,
+    month INTEGER NOT NULL,
+    location_code VARCHAR(12) NOT NULL,
+    min_temp INTEGER NOT NULL,
+    max_temp INTEGER NOT NULL,
+    precipitation INTEGER NOT NULL,
+    status VARCHAR(50),
+    PRIMARY KEY (day_of_month, month, location_code),
+    CONSTRAINT fk_daily_weather_location FOREIGN KEY (location_code) REFERENCES locations (code)
+) ENGINE=InnoDB;
@@ -0,0 +1,19 @@
+-- index cho các query nóng, mỗi index ghi rõ query dùng nó (QueryIndexAdvisor chạy EXPLAIN lại các query này lúc khởi động)
+-- InnoDB: index phụ luôn chứa khóa chính (code) nên các index dưới đây cũng "phủ" (covering) cột code
+
+-- LocationRepository.findByCountryCodeAndCityName, RealtimeWeatherRepository.findByCountryCodeAndCityName (JOIN locations)
+-- và LocationDirectory (findAllCodesWithCountryCodeAndCityName chỉ đọc index, ko đọc bảng)
+CREATE INDEX idx_locations_trashed_country_city ON locations (trashed, country_code, city_name);
+
+-- FilterableLocationRepositoryImpl lọc theo enabled/country_code (list + COUNT)
+-- và LocationCountRegistry (findAllCodesWithCountFilterFields chỉ đọc index)
+CREATE INDEX idx_locations_trashed_enabled_country_region ON locations (trashed, enabled, country_code, region_name);
+
+-- FilterableLocationRepositoryImpl lọc theo region_name (ko có enabled đứng trước)
+CREATE INDEX idx_locations_trashed_region ON locations (trashed, region_name);
+
+-- ko cần thêm:
+-- realtime_weather theo location_code -> khóa chính
+-- weather_hourly/daily_weather theo location_code (+ hour_of_day > ?) -> index của foreign key location_code,
+--   index phụ chứa sẵn khóa chính nên thực chất là (location_code, hour_of_day) / (location_code, day_of_month, month)
+-- client_apps theo client_id -> unique index uk_client_apps_client_id
@@ -0,0 +1,8 @@
+package com.skyapi.weatherforecast.reactive;
+
+import com.skyapi.weatherforecast.base.LocationScopedView;
+
+// code + tên location, full weather dùng để dựng field location khi location chưa có dự báo nào
+public record LocationView(String locationCode, String cityName, String regionName, String countryName)
+		implements LocationScopedView {
+}
@@ -0,0 +1,22 @@
+package com.skyapi.weatherforecast.reactive;
+
+import java.net.InetSocketAddress;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+
+// giống CommonUtility.getIpAddress() nhưng cho ServerHttpRequest của WebFlux
+public class ReactiveCommonUtility {
+
+	public static String getIpAddress(ServerHttpRequest request) {
+		// IP gốc của client do proxy/load balancer (Nginx) thêm vào
+		String ip = request.getHeaders().getFirst("X-FORWARDED-FOR");
+		if (StringUtils.isBlank(ip)) {
+			InetSocketAddress remoteAddress = request.getRemoteAddress();
+			ip = remoteAddress == null || remoteAddress.getAddress() == null ? null
+					: remoteAddress.getAddress().getHostAddress();
+		}
+
+		return ip;
+	}
+}
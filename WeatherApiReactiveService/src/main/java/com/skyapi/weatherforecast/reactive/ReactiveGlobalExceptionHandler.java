@@ -0,0 +1,62 @@
+package com.skyapi.weatherforecast.reactive;
+
+import java.util.Date;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.reactive.result.method.annotation.ResponseEntityExceptionHandler;
+
+import com.skyapi.weatherforecast.ErrorDTO;
+import com.skyapi.weatherforecast.GeolocationException;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+
+/*
+ * cùng ErrorDTO và mã lỗi với GlobalExceptionHandler bên WeatherApiService,
+ * lỗi của WebFlux (404 ko có route, 405,...) vẫn do ResponseEntityExceptionHandler xử lý
+ */
+@RestControllerAdvice
+public class ReactiveGlobalExceptionHandler extends ResponseEntityExceptionHandler {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ReactiveGlobalExceptionHandler.class);
+
+	@ExceptionHandler(Exception.class)
+	@ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+	public ErrorDTO handlerGenericException(ServerHttpRequest request, Exception ex) {
+		LOGGER.error(ex.getMessage(), ex);
+
+		// trả về lỗi ngắn gọn "Internal Server Error"
+		return createErrorDTO(request, HttpStatus.INTERNAL_SERVER_ERROR,
+				HttpStatus.INTERNAL_SERVER_ERROR.getReasonPhrase());
+	}
+
+	@ExceptionHandler(GeolocationException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	public ErrorDTO handlerBadRequestException(ServerHttpRequest request, Exception ex) {
+		LOGGER.error(ex.getMessage(), ex);
+
+		return createErrorDTO(request, HttpStatus.BAD_REQUEST, ex.getMessage());
+	}
+
+	@ExceptionHandler(LocationNotFoundException.class)
+	@ResponseStatus(HttpStatus.NOT_FOUND)
+	public ErrorDTO handlerLocationNotFoundException(ServerHttpRequest request, Exception ex) {
+		LOGGER.error(ex.getMessage(), ex);
+
+		return createErrorDTO(request, HttpStatus.NOT_FOUND, ex.getMessage());
+	}
+
+	private static ErrorDTO createErrorDTO(ServerHttpRequest request, HttpStatus status, String error) {
+		ErrorDTO errorDTO = new ErrorDTO();
+		errorDTO.setTimestamp(new Date());
+		errorDTO.setStatus(status.value());
+		errorDTO.addError(error);
+		// giống getServletPath(): path ko gồm context path
+		errorDTO.setPath(request.getPath().pathWithinApplication().value());
+
+		return errorDTO;
+	}
+}
@@ -0,0 +1,29 @@
+package com.skyapi.weatherforecast.reactive;
+
+import org.springframework.stereotype.Service;
+
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+/*
+ * đổi location lấy từ IP (chỉ có countryCode + cityName) sang code để API theo
+ * IP dùng chung cache với API theo code, giống LocationDirectory bên
+ * WeatherApiService nhưng query thẳng (index locations(trashed, country_code,
+ * city_name)) vì response theo IP đã được cache ở ReactiveSerializedResponseCache
+ */
+@Service
+@RequiredArgsConstructor
+public class ReactiveLocationDirectory {
+	private final WeatherViewRepository weatherViewRepository;
+
+	public Mono<String> resolveCode(Location location) {
+		String countryCode = location.getCountryCode();
+		String cityName = location.getCityName();
+
+		return this.weatherViewRepository.findCodeByCountryCodeAndCityName(countryCode, cityName)
+				.switchIfEmpty(Mono.error(() -> new LocationNotFoundException(countryCode, cityName)));
+	}
+}
@@ -0,0 +1,28 @@
+package com.skyapi.weatherforecast.reactive;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import com.skyapi.weatherforecast.GeolocationProperties;
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.CacheConfig;
+import com.skyapi.weatherforecast.security.RsaKeyProperties;
+
+/*
+ * dùng chung với WeatherApiService: GeolocationService (index IP2Location) và
+ * tầng cache (Caffeine theo app.cache.*, LocationIndexedCache +
+ * CacheInvalidationIndex), app.cache.async-mode=true để @Cacheable dùng đc
+ * trên hàm trả về Mono
+ *
+ * tách khỏi class Main để @WebFluxTest ko nạp cache thật và ko dựng index
+ * IP2Location
+ */
+@Configuration
+@Import({ GeolocationService.class, CacheConfig.class })
+@EnableConfigurationProperties({ RsaKeyProperties.class, GeolocationProperties.class })
+// GeolocationService định kỳ kiểm tra file IP2Location mới
+@EnableScheduling
+public class ReactiveReadConfig {
+}
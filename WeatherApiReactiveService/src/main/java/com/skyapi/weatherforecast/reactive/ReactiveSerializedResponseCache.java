@@ -0,0 +1,153 @@
+package com.skyapi.weatherforecast.reactive;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.Cache.ValueWrapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.codec.Encoder;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.EncoderHttpMessageWriter;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
+
+import reactor.core.publisher.Mono;
+
+/*
+ * bản WebFlux của SerializedResponseCache: cùng cache weatherResponseCache, cùng
+ * SerializedResponse (byte JSON + ETag md5 + Last-Modified) nên entry vẫn được
+ * CacheInvalidationIndex xóa theo location (chỉ khi bật app.cache.cluster, ko
+ * thì chỉ hết hạn theo TTL ngắn trong application.properties)
+ *
+ * đọc bằng Cache.retrieve() (AsyncCache, ko chặn event loop như get() của
+ * synchronous()), loader trả về rỗng (list rỗng -> 204) thì ko lưu
+ */
+@Component
+public class ReactiveSerializedResponseCache {
+	private final ObjectProvider<CacheManager> cacheManagerProvider;
+	private final ServerCodecConfigurer serverCodecConfigurer;
+
+	public ReactiveSerializedResponseCache(ObjectProvider<CacheManager> cacheManagerProvider,
+			ServerCodecConfigurer serverCodecConfigurer) {
+		this.cacheManagerProvider = cacheManagerProvider;
+		this.serverCodecConfigurer = serverCodecConfigurer;
+	}
+
+	/*
+	 * baseUri nằm trong key vì link trong body là link tuyệt đối theo host của
+	 * request, mediaType vì body/Content-Type theo Accept của request
+	 */
+	private record ResponseCacheKey(String representation, String baseUri, String mediaType, Object variant) {
+	}
+
+	// cùng cách chọn Content-Type với WeatherApiService
+	private static MediaType negotiateMediaType(ServerWebExchange exchange) {
+		List<MediaType> acceptedMediaTypes;
+		try {
+			acceptedMediaTypes = exchange.getRequest().getHeaders().getAccept();
+		} catch (InvalidMediaTypeException e) {
+			acceptedMediaTypes = List.of();
+		}
+
+		return SerializedResponseCache.negotiateMediaType(acceptedMediaTypes);
+	}
+
+	public Mono<SerializedResponse> get(String representation, Object variant, ServerWebExchange exchange,
+			Supplier<Mono<SerializedResponse>> loader) {
+		Cache cache = this.getCache();
+		if (cache == null) {
+			return Mono.defer(loader);
+		}
+
+		ResponseCacheKey key = new ResponseCacheKey(representation, getBaseUri(exchange.getRequest()),
+				negotiateMediaType(exchange).toString(), variant);
+
+		return Mono.defer(() -> {
+			CompletableFuture<?> cachedResponse = cache.retrieve(key);
+			if (cachedResponse == null) {
+				return Mono.empty();
+			}
+
+			return Mono.fromFuture(cachedResponse).mapNotNull(ReactiveSerializedResponseCache::unwrap);
+		}).switchIfEmpty(Mono.defer(() -> loader.get().doOnNext(response -> cache.putIfAbsent(key, response))));
+	}
+
+	// cache cho phép null thì retrieve() trả về ValueWrapper thay vì value
+	private static SerializedResponse unwrap(Object cachedValue) {
+		if (cachedValue instanceof ValueWrapper valueWrapper) {
+			return (SerializedResponse) valueWrapper.get();
+		}
+
+		return (SerializedResponse) cachedValue;
+	}
+
+	private Cache getCache() {
+		// @WebFluxTest ko có CacheManager -> luôn serialize, ko cache
+		CacheManager cacheManager = this.cacheManagerProvider.getIfAvailable();
+		return cacheManager == null ? null : cacheManager.getCache(SerializedResponseCache.CACHE_NAME);
+	}
+
+	private static String getBaseUri(ServerHttpRequest request) {
+		return UriComponentsBuilder.fromUri(request.getURI()).replacePath(request.getPath().contextPath().value())
+				.replaceQuery(null).fragment(null).toUriString();
+	}
+
+	/*
+	 * dùng đúng Encoder mà WebFlux dùng cho Content-Type đã thương lượng với Accept
+	 * (cấu hình HAL của spring-hateoas + ObjectMapper bên class Main) nên body giống
+	 * hệt khi trả về object và giống WeatherApiService, lastModified null nếu dữ
+	 * liệu ko lưu thời gian cập nhật
+	 */
+	@SuppressWarnings("unchecked")
+	public SerializedResponse serialize(String locationCode, Object body, Instant lastModified,
+			ServerWebExchange exchange) {
+		ResolvableType bodyType = ResolvableType.forInstance(body);
+		MediaType mediaType = negotiateMediaType(exchange);
+
+		for (HttpMessageWriter<?> writer : this.serverCodecConfigurer.getWriters()) {
+			if (writer instanceof EncoderHttpMessageWriter<?> encoderWriter && writer.canWrite(bodyType, mediaType)) {
+				Encoder<Object> encoder = (Encoder<Object>) encoderWriter.getEncoder();
+				DataBuffer dataBuffer = encoder.encodeValue(body, DefaultDataBufferFactory.sharedInstance, bodyType,
+						mediaType, Collections.emptyMap());
+
+				byte[] bytes = new byte[dataBuffer.readableByteCount()];
+				dataBuffer.read(bytes);
+				DataBufferUtils.release(dataBuffer);
+
+				String eTag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+
+				return new SerializedResponse(locationCode, bytes, mediaType.toString(), eTag, lastModified);
+			}
+		}
+
+		throw new IllegalStateException("No HttpMessageWriter for " + body.getClass().getName());
+	}
+
+	/*
+	 * có ETag/Last-Modified thì WebFlux tự so với If-None-Match/If-Modified-Since
+	 * của request GET và trả về 304 (Not Modified) mà ko gửi body
+	 */
+	public ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse, CacheControl cacheControl) {
+		return SerializedResponseCache.buildResponseEntity(serializedResponse, cacheControl);
+	}
+}
@@ -0,0 +1,44 @@
+package com.skyapi.weatherforecast.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.hateoas.config.EnableHypermediaSupport;
+import org.springframework.hateoas.config.EnableHypermediaSupport.HypermediaType;
+import org.springframework.hateoas.support.WebStack;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/*
+ * tầng đọc non-blocking (WebFlux + R2DBC) cho các API GET realtime/hourly/daily/full,
+ * cùng contract (JSON HAL, link, Cache-Control/ETag/Last-Modified) với
+ * WeatherApiService, các API ghi (PUT, ingest) và location vẫn ở WeatherApiService
+ *
+ * class này nằm ở package reactive nên chỉ scan các class của module này, các
+ * bean dùng lại từ WeatherApiService được import ở ReactiveReadConfig
+ */
+@SpringBootApplication
+/*
+ * spring boot chỉ tự bật HAL cho MVC, với WebFlux phải khai báo để link được
+ * render thành _links giống WeatherApiService
+ */
+@EnableHypermediaSupport(type = HypermediaType.HAL, stacks = WebStack.WEBFLUX)
+public class WeatherApiReactiveServiceApplication {
+
+	// giống ObjectMapper bên WeatherApiServiceApplication để JSON trả về giống hệt
+	@Bean
+	public ObjectMapper objectMapper() {
+		ObjectMapper objectMapper = new ObjectMapper();
+		objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+		objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+
+		return objectMapper;
+	}
+
+	public static void main(String[] args) {
+		SpringApplication.run(WeatherApiReactiveServiceApplication.class, args);
+	}
+
+}
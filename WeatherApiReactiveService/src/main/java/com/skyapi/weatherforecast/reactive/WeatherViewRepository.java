@@ -0,0 +1,104 @@
+package com.skyapi.weatherforecast.reactive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+
+import com.skyapi.weatherforecast.daily.DailyWeatherView;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * cùng các câu SQL mà JPQL projection bên WeatherApiService sinh ra (JOIN
+ * locations, trashed = false), đọc qua R2DBC nên ko giữ thread trong lúc chờ
+ * DB, kết quả map thẳng vào các view record dùng chung
+ */
+@Repository
+@RequiredArgsConstructor
+public class WeatherViewRepository {
+	private static final String LOCATION_COLUMNS = "l.code, l.city_name, l.region_name, l.country_name";
+
+	private final DatabaseClient databaseClient;
+
+	public Mono<RealtimeWeatherView> findRealtimeViewByLocationCode(String locationCode) {
+		return this.databaseClient.sql("SELECT " + LOCATION_COLUMNS
+				+ ", r.temperature, r.humidity, r.precipitation, r.wind_speed, r.status, r.last_updated"
+				+ " FROM realtime_weather r JOIN locations l ON l.code = r.location_code"
+				+ " WHERE l.code = :code AND l.trashed = false").bind("code", locationCode)
+				.map(row -> new RealtimeWeatherView(row.get("code", String.class), row.get("city_name", String.class),
+						row.get("region_name", String.class), row.get("country_name", String.class),
+						row.get("temperature", Integer.class), row.get("humidity", Integer.class),
+						row.get("precipitation", Integer.class), row.get("wind_speed", Integer.class),
+						row.get("status", String.class), toDate(row.get("last_updated", LocalDateTime.class))))
+				.one();
+	}
+
+	// hourOfDay > currentHour giống API servlet, full weather truyền -1 để lấy đủ 24 giờ
+	public Flux<HourlyWeatherView> findHourlyViewsByLocationCodeAndHourOfDay(String locationCode, int currentHour) {
+		return this.databaseClient.sql("SELECT " + LOCATION_COLUMNS
+				+ ", h.hour_of_day, h.temperature, h.precipitation, h.status"
+				+ " FROM weather_hourly h JOIN locations l ON l.code = h.location_code"
+				+ " WHERE l.code = :code AND h.hour_of_day > :currentHour AND l.trashed = false"
+				+ " ORDER BY h.hour_of_day").bind("code", locationCode).bind("currentHour", currentHour)
+				.map(row -> new HourlyWeatherView(row.get("code", String.class), row.get("city_name", String.class),
+						row.get("region_name", String.class), row.get("country_name", String.class),
+						row.get("hour_of_day", Integer.class), row.get("temperature", Integer.class),
+						row.get("precipitation", Integer.class), row.get("status", String.class)))
+				.all();
+	}
+
+	public Flux<DailyWeatherView> findDailyViewsByLocationCode(String locationCode) {
+		return this.databaseClient.sql("SELECT " + LOCATION_COLUMNS
+				+ ", d.day_of_month, d.month, d.min_temp, d.max_temp, d.precipitation, d.status"
+				+ " FROM daily_weather d JOIN locations l ON l.code = d.location_code"
+				+ " WHERE l.code = :code AND l.trashed = false ORDER BY d.month, d.day_of_month")
+				.bind("code", locationCode)
+				.map(row -> new DailyWeatherView(row.get("code", String.class), row.get("city_name", String.class),
+						row.get("region_name", String.class), row.get("country_name", String.class),
+						row.get("day_of_month", Integer.class), row.get("month", Integer.class),
+						row.get("min_temp", Integer.class), row.get("max_temp", Integer.class),
+						row.get("precipitation", Integer.class), row.get("status", String.class)))
+				.all();
+	}
+
+	// tên location cho full weather, ko tồn tại/trashed thì rỗng
+	public Mono<LocationView> findLocationViewByCode(String locationCode) {
+		return this.databaseClient
+				.sql("SELECT " + LOCATION_COLUMNS + " FROM locations l WHERE l.code = :code AND l.trashed = false")
+				.bind("code", locationCode).map(WeatherViewRepository::toLocationView).one();
+	}
+
+	public Mono<Boolean> existsUntrashedByCode(String locationCode) {
+		return this.databaseClient.sql("SELECT 1 FROM locations WHERE code = :code AND trashed = false")
+				.bind("code", locationCode).map(row -> Boolean.TRUE).first().defaultIfEmpty(Boolean.FALSE);
+	}
+
+	// trùng (countryCode, cityName) thì lấy code nhỏ nhất, giống LocationDirectory giữ location đầu tiên
+	public Mono<String> findCodeByCountryCodeAndCityName(String countryCode, String cityName) {
+		return this.databaseClient.sql("SELECT code FROM locations"
+				+ " WHERE country_code = :countryCode AND city_name = :cityName AND trashed = false"
+				+ " ORDER BY code LIMIT 1").bind("countryCode", countryCode).bind("cityName", cityName)
+				.map(row -> row.get("code", String.class)).one();
+	}
+
+	private static LocationView toLocationView(Readable row) {
+		return new LocationView(row.get("code", String.class), row.get("city_name", String.class),
+				row.get("region_name", String.class), row.get("country_name", String.class));
+	}
+
+	/*
+	 * DATETIME ko có múi giờ, đổi theo múi giờ của JVM giống Hibernate khi đọc
+	 * vào java.util.Date
+	 */
+	private static Date toDate(LocalDateTime localDateTime) {
+		return localDateTime == null ? null : Date.from(localDateTime.atZone(ZoneId.systemDefault()).toInstant());
+	}
+}
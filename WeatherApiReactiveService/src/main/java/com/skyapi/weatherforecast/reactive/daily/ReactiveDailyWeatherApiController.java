@@ -0,0 +1,132 @@
+package com.skyapi.weatherforecast.reactive.daily;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.daily.DailyWeatherListDTO;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.daily.DailyWeatherView;
+import com.skyapi.weatherforecast.reactive.ReactiveCommonUtility;
+import com.skyapi.weatherforecast.reactive.ReactiveLocationDirectory;
+import com.skyapi.weatherforecast.reactive.ReactiveSerializedResponseCache;
+import com.skyapi.weatherforecast.reactive.full.ReactiveFullWeatherApiController;
+import com.skyapi.weatherforecast.reactive.hourly.ReactiveHourlyWeatherApiController;
+import com.skyapi.weatherforecast.reactive.realtime.ReactiveRealtimeWeatherApiController;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// cùng contract GET với DailyWeatherApiController
+@RestController
+@RequestMapping("/v1/daily")
+@RequiredArgsConstructor
+public class ReactiveDailyWeatherApiController {
+	private final GeolocationService geolocationService;
+	private final ReactiveLocationDirectory locationDirectory;
+	private final ReactiveDailyWeatherService dailyWeatherService;
+	private final ReactiveSerializedResponseCache serializedResponseCache;
+
+	@GetMapping
+	public Mono<ResponseEntity<byte[]>> listDailyForecastByIPAddress(ServerWebExchange exchange) {
+		String ipAddress = ReactiveCommonUtility.getIpAddress(exchange.getRequest());
+		Location location = this.geolocationService.getLocationByIp2Location(ipAddress);
+
+		return this.serializedResponseCache.get("daily-by-ip",
+				Arrays.asList(location.getCountryCode(), location.getCityName()), exchange,
+				() -> this.locationDirectory.resolveCode(location)
+						.flatMap(this.dailyWeatherService::getDailyWeatherByLocationCode)
+						.filter(dailyWeathers -> !dailyWeathers.isEmpty())
+						.flatMap(dailyWeathers -> this
+								.addLinksByIp(this.convertListDailyWeatherViewToDTO(dailyWeathers), exchange)
+								.map(entityModel -> this.serialize(dailyWeathers, entityModel, exchange))))
+				.map(this::toResponseEntity).defaultIfEmpty(ResponseEntity.noContent().build());
+	}
+
+	@GetMapping("/{locationCode}")
+	public Mono<ResponseEntity<byte[]>> getDailyForecastByLocationCode(
+			@PathVariable("locationCode") String locationCode, ServerWebExchange exchange) {
+		return this.serializedResponseCache.get("daily-by-code", locationCode, exchange,
+				() -> this.dailyWeatherService.getDailyWeatherByLocationCode(locationCode)
+						.filter(dailyWeathers -> !dailyWeathers.isEmpty())
+						.flatMap(dailyWeathers -> this
+								.addLinksByLocation(locationCode, this.convertListDailyWeatherViewToDTO(dailyWeathers),
+										exchange)
+								.map(entityModel -> this.serialize(dailyWeathers, entityModel, exchange))))
+				.map(this::toResponseEntity).defaultIfEmpty(ResponseEntity.noContent().build());
+	}
+
+	/*
+	 * list rỗng đã bị filter -> 204, daily ko lưu thời gian cập nhật nên ko có
+	 * Last-Modified, client dùng ETag
+	 */
+	private SerializedResponse serialize(List<DailyWeatherView> dailyWeathers,
+			EntityModel<DailyWeatherListDTO> entityModel, ServerWebExchange exchange) {
+		String locationCode = dailyWeathers.get(0).locationCode();
+
+		return this.serializedResponseCache.serialize(locationCode, entityModel, null, exchange);
+	}
+
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(6, TimeUnit.HOURS).cachePublic());
+	}
+
+	// các view cùng 1 location nên lấy tên location từ phần tử đầu
+	private DailyWeatherListDTO convertListDailyWeatherViewToDTO(List<DailyWeatherView> dailyWeathers) {
+		DailyWeatherListDTO dailyWeatherListDTO = new DailyWeatherListDTO();
+		dailyWeatherListDTO.setLocation(dailyWeathers.get(0).location());
+
+		for (DailyWeatherView dailyWeather : dailyWeathers) {
+			dailyWeatherListDTO.getDailyForecast().add(DailyWeatherMapper.toDTO(dailyWeather));
+		}
+
+		return dailyWeatherListDTO;
+	}
+
+	// DailyWeatherListDTO ko extends RepresentationModel nên bọc vào EntityModel giống bản MVC
+	private Mono<EntityModel<DailyWeatherListDTO>> addLinksByIp(DailyWeatherListDTO dailyWeatherListDTO,
+			ServerWebExchange exchange) {
+		return Flux.concat(
+				linkTo(methodOn(ReactiveDailyWeatherApiController.class).listDailyForecastByIPAddress(null),
+						exchange).withSelfRel().toMono(),
+				linkTo(methodOn(ReactiveHourlyWeatherApiController.class).listHourlyForecastByIPAddress(null),
+						exchange).withRel("hourly_forecast").toMono(),
+				linkTo(methodOn(ReactiveRealtimeWeatherApiController.class).getRealtimeByIPAddress(null), exchange)
+						.withRel("realtime_weather").toMono(),
+				linkTo(methodOn(ReactiveFullWeatherApiController.class).getFullWeatherByIPAddress(null), exchange)
+						.withRel("full_forecast").toMono())
+				.collectList().map(links -> EntityModel.of(dailyWeatherListDTO, links));
+	}
+
+	private Mono<EntityModel<DailyWeatherListDTO>> addLinksByLocation(String locationCode,
+			DailyWeatherListDTO dailyWeatherListDTO, ServerWebExchange exchange) {
+		return Flux.concat(
+				linkTo(methodOn(ReactiveDailyWeatherApiController.class).getDailyForecastByLocationCode(locationCode,
+						null), exchange).withSelfRel().toMono(),
+				linkTo(methodOn(ReactiveHourlyWeatherApiController.class)
+						.listHourlyForecastByLocationCode(locationCode, null), exchange).withRel("hourly_forecast")
+						.toMono(),
+				linkTo(methodOn(ReactiveRealtimeWeatherApiController.class).getRealtimeByLocationCode(locationCode,
+						null), exchange).withRel("realtime_weather").toMono(),
+				linkTo(methodOn(ReactiveFullWeatherApiController.class).getFullWeatherByLocationCode(locationCode,
+						null), exchange).withRel("full_forecast").toMono())
+				.collectList().map(links -> EntityModel.of(dailyWeatherListDTO, links));
+	}
+}
@@ -0,0 +1,34 @@
+package com.skyapi.weatherforecast.reactive.daily;
+
+import java.util.List;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import com.skyapi.weatherforecast.daily.DailyWeatherView;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.reactive.WeatherViewRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveDailyWeatherService {
+	private final WeatherViewRepository weatherViewRepository;
+
+	// list rỗng thì kiểm tra location còn tồn tại ko: có -> 204, ko -> 404
+	@Cacheable(cacheNames = "dailyWeatherCacheByLocationCode", key = "#locationCode")
+	public Mono<List<DailyWeatherView>> getDailyWeatherByLocationCode(String locationCode) {
+		return this.weatherViewRepository.findDailyViewsByLocationCode(locationCode).collectList()
+				.flatMap(dailyWeathers -> {
+					if (!dailyWeathers.isEmpty()) {
+						return Mono.just(dailyWeathers);
+					}
+
+					return this.weatherViewRepository.existsUntrashedByCode(locationCode)
+							.flatMap(exists -> exists ? Mono.just(dailyWeathers)
+									: Mono.error(new LocationNotFoundException(locationCode)));
+				});
+	}
+}
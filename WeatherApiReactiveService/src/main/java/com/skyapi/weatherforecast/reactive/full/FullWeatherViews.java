@@ -0,0 +1,13 @@
+package com.skyapi.weatherforecast.reactive.full;
+
+import java.util.List;
+
+import com.skyapi.weatherforecast.daily.DailyWeatherView;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.reactive.LocationView;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+// realtimeWeather null khi location chưa có dữ liệu realtime
+public record FullWeatherViews(LocationView location, RealtimeWeatherView realtimeWeather,
+		List<HourlyWeatherView> hourlyWeathers, List<DailyWeatherView> dailyWeathers) {
+}
@@ -0,0 +1,104 @@
+package com.skyapi.weatherforecast.reactive.full;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.full.FullWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.reactive.ReactiveCommonUtility;
+import com.skyapi.weatherforecast.reactive.ReactiveLocationDirectory;
+import com.skyapi.weatherforecast.reactive.ReactiveSerializedResponseCache;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+// cùng contract GET với FullWeatherApiController
+@RestController
+@RequestMapping("/v1/full")
+@RequiredArgsConstructor
+public class ReactiveFullWeatherApiController {
+	private final GeolocationService geolocationService;
+	private final ReactiveLocationDirectory locationDirectory;
+	private final ReactiveFullWeatherService fullWeatherService;
+	private final ReactiveSerializedResponseCache serializedResponseCache;
+
+	@GetMapping
+	public Mono<ResponseEntity<byte[]>> getFullWeatherByIPAddress(ServerWebExchange exchange) {
+		String ipAddress = ReactiveCommonUtility.getIpAddress(exchange.getRequest());
+		Location locationFromIp = this.geolocationService.getLocationByIp2Location(ipAddress);
+
+		return this.serializedResponseCache.get("full-by-ip",
+				Arrays.asList(locationFromIp.getCountryCode(), locationFromIp.getCityName()), exchange,
+				() -> this.locationDirectory.resolveCode(locationFromIp)
+						.flatMap(this.fullWeatherService::getFullWeatherByCode)
+						.flatMap(fullWeather -> linkTo(
+								methodOn(ReactiveFullWeatherApiController.class).getFullWeatherByIPAddress(null),
+								exchange).withSelfRel().toMono()
+								.map(link -> this.serialize(fullWeather,
+										EntityModel.of(this.convertViewsToFullWeatherDTO(fullWeather), link), exchange))))
+				.map(this::toResponseEntity);
+	}
+
+	@GetMapping("/{locationCode}")
+	public Mono<ResponseEntity<byte[]>> getFullWeatherByLocationCode(@PathVariable("locationCode") String locationCode,
+			ServerWebExchange exchange) {
+		return this.serializedResponseCache.get("full-by-code", locationCode, exchange,
+				() -> this.fullWeatherService.getFullWeatherByCode(locationCode)
+						.flatMap(fullWeather -> linkTo(methodOn(ReactiveFullWeatherApiController.class)
+								.getFullWeatherByLocationCode(locationCode, null), exchange).withSelfRel().toMono()
+								.map(link -> this.serialize(fullWeather,
+										EntityModel.of(this.convertViewsToFullWeatherDTO(fullWeather), link), exchange))))
+				.map(this::toResponseEntity);
+	}
+
+	/*
+	 * hourly/daily ko lưu thời gian cập nhật nên ko có Last-Modified (chỉ ETag),
+	 * entry bị xóa mỗi khi location/weather đổi
+	 */
+	private SerializedResponse serialize(FullWeatherViews fullWeather, EntityModel<FullWeatherDTO> entityModel,
+			ServerWebExchange exchange) {
+		return this.serializedResponseCache.serialize(fullWeather.location().locationCode(), entityModel, null,
+				exchange);
+	}
+
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic());
+	}
+
+	// giống FullWeatherMapper.toDTO(Location) nhưng từ các view
+	private FullWeatherDTO convertViewsToFullWeatherDTO(FullWeatherViews fullWeather) {
+		FullWeatherDTO fullWeatherDTO = new FullWeatherDTO();
+		fullWeatherDTO.setLocation(fullWeather.location().location());
+
+		// realtimeWeather null thì giữ object rỗng mặc định của DTO (bị ẩn khi serialize)
+		if (fullWeather.realtimeWeather() != null) {
+			fullWeatherDTO.setRealtimeWeather(RealtimeWeatherMapper.toDTO(fullWeather.realtimeWeather()));
+		}
+		fullWeather.hourlyWeathers()
+				.forEach(hourlyWeather -> fullWeatherDTO.getListHourlyWeather().add(HourlyWeatherMapper.toDTO(hourlyWeather)));
+		fullWeather.dailyWeathers()
+				.forEach(dailyWeather -> fullWeatherDTO.getListDailyWeathers().add(DailyWeatherMapper.toDTO(dailyWeather)));
+
+		// theo doc thì ko show field location trong realtime_weather
+		fullWeatherDTO.getRealtimeWeather().setLocation(null);
+		return fullWeatherDTO;
+	}
+}
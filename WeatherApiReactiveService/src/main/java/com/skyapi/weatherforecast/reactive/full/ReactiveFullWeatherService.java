@@ -0,0 +1,37 @@
+package com.skyapi.weatherforecast.reactive.full;
+
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.reactive.WeatherViewRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveFullWeatherService {
+	private final WeatherViewRepository weatherViewRepository;
+
+	/*
+	 * 4 query (location, realtime, hourly, daily) chạy song song trên các
+	 * connection của pool R2DBC thay vì JOIN FETCH, response full đã được cache ở
+	 * ReactiveSerializedResponseCache nên ko cache thêm ở đây (giống FullWeatherService)
+	 */
+	public Mono<FullWeatherViews> getFullWeatherByCode(String locationCode) {
+		Mono<Optional<RealtimeWeatherView>> realtimeWeather = this.weatherViewRepository
+				.findRealtimeViewByLocationCode(locationCode).map(Optional::of).defaultIfEmpty(Optional.empty());
+
+		return Mono.zip(
+				this.weatherViewRepository.findLocationViewByCode(locationCode)
+						.switchIfEmpty(Mono.error(() -> new LocationNotFoundException(locationCode))),
+				realtimeWeather,
+				this.weatherViewRepository.findHourlyViewsByLocationCodeAndHourOfDay(locationCode, -1).collectList(),
+				this.weatherViewRepository.findDailyViewsByLocationCode(locationCode).collectList())
+				.map(tuple -> new FullWeatherViews(tuple.getT1(), tuple.getT2().orElse(null), tuple.getT3(),
+						tuple.getT4()));
+	}
+}
@@ -0,0 +1,150 @@
+package com.skyapi.weatherforecast.reactive.hourly;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherListDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.reactive.ReactiveCommonUtility;
+import com.skyapi.weatherforecast.reactive.ReactiveLocationDirectory;
+import com.skyapi.weatherforecast.reactive.ReactiveSerializedResponseCache;
+import com.skyapi.weatherforecast.reactive.daily.ReactiveDailyWeatherApiController;
+import com.skyapi.weatherforecast.reactive.full.ReactiveFullWeatherApiController;
+import com.skyapi.weatherforecast.reactive.realtime.ReactiveRealtimeWeatherApiController;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// cùng contract GET với HourlyWeatherApiController (header X-Current-Hour, 204 khi hết giờ trong ngày)
+@RestController
+@RequestMapping("/v1/hourly")
+@RequiredArgsConstructor
+public class ReactiveHourlyWeatherApiController {
+	private final static Logger LOGGER = LoggerFactory.getLogger(ReactiveHourlyWeatherApiController.class);
+
+	private final GeolocationService geolocationService;
+	private final ReactiveLocationDirectory locationDirectory;
+	private final ReactiveHourlyWeatherService hourlyWeatherService;
+	private final ReactiveSerializedResponseCache serializedResponseCache;
+
+	@GetMapping
+	public Mono<ResponseEntity<byte[]>> listHourlyForecastByIPAddress(ServerWebExchange exchange) {
+		try {
+			String ipAddress = ReactiveCommonUtility.getIpAddress(exchange.getRequest());
+			Location location = this.geolocationService.getLocationByIp2Location(ipAddress);
+
+			int currentHour = getCurrentHour(exchange);
+
+			return this.serializedResponseCache.get("hourly-by-ip",
+					Arrays.asList(location.getCountryCode(), location.getCityName(), currentHour), exchange,
+					() -> this.locationDirectory.resolveCode(location)
+							.flatMap(locationCode -> this.hourlyWeatherService
+									.getHourlyWeatherByLocationCodeAndCurrentHour(locationCode, currentHour))
+							.filter(hourlyWeathers -> !hourlyWeathers.isEmpty())
+							.flatMap(hourlyWeathers -> this
+									.addLinksByIp(this.convertListHourlyWeatherViewToDTO(hourlyWeathers), exchange)
+									.map(hourlyWeatherListDTO -> this.serialize(hourlyWeathers, hourlyWeatherListDTO, exchange))))
+					.map(this::toResponseEntity).defaultIfEmpty(ResponseEntity.noContent().build());
+		} catch (NumberFormatException e) {
+			LOGGER.error(e.getMessage(), e);
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+	}
+
+	@GetMapping("/{locationCode}")
+	public Mono<ResponseEntity<byte[]>> listHourlyForecastByLocationCode(
+			@PathVariable("locationCode") String locationCode, ServerWebExchange exchange) {
+		try {
+			int currentHour = getCurrentHour(exchange);
+
+			return this.serializedResponseCache.get("hourly-by-code", List.of(locationCode, currentHour), exchange,
+					() -> this.hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour(locationCode, currentHour)
+							.filter(hourlyWeathers -> !hourlyWeathers.isEmpty())
+							.flatMap(hourlyWeathers -> this
+									.addLinksByLocation(locationCode,
+											this.convertListHourlyWeatherViewToDTO(hourlyWeathers), exchange)
+									.map(hourlyWeatherListDTO -> this.serialize(hourlyWeathers, hourlyWeatherListDTO, exchange))))
+					.map(this::toResponseEntity).defaultIfEmpty(ResponseEntity.noContent().build());
+		} catch (NumberFormatException e) {
+			LOGGER.error(e.getMessage(), e);
+			return Mono.just(ResponseEntity.badRequest().build());
+		}
+	}
+
+	// X-Current-Hour không phải header mặc định mà tự định nghĩa, thiếu/sai -> NumberFormatException
+	private static int getCurrentHour(ServerWebExchange exchange) {
+		return Integer.parseInt(exchange.getRequest().getHeaders().getFirst("X-Current-Hour"));
+	}
+
+	// hourly ko lưu thời gian cập nhật nên ko có Last-Modified, client dùng ETag
+	private SerializedResponse serialize(List<HourlyWeatherView> hourlyWeathers,
+			HourlyWeatherListDTO hourlyWeatherListDTO, ServerWebExchange exchange) {
+		String locationCode = hourlyWeathers.get(0).locationCode();
+
+		return this.serializedResponseCache.serialize(locationCode, hourlyWeatherListDTO, null, exchange);
+	}
+
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(60, TimeUnit.MINUTES).cachePublic());
+	}
+
+	// các view cùng 1 location nên lấy tên location từ phần tử đầu
+	private HourlyWeatherListDTO convertListHourlyWeatherViewToDTO(List<HourlyWeatherView> hourlyWeathers) {
+		HourlyWeatherListDTO hourlyWeatherListDTO = new HourlyWeatherListDTO();
+		hourlyWeatherListDTO.setLocation(hourlyWeathers.get(0).location());
+
+		for (HourlyWeatherView hourlyWeather : hourlyWeathers) {
+			hourlyWeatherListDTO.addHourlyWeatherDTO(HourlyWeatherMapper.toDTO(hourlyWeather));
+		}
+
+		return hourlyWeatherListDTO;
+	}
+
+	private Mono<HourlyWeatherListDTO> addLinksByIp(HourlyWeatherListDTO hourlyWeatherListDTO,
+			ServerWebExchange exchange) {
+		return Flux.concat(
+				linkTo(methodOn(ReactiveHourlyWeatherApiController.class).listHourlyForecastByIPAddress(null),
+						exchange).withSelfRel().toMono(),
+				linkTo(methodOn(ReactiveRealtimeWeatherApiController.class).getRealtimeByIPAddress(null), exchange)
+						.withRel("realtime_weather").toMono(),
+				linkTo(methodOn(ReactiveDailyWeatherApiController.class).listDailyForecastByIPAddress(null),
+						exchange).withRel("daily_forecast").toMono(),
+				linkTo(methodOn(ReactiveFullWeatherApiController.class).getFullWeatherByIPAddress(null), exchange)
+						.withRel("full_forecast").toMono())
+				.collectList().map(hourlyWeatherListDTO::add);
+	}
+
+	private Mono<HourlyWeatherListDTO> addLinksByLocation(String locationCode,
+			HourlyWeatherListDTO hourlyWeatherListDTO, ServerWebExchange exchange) {
+		return Flux.concat(
+				linkTo(methodOn(ReactiveHourlyWeatherApiController.class)
+						.listHourlyForecastByLocationCode(locationCode, null), exchange).withSelfRel().toMono(),
+				linkTo(methodOn(ReactiveRealtimeWeatherApiController.class).getRealtimeByLocationCode(locationCode,
+						null), exchange).withRel("realtime_weather").toMono(),
+				linkTo(methodOn(ReactiveDailyWeatherApiController.class).getDailyForecastByLocationCode(locationCode,
+						null), exchange).withRel("daily_forecast").toMono(),
+				linkTo(methodOn(ReactiveFullWeatherApiController.class).getFullWeatherByLocationCode(locationCode,
+						null), exchange).withRel("full_forecast").toMono())
+				.collectList().map(hourlyWeatherListDTO::add);
+	}
+}
@@ -0,0 +1,39 @@
+package com.skyapi.weatherforecast.reactive.hourly;
+
+import java.util.List;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.reactive.WeatherViewRepository;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveHourlyWeatherService {
+	private final WeatherViewRepository weatherViewRepository;
+
+	/*
+	 * giống HourlyWeatherService: chỉ khi list rỗng ms query thêm để phân biệt
+	 * location ko tồn tại (404) với ko có dự báo (204)
+	 */
+	@Cacheable(cacheNames = "hourlyWeatherCacheByLocationCodeAndCurrentHour", key = "{#locationCode, #currentHour}")
+	public Mono<List<HourlyWeatherView>> getHourlyWeatherByLocationCodeAndCurrentHour(String locationCode,
+			int currentHour) {
+		return this.weatherViewRepository.findHourlyViewsByLocationCodeAndHourOfDay(locationCode, currentHour)
+				.collectList().flatMap(hourlyWeathers -> {
+					if (!hourlyWeathers.isEmpty()) {
+						return Mono.just(hourlyWeathers);
+					}
+
+					return this.weatherViewRepository.existsUntrashedByCode(locationCode)
+							.flatMap(exists -> exists ? Mono.just(hourlyWeathers)
+									: Mono.error(new LocationNotFoundException(
+											"No location found with the given location code.")));
+				});
+	}
+}
@@ -0,0 +1,111 @@
+package com.skyapi.weatherforecast.reactive.realtime;
+
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.reactive.WebFluxLinkBuilder.methodOn;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.reactive.ReactiveCommonUtility;
+import com.skyapi.weatherforecast.reactive.ReactiveLocationDirectory;
+import com.skyapi.weatherforecast.reactive.ReactiveSerializedResponseCache;
+import com.skyapi.weatherforecast.reactive.daily.ReactiveDailyWeatherApiController;
+import com.skyapi.weatherforecast.reactive.full.ReactiveFullWeatherApiController;
+import com.skyapi.weatherforecast.reactive.hourly.ReactiveHourlyWeatherApiController;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherDTO;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherMapper;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// cùng contract GET với RealtimeWeatherApiController, PUT vẫn gọi WeatherApiService
+@RestController
+@RequestMapping("/v1/realtime")
+@RequiredArgsConstructor
+public class ReactiveRealtimeWeatherApiController {
+	private final GeolocationService geolocationService;
+	private final ReactiveLocationDirectory locationDirectory;
+	private final ReactiveRealtimeWeatherService realtimeWeatherService;
+	private final ReactiveSerializedResponseCache serializedResponseCache;
+
+	@GetMapping
+	public Mono<ResponseEntity<byte[]>> getRealtimeByIPAddress(ServerWebExchange exchange) {
+		String ipAddress = ReactiveCommonUtility.getIpAddress(exchange.getRequest());
+		Location location = this.geolocationService.getLocationByIp2Location(ipAddress);
+
+		return this.serializedResponseCache.get("realtime-by-ip",
+				Arrays.asList(location.getCountryCode(), location.getCityName()), exchange,
+				() -> this.locationDirectory.resolveCode(location)
+						.flatMap(this.realtimeWeatherService::getRealtimeWeatherByLocationCode)
+						.flatMap(realtimeWeather -> this
+								.addLinksByIp(RealtimeWeatherMapper.toDTO(realtimeWeather), exchange)
+								.map(realtimeWeatherDTO -> this.serialize(realtimeWeather, realtimeWeatherDTO, exchange))))
+				.map(this::toResponseEntity);
+	}
+
+	@GetMapping("/{locationCode}")
+	public Mono<ResponseEntity<byte[]>> getRealtimeByLocationCode(@PathVariable("locationCode") String locationCode,
+			ServerWebExchange exchange) {
+		return this.serializedResponseCache.get("realtime-by-code", locationCode, exchange,
+				() -> this.realtimeWeatherService.getRealtimeWeatherByLocationCode(locationCode)
+						.flatMap(realtimeWeather -> this
+								.addLinksByLocation(locationCode, RealtimeWeatherMapper.toDTO(realtimeWeather),
+										exchange)
+								.map(realtimeWeatherDTO -> this.serialize(realtimeWeather, realtimeWeatherDTO, exchange))))
+				.map(this::toResponseEntity);
+	}
+
+	// Last-Modified của response là thời điểm cập nhật realtimeWeather
+	private SerializedResponse serialize(RealtimeWeatherView realtimeWeather, RealtimeWeatherDTO realtimeWeatherDTO,
+			ServerWebExchange exchange) {
+		return this.serializedResponseCache.serialize(realtimeWeather.locationCode(), realtimeWeatherDTO,
+				realtimeWeatherDTO.getLastUpdated().toInstant(), exchange);
+	}
+
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic());
+	}
+
+	// link dựng theo host của request giống WebMvcLinkBuilder, mỗi link là 1 Mono
+	private Mono<RealtimeWeatherDTO> addLinksByIp(RealtimeWeatherDTO realtimeWeatherDTO, ServerWebExchange exchange) {
+		return Flux.concat(
+				linkTo(methodOn(ReactiveRealtimeWeatherApiController.class).getRealtimeByIPAddress(null), exchange)
+						.withSelfRel().toMono(),
+				linkTo(methodOn(ReactiveHourlyWeatherApiController.class).listHourlyForecastByIPAddress(null),
+						exchange).withRel("hourly_forecast").toMono(),
+				linkTo(methodOn(ReactiveDailyWeatherApiController.class).listDailyForecastByIPAddress(null),
+						exchange).withRel("daily_forecast").toMono(),
+				linkTo(methodOn(ReactiveFullWeatherApiController.class).getFullWeatherByIPAddress(null), exchange)
+						.withRel("full_forecast").toMono())
+				.collectList().map(realtimeWeatherDTO::add);
+	}
+
+	private Mono<RealtimeWeatherDTO> addLinksByLocation(String locationCode, RealtimeWeatherDTO realtimeWeatherDTO,
+			ServerWebExchange exchange) {
+		return Flux.concat(
+				linkTo(methodOn(ReactiveRealtimeWeatherApiController.class).getRealtimeByLocationCode(locationCode,
+						null), exchange).withSelfRel().toMono(),
+				linkTo(methodOn(ReactiveHourlyWeatherApiController.class)
+						.listHourlyForecastByLocationCode(locationCode, null), exchange).withRel("hourly_forecast")
+						.toMono(),
+				linkTo(methodOn(ReactiveDailyWeatherApiController.class).getDailyForecastByLocationCode(locationCode,
+						null), exchange).withRel("daily_forecast").toMono(),
+				linkTo(methodOn(ReactiveFullWeatherApiController.class).getFullWeatherByLocationCode(locationCode,
+						null), exchange).withRel("full_forecast").toMono())
+				.collectList().map(realtimeWeatherDTO::add);
+	}
+}
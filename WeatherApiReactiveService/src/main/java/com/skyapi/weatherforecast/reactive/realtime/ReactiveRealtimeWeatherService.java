@@ -0,0 +1,27 @@
+package com.skyapi.weatherforecast.reactive.realtime;
+
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.reactive.WeatherViewRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+import lombok.RequiredArgsConstructor;
+import reactor.core.publisher.Mono;
+
+@Service
+@RequiredArgsConstructor
+public class ReactiveRealtimeWeatherService {
+	private final WeatherViewRepository weatherViewRepository;
+
+	/*
+	 * cùng cache name + key với RealtimeWeatherService, @Cacheable trên hàm trả về
+	 * Mono lưu giá trị Mono phát ra (ko lưu lỗi) qua Cache.retrieve()
+	 */
+	@Cacheable(cacheNames = "realtimeWeatherCacheByCode", key = "#locationCode")
+	public Mono<RealtimeWeatherView> getRealtimeWeatherByLocationCode(String locationCode) {
+		return this.weatherViewRepository.findRealtimeViewByLocationCode(locationCode)
+				.switchIfEmpty(Mono.error(() -> new LocationNotFoundException(locationCode)));
+	}
+}
@@ -0,0 +1,20 @@
+package com.skyapi.weatherforecast.reactive.security;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+@Configuration
+@Profile("test")
+@EnableWebFluxSecurity
+public class ReactiveNoSecurityConfig {
+	@Bean
+	public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http) {
+		http.authorizeExchange(exchange -> exchange.anyExchange().permitAll()).csrf(csrf -> csrf.disable());
+
+		return http.build();
+	}
+}
@@ -0,0 +1,55 @@
+package com.skyapi.weatherforecast.reactive.security;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.Customizer;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.oauth2.jwt.NimbusReactiveJwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+
+import com.skyapi.weatherforecast.security.RsaKeyProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * token do authorization server của WeatherApiService cấp (ký bằng private key
+ * RSA), ở đây chỉ kiểm tra chữ ký bằng public key trong rsa.public-key, quyền
+ * GET giống ResourceServerConfig: SYSTEM, UPDATER, READER
+ */
+@Configuration
+@Profile("production")
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class ReactiveResourceServerConfig {
+	private static final String REALTIME_WEATHER_ENDPOINT_PATTERN = "/v1/realtime/**";
+	private static final String HOURLY_WEATHER_ENDPOINT_PATTERN = "/v1/hourly/**";
+	private static final String DAILY_WEATHER_ENDPOINT_PATTERN = "/v1/daily/**";
+	private static final String FULL_WEATHER_ENDPOINT_PATTERN = "/v1/full/**";
+
+	private static final String SCOPE_READER = "SCOPE_READER";
+	private static final String SCOPE_UPDATER = "SCOPE_UPDATER";
+	private static final String SCOPE_SYSTEM = "SCOPE_SYSTEM";
+
+	private final RsaKeyProperties rsaKeyProperties;
+
+	@Bean
+	public SecurityWebFilterChain securityWebFilterChainOAuth2ResourceServer(ServerHttpSecurity http) {
+		http.csrf(csrf -> csrf.disable()).oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
+				.authorizeExchange(exchange -> exchange.pathMatchers("/").permitAll()
+						.pathMatchers(HttpMethod.GET, REALTIME_WEATHER_ENDPOINT_PATTERN, HOURLY_WEATHER_ENDPOINT_PATTERN,
+								DAILY_WEATHER_ENDPOINT_PATTERN, FULL_WEATHER_ENDPOINT_PATTERN)
+						.hasAnyAuthority(SCOPE_SYSTEM, SCOPE_UPDATER, SCOPE_READER)
+						.anyExchange().authenticated());
+
+		return http.build();
+	}
+
+	@Bean
+	public ReactiveJwtDecoder jwtDecoder() {
+		return NimbusReactiveJwtDecoder.withPublicKey(this.rsaKeyProperties.getPublicKey()).build();
+	}
+}
@@ -0,0 +1,185 @@
+package com.skyapi.weatherforecast.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.daily.DailyWeatherView;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.reactive.daily.ReactiveDailyWeatherService;
+import com.skyapi.weatherforecast.reactive.full.ReactiveFullWeatherService;
+import com.skyapi.weatherforecast.reactive.hourly.ReactiveHourlyWeatherService;
+import com.skyapi.weatherforecast.reactive.realtime.ReactiveRealtimeWeatherService;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/*
+ * SQL của WeatherViewRepository phải trả về đúng như các JPQL projection bên
+ * WeatherApiService (WeatherViewQueryTests), chạy trên H2 (chế độ MySQL) qua
+ * R2DBC, schema giống db/migration/V1
+ */
+public class WeatherViewRepositoryTests {
+	private static ConnectionFactory connectionFactory;
+	// giữ 1 connection để DB nhúng ko bị xóa giữa các test
+	private static Connection keepAliveConnection;
+
+	private DatabaseClient databaseClient;
+	private WeatherViewRepository weatherViewRepository;
+
+	@BeforeAll
+	public static void createDatabase() {
+		connectionFactory = ConnectionFactories
+				.get("r2dbc:h2:mem:///reactive;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH");
+		keepAliveConnection = Mono.from(connectionFactory.create()).block();
+
+		DatabaseClient databaseClient = DatabaseClient.create(connectionFactory);
+		for (String statement : List.of(
+				"CREATE TABLE locations (code VARCHAR(12) NOT NULL PRIMARY KEY, city_name VARCHAR(128) NOT NULL,"
+						+ " region_name VARCHAR(128) NOT NULL, country_name VARCHAR(64) NOT NULL,"
+						+ " country_code VARCHAR(2) NOT NULL, enabled BIT NOT NULL, trashed BIT NOT NULL)",
+				"CREATE TABLE realtime_weather (location_code VARCHAR(12) NOT NULL PRIMARY KEY,"
+						+ " temperature INTEGER NOT NULL, humidity INTEGER NOT NULL, precipitation INTEGER NOT NULL,"
+						+ " wind_speed INTEGER NOT NULL, status VARCHAR(50), last_updated DATETIME(6))",
+				"CREATE TABLE weather_hourly (hour_of_day INTEGER NOT NULL, location_code VARCHAR(12) NOT NULL,"
+						+ " temperature INTEGER, precipitation INTEGER, status VARCHAR(50),"
+						+ " PRIMARY KEY (hour_of_day, location_code))",
+				"CREATE TABLE daily_weather (day_of_month INTEGER NOT NULL, month INTEGER NOT NULL,"
+						+ " location_code VARCHAR(12) NOT NULL, min_temp INTEGER NOT NULL, max_temp INTEGER NOT NULL,"
+						+ " precipitation INTEGER NOT NULL, status VARCHAR(50),"
+						+ " PRIMARY KEY (day_of_month, month, location_code))")) {
+			databaseClient.sql(statement).then().block();
+		}
+	}
+
+	@AfterAll
+	public static void closeDatabase() {
+		Mono.from(keepAliveConnection.close()).block();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		this.databaseClient = DatabaseClient.create(connectionFactory);
+		this.weatherViewRepository = new WeatherViewRepository(this.databaseClient);
+
+		for (String table : List.of("realtime_weather", "weather_hourly", "daily_weather", "locations")) {
+			this.execute("DELETE FROM " + table);
+		}
+
+		// location ko có dự báo nào, và location đã bị xóa (trashed)
+		this.execute("INSERT INTO locations VALUES ('HN_VN', 'Hanoi', 'Ha Noi', 'Viet Nam', 'VN', true, false),"
+				+ " ('DN_VN', 'Da Nang', 'Da Nang', 'Viet Nam', 'VN', true, false),"
+				+ " ('HUE_VN', 'Hue', 'Thua Thien Hue', 'Viet Nam', 'VN', true, true)");
+		this.execute("INSERT INTO realtime_weather VALUES ('HN_VN', 25, 80, 40, 12, 'Cloudy', CURRENT_TIMESTAMP),"
+				+ " ('HUE_VN', 30, 70, 10, 5, 'Sunny', CURRENT_TIMESTAMP)");
+		for (int hour = 0; hour < 24; hour++) {
+			this.execute("INSERT INTO weather_hourly VALUES (" + hour + ", 'HN_VN', " + (20 + hour % 5) + ", " + hour
+					+ ", 'Sunny')");
+		}
+		for (int day = 7; day >= 1; day--) {
+			this.execute("INSERT INTO daily_weather VALUES (" + day + ", 7, 'HN_VN', 22, 30, 60, 'Cloudy')");
+		}
+		this.execute("INSERT INTO daily_weather VALUES (1, 7, 'HUE_VN', 22, 30, 0, 'Rainy')");
+	}
+
+	private void execute(String sql) {
+		this.databaseClient.sql(sql).then().block();
+	}
+
+	@Test
+	public void testRealtimeWeatherView() {
+		StepVerifier.create(this.weatherViewRepository.findRealtimeViewByLocationCode("HN_VN"))
+				.assertNext(realtimeWeather -> {
+					assertThat(realtimeWeather.temperature()).isEqualTo(25);
+					assertThat(realtimeWeather.windSpeed()).isEqualTo(12);
+					assertThat(realtimeWeather.lastUpdated()).isNotNull();
+					assertThat(realtimeWeather.location()).isEqualTo("Hanoi, Ha Noi, Viet Nam");
+				}).verifyComplete();
+
+		// location bị trashed thì ko trả về dù còn dữ liệu realtime
+		StepVerifier.create(this.weatherViewRepository.findRealtimeViewByLocationCode("HUE_VN")).verifyComplete();
+	}
+
+	@Test
+	public void testHourlyWeatherViewsAfterCurrentHour() {
+		StepVerifier.create(this.weatherViewRepository.findHourlyViewsByLocationCodeAndHourOfDay("HN_VN", 20)
+				.map(HourlyWeatherView::hourOfDay).collectList()).assertNext(hours -> {
+					assertThat(hours).containsExactly(21, 22, 23);
+				}).verifyComplete();
+	}
+
+	@Test
+	public void testDailyWeatherViewsAreOrderedByDate() {
+		StepVerifier.create(this.weatherViewRepository.findDailyViewsByLocationCode("HN_VN")
+				.map(DailyWeatherView::dayOfMonth).collectList()).assertNext(days -> {
+					assertThat(days).containsExactly(1, 2, 3, 4, 5, 6, 7);
+				}).verifyComplete();
+	}
+
+	@Test
+	public void testResolveCodeFromIpLocation() {
+		ReactiveLocationDirectory locationDirectory = new ReactiveLocationDirectory(this.weatherViewRepository);
+
+		Location location = Location.builder().countryCode("VN").cityName("Da Nang").build();
+		StepVerifier.create(locationDirectory.resolveCode(location)).expectNext("DN_VN").verifyComplete();
+
+		Location trashedLocation = Location.builder().countryCode("VN").cityName("Hue").build();
+		StepVerifier.create(locationDirectory.resolveCode(trashedLocation))
+				.verifyError(LocationNotFoundException.class);
+	}
+
+	// list rỗng: location có tồn tại -> list rỗng (204), ko tồn tại/trashed -> 404
+	@Test
+	public void testEmptyViewsDistinguishMissingLocation() {
+		ReactiveHourlyWeatherService hourlyWeatherService = new ReactiveHourlyWeatherService(
+				this.weatherViewRepository);
+		ReactiveDailyWeatherService dailyWeatherService = new ReactiveDailyWeatherService(this.weatherViewRepository);
+		ReactiveRealtimeWeatherService realtimeWeatherService = new ReactiveRealtimeWeatherService(
+				this.weatherViewRepository);
+
+		StepVerifier.create(hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour("HN_VN", 23))
+				.expectNext(List.of()).verifyComplete();
+		StepVerifier.create(dailyWeatherService.getDailyWeatherByLocationCode("DN_VN")).expectNext(List.of())
+				.verifyComplete();
+
+		StepVerifier.create(hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour("ABC", 0))
+				.verifyError(LocationNotFoundException.class);
+		StepVerifier.create(dailyWeatherService.getDailyWeatherByLocationCode("HUE_VN"))
+				.verifyError(LocationNotFoundException.class);
+		StepVerifier.create(realtimeWeatherService.getRealtimeWeatherByLocationCode("DN_VN"))
+				.verifyError(LocationNotFoundException.class);
+	}
+
+	@Test
+	public void testFullWeather() {
+		ReactiveFullWeatherService fullWeatherService = new ReactiveFullWeatherService(this.weatherViewRepository);
+
+		StepVerifier.create(fullWeatherService.getFullWeatherByCode("HN_VN")).assertNext(fullWeather -> {
+			assertThat(fullWeather.location().location()).isEqualTo("Hanoi, Ha Noi, Viet Nam");
+			assertThat(fullWeather.realtimeWeather().status()).isEqualTo("Cloudy");
+			assertThat(fullWeather.hourlyWeathers()).hasSize(24);
+			assertThat(fullWeather.dailyWeathers()).hasSize(7);
+		}).verifyComplete();
+
+		// location chưa có dự báo vẫn trả về (realtime null, list rỗng)
+		StepVerifier.create(fullWeatherService.getFullWeatherByCode("DN_VN")).assertNext(fullWeather -> {
+			assertThat(fullWeather.realtimeWeather()).isNull();
+			assertThat(fullWeather.hourlyWeathers()).isEmpty();
+			assertThat(fullWeather.dailyWeathers()).isEmpty();
+		}).verifyComplete();
+
+		StepVerifier.create(fullWeatherService.getFullWeatherByCode("HUE_VN"))
+				.verifyError(LocationNotFoundException.class);
+	}
+}
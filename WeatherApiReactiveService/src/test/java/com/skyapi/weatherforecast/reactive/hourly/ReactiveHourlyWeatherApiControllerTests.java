@@ -0,0 +1,91 @@
+package com.skyapi.weatherforecast.reactive.hourly;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.CacheControl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.reactive.ReactiveLocationDirectory;
+import com.skyapi.weatherforecast.reactive.ReactiveSerializedResponseCache;
+import com.skyapi.weatherforecast.reactive.security.ReactiveNoSecurityConfig;
+
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveHourlyWeatherApiController.class)
+@Import({ ReactiveNoSecurityConfig.class, ReactiveSerializedResponseCache.class })
+@ActiveProfiles("test")
+public class ReactiveHourlyWeatherApiControllerTests {
+	private static final String X_CURRENT_HOUR = "X-Current-Hour";
+	private static final String END_POINT_PATH = "/v1/hourly";
+
+	@Autowired
+	private WebTestClient webTestClient;
+	@MockBean
+	private ReactiveHourlyWeatherService hourlyWeatherService;
+	@MockBean
+	private ReactiveLocationDirectory locationDirectory;
+	@MockBean
+	private GeolocationService geolocationService;
+
+	// gắn host để link là link tuyệt đối giống request thật
+	@BeforeEach
+	public void setUp() {
+		this.webTestClient = this.webTestClient.mutate().baseUrl("http://localhost").build();
+	}
+
+	@Test
+	public void testGetByCodeShouldReturn400BadRequest() {
+		this.webTestClient.get().uri(END_POINT_PATH + "/HN_VN").exchange().expectStatus().isBadRequest();
+
+		this.webTestClient.get().uri(END_POINT_PATH + "/HN_VN").header(X_CURRENT_HOUR, "abc").exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void testGetByCodeShouldReturn404NotFound() {
+		Mockito.when(this.hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour("ABC_US", 9))
+				.thenReturn(Mono.error(new LocationNotFoundException("ABC_US")));
+
+		this.webTestClient.get().uri(END_POINT_PATH + "/ABC_US").header(X_CURRENT_HOUR, "9").exchange()
+				.expectStatus().isNotFound();
+	}
+
+	@Test
+	public void testGetByCodeShouldReturn204NoContent() {
+		Mockito.when(this.hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour("HN_VN", 23))
+				.thenReturn(Mono.just(List.of()));
+
+		this.webTestClient.get().uri(END_POINT_PATH + "/HN_VN").header(X_CURRENT_HOUR, "23").exchange()
+				.expectStatus().isNoContent();
+	}
+
+	@Test
+	public void testGetByCodeShouldReturn200Ok() {
+		List<HourlyWeatherView> hourlyWeathers = List.of(
+				new HourlyWeatherView("HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 10, 28, 60, "Cloudy"),
+				new HourlyWeatherView("HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 11, 29, 50, "Sunny"));
+
+		Mockito.when(this.hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour("HN_VN", 9))
+				.thenReturn(Mono.just(hourlyWeathers));
+
+		this.webTestClient.get().uri(END_POINT_PATH + "/HN_VN").header(X_CURRENT_HOUR, "9").exchange()
+				.expectStatus().isOk().expectHeader()
+				.cacheControl(CacheControl.maxAge(Duration.ofMinutes(60)).cachePublic()).expectHeader()
+				.exists("ETag").expectBody().jsonPath("$.location").isEqualTo("Hanoi, Ha Noi, Viet Nam")
+				.jsonPath("$.hourly_forecast[0].hour_of_day").isEqualTo(10).jsonPath("$.hourly_forecast.length()")
+				.isEqualTo(2).jsonPath("$._links.self.href").isEqualTo("http://localhost/v1/hourly/HN_VN")
+				.jsonPath("$._links.realtime_weather.href").isEqualTo("http://localhost/v1/realtime/HN_VN");
+	}
+}
@@ -0,0 +1,114 @@
+package com.skyapi.weatherforecast.reactive.realtime;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.skyapi.weatherforecast.GeolocationException;
+import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.reactive.ReactiveLocationDirectory;
+import com.skyapi.weatherforecast.reactive.ReactiveSerializedResponseCache;
+import com.skyapi.weatherforecast.reactive.security.ReactiveNoSecurityConfig;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+import reactor.core.publisher.Mono;
+
+@WebFluxTest(ReactiveRealtimeWeatherApiController.class)
+// controller serialize response qua bean thật (ko có CacheManager nên ko cache)
+@Import({ ReactiveNoSecurityConfig.class, ReactiveSerializedResponseCache.class })
+@ActiveProfiles("test")
+public class ReactiveRealtimeWeatherApiControllerTests {
+	private static final String END_POINT_PATH = "/v1/realtime";
+	private static final String RESPONSE_CONTENT_TYPE = "application/hal+json";
+
+	@Autowired
+	private WebTestClient webTestClient;
+	@MockBean
+	private ReactiveRealtimeWeatherService realtimeWeatherService;
+	@MockBean
+	private ReactiveLocationDirectory locationDirectory;
+	@MockBean
+	private GeolocationService geolocationService;
+
+	/*
+	 * WebTestClient mặc định gửi URI ko có host nên link sẽ là link tương đối,
+	 * gắn host giống request thật (MockMvc mặc định là http://localhost)
+	 */
+	@BeforeEach
+	public void setUp() {
+		this.webTestClient = this.webTestClient.mutate().baseUrl("http://localhost").build();
+	}
+
+	private RealtimeWeatherView createRealtimeWeather() {
+		return new RealtimeWeatherView("HCM_VN", "Ho Chi Minh City", "Southern Vietnam", "Vietnam", 30, 60, 50, 5,
+				"Sunny", new Date());
+	}
+
+	@Test
+	public void testGetRealtimeWeatherShouldReturn400BadRequest() {
+		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.any()))
+				.thenThrow(new GeolocationException("Geolocation Failed"));
+
+		this.webTestClient.get().uri(END_POINT_PATH).exchange().expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void testGetRealtimeWeatherShouldReturn200Ok() {
+		Location location = Location.builder().countryCode("VN").cityName("Ho Chi Minh City").build();
+
+		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.any())).thenReturn(location);
+		Mockito.when(this.locationDirectory.resolveCode(location)).thenReturn(Mono.just("HCM_VN"));
+		Mockito.when(this.realtimeWeatherService.getRealtimeWeatherByLocationCode("HCM_VN"))
+				.thenReturn(Mono.just(this.createRealtimeWeather()));
+
+		this.webTestClient.get().uri(END_POINT_PATH).exchange().expectStatus().isOk().expectHeader()
+				.contentType(RESPONSE_CONTENT_TYPE).expectBody().jsonPath("$.location")
+				.isEqualTo("Ho Chi Minh City, Southern Vietnam, Vietnam").jsonPath("$._links.self.href")
+				.isEqualTo("http://localhost/v1/realtime").jsonPath("$._links.hourly_forecast.href")
+				.isEqualTo("http://localhost/v1/hourly").jsonPath("$._links.daily_forecast.href")
+				.isEqualTo("http://localhost/v1/daily").jsonPath("$._links.full_forecast.href")
+				.isEqualTo("http://localhost/v1/full");
+	}
+
+	@Test
+	public void testGetByCodeShouldReturn404NotFound() {
+		String locationCode = "ABC_US";
+
+		Mockito.when(this.realtimeWeatherService.getRealtimeWeatherByLocationCode(locationCode))
+				.thenReturn(Mono.error(new LocationNotFoundException(locationCode)));
+
+		this.webTestClient.get().uri(END_POINT_PATH + "/" + locationCode).exchange().expectStatus().isNotFound()
+				.expectBody().jsonPath("$.errors[0]").isEqualTo("No location found with the given code ABC_US")
+				.jsonPath("$.path").isEqualTo(END_POINT_PATH + "/" + locationCode);
+	}
+
+	// cùng header cache với RealtimeWeatherApiController, gửi lại ETag -> 304 ko có body
+	@Test
+	public void testGetByCodeShouldReturn200OkWithCachingHeaders() {
+		String locationCode = "HCM_VN";
+
+		Mockito.when(this.realtimeWeatherService.getRealtimeWeatherByLocationCode(locationCode))
+				.thenReturn(Mono.just(this.createRealtimeWeather()));
+
+		String eTag = this.webTestClient.get().uri(END_POINT_PATH + "/" + locationCode).exchange().expectStatus()
+				.isOk().expectHeader().cacheControl(org.springframework.http.CacheControl
+						.maxAge(java.time.Duration.ofMinutes(30)).cachePublic())
+				.expectHeader().exists("Last-Modified").expectBody().jsonPath("$.wind_speed").isEqualTo(5)
+				.jsonPath("$.status").isEqualTo("Sunny").jsonPath("$._links.self.href")
+				.isEqualTo("http://localhost/v1/realtime/HCM_VN").jsonPath("$._links.hourly_forecast.href")
+				.isEqualTo("http://localhost/v1/hourly/HCM_VN").returnResult().getResponseHeaders().getETag();
+
+		this.webTestClient.get().uri(END_POINT_PATH + "/" + locationCode).header("If-None-Match", eTag).exchange()
+				.expectStatus().isNotModified().expectBody().isEmpty();
+	}
+}
@@ -1,6 +1,7 @@
 package com.skyapi.weatherforecast;
 
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
@@ -9,8 +10,17 @@ import com.skyapi.weatherforecast.location.LocationRepository;
 public abstract class AbstractLocationService {
 	protected LocationRepository locationRepository;
 
-	// Nếu cache đã có → lấy dữ liệu, nếu chưa → chạy method và lưu vào cache.
-	@Cacheable(cacheNames = "locationCacheByCode", key = "#code")
+	/*
+	 * Nếu cache đã có → lấy dữ liệu, nếu chưa → chạy method và lưu vào cache.
+	 * sync = true: các request cùng miss 1 code chờ chung 1 lần query
+	 * (CacheLoadCoalescer)
+	 */
+	@Cacheable(cacheNames = "locationCacheByCode", key = "#code", sync = true)
+	/*
+	 * transaction chỉ đọc: Hibernate load entity ở chế độ read-only (ko giữ bản
+	 * chụp để dirty check) và ko flush khi kết thúc
+	 */
+	@Transactional(readOnly = true)
 	public Location getLocationByCode(String code) {
 		Location location = this.locationRepository.findByCode(code);
 		if (location == null) {
@@ -0,0 +1,23 @@
+package com.skyapi.weatherforecast;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// ánh xạ các cấu hình app.geolocation.* trong application.properties
+@ConfigurationProperties(prefix = "app.geolocation")
+@Getter
+@Setter
+public class GeolocationProperties {
+	/*
+	 * đường dẫn file BIN trên ổ đĩa, file ko tồn tại thì dùng bản trong
+	 * classpath
+	 */
+	private String databaseFile;
+
+	// chu kỳ kiểm tra file BIN có bản mới để nạp lại mà ko cần restart
+	private Duration refreshInterval = Duration.ofMinutes(1);
+}
@@ -2,62 +2,134 @@ package com.skyapi.weatherforecast;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import com.ip2location.IP2Location;
-import com.ip2location.IPResult;
 import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.geolocation.GeolocationRecord;
+import com.skyapi.weatherforecast.geolocation.IpRangeIndex;
+import com.skyapi.weatherforecast.geolocation.IpRangeIndexLoader;
 
 @Service
 public class GeolocationService {
 	private static final Logger LOGGER = LoggerFactory.getLogger(GeolocationService.class);
 	private String dbPath = "/ip2_location_db/IP2LOCATION-LITE-DB3.BIN";
-	private IP2Location ip2Location;
 
-	public GeolocationService() {
+	private final GeolocationProperties geolocationProperties;
+
+	/*
+	 * file BIN được dựng thành IpRangeIndex (các dải nằm trong file .ranges map
+	 * vào bộ nhớ, dùng chung page cache với instance khác trên cùng máy, ko đổi
+	 * sau khi tạo), khi có file mới thì dựng index mới rồi tráo vào đây, các request
+	 * đang tra index cũ vẫn chạy bình thường, GC sẽ thu hồi index cũ
+	 */
+	private final AtomicReference<IpRangeIndex> ipRangeIndexReference = new AtomicReference<IpRangeIndex>();
+
+	// fileKey (inode) + thời gian sửa để nhận biết file BIN đã được thay
+	private Object loadedFileKey;
+	private long loadedLastModified;
+
+	public GeolocationService(GeolocationProperties geolocationProperties) {
+		this.geolocationProperties = geolocationProperties;
+
 		try {
+			this.ipRangeIndexReference.set(this.loadIndex());
+		} catch (Exception e) {
+			LOGGER.error(e.getMessage(), e);
+		}
+	}
+
+	private IpRangeIndex loadIndex() throws IOException {
+		IpRangeIndex ipRangeIndex;
+
+		Path databaseFile = this.getDatabaseFile();
+		if (databaseFile != null && Files.isReadable(databaseFile)) {
+			BasicFileAttributes attributes = Files.readAttributes(databaseFile, BasicFileAttributes.class);
+
+			ipRangeIndex = IpRangeIndexLoader.load(databaseFile);
+
+			this.loadedFileKey = attributes.fileKey();
+			this.loadedLastModified = attributes.lastModifiedTime().toMillis();
+		} else {
 			/*
 			 * getClass().getResource(...) → / là tuyệt đối (từ classpath), không / là tương
 			 * đối (theo package class gọi)
-			 * 
+			 *
 			 * getClass().getClassLoader().getResource(...) → luôn từ gốc classpath, không
 			 * dùng được / đầu
+			 *
+			 * resource trong jar ko map đc nên phải đọc cả file lên heap, mảng này chỉ
+			 * dùng lúc build và bị GC thu hồi ngay sau đó, index nằm trong direct buffer
+			 * riêng của process (ko dùng chung page cache). Chỉ dành cho dev/test, môi
+			 * trường thật nên cấu hình app.geolocation.database-file
 			 */
-			InputStream inputStream = getClass().getResourceAsStream(dbPath);
-			byte[] data = inputStream.readAllBytes();
+			try (InputStream inputStream = getClass().getResourceAsStream(dbPath)) {
+				byte[] data = inputStream.readAllBytes();
+				ipRangeIndex = IpRangeIndexLoader.load(data);
+			}
+		}
 
-			ip2Location = new IP2Location();
-			ip2Location.Open(data);
+		LOGGER.info("Loaded IP2Location database version " + ipRangeIndex.getVersion() + ": "
+				+ ipRangeIndex.getIpv4RangeCount() + " IPv4 ranges, " + ipRangeIndex.getIpv6RangeCount()
+				+ " IPv6 ranges, " + ipRangeIndex.getRecordCount() + " locations");
 
-			inputStream.close();
-		} catch (Exception e) {
-			LOGGER.error(e.getMessage(), e);
-		}
+		return ipRangeIndex;
 	}
 
-	@Cacheable("geolocationCache")
-	public Location getLocationByIp2Location(String ipAdress) throws GeolocationException {
-		try {
-			IPResult ipResult = this.ip2Location.IPQuery(ipAdress);
+	private Path getDatabaseFile() {
+		String databaseFile = this.geolocationProperties.getDatabaseFile();
+		return StringUtils.isBlank(databaseFile) ? null : Paths.get(databaseFile);
+	}
+
+	/*
+	 * bản DB mới nên được thả vào bằng cách rename/mv (file mới, inode mới) để ko
+	 * đọc phải file đang ghi dở
+	 */
+	@Scheduled(initialDelayString = "${app.geolocation.refresh-interval:1m}", fixedDelayString = "${app.geolocation.refresh-interval:1m}")
+	public void reloadDatabaseIfChanged() {
+		Path databaseFile = this.getDatabaseFile();
+		if (databaseFile == null || !Files.isReadable(databaseFile)) {
+			return;
+		}
 
-			// chuyển OK ra trước vì nếu getStatus null thì ko ném lỗi
-			if (!"OK".equals(ipResult.getStatus())) {
-				throw new GeolocationException("Geolocation Failed with Status Code " + ipResult.getStatus());
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(databaseFile, BasicFileAttributes.class);
+			if (Objects.equals(attributes.fileKey(), this.loadedFileKey)
+					&& attributes.lastModifiedTime().toMillis() == this.loadedLastModified) {
+				return;
 			}
 
-			LOGGER.info(ipResult.toString());
+			this.ipRangeIndexReference.set(this.loadIndex());
+		} catch (IOException e) {
+			LOGGER.error("Error Reloading IP Database!", e);
+		}
+	}
 
-			Location location = Location.builder().cityName(ipResult.getCity()).regionName(ipResult.getRegion())
-					.countryName(ipResult.getCountryLong()).countryCode(ipResult.getCountryShort()).build();
+	/*
+	 * tra index trực tiếp (binary search) nên ko cần @Cacheable theo từng IP nữa,
+	 * Location trả về là bản mới dựng từ record (entity bình thường, sửa đc)
+	 */
+	public Location getLocationByIp2Location(String ipAdress) throws GeolocationException {
+		IpRangeIndex ipRangeIndex = this.ipRangeIndexReference.get();
+		if (ipRangeIndex == null) {
+			throw new GeolocationException("IP Database is not loaded!");
+		}
 
-			return location;
-		} catch (IOException e) {
-			throw new GeolocationException("Error Querying IP Database!", e);
+		GeolocationRecord geolocationRecord = ipRangeIndex.lookup(ipAdress);
+		if (geolocationRecord == null) {
+			throw new GeolocationException("Geolocation Failed for IP Address " + ipAdress);
 		}
 
+		return geolocationRecord.toLocation();
 	}
 }
@@ -0,0 +1,28 @@
+package com.skyapi.weatherforecast.base;
+
+import java.io.Serializable;
+
+/*
+ * projection chỉ đọc (record) mà các API GET realtime/hourly/daily trả về thay
+ * cho entity: query chọn đúng các cột cần cho response + code/tên location nên
+ * Hibernate ko tạo entity, ko giữ trong persistence context, ko dirty check lúc
+ * flush và cũng ko load Location đi kèm (ManyToOne/OneToOne)
+ *
+ * LocationIndexedCache dùng locationCode() để biết entry cache thuộc location
+ * nào (thay cho id.location / getLocation() của entity), Serializable để
+ * lưu đc vào tầng cache chung (Redis) khi chạy nhiều node
+ */
+public interface LocationScopedView extends Serializable {
+	String locationCode();
+
+	String cityName();
+
+	String regionName();
+
+	String countryName();
+
+	// giống Location.toString(), chỉ ghép chuỗi khi dựng response
+	default String location() {
+		return cityName() + ", " + (regionName() == null ? "" : regionName() + ", ") + countryName();
+	}
+}
@@ -0,0 +1,15 @@
+package com.skyapi.weatherforecast.batch;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// ánh xạ các cấu hình app.batch.* trong application.properties
+@ConfigurationProperties(prefix = "app.batch")
+@Getter
+@Setter
+public class BatchProperties {
+	// số location tối đa của 1 request GET /v1/batch, cũng là số phần tử tối đa của mỗi query IN
+	private int maxLocations = 50;
+}
@@ -0,0 +1,64 @@
+package com.skyapi.weatherforecast.batch;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * GET /v1/batch?location_codes=HN_VN,DN_VN&include=realtime,hourly,daily: dữ
+ * liệu của nhiều location trong 1 request (1 lần kiểm tra JWT, ko dựng links
+ * cho từng location) thay cho gọi /v1/realtime/{code} hoặc /v1/full/{code} cho
+ * từng location, include=hourly thì cần header X-Current-Hour giống API hourly
+ */
+@RestController
+@RequestMapping("/v1/batch")
+@RequiredArgsConstructor
+public class BatchWeatherApiController {
+	private final BatchWeatherService batchWeatherService;
+
+	@GetMapping
+	public ResponseEntity<BatchWeatherDTO> getWeatherByLocationCodes(
+			@RequestParam(value = "location_codes") List<String> locationCodes,
+			@RequestParam(value = "include", required = false, defaultValue = "realtime,hourly,daily") List<String> include,
+			@RequestHeader(value = "X-Current-Hour", required = false) String currentHourHeader)
+			throws BadRequestException {
+		Set<WeatherPart> parts = EnumSet.noneOf(WeatherPart.class);
+		for (String value : include) {
+			WeatherPart part = WeatherPart.of(value);
+			if (part == null) {
+				throw new BadRequestException("Unknown include value: " + value + " (allowed: realtime, hourly, daily)");
+			}
+			parts.add(part);
+		}
+
+		Integer currentHour = null;
+		if (parts.contains(WeatherPart.HOURLY)) {
+			currentHour = this.parseCurrentHour(currentHourHeader);
+		}
+
+		return ResponseEntity.ok(this.batchWeatherService.getWeather(locationCodes, parts, currentHour));
+	}
+
+	private Integer parseCurrentHour(String currentHourHeader) throws BadRequestException {
+		try {
+			int currentHour = Integer.parseInt(currentHourHeader);
+			if (currentHour >= 0 && currentHour <= 23) {
+				return currentHour;
+			}
+		} catch (NumberFormatException e) {
+			// trả về 400 bên dưới
+		}
+
+		throw new BadRequestException("X-Current-Hour header (0-23) is required when include has hourly.");
+	}
+}
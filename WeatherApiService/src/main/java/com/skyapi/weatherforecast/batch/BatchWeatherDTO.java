@@ -0,0 +1,13 @@
+package com.skyapi.weatherforecast.batch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+// response của GET /v1/batch: locations theo thứ tự trong request, code ko tồn tại nằm trong not_found
+@Getter
+public class BatchWeatherDTO {
+	private List<LocationWeatherDTO> locations = new ArrayList<LocationWeatherDTO>();
+	private List<String> notFound = new ArrayList<String>();
+}
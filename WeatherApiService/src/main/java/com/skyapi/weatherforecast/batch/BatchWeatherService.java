@@ -0,0 +1,278 @@
+package com.skyapi.weatherforecast.batch;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.skyapi.weatherforecast.base.LocationScopedView;
+import com.skyapi.weatherforecast.batch.LocationWeatherDTO.RealtimeWeatherDTO;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.daily.DailyWeatherRepository;
+import com.skyapi.weatherforecast.daily.DailyWeatherView;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherRepository;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.location.LocationRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherWriteBehind;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * đọc realtime/hourly/daily của nhiều location trong 1 request: đọc từ cùng
+ * cache với các API GET theo code trước, các location miss mới query DB bằng 1
+ * query IN cho mỗi phần (thay vì 1 query cho mỗi location) rồi đưa kết quả vào
+ * cache cho các API GET dùng lại
+ *
+ * miss ở bất kỳ phần nào thì thêm 1 query IN vào locations để phân biệt
+ * location ko tồn tại (not_found) với location chưa có dữ liệu
+ */
+@Service
+@RequiredArgsConstructor
+public class BatchWeatherService {
+	private static final String REALTIME_CACHE_NAME = "realtimeWeatherCacheByCode";
+	private static final String HOURLY_CACHE_NAME = "hourlyWeatherCacheByLocationCodeAndCurrentHour";
+	private static final String DAILY_CACHE_NAME = "dailyWeatherCacheByLocationCode";
+
+	private final RealtimeWeatherRepository realtimeWeatherRepository;
+	private final HourlyWeatherRepository hourlyWeatherRepository;
+	private final DailyWeatherRepository dailyWeatherRepository;
+	private final LocationRepository locationRepository;
+	private final CacheManager cacheManager;
+	private final BatchProperties batchProperties;
+	// chỉ có khi app.realtime.write-behind.enabled=true
+	private final Optional<RealtimeWeatherWriteBehind> realtimeWeatherWriteBehind;
+
+	/**
+	 * @param currentHour chỉ cần khi parts có HOURLY
+	 */
+	@Transactional(readOnly = true)
+	public BatchWeatherDTO getWeather(List<String> requestedCodes, Set<WeatherPart> parts, Integer currentHour)
+			throws BadRequestException {
+		// MySQL so sánh code ko phân biệt hoa thường: bỏ code trùng theo chữ thường, giữ cách viết đầu tiên
+		Map<String, String> locationCodes = new LinkedHashMap<String, String>();
+		for (String requestedCode : requestedCodes) {
+			if (requestedCode != null && !requestedCode.isBlank()) {
+				locationCodes.putIfAbsent(normalize(requestedCode), requestedCode.trim());
+			}
+		}
+
+		if (locationCodes.isEmpty()) {
+			throw new BadRequestException("At least one location code is required.");
+		}
+		if (locationCodes.size() > this.batchProperties.getMaxLocations()) {
+			throw new BadRequestException(
+					"At most " + this.batchProperties.getMaxLocations() + " location codes are allowed per request.");
+		}
+
+		CachedPart<RealtimeWeatherView> realtime = parts.contains(WeatherPart.REALTIME)
+				? new CachedPart<RealtimeWeatherView>(REALTIME_CACHE_NAME, code -> code, null)
+				: null;
+		CachedPart<List<HourlyWeatherView>> hourly = parts.contains(WeatherPart.HOURLY)
+				? new CachedPart<List<HourlyWeatherView>>(HOURLY_CACHE_NAME, code -> List.of(code, currentHour),
+						List.of())
+				: null;
+		CachedPart<List<DailyWeatherView>> daily = parts.contains(WeatherPart.DAILY)
+				? new CachedPart<List<DailyWeatherView>>(DAILY_CACHE_NAME, code -> code, List.of())
+				: null;
+		List<CachedPart<?>> cachedParts = Stream.of(realtime, hourly, daily).filter(Objects::nonNull)
+				.<CachedPart<?>>map(cachedPart -> cachedPart).toList();
+		cachedParts.forEach(cachedPart -> cachedPart.readCache(locationCodes));
+
+		// có trong cache (bất kỳ phần nào) thì location chắc chắn tồn tại
+		Set<String> existingCodes = new HashSet<String>();
+		Set<String> uncheckedCodes = new HashSet<String>();
+		for (CachedPart<?> cachedPart : cachedParts) {
+			existingCodes.addAll(cachedPart.values.keySet());
+			uncheckedCodes.addAll(cachedPart.misses.keySet());
+		}
+		uncheckedCodes.removeAll(existingCodes);
+		if (!uncheckedCodes.isEmpty()) {
+			List<String> untrashedCodes = this.locationRepository.findUntrashedCodes(
+					uncheckedCodes.stream().map(locationCodes::get).toList());
+			untrashedCodes.forEach(code -> existingCodes.add(normalize(code)));
+		}
+
+		if (realtime != null) {
+			realtime.load(existingCodes, this::findRealtimeViews);
+		}
+		if (hourly != null) {
+			hourly.load(existingCodes, codes -> groupByLocation(
+					this.hourlyWeatherRepository.findViewsByLocationCodesAndHourOfDay(codes, currentHour)));
+		}
+		if (daily != null) {
+			daily.load(existingCodes,
+					codes -> groupByLocation(this.dailyWeatherRepository.findViewsByLocationCodes(codes)));
+		}
+
+		BatchWeatherDTO batchWeather = new BatchWeatherDTO();
+		locationCodes.forEach((normalizedCode, locationCode) -> {
+			if (!existingCodes.contains(normalizedCode)) {
+				batchWeather.getNotFound().add(locationCode);
+				return;
+			}
+
+			batchWeather.getLocations().add(toDTO(locationCode, realtime == null ? null : realtime.get(normalizedCode),
+					hourly == null ? null : hourly.get(normalizedCode), daily == null ? null : daily.get(normalizedCode)));
+		});
+
+		return batchWeather;
+	}
+
+	/*
+	 * có write-behind thì bản chưa ghi xuống DB thường là bản mới nhất, dùng dòng
+	 * trong DB sẽ đưa bản cũ vào cache chung với API GET tới hết TTL: đọc bản
+	 * đang chờ trước rồi mới query DB, lấy bản mới hơn theo lastUpdated (PUT
+	 * full/ingest ghi đồng bộ sau đó thì dòng trong DB mới hơn), cùng cách với
+	 * RealtimeWeatherService.findView()
+	 */
+	private Map<String, RealtimeWeatherView> findRealtimeViews(Collection<String> locationCodes) {
+		Map<String, RealtimeWeatherView> pendingRealtimeWeathers = new HashMap<String, RealtimeWeatherView>();
+		if (this.realtimeWeatherWriteBehind.isPresent()) {
+			for (String locationCode : locationCodes) {
+				RealtimeWeatherView pending = this.realtimeWeatherWriteBehind.get().findPending(locationCode);
+				if (pending != null) {
+					pendingRealtimeWeathers.put(normalize(locationCode), pending);
+				}
+			}
+		}
+
+		Map<String, RealtimeWeatherView> realtimeWeathers = new HashMap<String, RealtimeWeatherView>(
+				pendingRealtimeWeathers);
+		for (RealtimeWeatherView stored : this.realtimeWeatherRepository.findViewsByLocationCodes(locationCodes)) {
+			String normalizedCode = normalize(stored.locationCode());
+			if (!RealtimeWeatherWriteBehind.isNewerThanStored(pendingRealtimeWeathers.get(normalizedCode),
+					stored.lastUpdated())) {
+				realtimeWeathers.put(normalizedCode, stored);
+			}
+		}
+
+		return realtimeWeathers;
+	}
+
+	private static String normalize(String locationCode) {
+		return locationCode.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// giữ thứ tự các row trả về trong từng location giống query theo 1 location
+	private static <V extends LocationScopedView> Map<String, List<V>> groupByLocation(List<V> views) {
+		Map<String, List<V>> viewsByLocation = new HashMap<String, List<V>>();
+		views.forEach(view -> viewsByLocation
+				.computeIfAbsent(normalize(view.locationCode()), code -> new ArrayList<V>()).add(view));
+
+		return viewsByLocation;
+	}
+
+	private static LocationWeatherDTO toDTO(String locationCode, RealtimeWeatherView realtimeWeather,
+			List<HourlyWeatherView> hourlyWeathers, List<DailyWeatherView> dailyWeathers) {
+		LocationWeatherDTO locationWeather = new LocationWeatherDTO(locationCode);
+
+		if (realtimeWeather != null) {
+			locationWeather.setLocation(realtimeWeather.location());
+			locationWeather.setRealtimeWeather(new RealtimeWeatherDTO(realtimeWeather.temperature(),
+					realtimeWeather.humidity(), realtimeWeather.precipitation(), realtimeWeather.windSpeed(),
+					realtimeWeather.status(), realtimeWeather.lastUpdated()));
+		}
+
+		if (hourlyWeathers != null) {
+			if (locationWeather.getLocation() == null && !hourlyWeathers.isEmpty()) {
+				locationWeather.setLocation(hourlyWeathers.get(0).location());
+			}
+			locationWeather.setHourlyForecast(hourlyWeathers.stream().map(HourlyWeatherMapper::toDTO).toList());
+		}
+
+		if (dailyWeathers != null) {
+			if (locationWeather.getLocation() == null && !dailyWeathers.isEmpty()) {
+				locationWeather.setLocation(dailyWeathers.get(0).location());
+			}
+			locationWeather.setDailyForecast(dailyWeathers.stream().map(DailyWeatherMapper::toDTO).toList());
+		}
+
+		return locationWeather;
+	}
+
+	/*
+	 * 1 phần dữ liệu (realtime/hourly/daily) đọc qua cache của API GET tương ứng,
+	 * map theo code chữ thường
+	 */
+	private final class CachedPart<V> {
+		private final Cache cache;
+		private final Function<String, Object> cacheKey;
+		// giá trị của location tồn tại nhưng ko có row nào (hourly/daily là list rỗng, giống API GET)
+		private final V emptyValue;
+
+		private final Map<String, V> values = new HashMap<String, V>();
+		// code chữ thường -> code trong request (dùng làm key cache giống path của API GET)
+		private final Map<String, String> misses = new LinkedHashMap<String, String>();
+
+		private CachedPart(String cacheName, Function<String, Object> cacheKey, V emptyValue) {
+			this.cache = BatchWeatherService.this.cacheManager.getCache(cacheName);
+			this.cacheKey = cacheKey;
+			this.emptyValue = emptyValue;
+		}
+
+		@SuppressWarnings("unchecked")
+		private void readCache(Map<String, String> locationCodes) {
+			locationCodes.forEach((normalizedCode, locationCode) -> {
+				Cache.ValueWrapper valueWrapper = this.cache == null ? null
+						: this.cache.get(this.cacheKey.apply(locationCode));
+
+				if (valueWrapper != null && valueWrapper.get() != null) {
+					this.values.put(normalizedCode, (V) valueWrapper.get());
+				} else {
+					this.misses.put(normalizedCode, locationCode);
+				}
+			});
+		}
+
+		/*
+		 * chỉ query các location miss còn tồn tại, ghi vào cache bằng putIfAbsent (đọc
+		 * miss) để ko đè entry vừa đc API ghi cập nhật
+		 */
+		private void load(Set<String> existingCodes, Function<Collection<String>, Map<String, V>> batchLoader) {
+			Map<String, String> existingMisses = new LinkedHashMap<String, String>();
+			this.misses.forEach((normalizedCode, locationCode) -> {
+				if (existingCodes.contains(normalizedCode)) {
+					existingMisses.put(normalizedCode, locationCode);
+				}
+			});
+			if (existingMisses.isEmpty()) {
+				return;
+			}
+
+			Map<String, V> loaded = batchLoader.apply(existingMisses.values());
+			existingMisses.forEach((normalizedCode, locationCode) -> {
+				V value = loaded.getOrDefault(normalizedCode, this.emptyValue);
+				if (value == null) {
+					return;
+				}
+
+				this.values.put(normalizedCode, value);
+				if (this.cache != null) {
+					this.cache.putIfAbsent(this.cacheKey.apply(locationCode), value);
+				}
+			});
+		}
+
+		private V get(String normalizedCode) {
+			return this.values.get(normalizedCode);
+		}
+	}
+}
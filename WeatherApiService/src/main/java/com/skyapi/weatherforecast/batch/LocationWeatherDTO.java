@@ -0,0 +1,38 @@
+package com.skyapi.weatherforecast.batch;
+
+import java.util.Date;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/*
+ * dữ liệu của 1 location trong response API batch, ko có links (HATEOAS) để
+ * response gọn, phần ko đc chọn trong include hoặc ko có dữ liệu thì ko xuất
+ */
+@Getter
+@Setter
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({ "location_code", "location", "realtime_weather", "hourly_forecast", "daily_forecast" })
+public class LocationWeatherDTO {
+	private String locationCode;
+	private String location;
+	private RealtimeWeatherDTO realtimeWeather;
+	private List<HourlyWeatherDTO> hourlyForecast;
+	private List<DailyWeatherDTO> dailyForecast;
+
+	LocationWeatherDTO(String locationCode) {
+		this.locationCode = locationCode;
+	}
+
+	// giống body GET /v1/realtime/{code} nhưng bỏ location (đã có ở trên) và links
+	public record RealtimeWeatherDTO(int temperature, int humidity, int precipitation, int windSpeed, String status,
+			@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'") Date lastUpdated) {
+	}
+}
@@ -0,0 +1,16 @@
+package com.skyapi.weatherforecast.batch;
+
+import java.util.Locale;
+
+// các phần dữ liệu client chọn qua tham số include của API batch
+public enum WeatherPart {
+	REALTIME, HOURLY, DAILY;
+
+	static WeatherPart of(String value) {
+		try {
+			return WeatherPart.valueOf(value.trim().toUpperCase(Locale.ROOT));
+		} catch (IllegalArgumentException e) {
+			return null;
+		}
+	}
+}
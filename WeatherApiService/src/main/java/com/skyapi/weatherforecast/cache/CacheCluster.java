@@ -0,0 +1,16 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.Set;
+
+/*
+ * các thành phần cache dùng chung khi chạy nhiều node, chỉ có khi
+ * app.cache.cluster.enabled=true (RedisCacheClusterConfig) hoặc tự dựng trong
+ * test với bản trong process
+ */
+public record CacheCluster(String nodeId, CacheInvalidationBus cacheInvalidationBus, SharedCacheTier sharedCacheTier,
+		Set<String> sharedCacheNames) {
+
+	boolean isShared(String cacheName) {
+		return this.sharedCacheNames.contains(cacheName);
+	}
+}
@@ -0,0 +1,75 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.Optional;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+@Configuration
+/*
+ * trước đây @EnableCaching đặt ở LocationService và ko có CacheManager nào nên
+ * spring dùng ConcurrentMapCacheManager (ko giới hạn, ko hết hạn), chuyển về
+ * đây để mọi cache đều đi qua Caffeine (W-TinyLFU)
+ */
+@EnableCaching
+@EnableConfigurationProperties(CacheSpecProperties.class)
+@Import(RedisCacheClusterConfig.class)
+public class CacheConfig {
+
+	@Bean
+	public CacheInvalidationIndex cacheInvalidationIndex() {
+		return new CacheInvalidationIndex();
+	}
+
+	// MeterBinder nên actuator tự đăng ký metrics cache.singleflight.*
+	@Bean
+	public CacheLoadCoalescer cacheLoadCoalescer() {
+		return new CacheLoadCoalescer();
+	}
+
+	// các service implement CacheReloader, lấy lười lúc refresh lần đầu
+	@Bean(destroyMethod = "shutdown")
+	public CacheRefresher cacheRefresher(CacheSpecProperties cacheSpecProperties,
+			CacheInvalidationIndex cacheInvalidationIndex, ObjectProvider<CacheReloader> cacheReloaders) {
+		return new CacheRefresher(cacheSpecProperties, cacheInvalidationIndex,
+				() -> cacheReloaders.orderedStream().toList());
+	}
+
+	// cacheCluster chỉ có khi app.cache.cluster.enabled=true (RedisCacheClusterConfig)
+	@Bean
+	public CacheManager cacheManager(CacheSpecProperties cacheSpecProperties,
+			CacheInvalidationIndex cacheInvalidationIndex, CacheLoadCoalescer cacheLoadCoalescer,
+			CacheRefresher cacheRefresher, Optional<CacheCluster> cacheCluster) {
+		return new LocationIndexedCaffeineCacheManager(cacheSpecProperties, cacheInvalidationIndex,
+				cacheLoadCoalescer, cacheRefresher, cacheCluster.orElse(null));
+	}
+
+	/*
+	 * actuator chỉ tự bind metrics cho CaffeineCache, cache đã bị bọc bởi
+	 * LocationIndexedCache nên phải chỉ cách lấy native cache bên trong
+	 */
+	@Bean
+	@SuppressWarnings("unchecked")
+	public CacheMeterBinderProvider<LocationIndexedCache> locationIndexedCacheMeterBinderProvider() {
+		return (cache, tags) -> new CaffeineCacheMetrics<Object, Object, com.github.benmanes.caffeine.cache.Cache<Object, Object>>(
+				(com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache(), cache.getName(),
+				tags);
+	}
+
+	// chạy nhiều node thì cache đc bọc thêm ClusteredCache, native cache bên trong vẫn là của Caffeine
+	@Bean
+	@SuppressWarnings("unchecked")
+	public CacheMeterBinderProvider<ClusteredCache> clusteredCacheMeterBinderProvider() {
+		return (cache, tags) -> new CaffeineCacheMetrics<Object, Object, com.github.benmanes.caffeine.cache.Cache<Object, Object>>(
+				(com.github.benmanes.caffeine.cache.Cache<Object, Object>) cache.getNativeCache(), cache.getName(),
+				tags);
+	}
+}
@@ -0,0 +1,33 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Page;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+
+/*
+ * 1 entry chứa list 24 HourlyWeather tốn bộ nhớ hơn nhiều so với 1 entry chứa
+ * 1 RealtimeWeather, nên với cache có maximumWeight thì trọng số là số phần tử
+ * trong list/page, response đã serialize tính theo KB, các value còn lại có
+ * trọng số 1
+ */
+public class CacheEntryWeigher implements Weigher<Object, Object> {
+
+	@Override
+	public int weigh(Object key, Object value) {
+		if (value instanceof Collection<?> collection) {
+			return Math.max(1, collection.size());
+		}
+
+		if (value instanceof Page<?> page) {
+			return Math.max(1, page.getNumberOfElements());
+		}
+
+		if (value instanceof SerializedResponse serializedResponse) {
+			return Math.max(1, serializedResponse.body().length >>> 10);
+		}
+
+		return 1;
+	}
+}
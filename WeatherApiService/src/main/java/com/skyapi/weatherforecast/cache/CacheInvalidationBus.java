@@ -0,0 +1,19 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * Kênh phát các thay đổi cache giữa các node WeatherApiService (và tầng đọc
+ * reactive), có bản Redis pub/sub cho chạy thật và bản trong process cho test.
+ */
+public interface CacheInvalidationBus {
+
+	/**
+	 * Phát message tới mọi node đang subscribe, kể cả node phát.
+	 *
+	 * @param message thay đổi vừa xảy ra ở node này
+	 */
+	void publish(CacheInvalidationMessage message);
+
+	void subscribe(Consumer<CacheInvalidationMessage> subscriber);
+}
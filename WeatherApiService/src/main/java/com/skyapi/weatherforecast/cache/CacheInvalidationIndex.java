@@ -0,0 +1,222 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import org.springframework.cache.Cache;
+
+/*
+ * chỉ mục locationCode -> các key trong cache được sinh ra từ location đó (key
+ * theo code, theo {countryCode, cityName}, theo {code, currentHour},...), nhờ
+ * vậy khi 1 location được cập nhật thì chỉ xóa đúng các entry của location đó
+ * thay vì allEntries = true làm rỗng cache của mọi location
+ */
+public class CacheInvalidationIndex {
+	/*
+	 * entry có value là list rỗng thì ko biết thuộc location nào -> gom vào đây và
+	 * xóa cùng mỗi lần evict trên cache đó
+	 */
+	static final String UNRESOLVED_LOCATION_CODE = "";
+
+	private final Map<String, Cache> caches = new ConcurrentHashMap<String, Cache>();
+	private final Map<String, Set<IndexedKey>> keysByLocationCode = new ConcurrentHashMap<String, Set<IndexedKey>>();
+	private final Map<IndexedKey, Registration> registrationByKey = new ConcurrentHashMap<IndexedKey, Registration>();
+
+	private volatile BiConsumer<Collection<String>, String[]> locationEvictionListener;
+
+	// LocationIndexedCache tự đăng ký khi được tạo
+	void registerCache(Cache cache) {
+		this.caches.put(cache.getName(), cache);
+	}
+
+	// value là entry sắp ghi vào cache, để evictionListener biết entry bị đẩy ra còn là entry đã đăng ký ko
+	void register(String cacheName, Object key, String locationCode, Object value) {
+		IndexedKey indexedKey = new IndexedKey(cacheName, key);
+
+		Registration previousRegistration = this.registrationByKey.put(indexedKey,
+				new Registration(locationCode, value));
+		if (previousRegistration != null && !previousRegistration.locationCode().equals(locationCode)) {
+			this.removeFromLocation(previousRegistration.locationCode(), indexedKey);
+		}
+
+		// compute() để việc thêm key ko chen giữa lúc removeFromLocation() xóa set rỗng
+		this.keysByLocationCode.compute(locationCode, (code, indexedKeys) -> {
+			Set<IndexedKey> keys = indexedKeys != null ? indexedKeys : ConcurrentHashMap.newKeySet();
+			keys.add(indexedKey);
+			return keys;
+		});
+	}
+
+	void unregister(String cacheName, Object key) {
+		IndexedKey indexedKey = new IndexedKey(cacheName, key);
+
+		Registration registration = this.registrationByKey.remove(indexedKey);
+		if (registration != null) {
+			this.removeFromLocation(registration.locationCode(), indexedKey);
+		}
+	}
+
+	/*
+	 * dùng cho evictionListener (entry hết hạn/bị đẩy ra do đầy): put vào key có
+	 * entry đã hết hạn nhưng Caffeine chưa dọn thì listener chạy ngay trong
+	 * put() với value cũ, lúc đó key đã đc đăng ký lại cho value mới và ko đc gỡ
+	 */
+	void unregister(String cacheName, Object key, Object evictedValue) {
+		IndexedKey indexedKey = new IndexedKey(cacheName, key);
+
+		Registration registration = this.registrationByKey.get(indexedKey);
+		if (registration != null && registration.value() == evictedValue
+				&& this.registrationByKey.remove(indexedKey, registration)) {
+			this.removeFromLocation(registration.locationCode(), indexedKey);
+		}
+	}
+
+	/*
+	 * đổi lần đăng ký của previousValue sang value, chỉ đổi khi chỉ mục còn trỏ
+	 * tới previousValue (có lần ghi khác chen vào thì giữ lần đó), locationCode
+	 * null thì gỡ luôn: putIfAbsent() bị entry đang có thắng, refresh thay value
+	 */
+	void replaceRegistration(String cacheName, Object key, Object previousValue, String locationCode, Object value) {
+		IndexedKey indexedKey = new IndexedKey(cacheName, key);
+
+		Registration registration = this.registrationByKey.get(indexedKey);
+		if (registration == null || registration.value() != previousValue) {
+			return;
+		}
+
+		if (locationCode == null) {
+			if (this.registrationByKey.remove(indexedKey, registration)) {
+				this.removeFromLocation(registration.locationCode(), indexedKey);
+			}
+			return;
+		}
+
+		if (!this.registrationByKey.replace(indexedKey, registration, new Registration(locationCode, value))) {
+			return;
+		}
+		if (!registration.locationCode().equals(locationCode)) {
+			this.removeFromLocation(registration.locationCode(), indexedKey);
+		}
+		this.keysByLocationCode.compute(locationCode, (code, indexedKeys) -> {
+			Set<IndexedKey> keys = indexedKeys != null ? indexedKeys : ConcurrentHashMap.newKeySet();
+			keys.add(indexedKey);
+			return keys;
+		});
+	}
+
+	boolean isRegistered(String cacheName, Object key) {
+		return this.registrationByKey.containsKey(new IndexedKey(cacheName, key));
+	}
+
+	// dùng khi cache bị clear()
+	void unregisterAll(String cacheName) {
+		this.registrationByKey.keySet().stream().filter(indexedKey -> indexedKey.cacheName().equals(cacheName))
+				.forEach(indexedKey -> this.unregister(cacheName, indexedKey.key()));
+	}
+
+	/**
+	 * Xóa các entry của location trong những cache được chỉ định.
+	 *
+	 * @param locationCode code của location vừa thay đổi
+	 * @param cacheNames   các cache cần xóa, bỏ trống nghĩa là mọi cache
+	 */
+	public void evict(String locationCode, String... cacheNames) {
+		this.evictAll(List.of(locationCode), cacheNames);
+	}
+
+	/**
+	 * Giống {@link #evict(String, String...)} nhưng cho cả 1 batch location, các
+	 * key chưa xác định đc location chỉ bị xóa 1 lần.
+	 *
+	 * @param locationCodes code của các location vừa thay đổi
+	 * @param cacheNames    các cache cần xóa, bỏ trống nghĩa là mọi cache
+	 */
+	public void evictAll(Collection<String> locationCodes, String... cacheNames) {
+		this.evictLocally(locationCodes, cacheNames);
+
+		BiConsumer<Collection<String>, String[]> locationEvictionListener = this.locationEvictionListener;
+		if (locationEvictionListener != null) {
+			locationEvictionListener.accept(locationCodes, cacheNames);
+		}
+	}
+
+	/*
+	 * chỉ xóa cache của node này, dùng khi nhận LocationsEvicted từ node khác
+	 * (ko phát lại)
+	 */
+	void evictLocally(Collection<String> locationCodes, String... cacheNames) {
+		Set<String> targetCacheNames = cacheNames.length == 0 ? null : Set.of(cacheNames);
+
+		for (String locationCode : locationCodes) {
+			this.evictKeysOf(locationCode, targetCacheNames);
+		}
+		this.evictKeysOf(UNRESOLVED_LOCATION_CODE, targetCacheNames);
+	}
+
+	// chạy nhiều node: xóa tầng chung và phát cho node khác sau khi đã xóa local
+	void setLocationEvictionListener(BiConsumer<Collection<String>, String[]> locationEvictionListener) {
+		this.locationEvictionListener = locationEvictionListener;
+	}
+
+	public int size() {
+		return this.registrationByKey.size();
+	}
+
+	private void evictKeysOf(String locationCode, Set<String> targetCacheNames) {
+		Set<IndexedKey> indexedKeys = this.keysByLocationCode.get(locationCode);
+		if (indexedKeys == null) {
+			return;
+		}
+
+		for (IndexedKey indexedKey : indexedKeys) {
+			if (targetCacheNames != null && !targetCacheNames.contains(indexedKey.cacheName())) {
+				continue;
+			}
+
+			// evict() của LocationIndexedCache sẽ gọi lại unregister()
+			Cache cache = this.caches.get(indexedKey.cacheName());
+			if (cache != null) {
+				cache.evict(indexedKey.key());
+			} else {
+				this.unregister(indexedKey.cacheName(), indexedKey.key());
+			}
+		}
+	}
+
+	private void removeFromLocation(String locationCode, IndexedKey indexedKey) {
+		// xóa luôn set khi rỗng để chỉ mục ko phình theo số location đã từng cache
+		this.keysByLocationCode.computeIfPresent(locationCode, (code, indexedKeys) -> {
+			indexedKeys.remove(indexedKey);
+			return indexedKeys.isEmpty() ? null : indexedKeys;
+		});
+	}
+
+	record IndexedKey(String cacheName, Object key) {
+	}
+
+	/*
+	 * ko dùng record: so value theo tham chiếu (entity có thể equals theo code),
+	 * remove(key, registration) cũng phải so đúng lần đăng ký
+	 */
+	private static final class Registration {
+		private final String locationCode;
+		private final Object value;
+
+		private Registration(String locationCode, Object value) {
+			this.locationCode = locationCode;
+			this.value = value;
+		}
+
+		private String locationCode() {
+			return this.locationCode;
+		}
+
+		private Object value() {
+			return this.value;
+		}
+	}
+}
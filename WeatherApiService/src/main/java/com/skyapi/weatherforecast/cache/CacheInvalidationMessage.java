@@ -0,0 +1,26 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.io.Serializable;
+import java.util.List;
+
+/*
+ * message phát qua CacheInvalidationBus, node nhận chỉ xóa bản local (tầng
+ * chung đã đc node phát xóa/ghi trước khi phát), originNodeId để bỏ qua
+ * message của chính mình
+ */
+public sealed interface CacheInvalidationMessage extends Serializable {
+	String originNodeId();
+
+	// @CacheEvict/@CachePut theo key: node khác bỏ bản local, lần đọc sau lấy từ tầng chung/DB
+	record KeyEvicted(String originNodeId, String cacheName, Object key) implements CacheInvalidationMessage {
+	}
+
+	// @CacheEvict(allEntries = true)
+	record CacheCleared(String originNodeId, String cacheName) implements CacheInvalidationMessage {
+	}
+
+	// CacheInvalidationIndex.evict()/evictAll(), cacheNames rỗng nghĩa là mọi cache
+	record LocationsEvicted(String originNodeId, List<String> locationCodes, List<String> cacheNames)
+			implements CacheInvalidationMessage {
+	}
+}
@@ -0,0 +1,125 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * single-flight cho @Cacheable(sync = true): khi entry của 1 location hot bị
+ * đẩy ra/hết hạn, các request miss cùng lúc trên cùng key chỉ chạy 1 lần load
+ * (leader), các request còn lại chờ kết quả của lần load đó (coalesced) thay
+ * vì cùng query MySQL
+ *
+ * request chờ nằm ở đây chứ ko chờ trong compute() của Caffeine, nên ko giữ
+ * lock của bin trong ConcurrentHashMap bên dưới (các key khác cùng bin ko bị
+ * chặn theo), leader vẫn ghi qua compute() nên evict chen giữa lúc đang load
+ * vẫn đc Caffeine xếp thứ tự đúng
+ */
+public class CacheLoadCoalescer implements MeterBinder {
+	private final Map<InFlightKey, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<InFlightKey, CompletableFuture<Object>>();
+	private final Map<String, LoadCounters> countersByCacheName = new ConcurrentHashMap<String, LoadCounters>();
+
+	private volatile MeterRegistry meterRegistry;
+
+	// LocationIndexedCaffeineCacheManager gọi khi tạo cache, cache tạo động sau khi bind vẫn có metrics
+	void registerCache(String cacheName) {
+		this.countersByCacheName.computeIfAbsent(cacheName, name -> {
+			LoadCounters loadCounters = new LoadCounters();
+			MeterRegistry registry = this.meterRegistry;
+			if (registry != null) {
+				bindCounters(registry, name, loadCounters);
+			}
+			return loadCounters;
+		});
+	}
+
+	/*
+	 * loader chỉ chạy ở leader, exception của leader đc ném lại cho mọi request
+	 * đang chờ (ko cache lỗi, request tới sau sẽ load lại)
+	 */
+	@SuppressWarnings("unchecked")
+	<T> T load(String cacheName, Object key, Supplier<T> loader) {
+		LoadCounters loadCounters = this.countersByCacheName.computeIfAbsent(cacheName, name -> new LoadCounters());
+		InFlightKey inFlightKey = new InFlightKey(cacheName, key);
+
+		CompletableFuture<Object> loadFuture = new CompletableFuture<Object>();
+		CompletableFuture<Object> inFlightLoad = this.inFlightLoads.putIfAbsent(inFlightKey, loadFuture);
+		if (inFlightLoad != null) {
+			loadCounters.coalesced.increment();
+			try {
+				return (T) inFlightLoad.join();
+			} catch (CompletionException e) {
+				if (e.getCause() instanceof RuntimeException cause) {
+					throw cause;
+				}
+				if (e.getCause() instanceof Error cause) {
+					throw cause;
+				}
+				throw e;
+			}
+		}
+
+		loadCounters.loaded.increment();
+		try {
+			T value = loader.get();
+			loadFuture.complete(value);
+			return value;
+		} catch (RuntimeException | Error e) {
+			loadFuture.completeExceptionally(e);
+			throw e;
+		} finally {
+			this.inFlightLoads.remove(inFlightKey, loadFuture);
+		}
+	}
+
+	long getLoadedCount(String cacheName) {
+		LoadCounters loadCounters = this.countersByCacheName.get(cacheName);
+		return loadCounters == null ? 0 : loadCounters.loaded.sum();
+	}
+
+	long getCoalescedCount(String cacheName) {
+		LoadCounters loadCounters = this.countersByCacheName.get(cacheName);
+		return loadCounters == null ? 0 : loadCounters.coalesced.sum();
+	}
+
+	int inFlightCount() {
+		return this.inFlightLoads.size();
+	}
+
+	/*
+	 * /actuator/metrics/cache.singleflight.loads?tag=cache:realtimeWeatherCacheByCode&tag=result:coalesced,
+	 * tỉ lệ gộp = coalesced / (loaded + coalesced)
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.meterRegistry = registry;
+		this.countersByCacheName.forEach((cacheName, loadCounters) -> bindCounters(registry, cacheName, loadCounters));
+
+		Gauge.builder("cache.singleflight.inflight", this, CacheLoadCoalescer::inFlightCount)
+				.description("Cache loads currently in flight").register(registry);
+	}
+
+	private static void bindCounters(MeterRegistry registry, String cacheName, LoadCounters loadCounters) {
+		FunctionCounter.builder("cache.singleflight.loads", loadCounters.loaded, LongAdder::sum).tag("cache", cacheName)
+				.tag("result", "loaded").description("Cache misses that led the load").register(registry);
+		FunctionCounter.builder("cache.singleflight.loads", loadCounters.coalesced, LongAdder::sum)
+				.tag("cache", cacheName).tag("result", "coalesced")
+				.description("Cache misses that waited on a load already in flight").register(registry);
+	}
+
+	record InFlightKey(String cacheName, Object key) {
+	}
+
+	private static final class LoadCounters {
+		private final LongAdder loaded = new LongAdder();
+		private final LongAdder coalesced = new LongAdder();
+	}
+}
@@ -0,0 +1,184 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/*
+ * refresh-ahead (stale-while-revalidate) cho cache có refreshAfterWrite trong
+ * spec: entry quá refreshAfterWrite mà vẫn đc đọc thì Caffeine trả về value
+ * hiện tại cho request và gọi asyncReload() để đọc lại trên pool riêng (giới
+ * hạn thread + hàng đợi), request ko phải chờ MySQL khi entry hot sắp hết hạn
+ *
+ * entry ko ai đọc thì ko refresh, vẫn hết hạn theo expireAfterWrite. kết quả
+ * refresh do lượt đọc lại tự ghi vào cache (xem RefreshLoader.install()), bỏ
+ * nếu entry bị evict/ghi lại trong lúc đang đọc lại nên ko ghi đè dữ liệu vừa
+ * đc cập nhật
+ */
+public class CacheRefresher implements MeterBinder {
+	private final Supplier<List<CacheReloader>> cacheReloadersSupplier;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final ThreadPoolExecutor executor;
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+	// các service là CacheReloader đc lấy lúc refresh lần đầu, tránh phụ thuộc vòng với CacheManager
+	private volatile Map<String, CacheReloader> cacheReloaders;
+
+	// LoadingCache đã tạo theo cache name, để lượt đọc lại tự ghi kết quả vào cache
+	private final Map<String, Cache<Object, Object>> nativeCaches = new ConcurrentHashMap<String, Cache<Object, Object>>();
+
+	public CacheRefresher(CacheSpecProperties cacheSpecProperties, CacheInvalidationIndex cacheInvalidationIndex,
+			Supplier<List<CacheReloader>> cacheReloadersSupplier) {
+		this.cacheReloadersSupplier = cacheReloadersSupplier;
+		this.cacheInvalidationIndex = cacheInvalidationIndex;
+
+		/*
+		 * hàng đợi đầy thì bỏ lượt refresh (AbortPolicy, xem asyncReload) chứ ko chạy
+		 * trên thread request
+		 */
+		AtomicInteger threadNumber = new AtomicInteger();
+		this.executor = new ThreadPoolExecutor(cacheSpecProperties.getRefreshPoolSize(),
+				cacheSpecProperties.getRefreshPoolSize(), 60, TimeUnit.SECONDS,
+				new ArrayBlockingQueue<Runnable>(cacheSpecProperties.getRefreshQueueCapacity()), runnable -> {
+					Thread thread = new Thread(runnable, "cache-refresh-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+		this.executor.allowCoreThreadTimeOut(true);
+	}
+
+	CacheLoader<Object, Object> loaderFor(String cacheName) {
+		return new RefreshLoader(cacheName);
+	}
+
+	// LocationIndexedCaffeineCacheManager gọi sau khi build LoadingCache bằng loaderFor()
+	void registerCache(String cacheName, Cache<Object, Object> nativeCache) {
+		this.nativeCaches.put(cacheName, nativeCache);
+	}
+
+	private CacheReloader findReloader(String cacheName) {
+		Map<String, CacheReloader> cacheReloaders = this.cacheReloaders;
+		if (cacheReloaders == null) {
+			cacheReloaders = this.cacheReloadersSupplier.get().stream()
+					.collect(Collectors.toMap(CacheReloader::getCacheName, Function.identity()));
+			this.cacheReloaders = cacheReloaders;
+		}
+
+		return cacheReloaders.get(cacheName);
+	}
+
+	long getRejectedCount() {
+		return this.rejectedCount.sum();
+	}
+
+	// gọi khi đóng context
+	public void shutdown() {
+		this.executor.shutdownNow();
+	}
+
+	/*
+	 * /actuator/metrics/cache.refresh.rejected và executor.* (tag name=cacheRefresh),
+	 * số lần refresh thành công/lỗi nằm trong cache.load của từng cache
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("cache.refresh.rejected", this.rejectedCount, LongAdder::sum)
+				.description("Cache refreshes skipped because the refresh queue was full").register(registry);
+		new ExecutorServiceMetrics(this.executor, "cacheRefresh", List.of()).bindTo(registry);
+	}
+
+	private final class RefreshLoader implements CacheLoader<Object, Object> {
+		private final String cacheName;
+
+		private RefreshLoader(String cacheName) {
+			this.cacheName = cacheName;
+		}
+
+		/*
+		 * CaffeineCache của Spring tra LoadingCache bằng get(key) nên lần miss nào
+		 * cũng vào đây, trả về null = miss, việc load do @Cacheable(sync = true) làm
+		 */
+		@Override
+		public Object load(Object key) {
+			return null;
+		}
+
+		@Override
+		public Object reload(Object key, Object oldValue) {
+			CacheReloader cacheReloader = findReloader(this.cacheName);
+			if (cacheReloader == null) {
+				return oldValue;
+			}
+
+			return cacheReloader.reload(key);
+		}
+
+		/*
+		 * Caffeine thay value mà ko qua LocationIndexedCache, và bỏ kết quả nếu entry
+		 * đã bị evict/ghi lại, nên đăng ký vào chỉ mục trước lúc Caffeine quyết định
+		 * thì chỉ mục có thể trỏ tới value bị bỏ (entry thật hết hạn ko gỡ đc key,
+		 * evict theo location chạy trong lúc đọc lại bị đăng ký ngược lại)
+		 *
+		 * nên tự ghi bằng compute() của cache: trong lock của key, chỉ thay khi entry
+		 * vẫn là value cũ và đổi đăng ký cùng lúc, Caffeine sau đó thấy đúng value
+		 * này nên ko làm gì (cache.load đếm thêm 1 lần cho lượt ghi này)
+		 */
+		private Object install(Object key, Object oldValue, Object value) {
+			Cache<Object, Object> nativeCache = CacheRefresher.this.nativeCaches.get(this.cacheName);
+			if (nativeCache == null || value == oldValue || nativeCache.asMap().get(key) != oldValue) {
+				return value;
+			}
+
+			nativeCache.asMap().computeIfPresent(key, (cachedKey, currentValue) -> {
+				if (currentValue != oldValue) {
+					return currentValue;
+				}
+
+				CacheRefresher.this.cacheInvalidationIndex.replaceRegistration(this.cacheName, key, oldValue,
+						value == null ? null : LocationIndexedCache.resolveLocationCode(value), value);
+				return value;
+			});
+
+			return value;
+		}
+
+		// bỏ qua executor Caffeine truyền vào (ForkJoinPool chung) để chạy trên pool giới hạn
+		@Override
+		public CompletableFuture<Object> asyncReload(Object key, Object oldValue, Executor executor) {
+			// chưa có reloader: trả lại đúng value cũ, Caffeine coi là ko đổi
+			if (findReloader(this.cacheName) == null) {
+				return CompletableFuture.completedFuture(oldValue);
+			}
+
+			try {
+				return CompletableFuture.supplyAsync(() -> this.install(key, oldValue, this.reload(key, oldValue)),
+						CacheRefresher.this.executor);
+			} catch (RejectedExecutionException e) {
+				// CancellationException thì Caffeine bỏ lượt refresh mà ko log, lần đọc sau thử lại
+				CacheRefresher.this.rejectedCount.increment();
+				return CompletableFuture.failedFuture(new CancellationException("Cache refresh queue is full"));
+			}
+		}
+	}
+}
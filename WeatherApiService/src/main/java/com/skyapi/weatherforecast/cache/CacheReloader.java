@@ -0,0 +1,17 @@
+package com.skyapi.weatherforecast.cache;
+
+/**
+ * Đọc lại value của 1 key cho refresh-ahead (xem CacheRefresher), thường là
+ * service sở hữu cache đó, chạy trên thread của CacheRefresher chứ ko phải
+ * thread request.
+ */
+public interface CacheReloader {
+
+	String getCacheName();
+
+	/**
+	 * @param key key của entry sắp hết hạn, cùng dạng với key của @Cacheable
+	 * @return value mới, null nếu location ko còn (entry bị xóa khỏi cache)
+	 */
+	Object reload(Object key);
+}
@@ -0,0 +1,107 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/*
+ * ánh xạ các cấu hình app.cache.* trong application.properties, mỗi cache name
+ * có 1 spec riêng (giới hạn số phần tử/trọng số, thời gian sống), cache nào ko
+ * khai báo thì dùng defaultSpec
+ */
+@ConfigurationProperties(prefix = "app.cache")
+@Getter
+@Setter
+public class CacheSpecProperties {
+	private CacheSpec defaultSpec = new CacheSpec();
+
+	// key là cache name, dùng dạng specs[cacheName] để giữ nguyên chữ hoa
+	private Map<String, CacheSpec> specs = new LinkedHashMap<String, CacheSpec>();
+
+	/*
+	 * true thì Caffeine tạo dạng AsyncCache để @Cacheable trên hàm trả về Mono
+	 * dùng đc (WeatherApiReactiveService), hàm đồng bộ vẫn đọc/ghi qua
+	 * synchronous() của AsyncCache
+	 */
+	private boolean asyncMode;
+
+	// pool đọc lại entry sắp hết hạn (CacheRefresher), dùng chung cho mọi cache
+	private int refreshPoolSize = 2;
+	private int refreshQueueCapacity = 1000;
+
+	private Cluster cluster = new Cluster();
+
+	/*
+	 * nhiều instance sau load balancer: cache local của mỗi node là near-cache,
+	 * các cache trong sharedCaches có thêm tầng chung (Redis), mọi put/evict đc
+	 * phát qua CacheInvalidationBus để node khác xóa bản local
+	 */
+	@Getter
+	@Setter
+	public static class Cluster {
+		private boolean enabled;
+
+		// phân biệt message do chính node này phát ra, mặc định mỗi lần chạy 1 id
+		private String nodeId = UUID.randomUUID().toString();
+
+		private String channel = "weather-cache-invalidation";
+
+		// tiền tố key của tầng chung, đổi khi dạng value cache thay đổi giữa 2 bản deploy
+		private String keyPrefix = "weather-cache";
+
+		/*
+		 * chỉ các cache có value là view/response đã serialize, Location entity
+		 * (locationCacheByCode) chỉ giữ local và đc xóa qua bus
+		 */
+		private Set<String> sharedCaches = new LinkedHashSet<String>(
+				List.of("realtimeWeatherCacheByCode", "hourlyWeatherCacheByLocationCodeAndCurrentHour",
+						"dailyWeatherCacheByLocationCode", "weatherResponseCache"));
+	}
+
+	@Getter
+	@Setter
+	public static class CacheSpec {
+		// giới hạn theo số entry
+		private Long maximumSize;
+
+		/*
+		 * giới hạn theo tổng trọng số, trọng số của 1 entry là số phần tử trong
+		 * list/page được cache (xem CacheEntryWeigher), ưu tiên hơn maximumSize
+		 */
+		private Long maximumWeight;
+
+		private Duration expireAfterWrite;
+
+		/*
+		 * entry cũ hơn mức này mà vẫn đc đọc thì đọc lại ngầm (CacheRefresher), phải
+		 * nhỏ hơn expireAfterWrite, chỉ có tác dụng khi cache có CacheReloader và ko
+		 * ở asyncMode
+		 */
+		private Duration refreshAfterWrite;
+
+		private Boolean recordStats;
+
+		// field nào ko khai báo thì lấy từ defaultSpec
+		public CacheSpec mergeWith(CacheSpec defaultSpec) {
+			CacheSpec merged = new CacheSpec();
+			merged.setMaximumSize(this.maximumSize != null ? this.maximumSize : defaultSpec.getMaximumSize());
+			merged.setMaximumWeight(this.maximumWeight != null ? this.maximumWeight : defaultSpec.getMaximumWeight());
+			merged.setExpireAfterWrite(
+					this.expireAfterWrite != null ? this.expireAfterWrite : defaultSpec.getExpireAfterWrite());
+			merged.setRefreshAfterWrite(
+					this.refreshAfterWrite != null ? this.refreshAfterWrite : defaultSpec.getRefreshAfterWrite());
+			merged.setRecordStats(this.recordStats != null ? this.recordStats : defaultSpec.getRecordStats());
+
+			return merged;
+		}
+	}
+}
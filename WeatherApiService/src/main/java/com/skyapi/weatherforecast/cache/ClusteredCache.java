@@ -0,0 +1,182 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.skyapi.weatherforecast.cache.CacheInvalidationMessage.CacheCleared;
+import com.skyapi.weatherforecast.cache.CacheInvalidationMessage.KeyEvicted;
+
+/*
+ * cache 2 tầng khi chạy nhiều node: tầng local (LocationIndexedCache/Caffeine)
+ * là near-cache, miss thì đọc tầng chung rồi ms tới DB, mọi put/evict/clear
+ * ghi vào tầng chung trước rồi phát qua CacheInvalidationBus để node khác bỏ
+ * bản local (lần đọc sau lấy bản mới từ tầng chung)
+ *
+ * cache ko nằm trong sharedCaches (vd: Location entity) thì ko có tầng chung,
+ * chỉ phát xóa. putIfAbsent là ghi do đọc miss nên ko phát, các hàm async
+ * (retrieve) chỉ dùng tầng local để ko chặn event loop bằng lời gọi Redis
+ */
+public class ClusteredCache implements Cache {
+	private final Cache localCache;
+	private final CacheCluster cacheCluster;
+	private final SharedCacheTier sharedCacheTier;
+	private final Duration timeToLive;
+
+	public ClusteredCache(Cache localCache, CacheCluster cacheCluster, Duration timeToLive) {
+		this.localCache = localCache;
+		this.cacheCluster = cacheCluster;
+		this.sharedCacheTier = cacheCluster.isShared(localCache.getName()) ? cacheCluster.sharedCacheTier() : null;
+		this.timeToLive = timeToLive;
+	}
+
+	private void putShared(Object key, Object value) {
+		if (this.sharedCacheTier != null && value != null) {
+			this.sharedCacheTier.put(getName(), key, value, LocationIndexedCache.resolveLocationCode(value),
+					this.timeToLive);
+		}
+	}
+
+	private void publishKeyEvicted(Object key) {
+		this.cacheCluster.cacheInvalidationBus()
+				.publish(new KeyEvicted(this.cacheCluster.nodeId(), getName(), key));
+	}
+
+	// message của node khác, tầng chung đã đc node đó cập nhật
+	void evictLocally(Object key) {
+		this.localCache.evict(key);
+	}
+
+	void clearLocally() {
+		this.localCache.clear();
+	}
+
+	@Override
+	public String getName() {
+		return this.localCache.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.localCache.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		ValueWrapper localValue = this.localCache.get(key);
+		if (localValue != null || this.sharedCacheTier == null) {
+			return localValue;
+		}
+
+		Object sharedValue = this.sharedCacheTier.get(getName(), key);
+		if (sharedValue == null) {
+			return null;
+		}
+
+		this.localCache.putIfAbsent(key, sharedValue);
+		return new SimpleValueWrapper(sharedValue);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Class<T> type) {
+		ValueWrapper valueWrapper = this.get(key);
+		Object value = valueWrapper == null ? null : valueWrapper.get();
+
+		if (value != null && type != null && !type.isInstance(value)) {
+			throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+		}
+
+		return (T) value;
+	}
+
+	// @Cacheable(sync = true): miss local thì tầng chung, miss nữa ms chạy loader (vẫn qua single-flight của tầng local)
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		return this.localCache.get(key, () -> {
+			if (this.sharedCacheTier != null) {
+				Object sharedValue = this.sharedCacheTier.get(getName(), key);
+				if (sharedValue != null) {
+					return (T) sharedValue;
+				}
+			}
+
+			T value = valueLoader.call();
+			this.putShared(key, value);
+			return value;
+		});
+	}
+
+	@Override
+	public CompletableFuture<?> retrieve(Object key) {
+		return this.localCache.retrieve(key);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		return this.localCache.retrieve(key, valueLoader);
+	}
+
+	@Override
+	public void put(Object key, Object value) {
+		this.localCache.put(key, value);
+		this.putShared(key, value);
+		this.publishKeyEvicted(key);
+	}
+
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		ValueWrapper existingValue = this.localCache.putIfAbsent(key, value);
+		if (existingValue == null) {
+			this.putShared(key, value);
+		}
+
+		return existingValue;
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.localCache.evict(key);
+		if (this.sharedCacheTier != null) {
+			this.sharedCacheTier.evict(getName(), key);
+		}
+		this.publishKeyEvicted(key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean evicted = this.localCache.evictIfPresent(key);
+		if (this.sharedCacheTier != null) {
+			this.sharedCacheTier.evict(getName(), key);
+		}
+		this.publishKeyEvicted(key);
+
+		return evicted;
+	}
+
+	@Override
+	public void clear() {
+		this.localCache.clear();
+		this.clearShared();
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean invalidated = this.localCache.invalidate();
+		this.clearShared();
+
+		return invalidated;
+	}
+
+	private void clearShared() {
+		if (this.sharedCacheTier != null) {
+			this.sharedCacheTier.clear(getName());
+		}
+		this.cacheCluster.cacheInvalidationBus().publish(new CacheCleared(this.cacheCluster.nodeId(), getName()));
+	}
+}
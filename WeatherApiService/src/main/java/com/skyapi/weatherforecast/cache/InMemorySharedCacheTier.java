@@ -0,0 +1,71 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * tầng chung giả lập trong bộ nhớ cho test (nhiều CacheManager trong cùng JVM
+ * dùng chung 1 instance), xóa theo location thì duyệt hết entry nên ko dùng cho
+ * chạy thật
+ */
+public class InMemorySharedCacheTier implements SharedCacheTier {
+	private final Map<EntryKey, Entry> entries = new ConcurrentHashMap<EntryKey, Entry>();
+
+	private record EntryKey(String cacheName, Object key) {
+	}
+
+	private record Entry(Object value, String locationCode, long expiresAtNanos) {
+	}
+
+	@Override
+	public Object get(String cacheName, Object key) {
+		EntryKey entryKey = new EntryKey(cacheName, key);
+
+		Entry entry = this.entries.get(entryKey);
+		if (entry == null) {
+			return null;
+		}
+
+		if (System.nanoTime() - entry.expiresAtNanos() >= 0) {
+			this.entries.remove(entryKey, entry);
+			return null;
+		}
+
+		return entry.value();
+	}
+
+	@Override
+	public void put(String cacheName, Object key, Object value, String locationCode, Duration timeToLive) {
+		long expiresAtNanos = System.nanoTime() + (timeToLive == null ? Long.MAX_VALUE / 2 : timeToLive.toNanos());
+
+		this.entries.put(new EntryKey(cacheName, key), new Entry(value, locationCode, expiresAtNanos));
+	}
+
+	@Override
+	public void evict(String cacheName, Object key) {
+		this.entries.remove(new EntryKey(cacheName, key));
+	}
+
+	@Override
+	public void evictLocations(Collection<String> locationCodes, Set<String> cacheNames) {
+		this.entries.entrySet().removeIf(entry -> {
+			String locationCode = entry.getValue().locationCode();
+
+			return (cacheNames.isEmpty() || cacheNames.contains(entry.getKey().cacheName()))
+					&& (locationCodes.contains(locationCode)
+							|| CacheInvalidationIndex.UNRESOLVED_LOCATION_CODE.equals(locationCode));
+		});
+	}
+
+	@Override
+	public void clear(String cacheName) {
+		this.entries.keySet().removeIf(entryKey -> entryKey.cacheName().equals(cacheName));
+	}
+
+	int size() {
+		return this.entries.size();
+	}
+}
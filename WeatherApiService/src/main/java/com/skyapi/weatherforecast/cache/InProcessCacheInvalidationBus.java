@@ -0,0 +1,23 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/*
+ * giao message ngay trên thread phát cho mọi subscriber trong cùng JVM, dùng
+ * trong test để giả lập nhiều node (mỗi node 1 CacheManager dùng chung bus)
+ */
+public class InProcessCacheInvalidationBus implements CacheInvalidationBus {
+	private final List<Consumer<CacheInvalidationMessage>> subscribers = new CopyOnWriteArrayList<Consumer<CacheInvalidationMessage>>();
+
+	@Override
+	public void publish(CacheInvalidationMessage message) {
+		this.subscribers.forEach(subscriber -> subscriber.accept(message));
+	}
+
+	@Override
+	public void subscribe(Consumer<CacheInvalidationMessage> subscriber) {
+		this.subscribers.add(subscriber);
+	}
+}
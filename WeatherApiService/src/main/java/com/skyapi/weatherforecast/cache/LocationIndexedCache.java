@@ -0,0 +1,214 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.cache.Cache;
+
+import com.skyapi.weatherforecast.base.LocationScopedView;
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+/*
+ * bọc CaffeineCache, mỗi lần ghi vào cache thì dựa vào value để biết entry
+ * thuộc location nào rồi ghi vào CacheInvalidationIndex, các thao tác đọc đi
+ * thẳng xuống cache gốc
+ */
+public class LocationIndexedCache implements Cache {
+	private final Cache delegate;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final CacheLoadCoalescer cacheLoadCoalescer;
+
+	public LocationIndexedCache(Cache delegate, CacheInvalidationIndex cacheInvalidationIndex,
+			CacheLoadCoalescer cacheLoadCoalescer) {
+		this.delegate = delegate;
+		this.cacheInvalidationIndex = cacheInvalidationIndex;
+		this.cacheLoadCoalescer = cacheLoadCoalescer;
+	}
+
+	/*
+	 * trả về null nếu value ko gắn với location nào (vd: Location lấy từ IP chưa
+	 * có code, Page của nhiều location), list rỗng thì ko biết location nên trả về
+	 * UNRESOLVED_LOCATION_CODE
+	 */
+	static String resolveLocationCode(Object value) {
+		if (value instanceof Location location) {
+			return location.getCode();
+		}
+
+		if (value instanceof SerializedResponse serializedResponse) {
+			return serializedResponse.locationCode();
+		}
+
+		if (value instanceof LocationScopedView locationScopedView) {
+			return locationScopedView.locationCode();
+		}
+
+		if (value instanceof RealtimeWeather realtimeWeather) {
+			if (realtimeWeather.getLocationCode() != null) {
+				return realtimeWeather.getLocationCode();
+			}
+			return realtimeWeather.getLocation() == null ? null : realtimeWeather.getLocation().getCode();
+		}
+
+		if (value instanceof List<?> list) {
+			if (list.isEmpty()) {
+				return CacheInvalidationIndex.UNRESOLVED_LOCATION_CODE;
+			}
+
+			Object firstElement = list.get(0);
+			if (firstElement instanceof LocationScopedView locationScopedView) {
+				return locationScopedView.locationCode();
+			}
+			if (firstElement instanceof HourlyWeather hourlyWeather) {
+				return resolveLocationCode(hourlyWeather.getId().getLocation());
+			}
+			if (firstElement instanceof DailyWeather dailyWeather) {
+				return resolveLocationCode(dailyWeather.getId().getLocation());
+			}
+		}
+
+		return null;
+	}
+
+	private void index(Object key, Object value) {
+		String locationCode = resolveLocationCode(value);
+		if (locationCode != null) {
+			this.cacheInvalidationIndex.register(getName(), key, locationCode, value);
+		}
+	}
+
+	@Override
+	public String getName() {
+		return this.delegate.getName();
+	}
+
+	@Override
+	public Object getNativeCache() {
+		return this.delegate.getNativeCache();
+	}
+
+	@Override
+	public ValueWrapper get(Object key) {
+		return this.delegate.get(key);
+	}
+
+	@Override
+	public <T> T get(Object key, Class<T> type) {
+		return this.delegate.get(key, type);
+	}
+
+	/*
+	 * dùng cho @Cacheable(sync = true): hit thì trả về luôn, miss thì đi qua
+	 * CacheLoadCoalescer để các request miss cùng key chỉ load 1 lần, leader ghi
+	 * bằng get(key, loader) của cache gốc (compute() của Caffeine, nếu request
+	 * trước vừa ghi xong thì ko load lại)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T get(Object key, Callable<T> valueLoader) {
+		ValueWrapper cachedValue = this.delegate.get(key);
+		if (cachedValue != null) {
+			return (T) cachedValue.get();
+		}
+
+		return this.cacheLoadCoalescer.load(getName(), key, () -> this.delegate.get(key, () -> {
+			T value = valueLoader.call();
+			this.index(key, value);
+			return value;
+		}));
+	}
+
+	@Override
+	public CompletableFuture<?> retrieve(Object key) {
+		return this.delegate.retrieve(key);
+	}
+
+	@Override
+	public <T> CompletableFuture<T> retrieve(Object key, Supplier<CompletableFuture<T>> valueLoader) {
+		return this.delegate.retrieve(key, () -> valueLoader.get().thenApply(value -> {
+			this.index(key, value);
+			return value;
+		}));
+	}
+
+	/*
+	 * ghi chỉ mục trước rồi mới ghi cache: evict theo location chen vào giữa thì
+	 * đã thấy key (ghi cache sau thì entry ko có trong chỉ mục, sống tới hết
+	 * TTL), evict chạy xong trước khi ghi cache thì key đã bị gỡ khỏi chỉ mục nên
+	 * xóa luôn value vừa ghi
+	 */
+	@Override
+	public void put(Object key, Object value) {
+		this.index(key, value);
+		this.delegate.put(key, value);
+		this.evictIfUnindexed(key, value);
+	}
+
+	/*
+	 * entry đang có thắng thì chỉ mục phải trỏ lại value đang có, để nguyên value
+	 * bị bỏ thì lúc entry thật hết hạn/bị đẩy ra listener so value ko khớp và ko
+	 * gỡ key
+	 */
+	@Override
+	public ValueWrapper putIfAbsent(Object key, Object value) {
+		this.index(key, value);
+		ValueWrapper existingValue = this.delegate.putIfAbsent(key, value);
+		if (existingValue == null) {
+			this.evictIfUnindexed(key, value);
+		} else {
+			this.reindexExisting(key, value, existingValue.get());
+		}
+
+		return existingValue;
+	}
+
+	private void reindexExisting(Object key, Object rejectedValue, Object existingValue) {
+		this.cacheInvalidationIndex.replaceRegistration(getName(), key, rejectedValue,
+				resolveLocationCode(existingValue), existingValue);
+
+		// entry đang có bị đẩy ra trước khi đăng ký lại thì listener đã bỏ qua, tự gỡ
+		ValueWrapper currentValue = this.delegate.get(key);
+		if (currentValue == null || currentValue.get() != existingValue) {
+			this.cacheInvalidationIndex.unregister(getName(), key, existingValue);
+		}
+	}
+
+	private void evictIfUnindexed(Object key, Object value) {
+		if (resolveLocationCode(value) != null && !this.cacheInvalidationIndex.isRegistered(getName(), key)) {
+			this.delegate.evict(key);
+		}
+	}
+
+	@Override
+	public void evict(Object key) {
+		this.delegate.evict(key);
+		this.cacheInvalidationIndex.unregister(getName(), key);
+	}
+
+	@Override
+	public boolean evictIfPresent(Object key) {
+		boolean evicted = this.delegate.evictIfPresent(key);
+		this.cacheInvalidationIndex.unregister(getName(), key);
+
+		return evicted;
+	}
+
+	@Override
+	public void clear() {
+		this.delegate.clear();
+		this.cacheInvalidationIndex.unregisterAll(getName());
+	}
+
+	@Override
+	public boolean invalidate() {
+		boolean invalidated = this.delegate.invalidate();
+		this.cacheInvalidationIndex.unregisterAll(getName());
+
+		return invalidated;
+	}
+}
@@ -0,0 +1,192 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.skyapi.weatherforecast.cache.CacheInvalidationMessage.CacheCleared;
+import com.skyapi.weatherforecast.cache.CacheInvalidationMessage.KeyEvicted;
+import com.skyapi.weatherforecast.cache.CacheInvalidationMessage.LocationsEvicted;
+import com.skyapi.weatherforecast.cache.CacheSpecProperties.CacheSpec;
+
+/*
+ * CaffeineCacheManager tạo cache theo spec của từng cache name và bọc mỗi cache
+ * bằng LocationIndexedCache để ghi chỉ mục location -> key và gộp các lần load
+ * trùng key (CacheLoadCoalescer)
+ */
+public class LocationIndexedCaffeineCacheManager extends CaffeineCacheManager {
+	private final CacheSpecProperties cacheSpecProperties;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final CacheLoadCoalescer cacheLoadCoalescer;
+	private final CacheRefresher cacheRefresher;
+	private final CacheCluster cacheCluster;
+	private final Ticker ticker;
+
+	// cache đã bọc ClusteredCache, để xử lý message từ node khác theo cache name
+	private final Map<String, ClusteredCache> clusteredCaches = new ConcurrentHashMap<String, ClusteredCache>();
+
+	/**
+	 * @param cacheCluster null nếu chỉ chạy 1 node (ko có tầng chung, ko phát xóa)
+	 */
+	public LocationIndexedCaffeineCacheManager(CacheSpecProperties cacheSpecProperties,
+			CacheInvalidationIndex cacheInvalidationIndex, CacheLoadCoalescer cacheLoadCoalescer,
+			CacheRefresher cacheRefresher, CacheCluster cacheCluster) {
+		this(cacheSpecProperties, cacheInvalidationIndex, cacheLoadCoalescer, cacheRefresher, cacheCluster,
+				Ticker.systemTicker());
+	}
+
+	// test truyền Ticker giả để cho entry hết hạn mà ko phải sleep
+	LocationIndexedCaffeineCacheManager(CacheSpecProperties cacheSpecProperties,
+			CacheInvalidationIndex cacheInvalidationIndex, CacheLoadCoalescer cacheLoadCoalescer,
+			CacheRefresher cacheRefresher, CacheCluster cacheCluster, Ticker ticker) {
+		super();
+		this.cacheSpecProperties = cacheSpecProperties;
+		this.cacheInvalidationIndex = cacheInvalidationIndex;
+		this.cacheLoadCoalescer = cacheLoadCoalescer;
+		this.cacheRefresher = cacheRefresher;
+		this.cacheCluster = cacheCluster;
+		this.ticker = ticker;
+
+		if (cacheCluster != null) {
+			cacheInvalidationIndex.setLocationEvictionListener(this::publishLocationsEvicted);
+			cacheCluster.cacheInvalidationBus().subscribe(this::onInvalidation);
+		}
+
+		// phải set trước khi tạo sẵn cache bên dưới, set sau thì các cache bị tạo lại
+		setAsyncCacheMode(cacheSpecProperties.isAsyncMode());
+
+		/*
+		 * tạo sẵn các cache đã khai báo để actuator bind metrics lúc khởi động, cache
+		 * name ko khai báo vẫn được tạo động theo defaultSpec
+		 */
+		cacheSpecProperties.getSpecs().keySet().forEach(this::getCache);
+	}
+
+	/*
+	 * có refreshAfterWrite thì Caffeine bắt buộc dùng LoadingCache, loader của
+	 * CacheRefresher chỉ đọc lại entry cũ, ko load lúc miss
+	 */
+	@Override
+	protected com.github.benmanes.caffeine.cache.Cache<Object, Object> createNativeCaffeineCache(String name) {
+		CacheSpec cacheSpec = this.specOf(name);
+		if (cacheSpec.getRefreshAfterWrite() == null) {
+			return newCaffeineBuilder(name, cacheSpec).build();
+		}
+
+		com.github.benmanes.caffeine.cache.Cache<Object, Object> cache = newCaffeineBuilder(name, cacheSpec)
+				.refreshAfterWrite(cacheSpec.getRefreshAfterWrite()).build(this.cacheRefresher.loaderFor(name));
+		this.cacheRefresher.registerCache(name, cache);
+
+		return cache;
+	}
+
+	// tầng reactive ko có CacheReloader chặn thread nên ko refresh, chỉ hết hạn
+	@Override
+	protected AsyncCache<Object, Object> createAsyncCaffeineCache(String name) {
+		return newCaffeineBuilder(name, this.specOf(name)).buildAsync();
+	}
+
+	@Override
+	protected Cache adaptCaffeineCache(String name, com.github.benmanes.caffeine.cache.Cache<Object, Object> cache) {
+		return this.indexed(super.adaptCaffeineCache(name, cache));
+	}
+
+	@Override
+	protected Cache adaptCaffeineCache(String name, AsyncCache<Object, Object> cache) {
+		return this.indexed(super.adaptCaffeineCache(name, cache));
+	}
+
+	/*
+	 * CacheInvalidationIndex giữ cache local để xóa theo location ko bị phát lại,
+	 * việc phát cho node khác làm 1 lần ở publishLocationsEvicted()
+	 */
+	private Cache indexed(Cache cache) {
+		LocationIndexedCache locationIndexedCache = new LocationIndexedCache(cache, this.cacheInvalidationIndex,
+				this.cacheLoadCoalescer);
+		this.cacheInvalidationIndex.registerCache(locationIndexedCache);
+		this.cacheLoadCoalescer.registerCache(locationIndexedCache.getName());
+
+		if (this.cacheCluster == null) {
+			return locationIndexedCache;
+		}
+
+		ClusteredCache clusteredCache = new ClusteredCache(locationIndexedCache, this.cacheCluster,
+				this.specOf(cache.getName()).getExpireAfterWrite());
+		this.clusteredCaches.put(clusteredCache.getName(), clusteredCache);
+
+		return clusteredCache;
+	}
+
+	private void publishLocationsEvicted(Collection<String> locationCodes, String[] cacheNames) {
+		this.cacheCluster.sharedCacheTier().evictLocations(locationCodes, Set.of(cacheNames));
+		this.cacheCluster.cacheInvalidationBus().publish(new LocationsEvicted(this.cacheCluster.nodeId(),
+				List.copyOf(locationCodes), List.of(cacheNames)));
+	}
+
+	private void onInvalidation(CacheInvalidationMessage message) {
+		if (message.originNodeId().equals(this.cacheCluster.nodeId())) {
+			return;
+		}
+
+		if (message instanceof KeyEvicted keyEvicted) {
+			ClusteredCache clusteredCache = this.clusteredCaches.get(keyEvicted.cacheName());
+			if (clusteredCache != null) {
+				clusteredCache.evictLocally(keyEvicted.key());
+			}
+		} else if (message instanceof CacheCleared cacheCleared) {
+			ClusteredCache clusteredCache = this.clusteredCaches.get(cacheCleared.cacheName());
+			if (clusteredCache != null) {
+				clusteredCache.clearLocally();
+			}
+		} else if (message instanceof LocationsEvicted locationsEvicted) {
+			this.cacheInvalidationIndex.evictLocally(locationsEvicted.locationCodes(),
+					locationsEvicted.cacheNames().toArray(String[]::new));
+		}
+	}
+
+	private CacheSpec specOf(String name) {
+		CacheSpec defaultSpec = this.cacheSpecProperties.getDefaultSpec();
+		return this.cacheSpecProperties.getSpecs().getOrDefault(name, defaultSpec).mergeWith(defaultSpec);
+	}
+
+	private Caffeine<Object, Object> newCaffeineBuilder(String name, CacheSpec cacheSpec) {
+		/*
+		 * evictionListener chạy đồng bộ khi entry bị đẩy ra do đầy hoặc hết hạn, dùng
+		 * để dọn chỉ mục (xóa chủ động thì LocationIndexedCache đã tự dọn), với
+		 * AsyncCache thì listener nhận value đã load xong chứ ko phải future. chỉ gỡ
+		 * khi chỉ mục còn trỏ tới đúng value bị đẩy ra (put đè entry hết hạn chạy
+		 * listener sau khi key đã đăng ký cho value mới)
+		 */
+		return newCaffeineBuilder(cacheSpec).ticker(this.ticker)
+				.evictionListener((key, value, cause) -> this.cacheInvalidationIndex.unregister(name, key, value));
+	}
+
+	static Caffeine<Object, Object> newCaffeineBuilder(CacheSpec cacheSpec) {
+		Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
+
+		if (cacheSpec.getMaximumWeight() != null) {
+			caffeine.maximumWeight(cacheSpec.getMaximumWeight()).weigher(new CacheEntryWeigher());
+		} else if (cacheSpec.getMaximumSize() != null) {
+			caffeine.maximumSize(cacheSpec.getMaximumSize());
+		}
+
+		if (cacheSpec.getExpireAfterWrite() != null) {
+			caffeine.expireAfterWrite(cacheSpec.getExpireAfterWrite());
+		}
+
+		// hit/miss/eviction được actuator đưa lên /actuator/metrics (cache.gets, cache.evictions,...)
+		if (Boolean.TRUE.equals(cacheSpec.getRecordStats())) {
+			caffeine.recordStats();
+		}
+
+		return caffeine;
+	}
+}
@@ -0,0 +1,57 @@
+package com.skyapi.weatherforecast.cache;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.skyapi.weatherforecast.cache.CacheSpecProperties.Cluster;
+
+/*
+ * app.cache.cluster.enabled=true: Redis (spring.data.redis.*) vừa là tầng
+ * cache chung vừa là kênh phát xóa cache giữa các node, tắt thì mỗi node chỉ
+ * có cache local như trước
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.cache.cluster", name = "enabled", havingValue = "true")
+public class RedisCacheClusterConfig {
+
+	/*
+	 * classloader của class này để deserialize đúng class khi chạy với devtools
+	 * (RestartClassLoader)
+	 */
+	@Bean
+	public RedisTemplate<String, Object> cacheRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+		RedisTemplate<String, Object> redisTemplate = new RedisTemplate<String, Object>();
+		redisTemplate.setConnectionFactory(redisConnectionFactory);
+		redisTemplate.setKeySerializer(RedisSerializer.string());
+		redisTemplate.setValueSerializer(RedisSerializer.java(RedisCacheClusterConfig.class.getClassLoader()));
+
+		return redisTemplate;
+	}
+
+	@Bean
+	public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+			RedisConnectionFactory redisConnectionFactory) {
+		RedisMessageListenerContainer listenerContainer = new RedisMessageListenerContainer();
+		listenerContainer.setConnectionFactory(redisConnectionFactory);
+
+		return listenerContainer;
+	}
+
+	@Bean
+	public CacheCluster cacheCluster(CacheSpecProperties cacheSpecProperties,
+			RedisTemplate<String, Object> cacheRedisTemplate,
+			RedisMessageListenerContainer cacheInvalidationListenerContainer) {
+		Cluster cluster = cacheSpecProperties.getCluster();
+
+		return new CacheCluster(cluster.getNodeId(),
+				new RedisCacheInvalidationBus(cacheRedisTemplate, cacheInvalidationListenerContainer,
+						cluster.getChannel()),
+				new RedisSharedCacheTier(cacheRedisTemplate, cluster.getKeyPrefix(), cluster.getSharedCaches()),
+				cluster.getSharedCaches());
+	}
+}
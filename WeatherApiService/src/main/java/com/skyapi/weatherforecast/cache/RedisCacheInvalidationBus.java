@@ -0,0 +1,51 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/*
+ * Redis pub/sub: message ko lưu lại, node đang mất kết nối sẽ bỏ lỡ message
+ * và giữ bản local tới khi hết hạn (expireAfterWrite)
+ */
+public class RedisCacheInvalidationBus implements CacheInvalidationBus {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RedisCacheInvalidationBus.class);
+
+	private final RedisTemplate<String, Object> redisTemplate;
+	private final RedisMessageListenerContainer listenerContainer;
+	private final ChannelTopic channelTopic;
+
+	public RedisCacheInvalidationBus(RedisTemplate<String, Object> redisTemplate,
+			RedisMessageListenerContainer listenerContainer, String channel) {
+		this.redisTemplate = redisTemplate;
+		this.listenerContainer = listenerContainer;
+		this.channelTopic = new ChannelTopic(channel);
+	}
+
+	@Override
+	public void publish(CacheInvalidationMessage message) {
+		try {
+			this.redisTemplate.convertAndSend(this.channelTopic.getTopic(), message);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Cache invalidation publish failed, other nodes keep " + message + " until it expires: "
+					+ e.getMessage());
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<CacheInvalidationMessage> subscriber) {
+		RedisSerializer<?> valueSerializer = this.redisTemplate.getValueSerializer();
+
+		this.listenerContainer.addMessageListener((message, pattern) -> {
+			Object body = valueSerializer.deserialize(message.getBody());
+			if (body instanceof CacheInvalidationMessage cacheInvalidationMessage) {
+				subscriber.accept(cacheInvalidationMessage);
+			}
+		}, this.channelTopic);
+	}
+}
@@ -0,0 +1,138 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+/*
+ * tầng chung trên Redis, value serialize bằng JDK serialization (view record,
+ * list, SerializedResponse)
+ *
+ * - value:  <prefix>:entry:<cacheName>:<key>
+ * - set các value key của 1 location: <prefix>:location:<cacheName>:<locationCode>
+ *
+ * Redis lỗi/ko kết nối đc thì coi như miss/bỏ qua và log warn, request vẫn đọc
+ * từ DB, entry local vẫn hết hạn theo expireAfterWrite
+ */
+public class RedisSharedCacheTier implements SharedCacheTier {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RedisSharedCacheTier.class);
+
+	private final RedisTemplate<String, Object> redisTemplate;
+	private final String keyPrefix;
+	private final Set<String> sharedCacheNames;
+
+	public RedisSharedCacheTier(RedisTemplate<String, Object> redisTemplate, String keyPrefix,
+			Set<String> sharedCacheNames) {
+		this.redisTemplate = redisTemplate;
+		this.keyPrefix = keyPrefix;
+		this.sharedCacheNames = sharedCacheNames;
+	}
+
+	// key của @Cacheable là String/list {code, currentHour}/record nên toString() ổn định giữa các node
+	private String entryKey(String cacheName, Object key) {
+		return this.keyPrefix + ":entry:" + cacheName + ":" + key;
+	}
+
+	private String locationKey(String cacheName, String locationCode) {
+		return this.keyPrefix + ":location:" + cacheName + ":" + locationCode;
+	}
+
+	@Override
+	public Object get(String cacheName, Object key) {
+		try {
+			return this.redisTemplate.opsForValue().get(entryKey(cacheName, key));
+		} catch (RuntimeException e) {
+			LOGGER.warn("Shared cache read failed for " + cacheName + ", falling back to database: " + e.getMessage());
+			return null;
+		}
+	}
+
+	@Override
+	public void put(String cacheName, Object key, Object value, String locationCode, Duration timeToLive) {
+		String entryKey = entryKey(cacheName, key);
+
+		try {
+			if (timeToLive == null) {
+				this.redisTemplate.opsForValue().set(entryKey, value);
+			} else {
+				this.redisTemplate.opsForValue().set(entryKey, value, timeToLive);
+			}
+
+			if (locationCode != null) {
+				String locationKey = locationKey(cacheName, locationCode);
+				this.redisTemplate.opsForSet().add(locationKey, entryKey);
+				if (timeToLive != null) {
+					this.redisTemplate.expire(locationKey, timeToLive);
+				}
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("Shared cache write failed for " + cacheName + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void evict(String cacheName, Object key) {
+		try {
+			this.redisTemplate.delete(entryKey(cacheName, key));
+		} catch (RuntimeException e) {
+			LOGGER.warn("Shared cache evict failed for " + cacheName + ": " + e.getMessage());
+		}
+	}
+
+	@Override
+	public void evictLocations(Collection<String> locationCodes, Set<String> cacheNames) {
+		List<String> locationCodesWithUnresolved = new ArrayList<String>(locationCodes);
+		locationCodesWithUnresolved.add(CacheInvalidationIndex.UNRESOLVED_LOCATION_CODE);
+
+		for (String cacheName : this.sharedCacheNames) {
+			if (!cacheNames.isEmpty() && !cacheNames.contains(cacheName)) {
+				continue;
+			}
+
+			for (String locationCode : locationCodesWithUnresolved) {
+				String locationKey = locationKey(cacheName, locationCode);
+				try {
+					List<String> keys = new ArrayList<String>();
+					Set<Object> entryKeys = this.redisTemplate.opsForSet().members(locationKey);
+					if (entryKeys != null) {
+						entryKeys.forEach(entryKey -> keys.add((String) entryKey));
+					}
+					keys.add(locationKey);
+
+					this.redisTemplate.delete(keys);
+				} catch (RuntimeException e) {
+					LOGGER.warn("Shared cache evict failed for " + cacheName + "/" + locationCode + ": "
+							+ e.getMessage());
+				}
+			}
+		}
+	}
+
+	// SCAN theo tiền tố thay vì KEYS để ko chặn Redis
+	@Override
+	public void clear(String cacheName) {
+		try {
+			for (String pattern : List.of(this.keyPrefix + ":entry:" + cacheName + ":*",
+					this.keyPrefix + ":location:" + cacheName + ":*")) {
+				List<String> keys = new ArrayList<String>();
+				try (Cursor<String> cursor = this.redisTemplate
+						.scan(ScanOptions.scanOptions().match(pattern).count(1000).build())) {
+					cursor.forEachRemaining(keys::add);
+				}
+				if (!keys.isEmpty()) {
+					this.redisTemplate.delete(keys);
+				}
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("Shared cache clear failed for " + cacheName + ": " + e.getMessage());
+		}
+	}
+}
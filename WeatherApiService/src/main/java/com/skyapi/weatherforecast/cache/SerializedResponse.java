@@ -0,0 +1,15 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/*
+ * body JSON đã encode sẵn theo contentType đã thương lượng với Accept + ETag/
+ * Last-Modified (null nếu dữ liệu ko lưu thời gian cập nhật, chỉ dùng ETag),
+ * locationCode dùng để CacheInvalidationIndex xóa đúng entry khi dữ liệu của
+ * location thay đổi
+ */
+public record SerializedResponse(String locationCode, byte[] body, String contentType, String eTag,
+		Instant lastModified)
+		implements Serializable {
+}
@@ -0,0 +1,212 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.hateoas.MediaTypes;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/*
+ * cache response GET ở dạng byte JSON đã encode (HAL + INDENT_OUTPUT, theo Accept
+ * của request), khi hit thì ko cần chạy lại mapper, linkTo(methodOn(...)) và
+ * Jackson, chỉ copy byte ra socket
+ *
+ * entry bị xóa qua CacheInvalidationIndex khi dữ liệu location thay đổi và
+ * được dựng lại ở request GET kế tiếp (link HATEOAS phụ thuộc host của request
+ * nên ko dựng sẵn lúc ghi được)
+ */
+@Component
+public class SerializedResponseCache {
+	public static final String CACHE_NAME = "weatherResponseCache";
+
+	private final ObjectProvider<CacheManager> cacheManagerProvider;
+	private final ObjectProvider<RequestMappingHandlerAdapter> handlerAdapterProvider;
+
+	public SerializedResponseCache(ObjectProvider<CacheManager> cacheManagerProvider,
+			ObjectProvider<RequestMappingHandlerAdapter> handlerAdapterProvider) {
+		this.cacheManagerProvider = cacheManagerProvider;
+		this.handlerAdapterProvider = handlerAdapterProvider;
+	}
+
+	// thứ tự ưu tiên khi Accept chấp nhận cả 2 (vd: */*), giống khi trả về object
+	private static final List<MediaType> PRODUCIBLE_MEDIA_TYPES = List.of(MediaTypes.HAL_JSON,
+			MediaType.APPLICATION_JSON);
+
+	/*
+	 * baseUri nằm trong key vì link trong body là link tuyệt đối theo host của
+	 * request (vd: http://localhost/v1/realtime), mediaType vì body/Content-Type
+	 * theo Accept của request
+	 */
+	private record ResponseCacheKey(String representation, String baseUri, String mediaType, Object variant) {
+	}
+
+	/**
+	 * Chọn Content-Type cho response theo Accept (đã xếp theo q), Accept ko khớp
+	 * kiểu nào thì dùng application/hal+json như trước.
+	 *
+	 * @param acceptedMediaTypes Accept của request, rỗng nghĩa là chấp nhận mọi kiểu
+	 */
+	public static MediaType negotiateMediaType(List<MediaType> acceptedMediaTypes) {
+		List<MediaType> sortedMediaTypes = new ArrayList<MediaType>(acceptedMediaTypes);
+		sortedMediaTypes.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+
+		for (MediaType acceptedMediaType : sortedMediaTypes) {
+			if (acceptedMediaType.getQualityValue() == 0) {
+				continue;
+			}
+
+			for (MediaType producibleMediaType : PRODUCIBLE_MEDIA_TYPES) {
+				if (acceptedMediaType.isCompatibleWith(producibleMediaType)) {
+					return producibleMediaType;
+				}
+			}
+		}
+
+		return MediaTypes.HAL_JSON;
+	}
+
+	private static MediaType negotiateMediaType() {
+		HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
+				.getRequest();
+
+		List<MediaType> acceptedMediaTypes;
+		try {
+			acceptedMediaTypes = MediaType.parseMediaTypes(Collections.list(request.getHeaders(HttpHeaders.ACCEPT)));
+		} catch (InvalidMediaTypeException e) {
+			acceptedMediaTypes = List.of();
+		}
+
+		return negotiateMediaType(acceptedMediaTypes);
+	}
+
+	/*
+	 * loader trả về null (vd: list rỗng -> 204) thì ko lưu cache, controller tự xử
+	 * lý
+	 */
+	public SerializedResponse get(String representation, Object variant, Supplier<SerializedResponse> loader) {
+		Cache cache = this.getCache();
+		if (cache == null) {
+			return loader.get();
+		}
+
+		ResponseCacheKey key = new ResponseCacheKey(representation,
+				ServletUriComponentsBuilder.fromCurrentContextPath().toUriString(), negotiateMediaType().toString(),
+				variant);
+
+		SerializedResponse serializedResponse = cache.get(key, SerializedResponse.class);
+		if (serializedResponse == null) {
+			serializedResponse = loader.get();
+
+			// putIfAbsent: ghi do đọc miss, ko phải dữ liệu mới nên ko phát xóa cho node khác
+			if (serializedResponse != null) {
+				cache.putIfAbsent(key, serializedResponse);
+			}
+		}
+
+		return serializedResponse;
+	}
+
+	private Cache getCache() {
+		// @WebMvcTest ko có CacheManager -> luôn serialize, ko cache
+		CacheManager cacheManager = this.cacheManagerProvider.getIfAvailable();
+		return cacheManager == null ? null : cacheManager.getCache(CACHE_NAME);
+	}
+
+	/*
+	 * dùng đúng HttpMessageConverter mà spring chọn cho Content-Type đã thương
+	 * lượng với Accept của request hiện tại (có cấu hình HAL của spring-hateoas +
+	 * ObjectMapper bên class Main) nên body giống hệt khi trả về object
+	 *
+	 * lastModified null nếu dữ liệu ko lưu thời gian cập nhật (chỉ dùng ETag)
+	 */
+	@SuppressWarnings("unchecked")
+	public SerializedResponse serialize(String locationCode, Object body, Instant lastModified) {
+		MediaType mediaType = negotiateMediaType();
+
+		for (HttpMessageConverter<?> converter : this.handlerAdapterProvider.getObject().getMessageConverters()) {
+			if (converter.canWrite(body.getClass(), mediaType)) {
+				ByteArrayHttpOutputMessage outputMessage = new ByteArrayHttpOutputMessage();
+
+				try {
+					((HttpMessageConverter<Object>) converter).write(body, mediaType, outputMessage);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+
+				byte[] bytes = outputMessage.toByteArray();
+				String eTag = "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+
+				return new SerializedResponse(locationCode, bytes, mediaType.toString(), eTag, lastModified);
+			}
+		}
+
+		throw new IllegalStateException("No HttpMessageConverter for " + body.getClass().getName());
+	}
+
+	/*
+	 * có ETag/Last-Modified thì spring tự so với If-None-Match/If-Modified-Since của
+	 * request GET và trả về 304 (Not Modified) mà ko gửi body, Vary: Accept để
+	 * cache phía client/proxy ko trả nhầm Content-Type
+	 */
+	public ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse, CacheControl cacheControl) {
+		return buildResponseEntity(serializedResponse, cacheControl);
+	}
+
+	// dùng chung với tầng reactive
+	public static ResponseEntity<byte[]> buildResponseEntity(SerializedResponse serializedResponse,
+			CacheControl cacheControl) {
+		ResponseEntity.BodyBuilder bodyBuilder = ResponseEntity.ok().cacheControl(cacheControl)
+				.varyBy(HttpHeaders.ACCEPT).eTag(serializedResponse.eTag())
+				.contentType(MediaType.parseMediaType(serializedResponse.contentType()));
+
+		if (serializedResponse.lastModified() != null) {
+			bodyBuilder.lastModified(serializedResponse.lastModified());
+		}
+
+		return bodyBuilder.body(serializedResponse.body());
+	}
+
+	private static class ByteArrayHttpOutputMessage implements HttpOutputMessage {
+		private final HttpHeaders headers = new HttpHeaders();
+		private final ByteArrayOutputStream body = new ByteArrayOutputStream(1024);
+
+		@Override
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		@Override
+		public OutputStream getBody() {
+			return this.body;
+		}
+
+		private byte[] toByteArray() {
+			return this.body.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.skyapi.weatherforecast.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Tầng cache dùng chung giữa các node, nằm sau near-cache (Caffeine) của mỗi
+ * node, có bản Redis cho chạy thật và bản trong bộ nhớ cho test.
+ */
+public interface SharedCacheTier {
+
+	/**
+	 * @return value đã lưu, null nếu ko có/hết hạn/tầng chung lỗi (coi như miss)
+	 */
+	Object get(String cacheName, Object key);
+
+	/**
+	 * @param locationCode location của value (xem LocationIndexedCache), null nếu
+	 *                     ko xác định đc, dùng cho {@link #evictLocations}
+	 * @param timeToLive   thường là expireAfterWrite của cache
+	 */
+	void put(String cacheName, Object key, Object value, String locationCode, Duration timeToLive);
+
+	void evict(String cacheName, Object key);
+
+	/**
+	 * Giống CacheInvalidationIndex.evictAll(), entry chưa xác định đc location
+	 * (list rỗng) cũng bị xóa.
+	 *
+	 * @param cacheNames các cache cần xóa, rỗng nghĩa là mọi cache
+	 */
+	void evictLocations(Collection<String> locationCodes, Set<String> cacheNames);
+
+	void clear(String cacheName);
+}
@@ -3,12 +3,11 @@ package com.skyapi.weatherforecast.daily;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.coyote.BadRequestException;
-import org.modelmapper.ModelMapper;
 import org.springframework.hateoas.EntityModel;
 import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +20,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.full.FullWeatherApiController;
@@ -39,39 +40,46 @@ import lombok.RequiredArgsConstructor;
 public class DailyWeatherApiController {
 	private final DailyWeatherService dailyWeatherService;
 	private final GeolocationService geolocationService;
-	private final ModelMapper modelMapper;
+	private final SerializedResponseCache serializedResponseCache;
 
 	@GetMapping
 	public ResponseEntity<?> listDailyForecastByIPAddress(HttpServletRequest request) {
 		String ipAddress = CommonUtility.getIpAddress(request);
 		Location location = this.geolocationService.getLocationByIp2Location(ipAddress);
 
-		List<DailyWeather> dailyWeathers = this.dailyWeatherService.getDailyWeatherByLocation(location);
+		SerializedResponse serializedResponse = this.serializedResponseCache.get("daily-by-ip",
+				Arrays.asList(location.getCountryCode(), location.getCityName()), () -> {
+					List<DailyWeatherView> dailyWeathers = this.dailyWeatherService
+							.getDailyWeatherByLocation(location);
 
-		if (dailyWeathers.isEmpty()) {
-			return ResponseEntity.noContent().build();
-		}
+					if (dailyWeathers.isEmpty()) {
+						return null;
+					}
 
-		DailyWeatherListDTO dailyWeatherListDTO = this.convertListDailyWeatherToDTO(dailyWeathers);
+					DailyWeatherListDTO dailyWeatherListDTO = this.convertListDailyWeatherViewToDTO(dailyWeathers);
 
-		EntityModel<DailyWeatherListDTO> entity = this.addLinksByIp(dailyWeatherListDTO);
+					return this.serialize(dailyWeathers, this.addLinksByIp(dailyWeatherListDTO));
+				});
 
-		return ResponseEntity.ok().cacheControl(CacheControl.maxAge(6, TimeUnit.HOURS).cachePublic()).body(entity);
+		return this.toResponseEntity(serializedResponse);
 	}
 
 	@GetMapping("/{locationCode}")
 	public ResponseEntity<?> getDailyForecastByLocationCode(@PathVariable("locationCode") String locationCode) {
-		List<DailyWeather> dailyWeathers = this.dailyWeatherService.getDailyWeatherByLocationCode(locationCode);
+		SerializedResponse serializedResponse = this.serializedResponseCache.get("daily-by-code", locationCode, () -> {
+			List<DailyWeatherView> dailyWeathers = this.dailyWeatherService
+					.getDailyWeatherByLocationCode(locationCode);
 
-		if (dailyWeathers.isEmpty()) {
-			return ResponseEntity.noContent().build();
-		}
+			if (dailyWeathers.isEmpty()) {
+				return null;
+			}
 
-		DailyWeatherListDTO dailyWeatherListDTO = this.convertListDailyWeatherToDTO(dailyWeathers);
+			DailyWeatherListDTO dailyWeatherListDTO = this.convertListDailyWeatherViewToDTO(dailyWeathers);
 
-		EntityModel<DailyWeatherListDTO> entity = this.addLinksByLocation(locationCode, dailyWeatherListDTO);
+			return this.serialize(dailyWeathers, this.addLinksByLocation(locationCode, dailyWeatherListDTO));
+		});
 
-		return ResponseEntity.ok().cacheControl(CacheControl.maxAge(6, TimeUnit.HOURS).cachePublic()).body(entity);
+		return this.toResponseEntity(serializedResponse);
 	}
 
 	@PutMapping("/{locationCode}")
@@ -92,6 +100,26 @@ public class DailyWeatherApiController {
 		return ResponseEntity.ok().body(this.addLinksByLocation(locationCode, dailyWeatherListDTO));
 	}
 
+	/*
+	 * list rỗng -> loader trả về null -> 204, daily ko lưu thời gian cập nhật nên
+	 * ko có Last-Modified, client dùng ETag
+	 */
+	private SerializedResponse serialize(List<DailyWeatherView> dailyWeathers,
+			EntityModel<DailyWeatherListDTO> entityModel) {
+		String locationCode = dailyWeathers.get(0).locationCode();
+
+		return this.serializedResponseCache.serialize(locationCode, entityModel, null);
+	}
+
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		if (serializedResponse == null) {
+			return ResponseEntity.noContent().build();
+		}
+
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(6, TimeUnit.HOURS).cachePublic());
+	}
+
 	private DailyWeatherListDTO convertListDailyWeatherToDTO(List<DailyWeather> dailyWeathers) {
 		Location location = dailyWeathers.get(0).getId().getLocation();
 
@@ -99,26 +127,29 @@ public class DailyWeatherApiController {
 		dailyWeatherListDTO.setLocation(location.toString());
 
 		for (DailyWeather dailyWeather : dailyWeathers) {
-			// dùng cấu hình bên Main để ánh xạ 2 field dayOfMonth và month
-			DailyWeatherDTO dailyWeatherDTO = this.modelMapper.map(dailyWeather, DailyWeatherDTO.class);
+			// DailyWeatherMapper ánh xạ 2 field dayOfMonth và month nằm trong id
+			DailyWeatherDTO dailyWeatherDTO = DailyWeatherMapper.toDTO(dailyWeather);
 			dailyWeatherListDTO.getDailyForecast().add(dailyWeatherDTO);
 		}
 
 		return dailyWeatherListDTO;
 	}
 
-	private List<DailyWeather> convertListDailyWeatherDTOToEntity(@Valid List<DailyWeatherDTO> dailyWeatherDTOs) {
-		List<DailyWeather> dailyWeathers = new ArrayList<DailyWeather>();
-
-		dailyWeatherDTOs.forEach(dailyWeatherDTO -> {
-			/*
-			 * dùng cấu hình modelMapper bên class Main để ánh xạ ngược field
-			 * dayOfMonth/month từ DTO sang entity
-			 */
-			dailyWeathers.add(modelMapper.map(dailyWeatherDTO, DailyWeather.class));
-		});
+	// các view cùng 1 location nên lấy tên location từ phần tử đầu
+	private DailyWeatherListDTO convertListDailyWeatherViewToDTO(List<DailyWeatherView> dailyWeathers) {
+		DailyWeatherListDTO dailyWeatherListDTO = new DailyWeatherListDTO();
+		dailyWeatherListDTO.setLocation(dailyWeathers.get(0).location());
 
-		return dailyWeathers;
+		for (DailyWeatherView dailyWeather : dailyWeathers) {
+			dailyWeatherListDTO.getDailyForecast().add(DailyWeatherMapper.toDTO(dailyWeather));
+		}
+
+		return dailyWeatherListDTO;
+	}
+
+	private List<DailyWeather> convertListDailyWeatherDTOToEntity(@Valid List<DailyWeatherDTO> dailyWeatherDTOs) {
+		// ánh xạ ngược field dayOfMonth/month từ DTO sang id của entity
+		return DailyWeatherMapper.toEntities(dailyWeatherDTOs);
 	}
 
 	/*
@@ -0,0 +1,97 @@
+package com.skyapi.weatherforecast.daily;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.DailyWeatherId;
+
+/*
+ * map tay thay cho typeMap DailyWeather <-> DailyWeatherDTO bên class Main:
+ * dayOfMonth/month lấy từ/ghi vào id, id null thì DTO nhận 0
+ */
+public final class DailyWeatherMapper {
+	private DailyWeatherMapper() {
+	}
+
+	public static DailyWeatherDTO toDTO(DailyWeather dailyWeather) {
+		if (dailyWeather == null) {
+			return null;
+		}
+
+		DailyWeatherDTO dailyWeatherDTO = new DailyWeatherDTO();
+		if (dailyWeather.getId() != null) {
+			dailyWeatherDTO.setDayOfMonth(dailyWeather.getId().getDayOfMonth());
+			dailyWeatherDTO.setMonth(dailyWeather.getId().getMonth());
+		}
+		dailyWeatherDTO.setMaxTemp(dailyWeather.getMaxTemp());
+		dailyWeatherDTO.setMinTemp(dailyWeather.getMinTemp());
+		dailyWeatherDTO.setPrecipitation(dailyWeather.getPrecipitation());
+		dailyWeatherDTO.setStatus(dailyWeather.getStatus());
+
+		return dailyWeatherDTO;
+	}
+
+	public static DailyWeatherDTO toDTO(DailyWeatherView dailyWeatherView) {
+		if (dailyWeatherView == null) {
+			return null;
+		}
+
+		DailyWeatherDTO dailyWeatherDTO = new DailyWeatherDTO();
+		dailyWeatherDTO.setDayOfMonth(dailyWeatherView.dayOfMonth());
+		dailyWeatherDTO.setMonth(dailyWeatherView.month());
+		dailyWeatherDTO.setMaxTemp(dailyWeatherView.maxTemp());
+		dailyWeatherDTO.setMinTemp(dailyWeatherView.minTemp());
+		dailyWeatherDTO.setPrecipitation(dailyWeatherView.precipitation());
+		dailyWeatherDTO.setStatus(dailyWeatherView.status());
+
+		return dailyWeatherDTO;
+	}
+
+	// DailyWeather ko khởi tạo sẵn id nên tạo mới, id.location để controller tự gán
+	public static DailyWeather toEntity(DailyWeatherDTO dailyWeatherDTO) {
+		if (dailyWeatherDTO == null) {
+			return null;
+		}
+
+		DailyWeatherId dailyWeatherId = new DailyWeatherId();
+		dailyWeatherId.setDayOfMonth(dailyWeatherDTO.getDayOfMonth());
+		dailyWeatherId.setMonth(dailyWeatherDTO.getMonth());
+
+		DailyWeather dailyWeather = new DailyWeather();
+		dailyWeather.setId(dailyWeatherId);
+		dailyWeather.setMaxTemp(dailyWeatherDTO.getMaxTemp());
+		dailyWeather.setMinTemp(dailyWeatherDTO.getMinTemp());
+		dailyWeather.setPrecipitation(dailyWeatherDTO.getPrecipitation());
+		dailyWeather.setStatus(dailyWeatherDTO.getStatus());
+
+		return dailyWeather;
+	}
+
+	// list null thì trả về null giống ModelMapper
+	public static List<DailyWeatherDTO> toDTOs(List<DailyWeather> dailyWeathers) {
+		if (dailyWeathers == null) {
+			return null;
+		}
+
+		List<DailyWeatherDTO> dailyWeatherDTOs = new ArrayList<DailyWeatherDTO>(dailyWeathers.size());
+		for (DailyWeather dailyWeather : dailyWeathers) {
+			dailyWeatherDTOs.add(toDTO(dailyWeather));
+		}
+
+		return dailyWeatherDTOs;
+	}
+
+	public static List<DailyWeather> toEntities(List<DailyWeatherDTO> dailyWeatherDTOs) {
+		if (dailyWeatherDTOs == null) {
+			return null;
+		}
+
+		List<DailyWeather> dailyWeathers = new ArrayList<DailyWeather>(dailyWeatherDTOs.size());
+		for (DailyWeatherDTO dailyWeatherDTO : dailyWeatherDTOs) {
+			dailyWeathers.add(toEntity(dailyWeatherDTO));
+		}
+
+		return dailyWeathers;
+	}
+}
@@ -0,0 +1,86 @@
+package com.skyapi.weatherforecast.daily;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.DailyWeatherId;
+import com.skyapi.weatherforecast.merge.ForecastRowMerger;
+
+// khóa chính DailyWeatherId = {location_code, day_of_month, month}
+@Repository
+public class DailyWeatherMerger extends ForecastRowMerger<List<Integer>, DailyWeather> {
+
+	public DailyWeatherMerger(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		super(namedParameterJdbcTemplate);
+	}
+
+	@Override
+	protected String selectSql() {
+		return "SELECT location_code, day_of_month, month, min_temp, max_temp, precipitation, status "
+				+ "FROM daily_weather WHERE location_code IN (:locationCodes)";
+	}
+
+	@Override
+	protected DailyWeather mapRow(ResultSet resultSet) throws SQLException {
+		DailyWeather dailyWeather = new DailyWeather();
+		dailyWeather.setId(new DailyWeatherId(resultSet.getInt("day_of_month"), resultSet.getInt("month"), null));
+		dailyWeather.setMinTemp(resultSet.getInt("min_temp"));
+		dailyWeather.setMaxTemp(resultSet.getInt("max_temp"));
+		dailyWeather.setPrecipitation(resultSet.getInt("precipitation"));
+		dailyWeather.setStatus(resultSet.getString("status"));
+
+		return dailyWeather;
+	}
+
+	@Override
+	protected List<Integer> keyOf(DailyWeather row) {
+		return List.of(row.getId().getDayOfMonth(), row.getId().getMonth());
+	}
+
+	@Override
+	protected boolean hasSameValues(DailyWeather storedRow, DailyWeather incomingRow) {
+		return storedRow.getMinTemp() == incomingRow.getMinTemp() && storedRow.getMaxTemp() == incomingRow.getMaxTemp()
+				&& storedRow.getPrecipitation() == incomingRow.getPrecipitation()
+				&& Objects.equals(storedRow.getStatus(), incomingRow.getStatus());
+	}
+
+	@Override
+	protected String insertSql() {
+		return "INSERT INTO daily_weather (location_code, day_of_month, month, min_temp, max_temp, precipitation, status) "
+				+ "VALUES (?, ?, ?, ?, ?, ?, ?)";
+	}
+
+	@Override
+	protected Object[] insertArgs(String locationCode, DailyWeather row) {
+		return new Object[] { locationCode, row.getId().getDayOfMonth(), row.getId().getMonth(), row.getMinTemp(),
+				row.getMaxTemp(), row.getPrecipitation(), row.getStatus() };
+	}
+
+	@Override
+	protected String updateSql() {
+		return "UPDATE daily_weather SET min_temp = ?, max_temp = ?, precipitation = ?, status = ? "
+				+ "WHERE location_code = ? AND day_of_month = ? AND month = ?";
+	}
+
+	@Override
+	protected Object[] updateArgs(String locationCode, DailyWeather row) {
+		return new Object[] { row.getMinTemp(), row.getMaxTemp(), row.getPrecipitation(), row.getStatus(),
+				locationCode, row.getId().getDayOfMonth(), row.getId().getMonth() };
+	}
+
+	@Override
+	protected String deleteSql() {
+		return "DELETE FROM daily_weather WHERE location_code = ? AND day_of_month = ? AND month = ?";
+	}
+
+	@Override
+	protected Object[] deleteArgs(String locationCode, DailyWeather row) {
+		return new Object[] { locationCode, row.getId().getDayOfMonth(), row.getId().getMonth() };
+	}
+}
@@ -1,5 +1,6 @@
 package com.skyapi.weatherforecast.daily;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,4 +14,16 @@ import com.skyapi.weatherforecast.common.DailyWeatherId;
 public interface DailyWeatherRepository extends JpaRepository<DailyWeather, DailyWeatherId> {
 	@Query("SELECT d FROM DailyWeather d WHERE d.id.location.code = ?1 AND d.id.location.trashed = false")
 	public List<DailyWeather> findByLocationCode(String locationCode);
+
+	// API GET chỉ cần các cột này, ko tạo entity DailyWeather/Location
+	@Query("SELECT new com.skyapi.weatherforecast.daily.DailyWeatherView(l.code, l.cityName, l.regionName, l.countryName,"
+			+ " d.id.dayOfMonth, d.id.month, d.minTemp, d.maxTemp, d.precipitation, d.status)"
+			+ " FROM DailyWeather d JOIN d.id.location l WHERE l.code = ?1 AND l.trashed = false")
+	public List<DailyWeatherView> findViewsByLocationCode(String locationCode);
+
+	// API batch: giống query trên cho nhiều location trong 1 query IN
+	@Query("SELECT new com.skyapi.weatherforecast.daily.DailyWeatherView(l.code, l.cityName, l.regionName, l.countryName,"
+			+ " d.id.dayOfMonth, d.id.month, d.minTemp, d.maxTemp, d.precipitation, d.status)"
+			+ " FROM DailyWeather d JOIN d.id.location l WHERE l.code IN ?1 AND l.trashed = false")
+	public List<DailyWeatherView> findViewsByLocationCodes(Collection<String> locationCodes);
 }
@@ -1,14 +1,18 @@
 package com.skyapi.weatherforecast.daily;
 
 import java.util.List;
+import java.util.Map;
 
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.CacheReloader;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationDirectory;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
 
@@ -16,36 +20,56 @@ import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
-public class DailyWeatherService {
+public class DailyWeatherService implements CacheReloader {
 	private final DailyWeatherRepository dailyWeatherRepository;
+	private final DailyWeatherMerger dailyWeatherMerger;
 	private final LocationRepository locationRepository;
+	private final LocationDirectory locationDirectory;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
 
-	// location lấy bằng ipAddress nếu thiếu thông tin (thiếu locationCode)
-	@Cacheable(cacheNames = "dailyWeatherCacheByCountryCodeAndCityName", key = "{#location.countryCode, #location.cityName}")
-	public List<DailyWeather> getDailyWeatherByLocation(Location location) {
-		String countryCode = location.getCountryCode();
-		String cityName = location.getCityName();
+	/*
+	 * location lấy bằng ipAddress nếu thiếu thông tin (thiếu locationCode) -> tra
+	 * code trong LocationDirectory rồi dùng chung cache với API theo code
+	 */
+	@Cacheable(cacheNames = "dailyWeatherCacheByLocationCode", key = "@locationDirectory.resolveCode(#location)", sync = true)
+	@Transactional(readOnly = true)
+	public List<DailyWeatherView> getDailyWeatherByLocation(Location location) {
+		String locationCode = this.locationDirectory.resolveCode(location);
 
-		Location locationInDB = this.locationRepository.findByCountryCodeAndCityName(countryCode, cityName);
-		if (locationInDB == null) {
-			throw new LocationNotFoundException(countryCode, cityName);
+		return this.dailyWeatherRepository.findViewsByLocationCode(locationCode);
+	}
+
+	// list rỗng ms cần query thêm để phân biệt 404 với 204 (query view đã lọc trashed)
+	@Cacheable(cacheNames = "dailyWeatherCacheByLocationCode", key = "#locationCode", sync = true)
+	@Transactional(readOnly = true)
+	public List<DailyWeatherView> getDailyWeatherByLocationCode(String locationCode) {
+		List<DailyWeatherView> dailyWeathers = this.dailyWeatherRepository.findViewsByLocationCode(locationCode);
+
+		if (dailyWeathers.isEmpty() && !this.locationRepository.existsUntrashedByCode(locationCode)) {
+			throw new LocationNotFoundException(locationCode);
 		}
 
-		return this.dailyWeatherRepository.findByLocationCode(locationInDB.getCode());
+		return dailyWeathers;
 	}
 
-	@Cacheable("dailyWeatherCacheByLocationCode")
-	public List<DailyWeather> getDailyWeatherByLocationCode(String locationCode) {
-		Location locationInDB = this.locationRepository.findByCode(locationCode);
-		if (locationInDB == null) {
-			throw new LocationNotFoundException(locationCode);
+	@Override
+	public String getCacheName() {
+		return "dailyWeatherCacheByLocationCode";
+	}
+
+	// refresh-ahead, location bị xóa/trashed thì trả về null để bỏ entry
+	@Override
+	public Object reload(Object key) {
+		String locationCode = (String) key;
+
+		List<DailyWeatherView> dailyWeathers = this.dailyWeatherRepository.findViewsByLocationCode(locationCode);
+		if (dailyWeathers.isEmpty() && !this.locationRepository.existsUntrashedByCode(locationCode)) {
+			return null;
 		}
 
-		return this.dailyWeatherRepository.findByLocationCode(locationInDB.getCode());
+		return dailyWeathers;
 	}
 
-	@CachePut(cacheNames = "dailyWeatherCacheByLocationCode", key = "#locationCode")
-	@CacheEvict(cacheNames = "dailyWeatherCacheByCountryCodeAndCityName", allEntries = true)
 	public List<DailyWeather> updateDailyWeather(String locationCode, List<DailyWeather> dailyWeathers) {
 		Location location = this.locationRepository.findByCode(locationCode);
 		if (location == null) {
@@ -57,15 +81,22 @@ public class DailyWeatherService {
 		});
 
 		/*
-		 * Xoá danh sách cũ, thêm danh sách mới để orphanRemoval xóa những row có trog
-		 * db nhưng ko có trong request
+		 * so với các row đang có theo DailyWeatherId, chỉ UPDATE/INSERT/DELETE những
+		 * ngày thay đổi thay vì clear() + addAll() để orphanRemoval xóa hết rồi insert
+		 * lại từng row
+		 *
+		 * dùng code của location trong DB, findByCode ko phân biệt hoa thường nên
+		 * locationCode trên path có thể là hn_vn
 		 */
-		location.getListDailyWeathers().clear();
-		location.getListDailyWeathers().addAll(dailyWeathers);
+		this.dailyWeatherMerger.merge(Map.of(location.getCode(), dailyWeathers));
 
-		// Lưu location => tự động xóa các orphan
-		Location updatedLocation = locationRepository.save(location);
+		/*
+		 * cache GET giữ DailyWeatherView chứ ko phải entity nên ko @CachePut đc, xóa để
+		 * lần GET sau đọc lại (cùng với response JSON đã serialize)
+		 */
+		this.cacheInvalidationIndex.evict(location.getCode(), "dailyWeatherCacheByLocationCode",
+				SerializedResponseCache.CACHE_NAME);
 
-		return updatedLocation.getListDailyWeathers();
+		return dailyWeathers;
 	}
 }
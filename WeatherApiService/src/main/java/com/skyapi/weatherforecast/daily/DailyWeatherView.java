@@ -0,0 +1,9 @@
+package com.skyapi.weatherforecast.daily;
+
+import com.skyapi.weatherforecast.base.LocationScopedView;
+
+// 1 row của daily_weather + tên location, tạo bằng constructor expression trong JPQL
+public record DailyWeatherView(String locationCode, String cityName, String regionName, String countryName,
+		int dayOfMonth, int month, int minTemp, int maxTemp, int precipitation, String status)
+		implements LocationScopedView {
+}
@@ -1,10 +1,9 @@
 package com.skyapi.weatherforecast.full;
 
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.coyote.BadRequestException;
-import org.modelmapper.ModelMapper;
-import org.springframework.hateoas.EntityModel;
 import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -15,6 +14,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.util.CommonUtility;
 
@@ -28,33 +29,39 @@ import lombok.RequiredArgsConstructor;
 public class FullWeatherApiController {
 	private final GeolocationService geolocationService;
 	private final FullWeatherService fullWeatherService;
-	private final ModelMapper modelMapper;
 	private final FullWeatherModelAssembler fullWeatherModelAssembler;
+	private final SerializedResponseCache serializedResponseCache;
 
 	@GetMapping
 	public ResponseEntity<?> getFullWeatherByIPAddress(HttpServletRequest request) {
 		String ipAddress = CommonUtility.getIpAddress(request);
 		Location locationFromIp = this.geolocationService.getLocationByIp2Location(ipAddress);
 
-		Location location = this.fullWeatherService.getLocationByIpAddress(locationFromIp);
+		SerializedResponse serializedResponse = this.serializedResponseCache.get("full-by-ip",
+				Arrays.asList(locationFromIp.getCountryCode(), locationFromIp.getCityName()), () -> {
+					Location location = this.fullWeatherService.getFullWeatherByIpAddress(locationFromIp);
 
-		FullWeatherDTO fullWeatherDTO = this.convertLocationEntityToFullWeatherDTO(location);
+					FullWeatherDTO fullWeatherDTO = this.convertLocationEntityToFullWeatherDTO(location);
 
-		EntityModel<FullWeatherDTO> entity = this.fullWeatherModelAssembler.toModel(fullWeatherDTO);
+					return this.serializedResponseCache.serialize(location.getCode(),
+							this.fullWeatherModelAssembler.toModel(fullWeatherDTO), null);
+				});
 
-		return ResponseEntity.ok().cacheControl(CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic()).body(entity);
+		return this.toResponseEntity(serializedResponse);
 	}
 
 	@GetMapping("/{locationCode}")
 	public ResponseEntity<?> getFullWeatherByLocationCode(@PathVariable("locationCode") String locationCode) {
-		Location location = this.fullWeatherService.getLocationByCode(locationCode);
+		SerializedResponse serializedResponse = this.serializedResponseCache.get("full-by-code", locationCode, () -> {
+			Location location = this.fullWeatherService.getFullWeatherByCode(locationCode);
 
-		FullWeatherDTO fullWeatherDTO = this.convertLocationEntityToFullWeatherDTO(location);
+			FullWeatherDTO fullWeatherDTO = this.convertLocationEntityToFullWeatherDTO(location);
 
-		EntityModel<FullWeatherDTO> entity = this.fullWeatherModelAssembler.addLinksByLocation(locationCode,
-				fullWeatherDTO);
+			return this.serializedResponseCache.serialize(location.getCode(),
+					this.fullWeatherModelAssembler.addLinksByLocation(locationCode, fullWeatherDTO), null);
+		});
 
-		return ResponseEntity.ok().cacheControl(CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic()).body(entity);
+		return this.toResponseEntity(serializedResponse);
 	}
 
 	@PutMapping("/{locationCode}")
@@ -76,8 +83,17 @@ public class FullWeatherApiController {
 		return ResponseEntity.ok(this.fullWeatherModelAssembler.addLinksByLocation(locationCode, fullWeatherDTO));
 	}
 
+	/*
+	 * hourly/daily ko lưu thời gian cập nhật nên ko có Last-Modified (chỉ ETag),
+	 * entry bị xóa mỗi khi location/weather đổi
+	 */
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic());
+	}
+
 	private FullWeatherDTO convertLocationEntityToFullWeatherDTO(Location location) {
-		FullWeatherDTO fullWeatherDTO = this.modelMapper.map(location, FullWeatherDTO.class);
+		FullWeatherDTO fullWeatherDTO = FullWeatherMapper.toDTO(location);
 
 		/*
 		 * theo doc thì ko show field này, dùng
@@ -90,7 +106,7 @@ public class FullWeatherApiController {
 	}
 
 	private Location convertFullWeatherDTOToLocationEntity(FullWeatherDTO fullWeatherDTO) {
-		return this.modelMapper.map(fullWeatherDTO, Location.class);
+		return FullWeatherMapper.toEntity(fullWeatherDTO);
 	}
 
 }
@@ -0,0 +1,47 @@
+package com.skyapi.weatherforecast.full;
+
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+/*
+ * map tay thay cho typeMap Location <-> FullWeatherDTO bên class Main, các phần
+ * con dùng lại mapper của realtime/hourly/daily
+ */
+public final class FullWeatherMapper {
+	private FullWeatherMapper() {
+	}
+
+	public static FullWeatherDTO toDTO(Location location) {
+		if (location == null) {
+			return null;
+		}
+
+		FullWeatherDTO fullWeatherDTO = new FullWeatherDTO();
+		fullWeatherDTO.setLocation(location.toString());
+
+		// realtimeWeather null thì giữ object rỗng mặc định của DTO (giống ModelMapper)
+		if (location.getRealtimeWeather() != null) {
+			fullWeatherDTO.setRealtimeWeather(RealtimeWeatherMapper.toDTO(location.getRealtimeWeather()));
+		}
+		fullWeatherDTO.setListHourlyWeather(HourlyWeatherMapper.toDTOs(location.getListHourlyWeather()));
+		fullWeatherDTO.setListDailyWeathers(DailyWeatherMapper.toDTOs(location.getListDailyWeathers()));
+
+		return fullWeatherDTO;
+	}
+
+	// chỉ map phần weather, code/cityName/... của location do controller tự gán
+	public static Location toEntity(FullWeatherDTO fullWeatherDTO) {
+		if (fullWeatherDTO == null) {
+			return null;
+		}
+
+		Location location = new Location();
+		location.setRealtimeWeather(RealtimeWeatherMapper.toEntity(fullWeatherDTO.getRealtimeWeather()));
+		location.setListHourlyWeather(HourlyWeatherMapper.toEntities(fullWeatherDTO.getListHourlyWeather()));
+		location.setListDailyWeathers(DailyWeatherMapper.toEntities(fullWeatherDTO.getListDailyWeathers()));
+
+		return location;
+	}
+}
@@ -0,0 +1,27 @@
+package com.skyapi.weatherforecast.full;
+
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * fetch plan cho API full: findByCode rồi để mapper đọc realtimeWeather,
+ * listHourlyWeather, listDailyWeathers thì mỗi quan hệ là 1 query riêng
+ *
+ * Hibernate ko cho JOIN FETCH 2 List (bag) trong cùng 1 query (tích Descartes
+ * hourly x daily) nên tách 2 query trong cùng 1 transaction: query sau trả về
+ * đúng instance Location của query trước (persistence context) và chỉ nạp thêm
+ * listDailyWeathers
+ *
+ * ORDER BY theo khóa chính giống thứ tự khi nạp lazy trước đây
+ */
+public interface FullWeatherRepository extends Repository<Location, String> {
+	@Query("SELECT l FROM Location l LEFT JOIN FETCH l.realtimeWeather LEFT JOIN FETCH l.listHourlyWeather h"
+			+ " WHERE l.code = ?1 AND l.trashed = false ORDER BY h.id.hourOfDay")
+	public Location findWithRealtimeAndHourlyWeatherByCode(String code);
+
+	@Query("SELECT l FROM Location l LEFT JOIN FETCH l.listDailyWeathers d"
+			+ " WHERE l.code = ?1 ORDER BY d.id.dayOfMonth, d.id.month")
+	public Location findWithDailyWeatherByCode(String code);
+}
@@ -2,57 +2,123 @@ package com.skyapi.weatherforecast.full;
 
 import java.util.Date;
 import java.util.List;
+import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
-import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.skyapi.weatherforecast.AbstractLocationService;
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.HourlyWeather;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationDirectory;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherStream;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherWriteBehind;
 
 @Service
 public class FullWeatherService extends AbstractLocationService {
-
-	public FullWeatherService(LocationRepository locationRepository) {
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final LocationDirectory locationDirectory;
+	private final FullWeatherRepository fullWeatherRepository;
+	private final RealtimeWeatherStream realtimeWeatherStream;
+	// chỉ có khi app.realtime.write-behind.enabled=true
+	private final Optional<RealtimeWeatherWriteBehind> realtimeWeatherWriteBehind;
+
+	public FullWeatherService(LocationRepository locationRepository, CacheInvalidationIndex cacheInvalidationIndex,
+			LocationDirectory locationDirectory, FullWeatherRepository fullWeatherRepository,
+			RealtimeWeatherStream realtimeWeatherStream,
+			Optional<RealtimeWeatherWriteBehind> realtimeWeatherWriteBehind) {
 		super();
 		this.locationRepository = locationRepository;
+		this.cacheInvalidationIndex = cacheInvalidationIndex;
+		this.locationDirectory = locationDirectory;
+		this.fullWeatherRepository = fullWeatherRepository;
+		this.realtimeWeatherStream = realtimeWeatherStream;
+		this.realtimeWeatherWriteBehind = realtimeWeatherWriteBehind;
+	}
+
+	/*
+	 * location đã nạp đủ realtime/hourly/daily bằng 2 query (xem
+	 * FullWeatherRepository), mapper đọc các quan hệ ko phát sinh thêm query
+	 *
+	 * ko dùng cache locationCacheByCode vì entity trong đó (LocationService đưa
+	 * vào) chưa chắc đã nạp các list weather, response đã có
+	 * SerializedResponseCache giữ
+	 */
+	@Transactional(readOnly = true)
+	public Location getFullWeatherByCode(String locationCode) {
+		Location location = this.fetchFullWeather(locationCode);
+		if (location == null) {
+			throw new LocationNotFoundException(locationCode);
+		}
+
+		return location;
 	}
 
-	@Cacheable(cacheNames = "fullWeatherCacheByCountryCodeAndCityName", key = "{#locationFromIp.countryCode, #locationFromIp.cityName}")
-	public Location getLocationByIpAddress(Location locationFromIp) {
-		String countryCode = locationFromIp.getCountryCode();
-		String cityName = locationFromIp.getCityName();
+	// tra code của location lấy từ IP trong LocationDirectory rồi nạp giống API theo code
+	@Transactional(readOnly = true)
+	public Location getFullWeatherByIpAddress(Location locationFromIp) {
+		String locationCode = this.locationDirectory.resolveCode(locationFromIp);
 
-		Location location = this.locationRepository.findByCountryCodeAndCityName(countryCode, cityName);
+		Location location = this.fetchFullWeather(locationCode);
 		if (location == null) {
-			throw new LocationNotFoundException(countryCode, cityName);
+			throw new LocationNotFoundException(locationFromIp.getCountryCode(), locationFromIp.getCityName());
+		}
+
+		return location;
+	}
+
+	private Location fetchFullWeather(String locationCode) {
+		// đọc bản đang chờ trước khi query DB để ko lọt bản vừa flush xong
+		RealtimeWeatherView pending = locationCode != null && this.realtimeWeatherWriteBehind.isPresent()
+				? this.realtimeWeatherWriteBehind.get().findPending(locationCode)
+				: null;
+
+		Location location = this.fullWeatherRepository.findWithRealtimeAndHourlyWeatherByCode(locationCode);
+		if (location != null) {
+			this.fullWeatherRepository.findWithDailyWeatherByCode(locationCode);
+			this.overlayPendingRealtimeWeather(location, pending);
 		}
 
 		return location;
 	}
 
 	/*
-	 * vì hàm này cập nhật realtime/hourly/daily nên buộc phải xóa hết cache cũ liên
-	 * quan, nhưng @Cacheable/@CachePut/@CacheEvict ko cho dùng lặp nhiều lần nên
-	 * dùng @Caching để quản lý và dùng nhiều lần
+	 * có write-behind thì realtime_weather trong DB có thể cũ hơn bản đang chờ
+	 * ghi, response full đc SerializedResponseCache giữ tới hết TTL nên phải dùng
+	 * bản đang chờ, trừ khi dòng trong DB mới hơn (PUT full/ingest ghi đồng bộ sau
+	 * đó) giống RealtimeWeatherService.findView(), chỉ gọi trong transaction
+	 * readOnly (ko flush) nên sửa entity đã nạp ko ghi xuống DB
 	 */
-	@Caching(put = { @CachePut(cacheNames = "locationCacheByCode", key = "#locationCode") },
-
-			evict = { @CacheEvict(cacheNames = { "fullWeatherCacheByCountryCodeAndCityName",
-					"realtimeWeatherCacheByCountryCodeAndCityName", "hourlyWeatherCacheByLocationCodeAndCurrentHour",
-					"hourlyWeatherCacheByCountryCodeAndCityNameAndCurrentHour",
-					"dailyWeatherCacheByCountryCodeAndCityName" }, allEntries = true),
+	private void overlayPendingRealtimeWeather(Location location, RealtimeWeatherView pending) {
+		RealtimeWeather realtimeWeather = location.getRealtimeWeather();
+		if (realtimeWeather == null
+				|| !RealtimeWeatherWriteBehind.isNewerThanStored(pending, realtimeWeather.getLastUpdated())) {
+			return;
+		}
 
-					@CacheEvict(cacheNames = { "realtimeWeatherCacheByCode",
-							"dailyWeatherCacheByLocationCode" }, key = "#locationCode") })
+		realtimeWeather.setTemperature(pending.temperature());
+		realtimeWeather.setHumidity(pending.humidity());
+		realtimeWeather.setPrecipitation(pending.precipitation());
+		realtimeWeather.setWindSpeed(pending.windSpeed());
+		realtimeWeather.setStatus(pending.status());
+		realtimeWeather.setLastUpdated(pending.lastUpdated());
+	}
 
+	/*
+	 * vì hàm này cập nhật realtime/hourly/daily nên buộc phải xóa cache cũ liên
+	 * quan, xóa qua CacheInvalidationIndex ở cuối hàm theo code đã lưu: code
+	 * trong path có thể khác hoa thường, @CacheEvict theo key đó bỏ sót entry
+	 * theo code đã lưu/theo IP, hourly có key {code, currentHour}
+	 */
+	@CachePut(cacheNames = "locationCacheByCode", key = "#result.code")
 	public Location updateFullWeather(String locationCode, Location locationInRequest) {
 		Location locationInDB = this.locationRepository.findByCode(locationCode);
 		if (locationInDB == null) {
@@ -93,6 +159,13 @@ public class FullWeatherService extends AbstractLocationService {
 		// locationInRequest thiếu dữ liệu các field của Location nên cần copy từ db
 		locationInRequest.copyAllFieldsFrom(locationInDB);
 
-		return this.locationRepository.save(locationInRequest);
+		Location updatedLocation = this.locationRepository.save(locationInRequest);
+
+		this.cacheInvalidationIndex.evict(locationInDB.getCode(), "locationCacheByCode", "realtimeWeatherCacheByCode",
+				"hourlyWeatherCacheByLocationCodeAndCurrentHour", "dailyWeatherCacheByLocationCode",
+				SerializedResponseCache.CACHE_NAME);
+		this.realtimeWeatherStream.publish(locationInDB.getCode(), realtimeWeather);
+
+		return updatedLocation;
 	}
 }
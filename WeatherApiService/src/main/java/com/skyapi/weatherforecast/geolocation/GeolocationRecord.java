@@ -0,0 +1,19 @@
+package com.skyapi.weatherforecast.geolocation;
+
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * 1 record dùng chung cho mọi dải IP có cùng country/region/city (interned lúc
+ * build index) nên lookup chỉ trả về tham chiếu, ko tạo object mới
+ */
+public record GeolocationRecord(String countryCode, String countryName, String regionName, String cityName) {
+
+	/*
+	 * Location là entity (mutable) nên mỗi lần gọi tạo 1 bản mới tách rời khỏi
+	 * record, ko chia sẻ giữa các request, caller sửa/save thoải mái
+	 */
+	public Location toLocation() {
+		return Location.builder().cityName(this.cityName).regionName(this.regionName).countryName(this.countryName)
+				.countryCode(this.countryCode).build();
+	}
+}
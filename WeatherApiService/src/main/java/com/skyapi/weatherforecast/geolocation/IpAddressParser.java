@@ -0,0 +1,196 @@
+package com.skyapi.weatherforecast.geolocation;
+
+/*
+ * parse IP dạng chuỗi thành số mà ko dùng split/regex/InetAddress (InetAddress
+ * có thể tra DNS nếu chuỗi ko phải IP literal)
+ */
+public final class IpAddressParser {
+	public static final long INVALID_IPV4 = -1L;
+
+	private static final int VALIDATE = -1;
+	private static final int HIGH_WORD = 0;
+	private static final int LOW_WORD = 1;
+
+	private IpAddressParser() {
+	}
+
+	// trả về 0..2^32-1, hoặc INVALID_IPV4 nếu sai định dạng
+	public static long parseIpv4(String ipAddress) {
+		if (ipAddress == null) {
+			return INVALID_IPV4;
+		}
+
+		return parseIpv4(ipAddress, 0, ipAddress.length());
+	}
+
+	static long parseIpv4(String ipAddress, int from, int to) {
+		long result = 0;
+		int octet = 0;
+		int digits = 0;
+		int dots = 0;
+
+		for (int i = from; i < to; i++) {
+			char c = ipAddress.charAt(i);
+
+			if (c >= '0' && c <= '9') {
+				octet = octet * 10 + (c - '0');
+				digits++;
+
+				if (digits > 3 || octet > 255) {
+					return INVALID_IPV4;
+				}
+			} else if (c == '.') {
+				if (digits == 0 || ++dots > 3) {
+					return INVALID_IPV4;
+				}
+
+				result = (result << 8) | octet;
+				octet = 0;
+				digits = 0;
+			} else {
+				return INVALID_IPV4;
+			}
+		}
+
+		if (digits == 0 || dots != 3) {
+			return INVALID_IPV4;
+		}
+
+		return (result << 8) | octet;
+	}
+
+	/*
+	 * IPv6 đc parse thành 2 nửa 64 bit bằng 3 hàm riêng (kiểm tra định dạng, lấy
+	 * nửa cao, lấy nửa thấp) thay vì ghi vào mảng để lúc tra ko phải tạo object,
+	 * hỗ trợ rút gọn "::" và 32 bit cuối dạng IPv4 (::ffff:1.2.3.4)
+	 */
+	public static boolean isValidIpv6(String ipAddress) {
+		return parseIpv6(ipAddress, VALIDATE) == 1;
+	}
+
+	// chỉ gọi sau khi isValidIpv6() trả về true
+	public static long parseIpv6High(String ipAddress) {
+		return parseIpv6(ipAddress, HIGH_WORD);
+	}
+
+	public static long parseIpv6Low(String ipAddress) {
+		return parseIpv6(ipAddress, LOW_WORD);
+	}
+
+	/*
+	 * mode VALIDATE trả về 1 nếu đúng định dạng (0 nếu sai), HIGH_WORD/LOW_WORD trả
+	 * về 64 bit cao/thấp
+	 */
+	private static long parseIpv6(String ipAddress, int mode) {
+		if (ipAddress == null || ipAddress.length() < 2 || ipAddress.indexOf(':') < 0) {
+			return 0;
+		}
+
+		int length = ipAddress.length();
+		int doubleColon = ipAddress.indexOf("::");
+		if (doubleColon >= 0 && ipAddress.indexOf("::", doubleColon + 1) >= 0) {
+			return 0;
+		}
+
+		if (doubleColon < 0) {
+			long result = parseGroups(ipAddress, 0, length, 0, mode);
+			return mode == VALIDATE ? (result == 8 ? 1 : 0) : result;
+		}
+
+		long headGroups = parseGroups(ipAddress, 0, doubleColon, 0, VALIDATE);
+		int tailGroups = countGroups(ipAddress, doubleColon + 2, length);
+		if (headGroups < 0 || tailGroups < 0 || headGroups + tailGroups > 7) {
+			return 0;
+		}
+
+		if (mode == VALIDATE) {
+			return parseGroups(ipAddress, doubleColon + 2, length, 8 - tailGroups, VALIDATE) == tailGroups ? 1 : 0;
+		}
+
+		return parseGroups(ipAddress, 0, doubleColon, 0, mode)
+				| parseGroups(ipAddress, doubleColon + 2, length, 8 - tailGroups, mode);
+	}
+
+	private static int countGroups(String ipAddress, int from, int to) {
+		if (from == to) {
+			return 0;
+		}
+
+		int groups = 1;
+		for (int i = from; i < to; i++) {
+			char c = ipAddress.charAt(i);
+			if (c == ':') {
+				groups++;
+			} else if (c == '.') {
+				// IPv4 ở cuối chiếm 2 nhóm 16 bit, chỉ tính thêm 1 lần
+				return ipAddress.lastIndexOf(':', to - 1) < i ? groups + 1 : -1;
+			}
+		}
+
+		return groups;
+	}
+
+	/*
+	 * mode VALIDATE trả về số nhóm 16 bit đã đọc (-1 nếu sai định dạng),
+	 * HIGH_WORD/LOW_WORD trả về các bit của những nhóm thuộc nửa đó
+	 */
+	private static long parseGroups(String ipAddress, int from, int to, int firstIndex, int mode) {
+		if (from == to) {
+			return 0;
+		}
+
+		int index = firstIndex;
+		int group = 0;
+		int digits = 0;
+		long word = 0;
+
+		for (int i = from; i <= to; i++) {
+			char c = i < to ? ipAddress.charAt(i) : ':';
+
+			if (c == ':') {
+				if (digits == 0 || index > 7) {
+					return -1;
+				}
+
+				word |= groupBits(index++, group, mode);
+				group = 0;
+				digits = 0;
+			} else if (c == '.') {
+				// phần còn lại từ đầu nhóm hiện tại là IPv4
+				if (index > 6) {
+					return -1;
+				}
+
+				long ipv4 = parseIpv4(ipAddress, i - digits, to);
+				if (ipv4 == INVALID_IPV4) {
+					return -1;
+				}
+
+				word |= groupBits(index++, (int) (ipv4 >>> 16), mode);
+				word |= groupBits(index++, (int) (ipv4 & 0xFFFF), mode);
+				return mode == VALIDATE ? index - firstIndex : word;
+			} else {
+				int value = Character.digit(c, 16);
+				if (value < 0 || ++digits > 4) {
+					return -1;
+				}
+
+				group = (group << 4) | value;
+			}
+		}
+
+		return mode == VALIDATE ? index - firstIndex : word;
+	}
+
+	// nhóm 0..3 thuộc 64 bit cao, 4..7 thuộc 64 bit thấp
+	private static long groupBits(int index, int group, int mode) {
+		if (mode == HIGH_WORD && index < 4) {
+			return ((long) group) << (16 * (3 - index));
+		}
+		if (mode == LOW_WORD && index >= 4) {
+			return ((long) group) << (16 * (7 - index));
+		}
+
+		return 0;
+	}
+}
@@ -0,0 +1,154 @@
+package com.skyapi.weatherforecast.geolocation;
+
+import java.nio.ByteBuffer;
+
+/*
+ * bảng dải IP đã "biên dịch" từ file BIN: mỗi phần tử là IP bắt đầu của 1 dải
+ * (đã sắp xếp tăng dần) + chỉ số record tương ứng, tìm bằng binary search nên
+ * ko khóa, ko tạo object
+ *
+ * các dải nằm ngoài heap (ko làm phình heap/tăng thời gian GC), thường là file
+ * .ranges map vào bộ nhớ nên các instance trên cùng máy dùng chung qua page
+ * cache (xem IpRangeIndexLoader), mỗi phần tử có kích thước cố định: IPv4 là
+ * [key int][record int], IPv6 là [key cao long][key thấp long][record int][4
+ * byte trống], đọc bằng get tuyệt đối (ko đổi position) nên nhiều thread đọc
+ * cùng lúc đc
+ *
+ * các key lưu ở dạng đã đảo bit dấu (xor MIN_VALUE) để so sánh có dấu của java
+ * cho cùng thứ tự với so sánh ko dấu
+ */
+public final class IpRangeIndex {
+	static final int IPV4_ENTRY_SIZE = 8;
+	static final int IPV6_ENTRY_SIZE = 24;
+
+	private static final long IPV4_MAPPED_PREFIX = 0xFFFFL;
+	private static final long SIX_TO_FOUR_PREFIX = 0x2002L;
+	private static final long TEREDO_PREFIX = 0x20010000L;
+
+	private final ByteBuffer ipv4Ranges;
+	private final int ipv4RangeCount;
+
+	private final ByteBuffer ipv6Ranges;
+	private final int ipv6RangeCount;
+
+	private final GeolocationRecord[] records;
+	private final String version;
+
+	IpRangeIndex(ByteBuffer ipv4Ranges, ByteBuffer ipv6Ranges, GeolocationRecord[] records, String version) {
+		this.ipv4Ranges = ipv4Ranges;
+		this.ipv4RangeCount = ipv4Ranges.capacity() / IPV4_ENTRY_SIZE;
+		this.ipv6Ranges = ipv6Ranges;
+		this.ipv6RangeCount = ipv6Ranges.capacity() / IPV6_ENTRY_SIZE;
+		this.records = records;
+		this.version = version;
+	}
+
+	static int toIpv4Key(long ipv4) {
+		return ((int) ipv4) ^ Integer.MIN_VALUE;
+	}
+
+	static long toIpv6Key(long word) {
+		return word ^ Long.MIN_VALUE;
+	}
+
+	// null nếu IP sai định dạng hoặc ko thuộc dải nào
+	public GeolocationRecord lookup(String ipAddress) {
+		if (ipAddress == null) {
+			return null;
+		}
+
+		if (ipAddress.indexOf(':') < 0) {
+			long ipv4 = IpAddressParser.parseIpv4(ipAddress);
+			return ipv4 == IpAddressParser.INVALID_IPV4 ? null : lookupIpv4(ipv4);
+		}
+
+		if (!IpAddressParser.isValidIpv6(ipAddress)) {
+			return null;
+		}
+
+		return lookupIpv6(IpAddressParser.parseIpv6High(ipAddress), IpAddressParser.parseIpv6Low(ipAddress));
+	}
+
+	public GeolocationRecord lookupIpv4(long ipv4) {
+		int position = this.floorIpv4(toIpv4Key(ipv4));
+		return position < 0 ? null : this.records[this.ipv4Ranges.getInt(position * IPV4_ENTRY_SIZE + 4)];
+	}
+
+	public GeolocationRecord lookupIpv6(long high, long low) {
+		/*
+		 * địa chỉ IPv6 mang IPv4 bên trong (::ffff:a.b.c.d, 6to4, teredo) tra bảng IPv4
+		 * giống thư viện IP2Location
+		 */
+		if (high == 0 && (low >>> 32) == IPV4_MAPPED_PREFIX) {
+			return lookupIpv4(low & 0xFFFFFFFFL);
+		}
+
+		if ((high >>> 48) == SIX_TO_FOUR_PREFIX) {
+			return lookupIpv4((high >>> 16) & 0xFFFFFFFFL);
+		}
+
+		if ((high >>> 32) == TEREDO_PREFIX) {
+			return lookupIpv4(~low & 0xFFFFFFFFL);
+		}
+
+		int position = this.floorIpv6(toIpv6Key(high), toIpv6Key(low));
+		return position < 0 ? null : this.records[this.ipv6Ranges.getInt(position * IPV6_ENTRY_SIZE + 16)];
+	}
+
+	/*
+	 * tìm vị trí lớn nhất có key <= giá trị cần tìm, vòng lặp ko rẽ nhánh theo kết
+	 * quả so sánh (JIT biên dịch thành cmov) nên ko bị branch misprediction
+	 */
+	private int floorIpv4(int key) {
+		int length = this.ipv4RangeCount;
+		if (length == 0) {
+			return -1;
+		}
+
+		int base = 0;
+		while (length > 1) {
+			int half = length >>> 1;
+			base = this.ipv4Ranges.getInt((base + half) * IPV4_ENTRY_SIZE) <= key ? base + half : base;
+			length -= half;
+		}
+
+		return this.ipv4Ranges.getInt(base * IPV4_ENTRY_SIZE) <= key ? base : -1;
+	}
+
+	private int floorIpv6(long high, long low) {
+		int length = this.ipv6RangeCount;
+		if (length == 0) {
+			return -1;
+		}
+
+		int base = 0;
+		while (length > 1) {
+			int half = length >>> 1;
+			base = this.ipv6LessOrEqual(base + half, high, low) ? base + half : base;
+			length -= half;
+		}
+
+		return this.ipv6LessOrEqual(base, high, low) ? base : -1;
+	}
+
+	private boolean ipv6LessOrEqual(int position, long high, long low) {
+		long keyHigh = this.ipv6Ranges.getLong(position * IPV6_ENTRY_SIZE);
+		return keyHigh < high || (keyHigh == high && this.ipv6Ranges.getLong(position * IPV6_ENTRY_SIZE + 8) <= low);
+	}
+
+	public int getIpv4RangeCount() {
+		return this.ipv4RangeCount;
+	}
+
+	public int getIpv6RangeCount() {
+		return this.ipv6RangeCount;
+	}
+
+	public int getRecordCount() {
+		return this.records.length;
+	}
+
+	public String getVersion() {
+		return this.version;
+	}
+}
@@ -0,0 +1,384 @@
+package com.skyapi.weatherforecast.geolocation;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * đọc file BIN của IP2Location (DB3: country, region, city) và dựng
+ * IpRangeIndex, chỉ chạy 1 lần lúc khởi động hoặc khi có file BIN mới
+ *
+ * cấu trúc file (little-endian):
+ * - 64 byte header: [0] loại DB, [1] số cột, [2..4] năm/tháng/ngày, [5] số dòng
+ * IPv4, [9] địa chỉ dòng IPv4 đầu tiên, [13] số dòng IPv6, [17] địa chỉ dòng IPv6
+ * đầu tiên, [29] product code (địa chỉ đếm từ 1)
+ * - dòng IPv4: 4 byte ip_from + 4 byte con trỏ cho mỗi cột còn lại
+ * - dòng IPv6: 16 byte ip_from + 4 byte con trỏ cho mỗi cột còn lại
+ * - con trỏ trỏ tới chuỗi dạng [1 byte độ dài][nội dung], country long name nằm
+ * sau country short name 3 byte
+ *
+ * bảng dải đã dựng (file .ranges, native order):
+ * - 40 byte header: [0] magic, [4] phiên bản, [8] kích thước file BIN, [16]
+ * thời gian sửa file BIN, [24] số dải IPv4, [28] số dải IPv6, [32] số record
+ * - các dải IPv4 rồi các dải IPv6 (xem IpRangeIndex)
+ * - mỗi record 3 con trỏ (country, region, city) vào file BIN, tên đc đọc lại
+ * từ file BIN lúc nạp
+ */
+public final class IpRangeIndexLoader {
+	private static final Logger LOGGER = LoggerFactory.getLogger(IpRangeIndexLoader.class);
+
+	private static final int COUNTRY_COLUMN = 2;
+	private static final int REGION_COLUMN = 3;
+	private static final int CITY_COLUMN = 4;
+
+	// DB1, DB2 ko có region/city, thư viện IP2Location cũng trả về "-"
+	private static final int FIRST_DB_TYPE_WITH_CITY = 3;
+	private static final String NOT_AVAILABLE = "-";
+
+	static final String RANGE_FILE_SUFFIX = ".ranges";
+	private static final int RANGE_FILE_MAGIC = 0x49505249;
+	private static final int RANGE_FILE_VERSION = 1;
+	private static final int RANGE_HEADER_SIZE = 40;
+	private static final int RECORD_ENTRY_SIZE = 12;
+
+	private IpRangeIndexLoader() {
+	}
+
+	/*
+	 * bảng dải đc ghi ra file .ranges cạnh file BIN rồi map vào bộ nhớ (chỉ đọc),
+	 * các instance trên cùng máy map cùng 1 file nên dùng chung trang qua page
+	 * cache, ko instance nào giữ bản riêng. file .ranges còn khớp file BIN (kích
+	 * thước + thời gian sửa) thì instance khởi động sau map luôn, ko dựng lại
+	 *
+	 * file BIN chỉ map lúc nạp để đọc header và tên của các record, nạp xong thì
+	 * ko còn đc tham chiếu và GC sẽ unmap. thư mục ko ghi đc thì dựng bảng trong
+	 * direct buffer của process này như load(ByteBuffer)
+	 */
+	public static IpRangeIndex load(Path databaseFile) throws IOException {
+		Path rangeFile = databaseFile.resolveSibling(databaseFile.getFileName() + RANGE_FILE_SUFFIX);
+
+		try (FileChannel channel = FileChannel.open(databaseFile, StandardOpenOption.READ)) {
+			long databaseSize = channel.size();
+			long databaseLastModified = Files.getLastModifiedTime(databaseFile).toMillis();
+
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, databaseSize);
+			BinHeader binHeader = BinHeader.read(buffer);
+
+			ByteBuffer rangeTable = mapRangeFile(rangeFile, databaseSize, databaseLastModified);
+			if (rangeTable == null) {
+				try {
+					writeRangeFile(rangeFile, buffer, binHeader, databaseSize, databaseLastModified);
+					rangeTable = mapRangeFile(rangeFile, databaseSize, databaseLastModified);
+				} catch (IOException e) {
+					LOGGER.warn("Cannot write " + rangeFile + ", building the IP range index in process memory: "
+							+ e.getMessage());
+				}
+			}
+
+			if (rangeTable == null) {
+				return load(buffer);
+			}
+
+			return createIndex(rangeTable, new Builder(buffer, binHeader.hasCity()), binHeader.version());
+		}
+	}
+
+	public static IpRangeIndex load(byte[] data) throws IOException {
+		return load(ByteBuffer.wrap(data));
+	}
+
+	// bảng dải nằm trong direct buffer riêng của process, ko ghi file
+	public static IpRangeIndex load(ByteBuffer buffer) throws IOException {
+		BinHeader binHeader = BinHeader.read(buffer);
+		Builder builder = new Builder(buffer, binHeader.hasCity());
+
+		RangeCounts rangeCounts = countRanges(builder, binHeader);
+		ByteBuffer rangeTable = ByteBuffer.allocateDirect(rangeCounts.tableSize()).order(ByteOrder.nativeOrder());
+		writeRangeTable(rangeTable, builder, binHeader, rangeCounts, buffer.limit(), 0);
+
+		return createIndex(rangeTable, builder, binHeader.version());
+	}
+
+	/*
+	 * null nếu chưa có file hoặc file dựng từ bản BIN khác, file .ranges chỉ
+	 * đc tạo bằng rename sau khi đã ghi xong nên ko đọc phải file ghi dở
+	 */
+	private static ByteBuffer mapRangeFile(Path rangeFile, long databaseSize, long databaseLastModified)
+			throws IOException {
+		if (!Files.isReadable(rangeFile)) {
+			return null;
+		}
+
+		try (FileChannel channel = FileChannel.open(rangeFile, StandardOpenOption.READ)) {
+			if (channel.size() < RANGE_HEADER_SIZE) {
+				return null;
+			}
+
+			ByteBuffer rangeTable = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+					.order(ByteOrder.nativeOrder());
+			if (rangeTable.getInt(0) != RANGE_FILE_MAGIC || rangeTable.getInt(4) != RANGE_FILE_VERSION
+					|| rangeTable.getLong(8) != databaseSize || rangeTable.getLong(16) != databaseLastModified) {
+				return null;
+			}
+
+			RangeCounts rangeCounts = new RangeCounts(rangeTable.getInt(24), rangeTable.getInt(28),
+					rangeTable.getInt(32));
+			return rangeCounts.tableSize() == channel.size() ? rangeTable : null;
+		}
+	}
+
+	/*
+	 * ghi vào file tạm cùng thư mục rồi rename đè lên file .ranges, instance đang
+	 * map file cũ (bản BIN trước) vẫn đọc đc tới khi tráo index, 2 instance cùng
+	 * dựng 1 lúc thì file rename sau cùng đc giữ (nội dung như nhau)
+	 */
+	private static void writeRangeFile(Path rangeFile, ByteBuffer buffer, BinHeader binHeader, long databaseSize,
+			long databaseLastModified) throws IOException {
+		Builder builder = new Builder(buffer, binHeader.hasCity());
+		RangeCounts rangeCounts = countRanges(builder, binHeader);
+
+		Path tempFile = Files.createTempFile(rangeFile.toAbsolutePath().getParent(),
+				rangeFile.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.READ,
+					StandardOpenOption.WRITE)) {
+				MappedByteBuffer rangeTable = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+						rangeCounts.tableSize());
+				rangeTable.order(ByteOrder.nativeOrder());
+
+				writeRangeTable(rangeTable, builder, binHeader, rangeCounts, databaseSize, databaseLastModified);
+				rangeTable.force();
+			}
+
+			Files.move(tempFile, rangeFile, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tempFile);
+		}
+	}
+
+	/*
+	 * các dải liền nhau cùng bộ con trỏ (cùng 1 record) thì gộp lại, chỉ giữ IP
+	 * bắt đầu của dải đầu, đếm trước số dải sau khi gộp và số record để cấp đúng
+	 * kích thước bảng (ko dựng mảng tạm trên heap)
+	 */
+	private static RangeCounts countRanges(Builder builder, BinHeader binHeader) {
+		int ipv4RangeCount = builder.countRanges(binHeader.ipv4Base() - 1 + 4, binHeader.ipv4RowSize(),
+				binHeader.ipv4Count());
+		int ipv6RangeCount = builder.countRanges(binHeader.ipv6Base() - 1 + 16, binHeader.ipv6RowSize(),
+				binHeader.ipv6Count());
+
+		return new RangeCounts(ipv4RangeCount, ipv6RangeCount, builder.rowKeys.size());
+	}
+
+	private static void writeRangeTable(ByteBuffer rangeTable, Builder builder, BinHeader binHeader,
+			RangeCounts rangeCounts, long databaseSize, long databaseLastModified) {
+		ByteBuffer buffer = builder.buffer;
+
+		rangeTable.putInt(0, RANGE_FILE_MAGIC).putInt(4, RANGE_FILE_VERSION).putLong(8, databaseSize)
+				.putLong(16, databaseLastModified).putInt(24, rangeCounts.ipv4RangeCount())
+				.putInt(28, rangeCounts.ipv6RangeCount()).putInt(32, rangeCounts.recordCount());
+
+		int previousOffset = -1;
+		int position = RANGE_HEADER_SIZE;
+		for (int row = 0; row < binHeader.ipv4Count(); row++) {
+			int offset = binHeader.ipv4Base() - 1 + row * binHeader.ipv4RowSize();
+			if (previousOffset >= 0 && builder.samePointers(previousOffset + 4, offset + 4)) {
+				continue;
+			}
+			previousOffset = offset;
+
+			rangeTable.putInt(position, IpRangeIndex.toIpv4Key(buffer.getInt(offset) & 0xFFFFFFFFL));
+			rangeTable.putInt(position + 4, builder.recordId(offset + 4));
+			position += IpRangeIndex.IPV4_ENTRY_SIZE;
+		}
+
+		previousOffset = -1;
+		for (int row = 0; row < binHeader.ipv6Count(); row++) {
+			int offset = binHeader.ipv6Base() - 1 + row * binHeader.ipv6RowSize();
+			if (previousOffset >= 0 && builder.samePointers(previousOffset + 16, offset + 16)) {
+				continue;
+			}
+			previousOffset = offset;
+
+			// 16 byte little-endian: 8 byte đầu là phần thấp
+			rangeTable.putLong(position, IpRangeIndex.toIpv6Key(buffer.getLong(offset + 8)));
+			rangeTable.putLong(position + 8, IpRangeIndex.toIpv6Key(buffer.getLong(offset)));
+			rangeTable.putInt(position + 16, builder.recordId(offset + 16));
+			position += IpRangeIndex.IPV6_ENTRY_SIZE;
+		}
+
+		for (RowKey rowKey : builder.rowKeys) {
+			rangeTable.putInt(position, rowKey.countryPointer()).putInt(position + 4, rowKey.regionPointer())
+					.putInt(position + 8, rowKey.cityPointer());
+			position += RECORD_ENTRY_SIZE;
+		}
+	}
+
+	// slice() ko giữ byte order nên đặt lại cho từng phần
+	private static IpRangeIndex createIndex(ByteBuffer rangeTable, Builder builder, String version) {
+		RangeCounts rangeCounts = new RangeCounts(rangeTable.getInt(24), rangeTable.getInt(28),
+				rangeTable.getInt(32));
+
+		int ipv6Position = RANGE_HEADER_SIZE + rangeCounts.ipv4RangeCount() * IpRangeIndex.IPV4_ENTRY_SIZE;
+		int recordPosition = ipv6Position + rangeCounts.ipv6RangeCount() * IpRangeIndex.IPV6_ENTRY_SIZE;
+
+		ByteBuffer ipv4Ranges = rangeTable
+				.slice(RANGE_HEADER_SIZE, rangeCounts.ipv4RangeCount() * IpRangeIndex.IPV4_ENTRY_SIZE)
+				.order(rangeTable.order());
+		ByteBuffer ipv6Ranges = rangeTable
+				.slice(ipv6Position, rangeCounts.ipv6RangeCount() * IpRangeIndex.IPV6_ENTRY_SIZE)
+				.order(rangeTable.order());
+
+		GeolocationRecord[] records = new GeolocationRecord[rangeCounts.recordCount()];
+		for (int recordId = 0; recordId < records.length; recordId++) {
+			int position = recordPosition + recordId * RECORD_ENTRY_SIZE;
+			records[recordId] = builder.readRecord(new RowKey(rangeTable.getInt(position),
+					rangeTable.getInt(position + 4), rangeTable.getInt(position + 8)));
+		}
+
+		return new IpRangeIndex(ipv4Ranges, ipv6Ranges, records, version);
+	}
+
+	private record BinHeader(boolean hasCity, int columns, int ipv4Count, int ipv4Base, int ipv6Count, int ipv6Base,
+			String version) {
+
+		private static BinHeader read(ByteBuffer buffer) throws IOException {
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+
+			if (buffer.limit() < 64) {
+				throw new IOException("Incorrect IP2Location BIN file format.");
+			}
+
+			int dbType = buffer.get(0) & 0xFF;
+			int columns = buffer.get(1) & 0xFF;
+			int year = buffer.get(2) & 0xFF;
+			int month = buffer.get(3) & 0xFF;
+			int day = buffer.get(4) & 0xFF;
+			int ipv4Count = buffer.getInt(5);
+			int ipv4Base = buffer.getInt(9);
+			int ipv6Count = buffer.getInt(13);
+			int ipv6Base = buffer.getInt(17);
+			int productCode = buffer.get(29) & 0xFF;
+
+			// giống kiểm tra trong IP2Location.LoadBIN()
+			if ((productCode != 1 && year >= 21) || columns < COUNTRY_COLUMN || ipv4Count < 0 || ipv6Count < 0) {
+				throw new IOException("Incorrect IP2Location BIN file format.");
+			}
+
+			return new BinHeader(dbType >= FIRST_DB_TYPE_WITH_CITY, columns, ipv4Count, ipv4Base, ipv6Count,
+					ipv6Base, (2000 + year) + "." + month + "." + day);
+		}
+
+		private int ipv4RowSize() {
+			return this.columns << 2;
+		}
+
+		private int ipv6RowSize() {
+			return 16 + ((this.columns - 1) << 2);
+		}
+	}
+
+	private record RangeCounts(int ipv4RangeCount, int ipv6RangeCount, int recordCount) {
+
+		private int tableSize() {
+			return RANGE_HEADER_SIZE + this.ipv4RangeCount * IpRangeIndex.IPV4_ENTRY_SIZE
+					+ this.ipv6RangeCount * IpRangeIndex.IPV6_ENTRY_SIZE + this.recordCount * RECORD_ENTRY_SIZE;
+		}
+	}
+
+	/*
+	 * file BIN đã tự loại trùng chuỗi (nhiều dòng cùng con trỏ) nên intern theo con
+	 * trỏ: cùng bộ con trỏ (country, region, city) thì dùng chung 1 record
+	 */
+	private static class Builder {
+		private final ByteBuffer buffer;
+		private final boolean hasCity;
+
+		private final Map<Integer, String> stringsByPointer = new HashMap<Integer, String>();
+		private final Map<RowKey, Integer> recordIdsByRowKey = new HashMap<RowKey, Integer>();
+		// bộ con trỏ của từng record theo thứ tự record id
+		private final List<RowKey> rowKeys = new ArrayList<RowKey>();
+
+		private Builder(ByteBuffer buffer, boolean hasCity) {
+			this.buffer = buffer;
+			this.hasCity = hasCity;
+		}
+
+		// firstColumnOffset: vị trí con trỏ của cột thứ 2 (ngay sau ip_from), cấp luôn record id cho mỗi dải
+		private int countRanges(int firstColumnOffset, int rowSize, int rowCount) {
+			int ranges = 0;
+			for (int row = 0; row < rowCount; row++) {
+				int offset = firstColumnOffset + row * rowSize;
+				if (row == 0 || !this.samePointers(offset - rowSize, offset)) {
+					this.recordId(offset);
+					ranges++;
+				}
+			}
+
+			return ranges;
+		}
+
+		private boolean samePointers(int firstColumnOffset, int otherFirstColumnOffset) {
+			return this.countryPointer(firstColumnOffset) == this.countryPointer(otherFirstColumnOffset)
+					&& this.regionPointer(firstColumnOffset) == this.regionPointer(otherFirstColumnOffset)
+					&& this.cityPointer(firstColumnOffset) == this.cityPointer(otherFirstColumnOffset);
+		}
+
+		private int countryPointer(int firstColumnOffset) {
+			return this.buffer.getInt(firstColumnOffset + ((COUNTRY_COLUMN - 2) << 2));
+		}
+
+		private int regionPointer(int firstColumnOffset) {
+			return this.hasCity ? this.buffer.getInt(firstColumnOffset + ((REGION_COLUMN - 2) << 2)) : 0;
+		}
+
+		private int cityPointer(int firstColumnOffset) {
+			return this.hasCity ? this.buffer.getInt(firstColumnOffset + ((CITY_COLUMN - 2) << 2)) : 0;
+		}
+
+		private int recordId(int firstColumnOffset) {
+			RowKey rowKey = new RowKey(this.countryPointer(firstColumnOffset), this.regionPointer(firstColumnOffset),
+					this.cityPointer(firstColumnOffset));
+
+			return this.recordIdsByRowKey.computeIfAbsent(rowKey, key -> {
+				this.rowKeys.add(key);
+				return this.rowKeys.size() - 1;
+			});
+		}
+
+		private GeolocationRecord readRecord(RowKey rowKey) {
+			String regionName = this.hasCity ? readString(rowKey.regionPointer()) : NOT_AVAILABLE;
+			String cityName = this.hasCity ? readString(rowKey.cityPointer()) : NOT_AVAILABLE;
+
+			return new GeolocationRecord(readString(rowKey.countryPointer()),
+					readString(rowKey.countryPointer() + 3), regionName, cityName);
+		}
+
+		private String readString(int pointer) {
+			return this.stringsByPointer.computeIfAbsent(pointer, position -> {
+				int length = this.buffer.get(position) & 0xFF;
+				byte[] bytes = new byte[length];
+				this.buffer.get(position + 1, bytes);
+
+				return new String(bytes, StandardCharsets.UTF_8);
+			});
+		}
+	}
+
+	private record RowKey(int countryPointer, int regionPointer, int cityPointer) {
+	}
+}
@@ -3,12 +3,11 @@ package com.skyapi.weatherforecast.hourly;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.coyote.BadRequestException;
-import org.modelmapper.ModelMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.CacheControl;
@@ -22,6 +21,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.HourlyWeather;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.daily.DailyWeatherApiController;
@@ -46,7 +47,7 @@ public class HourlyWeatherApiController {
 
 	private final GeolocationService geolocationService;
 	private final HourlyWeatherService hourlyWeatherService;
-	private final ModelMapper modelMapper;
+	private final SerializedResponseCache serializedResponseCache;
 
 	@GetMapping
 	public ResponseEntity<?> listHourlyForecastByIPAddress(HttpServletRequest request) {
@@ -57,18 +58,21 @@ public class HourlyWeatherApiController {
 			// X-Current-Hour không phải header mặc định mà tự định nghĩa
 			int currentHour = Integer.parseInt(request.getHeader("X-Current-Hour"));
 
-			List<HourlyWeather> hourlyWeathers = this.hourlyWeatherService.getListHourlyWeather(location, currentHour);
+			SerializedResponse serializedResponse = this.serializedResponseCache.get("hourly-by-ip",
+					Arrays.asList(location.getCountryCode(), location.getCityName(), currentHour), () -> {
+						List<HourlyWeatherView> hourlyWeathers = this.hourlyWeatherService
+								.getListHourlyWeather(location, currentHour);
 
-			if (hourlyWeathers.isEmpty()) {
-				return ResponseEntity.noContent().build();
-			}
+						if (hourlyWeathers.isEmpty()) {
+							return null;
+						}
 
-			HourlyWeatherListDTO hourlyWeatherListDTO = this.convertListHourlyWeatherToDTO(hourlyWeathers);
+						HourlyWeatherListDTO hourlyWeatherListDTO = this.convertListHourlyWeatherViewToDTO(hourlyWeathers);
 
-			HourlyWeatherListDTO entity = this.addLinksByIp(hourlyWeatherListDTO);
+						return this.serialize(hourlyWeathers, this.addLinksByIp(hourlyWeatherListDTO));
+					});
 
-			return ResponseEntity.ok().cacheControl(CacheControl.maxAge(60, TimeUnit.MINUTES).cachePublic())
-					.body(entity);
+			return this.toResponseEntity(serializedResponse);
 		} catch (NumberFormatException e) {
 			LOGGER.error(e.getMessage(), e);
 			return ResponseEntity.badRequest().build();
@@ -82,19 +86,22 @@ public class HourlyWeatherApiController {
 			// X-Current-Hour không phải header mặc định mà tự định nghĩa
 			int currentHour = Integer.parseInt(request.getHeader("X-Current-Hour"));
 
-			List<HourlyWeather> hourlyWeathers = this.hourlyWeatherService
-					.getHourlyWeatherByLocationCodeAndCurrentHour(locationCode, currentHour);
+			SerializedResponse serializedResponse = this.serializedResponseCache.get("hourly-by-code",
+					List.of(locationCode, currentHour), () -> {
+						List<HourlyWeatherView> hourlyWeathers = this.hourlyWeatherService
+								.getHourlyWeatherByLocationCodeAndCurrentHour(locationCode, currentHour);
 
-			if (hourlyWeathers.isEmpty()) {
-				return ResponseEntity.noContent().build();
-			}
+						if (hourlyWeathers.isEmpty()) {
+							return null;
+						}
 
-			HourlyWeatherListDTO hourlyWeatherListDTO = this.convertListHourlyWeatherToDTO(hourlyWeathers);
+						HourlyWeatherListDTO hourlyWeatherListDTO = this.convertListHourlyWeatherViewToDTO(hourlyWeathers);
 
-			HourlyWeatherListDTO entity = this.addLinksByLocation(locationCode, hourlyWeatherListDTO);
+						return this.serialize(hourlyWeathers,
+								this.addLinksByLocation(locationCode, hourlyWeatherListDTO));
+					});
 
-			return ResponseEntity.ok().cacheControl(CacheControl.maxAge(60, TimeUnit.MINUTES).cachePublic())
-					.body(entity);
+			return this.toResponseEntity(serializedResponse);
 		} catch (NumberFormatException e) {
 			LOGGER.error(e.getMessage(), e);
 			return ResponseEntity.badRequest().build();
@@ -119,6 +126,26 @@ public class HourlyWeatherApiController {
 		return ResponseEntity.ok().body(this.addLinksByLocation(locationCode, hourlyWeatherListDTO));
 	}
 
+	/*
+	 * list rỗng thì ko serialize (loader trả về null) -> 204, hourly ko lưu thời
+	 * gian cập nhật nên ko có Last-Modified, client dùng ETag
+	 */
+	private SerializedResponse serialize(List<HourlyWeatherView> hourlyWeathers,
+			HourlyWeatherListDTO hourlyWeatherListDTO) {
+		String locationCode = hourlyWeathers.get(0).locationCode();
+
+		return this.serializedResponseCache.serialize(locationCode, hourlyWeatherListDTO, null);
+	}
+
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		if (serializedResponse == null) {
+			return ResponseEntity.noContent().build();
+		}
+
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(60, TimeUnit.MINUTES).cachePublic());
+	}
+
 	private HourlyWeatherListDTO convertListHourlyWeatherToDTO(List<HourlyWeather> hourlyWeathers) {
 		HourlyWeatherListDTO hourlyWeatherListDTO = new HourlyWeatherListDTO();
 
@@ -126,8 +153,8 @@ public class HourlyWeatherApiController {
 		hourlyWeatherListDTO.setLocation(location.toString());
 
 		for (HourlyWeather hourlyWeather : hourlyWeathers) {
-			// dùng cấu hình modelMapper bên class Main để ánh xạ được hourOfDay
-			HourlyWeatherDTO hourlyWeatherDTO = this.modelMapper.map(hourlyWeather, HourlyWeatherDTO.class);
+			// HourlyWeatherMapper ánh xạ được hourOfDay nằm trong id
+			HourlyWeatherDTO hourlyWeatherDTO = HourlyWeatherMapper.toDTO(hourlyWeather);
 
 			hourlyWeatherListDTO.addHourlyWeatherDTO(hourlyWeatherDTO);
 		}
@@ -135,18 +162,21 @@ public class HourlyWeatherApiController {
 		return hourlyWeatherListDTO;
 	}
 
-	private List<HourlyWeather> convertListHourlyWeatherDTOToEntity(List<HourlyWeatherDTO> hourlyWeatherDTOs) {
-		List<HourlyWeather> hourlyWeathers = new ArrayList<HourlyWeather>();
+	// các view cùng 1 location nên lấy tên location từ phần tử đầu
+	private HourlyWeatherListDTO convertListHourlyWeatherViewToDTO(List<HourlyWeatherView> hourlyWeathers) {
+		HourlyWeatherListDTO hourlyWeatherListDTO = new HourlyWeatherListDTO();
+		hourlyWeatherListDTO.setLocation(hourlyWeathers.get(0).location());
 
-		hourlyWeatherDTOs.forEach(hourlyWeatherDTO -> {
-			/*
-			 * dùng cấu hình modelMapper bên class Main để ánh xạ ngược field hourOfDay từ
-			 * DTO sang entity
-			 */
-			hourlyWeathers.add(modelMapper.map(hourlyWeatherDTO, HourlyWeather.class));
-		});
+		for (HourlyWeatherView hourlyWeather : hourlyWeathers) {
+			hourlyWeatherListDTO.addHourlyWeatherDTO(HourlyWeatherMapper.toDTO(hourlyWeather));
+		}
 
-		return hourlyWeathers;
+		return hourlyWeatherListDTO;
+	}
+
+	private List<HourlyWeather> convertListHourlyWeatherDTOToEntity(List<HourlyWeatherDTO> hourlyWeatherDTOs) {
+		// ánh xạ ngược field hourOfDay từ DTO sang id của entity
+		return HourlyWeatherMapper.toEntities(hourlyWeatherDTOs);
 	}
 
 	private HourlyWeatherListDTO addLinksByIp(HourlyWeatherListDTO hourlyWeatherListDTO) {
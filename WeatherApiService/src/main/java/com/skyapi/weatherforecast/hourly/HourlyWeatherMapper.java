@@ -0,0 +1,99 @@
+package com.skyapi.weatherforecast.hourly;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skyapi.weatherforecast.common.HourlyWeather;
+
+/*
+ * map tay thay cho typeMap HourlyWeather <-> HourlyWeatherDTO bên class Main:
+ * hourOfDay lấy từ/ghi vào id.hourOfDay, temperature/precipitation null thì
+ * DTO nhận 0 (giống ModelMapper bỏ qua giá trị null khi đích là kiểu nguyên
+ * thủy)
+ */
+public final class HourlyWeatherMapper {
+	private HourlyWeatherMapper() {
+	}
+
+	public static HourlyWeatherDTO toDTO(HourlyWeather hourlyWeather) {
+		if (hourlyWeather == null) {
+			return null;
+		}
+
+		HourlyWeatherDTO hourlyWeatherDTO = new HourlyWeatherDTO();
+		if (hourlyWeather.getId() != null) {
+			hourlyWeatherDTO.setHourOfDay(hourlyWeather.getId().getHourOfDay());
+		}
+		if (hourlyWeather.getTemperature() != null) {
+			hourlyWeatherDTO.setTemperature(hourlyWeather.getTemperature());
+		}
+		if (hourlyWeather.getPrecipitation() != null) {
+			hourlyWeatherDTO.setPrecipitation(hourlyWeather.getPrecipitation());
+		}
+		hourlyWeatherDTO.setStatus(hourlyWeather.getStatus());
+
+		return hourlyWeatherDTO;
+	}
+
+	// view của API GET, temperature/precipitation null cũng nhận 0 như entity
+	public static HourlyWeatherDTO toDTO(HourlyWeatherView hourlyWeatherView) {
+		if (hourlyWeatherView == null) {
+			return null;
+		}
+
+		HourlyWeatherDTO hourlyWeatherDTO = new HourlyWeatherDTO();
+		hourlyWeatherDTO.setHourOfDay(hourlyWeatherView.hourOfDay());
+		if (hourlyWeatherView.temperature() != null) {
+			hourlyWeatherDTO.setTemperature(hourlyWeatherView.temperature());
+		}
+		if (hourlyWeatherView.precipitation() != null) {
+			hourlyWeatherDTO.setPrecipitation(hourlyWeatherView.precipitation());
+		}
+		hourlyWeatherDTO.setStatus(hourlyWeatherView.status());
+
+		return hourlyWeatherDTO;
+	}
+
+	// id.location để trống, controller/service tự gán location
+	public static HourlyWeather toEntity(HourlyWeatherDTO hourlyWeatherDTO) {
+		if (hourlyWeatherDTO == null) {
+			return null;
+		}
+
+		// id đã đc khởi tạo sẵn (@Builder.Default)
+		HourlyWeather hourlyWeather = new HourlyWeather();
+		hourlyWeather.getId().setHourOfDay(hourlyWeatherDTO.getHourOfDay());
+		hourlyWeather.setTemperature(hourlyWeatherDTO.getTemperature());
+		hourlyWeather.setPrecipitation(hourlyWeatherDTO.getPrecipitation());
+		hourlyWeather.setStatus(hourlyWeatherDTO.getStatus());
+
+		return hourlyWeather;
+	}
+
+	// list null thì trả về null giống ModelMapper
+	public static List<HourlyWeatherDTO> toDTOs(List<HourlyWeather> hourlyWeathers) {
+		if (hourlyWeathers == null) {
+			return null;
+		}
+
+		List<HourlyWeatherDTO> hourlyWeatherDTOs = new ArrayList<HourlyWeatherDTO>(hourlyWeathers.size());
+		for (HourlyWeather hourlyWeather : hourlyWeathers) {
+			hourlyWeatherDTOs.add(toDTO(hourlyWeather));
+		}
+
+		return hourlyWeatherDTOs;
+	}
+
+	public static List<HourlyWeather> toEntities(List<HourlyWeatherDTO> hourlyWeatherDTOs) {
+		if (hourlyWeatherDTOs == null) {
+			return null;
+		}
+
+		List<HourlyWeather> hourlyWeathers = new ArrayList<HourlyWeather>(hourlyWeatherDTOs.size());
+		for (HourlyWeatherDTO hourlyWeatherDTO : hourlyWeatherDTOs) {
+			hourlyWeathers.add(toEntity(hourlyWeatherDTO));
+		}
+
+		return hourlyWeathers;
+	}
+}
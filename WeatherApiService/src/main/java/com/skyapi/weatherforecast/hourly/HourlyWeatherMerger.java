@@ -0,0 +1,83 @@
+package com.skyapi.weatherforecast.hourly;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Objects;
+
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.merge.ForecastRowMerger;
+
+// khóa chính HourlyWeatherId = {location_code, hour_of_day}
+@Repository
+public class HourlyWeatherMerger extends ForecastRowMerger<Integer, HourlyWeather> {
+
+	public HourlyWeatherMerger(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		super(namedParameterJdbcTemplate);
+	}
+
+	@Override
+	protected String selectSql() {
+		return "SELECT location_code, hour_of_day, temperature, precipitation, status FROM weather_hourly "
+				+ "WHERE location_code IN (:locationCodes)";
+	}
+
+	@Override
+	protected HourlyWeather mapRow(ResultSet resultSet) throws SQLException {
+		HourlyWeather hourlyWeather = new HourlyWeather();
+		hourlyWeather.getId().setHourOfDay(resultSet.getInt("hour_of_day"));
+		hourlyWeather.setTemperature(resultSet.getObject("temperature", Integer.class));
+		hourlyWeather.setPrecipitation(resultSet.getObject("precipitation", Integer.class));
+		hourlyWeather.setStatus(resultSet.getString("status"));
+
+		return hourlyWeather;
+	}
+
+	@Override
+	protected Integer keyOf(HourlyWeather row) {
+		return row.getId().getHourOfDay();
+	}
+
+	@Override
+	protected boolean hasSameValues(HourlyWeather storedRow, HourlyWeather incomingRow) {
+		return Objects.equals(storedRow.getTemperature(), incomingRow.getTemperature())
+				&& Objects.equals(storedRow.getPrecipitation(), incomingRow.getPrecipitation())
+				&& Objects.equals(storedRow.getStatus(), incomingRow.getStatus());
+	}
+
+	@Override
+	protected String insertSql() {
+		return "INSERT INTO weather_hourly (location_code, hour_of_day, temperature, precipitation, status) "
+				+ "VALUES (?, ?, ?, ?, ?)";
+	}
+
+	@Override
+	protected Object[] insertArgs(String locationCode, HourlyWeather row) {
+		return new Object[] { locationCode, row.getId().getHourOfDay(), row.getTemperature(), row.getPrecipitation(),
+				row.getStatus() };
+	}
+
+	@Override
+	protected String updateSql() {
+		return "UPDATE weather_hourly SET temperature = ?, precipitation = ?, status = ? "
+				+ "WHERE location_code = ? AND hour_of_day = ?";
+	}
+
+	@Override
+	protected Object[] updateArgs(String locationCode, HourlyWeather row) {
+		return new Object[] { row.getTemperature(), row.getPrecipitation(), row.getStatus(), locationCode,
+				row.getId().getHourOfDay() };
+	}
+
+	@Override
+	protected String deleteSql() {
+		return "DELETE FROM weather_hourly WHERE location_code = ? AND hour_of_day = ?";
+	}
+
+	@Override
+	protected Object[] deleteArgs(String locationCode, HourlyWeather row) {
+		return new Object[] { locationCode, row.getId().getHourOfDay() };
+	}
+}
@@ -1,5 +1,6 @@
 package com.skyapi.weatherforecast.hourly;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -13,4 +14,17 @@ import com.skyapi.weatherforecast.common.HourlyWeatherId;
 public interface HourlyWeatherRepository extends JpaRepository<HourlyWeather, HourlyWeatherId> {
 	@Query("SELECT h FROM HourlyWeather h WHERE h.id.location.code = ?1 AND h.id.hourOfDay > ?2 AND h.id.location.trashed = false")
 	public List<HourlyWeather> findByLocationCodeAndHourOfDay(String locationCode, int hourOfDay);
+
+	// API GET chỉ cần các cột này, ko tạo entity HourlyWeather/Location
+	@Query("SELECT new com.skyapi.weatherforecast.hourly.HourlyWeatherView(l.code, l.cityName, l.regionName, l.countryName,"
+			+ " h.id.hourOfDay, h.temperature, h.precipitation, h.status) FROM HourlyWeather h JOIN h.id.location l"
+			+ " WHERE l.code = ?1 AND h.id.hourOfDay > ?2 AND l.trashed = false")
+	public List<HourlyWeatherView> findViewsByLocationCodeAndHourOfDay(String locationCode, int hourOfDay);
+
+	// API batch: giống query trên cho nhiều location trong 1 query IN
+	@Query("SELECT new com.skyapi.weatherforecast.hourly.HourlyWeatherView(l.code, l.cityName, l.regionName, l.countryName,"
+			+ " h.id.hourOfDay, h.temperature, h.precipitation, h.status) FROM HourlyWeather h JOIN h.id.location l"
+			+ " WHERE l.code IN ?1 AND h.id.hourOfDay > ?2 AND l.trashed = false")
+	public List<HourlyWeatherView> findViewsByLocationCodesAndHourOfDay(Collection<String> locationCodes,
+			int hourOfDay);
 }
@@ -1,13 +1,18 @@
 package com.skyapi.weatherforecast.hourly;
 
 import java.util.List;
+import java.util.Map;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.CacheReloader;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.HourlyWeather;
 import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationDirectory;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
 
@@ -15,41 +20,65 @@ import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
-public class HourlyWeatherService {
+public class HourlyWeatherService implements CacheReloader {
 	private final HourlyWeatherRepository hourlyWeatherRepository;
+	private final HourlyWeatherMerger hourlyWeatherMerger;
 	private final LocationRepository locationRepository;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final LocationDirectory locationDirectory;
 
 	/*
 	 * controller truyền location lấy đc từ ipAddress nên không đủ thông tin (thiếu
-	 * locationCode)
+	 * locationCode) -> tra code trong LocationDirectory (ko query DB) rồi dùng
+	 * chung cache với API theo code
 	 */
-	@Cacheable(cacheNames = "hourlyWeatherCacheByCountryCodeAndCityNameAndCurrentHour", key = "{#location.countryCode, #location.cityName, #currentHour}")
-	public List<HourlyWeather> getListHourlyWeather(Location location, int currentHour)
+	@Cacheable(cacheNames = "hourlyWeatherCacheByLocationCodeAndCurrentHour", key = "{@locationDirectory.resolveCode(#location), #currentHour}", sync = true)
+	@Transactional(readOnly = true)
+	public List<HourlyWeatherView> getListHourlyWeather(Location location, int currentHour)
 			throws LocationNotFoundException {
-		String countryCode = location.getCountryCode();
-		String cityName = location.getCityName();
-		Location locationInDB = this.locationRepository.findByCountryCodeAndCityName(countryCode, cityName);
+		String locationCode = this.locationDirectory.resolveCode(location);
 
-		if (locationInDB == null) {
-			throw new LocationNotFoundException(countryCode, cityName);
+		return this.hourlyWeatherRepository.findViewsByLocationCodeAndHourOfDay(locationCode, currentHour);
+	}
+
+	/*
+	 * query view đã JOIN locations (trashed = false) nên chỉ khi list rỗng ms cần
+	 * query thêm để phân biệt location ko tồn tại (404) với ko có dự báo (204)
+	 */
+	@Cacheable(cacheNames = "hourlyWeatherCacheByLocationCodeAndCurrentHour", key = "{#locationCode, #currentHour}", sync = true)
+	@Transactional(readOnly = true)
+	public List<HourlyWeatherView> getHourlyWeatherByLocationCodeAndCurrentHour(String locationCode,
+			int currentHour) {
+		List<HourlyWeatherView> hourlyWeathers = this.hourlyWeatherRepository
+				.findViewsByLocationCodeAndHourOfDay(locationCode, currentHour);
+
+		if (hourlyWeathers.isEmpty() && !this.locationRepository.existsUntrashedByCode(locationCode)) {
+			throw new LocationNotFoundException("No location found with the given location code.");
 		}
 
-		return this.hourlyWeatherRepository.findByLocationCodeAndHourOfDay(locationInDB.getCode(), currentHour);
+		return hourlyWeathers;
 	}
 
-	@Cacheable("hourlyWeatherCacheByLocationCodeAndCurrentHour")
-	public List<HourlyWeather> getHourlyWeatherByLocationCodeAndCurrentHour(String locationCode, int currentHour) {
-		Location location = this.locationRepository.findByCode(locationCode);
-		if (location == null) {
-			throw new LocationNotFoundException("No location found with the given location code.");
+	@Override
+	public String getCacheName() {
+		return "hourlyWeatherCacheByLocationCodeAndCurrentHour";
+	}
+
+	// refresh-ahead, key là list {locationCode, currentHour} sinh từ SpEL của @Cacheable
+	@Override
+	public Object reload(Object key) {
+		List<?> cacheKey = (List<?>) key;
+		String locationCode = (String) cacheKey.get(0);
+
+		List<HourlyWeatherView> hourlyWeathers = this.hourlyWeatherRepository
+				.findViewsByLocationCodeAndHourOfDay(locationCode, (Integer) cacheKey.get(1));
+		if (hourlyWeathers.isEmpty() && !this.locationRepository.existsUntrashedByCode(locationCode)) {
+			return null;
 		}
 
-		return this.hourlyWeatherRepository.findByLocationCodeAndHourOfDay(locationCode, currentHour);
+		return hourlyWeathers;
 	}
 
-	// ko có currentHour để load lại cache nào nên xóa hết cache luôn
-	@CacheEvict(cacheNames = { "hourlyWeatherCacheByCountryCodeAndCityNameAndCurrentHour",
-			"hourlyWeatherCacheByLocationCodeAndCurrentHour" }, allEntries = true)
 	public List<HourlyWeather> updateHourlyWeather(String locationCode, List<HourlyWeather> hourlyWeathers) {
 		Location location = this.locationRepository.findByCode(locationCode);
 		if (location == null) {
@@ -61,15 +90,22 @@ public class HourlyWeatherService {
 		});
 
 		/*
-		 * Xoá danh sách cũ, thêm danh sách mới để orphanRemoval xóa những row có trog
-		 * db nhưng ko có trong request
+		 * so với các row đang có theo HourlyWeatherId, chỉ UPDATE/INSERT/DELETE những
+		 * giờ thay đổi thay vì clear() + addAll() để orphanRemoval xóa hết rồi insert
+		 * lại từng row
+		 *
+		 * dùng code của location trong DB, findByCode ko phân biệt hoa thường nên
+		 * locationCode trên path có thể là hn_vn
 		 */
-		location.getListHourlyWeather().clear();
-		location.getListHourlyWeather().addAll(hourlyWeathers);
+		this.hourlyWeatherMerger.merge(Map.of(location.getCode(), hourlyWeathers));
 
-		// Lưu location => tự động xóa các orphan
-		Location updatedLocation = locationRepository.save(location);
+		/*
+		 * ko có currentHour để load lại cache nào nên xóa mọi entry theo giờ của
+		 * location này (các location khác vẫn giữ cache)
+		 */
+		this.cacheInvalidationIndex.evict(location.getCode(), "hourlyWeatherCacheByLocationCodeAndCurrentHour",
+				SerializedResponseCache.CACHE_NAME);
 
-		return updatedLocation.getListHourlyWeather();
+		return hourlyWeathers;
 	}
 }
@@ -0,0 +1,8 @@
+package com.skyapi.weatherforecast.hourly;
+
+import com.skyapi.weatherforecast.base.LocationScopedView;
+
+// 1 row của weather_hourly + tên location, tạo bằng constructor expression trong JPQL
+public record HourlyWeatherView(String locationCode, String cityName, String regionName, String countryName,
+		int hourOfDay, Integer temperature, Integer precipitation, String status) implements LocationScopedView {
+}
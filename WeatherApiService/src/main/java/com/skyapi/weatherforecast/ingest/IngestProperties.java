@@ -0,0 +1,18 @@
+package com.skyapi.weatherforecast.ingest;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// ánh xạ các cấu hình app.ingest.* trong application.properties
+@ConfigurationProperties(prefix = "app.ingest")
+@Getter
+@Setter
+public class IngestProperties {
+	/*
+	 * số location gom lại rồi mới ghi xuống DB, mỗi batch là 1 transaction và 1
+	 * lần xóa cache
+	 */
+	private int batchSize = 500;
+}
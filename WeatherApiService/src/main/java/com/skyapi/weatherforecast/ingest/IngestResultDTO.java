@@ -0,0 +1,45 @@
+package com.skyapi.weatherforecast.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skyapi.weatherforecast.ingest.WeatherIngestRepository.SavedBatch;
+import com.skyapi.weatherforecast.merge.MergeResult;
+
+import lombok.Getter;
+
+@Getter
+public class IngestResultDTO {
+	private int batches;
+	private int acceptedLocations;
+	private int realtimeWeathers;
+	private int hourlyWeathers;
+	private int dailyWeathers;
+	// số row thực sự bị insert/update/delete sau khi so với dữ liệu đang có
+	private MergeResult hourlyWeatherChanges = new MergeResult();
+	private MergeResult dailyWeatherChanges = new MergeResult();
+	private List<RejectedLocationDTO> rejectedLocations = new ArrayList<RejectedLocationDTO>();
+
+	void addBatch(List<LocationForecastDTO> locationForecasts, SavedBatch savedBatch) {
+		this.batches++;
+		this.hourlyWeatherChanges.add(savedBatch.hourlyWeatherChanges());
+		this.dailyWeatherChanges.add(savedBatch.dailyWeatherChanges());
+		this.acceptedLocations += locationForecasts.size();
+
+		for (LocationForecastDTO locationForecast : locationForecasts) {
+			if (locationForecast.getRealtimeWeather() != null) {
+				this.realtimeWeathers++;
+			}
+			if (locationForecast.getListHourlyWeather() != null) {
+				this.hourlyWeathers += locationForecast.getListHourlyWeather().size();
+			}
+			if (locationForecast.getListDailyWeathers() != null) {
+				this.dailyWeathers += locationForecast.getListDailyWeathers().size();
+			}
+		}
+	}
+
+	void addRejected(int index, String locationCode, List<String> errors) {
+		this.rejectedLocations.add(new RejectedLocationDTO(index, locationCode, errors));
+	}
+}
@@ -0,0 +1,39 @@
+package com.skyapi.weatherforecast.ingest;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherDTO;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/*
+ * 1 phần tử trong payload của API ingest, đặt tên field giống FullWeatherDTO,
+ * phần nào null (ko gửi) thì dữ liệu đó của location giữ nguyên
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class LocationForecastDTO {
+	@NotBlank(message = "Location code cannot be blank")
+	private String locationCode;
+
+	@Valid
+	private RealtimeWeatherDTO realtimeWeather;
+
+	@JsonProperty("hourly_forecast")
+	@Valid
+	private List<HourlyWeatherDTO> listHourlyWeather;
+
+	@JsonProperty("daily_forecast")
+	@Valid
+	private List<DailyWeatherDTO> listDailyWeathers;
+}
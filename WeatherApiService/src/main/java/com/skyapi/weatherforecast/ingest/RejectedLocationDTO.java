@@ -0,0 +1,18 @@
+package com.skyapi.weatherforecast.ingest;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// phần tử bị bỏ qua, index là vị trí trong mảng của payload (tính từ 0)
+@Getter
+@AllArgsConstructor
+@JsonPropertyOrder({ "index", "location_code", "errors" })
+public class RejectedLocationDTO {
+	private int index;
+	private String locationCode;
+	private List<String> errors;
+}
@@ -0,0 +1,32 @@
+package com.skyapi.weatherforecast.ingest;
+
+import java.io.IOException;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/v1/ingest")
+@RequiredArgsConstructor
+public class WeatherIngestApiController {
+	private final WeatherIngestService weatherIngestService;
+
+	/*
+	 * ko dùng @RequestBody vì sẽ parse cả payload (hàng nghìn location) vào bộ nhớ
+	 * -> service đọc thẳng từ InputStream của request
+	 */
+	@PostMapping(path = "/forecasts", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<IngestResultDTO> ingestForecasts(HttpServletRequest request)
+			throws IOException, BadRequestException {
+		IngestResultDTO result = this.weatherIngestService.ingest(request.getInputStream());
+
+		return ResponseEntity.ok(result);
+	}
+}
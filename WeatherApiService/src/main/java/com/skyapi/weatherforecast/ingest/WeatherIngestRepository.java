@@ -0,0 +1,87 @@
+package com.skyapi.weatherforecast.ingest;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.daily.DailyWeatherMerger;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMerger;
+import com.skyapi.weatherforecast.merge.MergeResult;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherDTO;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * ghi thẳng bằng JDBC batch thay vì findByCode + save của JPA cho từng
+ * location, câu upsert dùng cú pháp của MySQL (ON DUPLICATE KEY UPDATE)
+ */
+@Repository
+@RequiredArgsConstructor
+public class WeatherIngestRepository {
+	private static final String UPSERT_REALTIME_WEATHER_SQL = "INSERT INTO realtime_weather "
+			+ "(location_code, temperature, humidity, precipitation, wind_speed, status, last_updated) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?) "
+			+ "ON DUPLICATE KEY UPDATE temperature = VALUES(temperature), humidity = VALUES(humidity), "
+			+ "precipitation = VALUES(precipitation), wind_speed = VALUES(wind_speed), status = VALUES(status), "
+			+ "last_updated = VALUES(last_updated)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final HourlyWeatherMerger hourlyWeatherMerger;
+	private final DailyWeatherMerger dailyWeatherMerger;
+
+	/*
+	 * cả batch trong 1 transaction, hourly/daily giống PUT: thay danh sách cũ của
+	 * location bằng danh sách mới qua HourlyWeatherMerger/DailyWeatherMerger
+	 */
+	@Transactional
+	public SavedBatch saveAll(List<LocationForecastDTO> locationForecasts) {
+		Timestamp lastUpdated = new Timestamp(System.currentTimeMillis());
+
+		List<Object[]> realtimeWeatherArgs = new ArrayList<Object[]>();
+		Map<String, List<HourlyWeather>> hourlyWeathersByLocationCode = new LinkedHashMap<String, List<HourlyWeather>>();
+		Map<String, List<DailyWeather>> dailyWeathersByLocationCode = new LinkedHashMap<String, List<DailyWeather>>();
+
+		for (LocationForecastDTO locationForecast : locationForecasts) {
+			String locationCode = locationForecast.getLocationCode();
+
+			RealtimeWeatherDTO realtimeWeather = locationForecast.getRealtimeWeather();
+			if (realtimeWeather != null) {
+				realtimeWeatherArgs.add(new Object[] { locationCode, realtimeWeather.getTemperature(),
+						realtimeWeather.getHumidity(), realtimeWeather.getPrecipitation(),
+						realtimeWeather.getWindSpeed(), realtimeWeather.getStatus(), lastUpdated });
+			}
+
+			if (locationForecast.getListHourlyWeather() != null) {
+				hourlyWeathersByLocationCode.put(locationCode,
+						HourlyWeatherMapper.toEntities(locationForecast.getListHourlyWeather()));
+			}
+
+			if (locationForecast.getListDailyWeathers() != null) {
+				dailyWeathersByLocationCode.put(locationCode,
+						DailyWeatherMapper.toEntities(locationForecast.getListDailyWeathers()));
+			}
+		}
+
+		if (!realtimeWeatherArgs.isEmpty()) {
+			this.jdbcTemplate.batchUpdate(UPSERT_REALTIME_WEATHER_SQL, realtimeWeatherArgs);
+		}
+
+		MergeResult hourlyWeatherChanges = this.hourlyWeatherMerger.merge(hourlyWeathersByLocationCode);
+		MergeResult dailyWeatherChanges = this.dailyWeatherMerger.merge(dailyWeathersByLocationCode);
+
+		return new SavedBatch(hourlyWeatherChanges, dailyWeatherChanges);
+	}
+
+	public record SavedBatch(MergeResult hourlyWeatherChanges, MergeResult dailyWeatherChanges) {
+	}
+}
@@ -0,0 +1,232 @@
+package com.skyapi.weatherforecast.ingest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+import com.skyapi.weatherforecast.ingest.WeatherIngestRepository.SavedBatch;
+import com.skyapi.weatherforecast.location.LocationRepository;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+/*
+ * đọc payload dạng mảng JSON theo kiểu stream (từng phần tử 1, ko parse cả
+ * request vào bộ nhớ), gom đủ batchSize location thì ghi xuống DB và xóa cache
+ * của cả batch 1 lần
+ *
+ * phần tử lỗi (validate, location ko tồn tại,...) bị bỏ qua và trả về trong
+ * rejectedLocations, các phần tử khác vẫn đc ghi
+ */
+@Service
+@RequiredArgsConstructor
+public class WeatherIngestService {
+	// cache bị ảnh hưởng khi ghi realtime/hourly/daily, locationCacheByCode chứa cả full weather
+	private static final String[] AFFECTED_CACHE_NAMES = { "realtimeWeatherCacheByCode",
+			"hourlyWeatherCacheByLocationCodeAndCurrentHour", "dailyWeatherCacheByLocationCode",
+			"locationCacheByCode", SerializedResponseCache.CACHE_NAME };
+
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+	private final LocationRepository locationRepository;
+	private final WeatherIngestRepository weatherIngestRepository;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final IngestProperties ingestProperties;
+
+	public IngestResultDTO ingest(InputStream inputStream) throws IOException, BadRequestException {
+		IngestResultDTO result = new IngestResultDTO();
+
+		/*
+		 * giữ thứ tự trong payload, key là locationCode đã chuẩn hóa (DB so sánh code
+		 * ko phân biệt hoa thường nên hn_vn và HN_VN là cùng 1 location)
+		 */
+		Map<String, IndexedLocationForecast> batch = new LinkedHashMap<String, IndexedLocationForecast>();
+		int index = 0;
+
+		try (JsonParser parser = this.objectMapper.getFactory().createParser(inputStream)) {
+			if (parser.nextToken() != JsonToken.START_ARRAY) {
+				throw new BadRequestException("Request body must be a JSON array of location forecasts.");
+			}
+
+			JsonToken token;
+			while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+				if (token == null) {
+					throw new BadRequestException("Unexpected end of JSON array at element " + index + " ("
+							+ result.getAcceptedLocations() + " locations already ingested).");
+				}
+
+				/*
+				 * đọc ra JsonNode trước rồi mới map sang DTO để lỗi kiểu dữ liệu/field lạ chỉ
+				 * làm hỏng phần tử đó, parser vẫn đứng đúng vị trí để đọc tiếp
+				 */
+				JsonNode node = parser.readValueAsTree();
+				LocationForecastDTO locationForecast = this.convert(node, index, result);
+
+				if (locationForecast != null) {
+					/*
+					 * location xuất hiện lại trong cùng batch thì ghi batch hiện tại trước, để
+					 * phần tử sau ghi đè lên phần tử trước đúng thứ tự trong payload
+					 */
+					String normalizedCode = normalize(locationForecast.getLocationCode());
+					if (batch.containsKey(normalizedCode)) {
+						this.flush(batch, result);
+					}
+
+					batch.put(normalizedCode, new IndexedLocationForecast(index, locationForecast));
+
+					if (batch.size() >= this.ingestProperties.getBatchSize()) {
+						this.flush(batch, result);
+					}
+				}
+
+				index++;
+			}
+
+			this.flush(batch, result);
+		} catch (JsonProcessingException ex) {
+			// lỗi cú pháp JSON thì ko đọc tiếp đc, các batch trước đó đã đc ghi
+			throw new BadRequestException("Malformed JSON at element " + index + " (" + result.getAcceptedLocations()
+					+ " locations already ingested): " + ex.getOriginalMessage());
+		}
+
+		return result;
+	}
+
+	private LocationForecastDTO convert(JsonNode node, int index, IngestResultDTO result) {
+		LocationForecastDTO locationForecast;
+		try {
+			locationForecast = this.objectMapper.treeToValue(node, LocationForecastDTO.class);
+		} catch (JsonProcessingException ex) {
+			JsonNode locationCode = node.get("location_code");
+			result.addRejected(index, locationCode != null ? locationCode.asText() : null,
+					List.of(ex.getOriginalMessage()));
+			return null;
+		}
+
+		List<String> errors = this.validate(locationForecast);
+		if (!errors.isEmpty()) {
+			result.addRejected(index, locationForecast.getLocationCode(), errors);
+			return null;
+		}
+
+		return locationForecast;
+	}
+
+	private List<String> validate(LocationForecastDTO locationForecast) {
+		List<String> errors = new ArrayList<String>();
+
+		for (ConstraintViolation<LocationForecastDTO> violation : this.validator.validate(locationForecast)) {
+			errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+		}
+
+		List<HourlyWeatherDTO> listHourlyWeather = locationForecast.getListHourlyWeather();
+		List<DailyWeatherDTO> listDailyWeathers = locationForecast.getListDailyWeathers();
+
+		if (locationForecast.getRealtimeWeather() == null && listHourlyWeather == null && listDailyWeathers == null) {
+			errors.add("At least one of realtime_weather, hourly_forecast, daily_forecast is required.");
+		}
+
+		// giống các API PUT: ko cho phép list rỗng, trùng giờ/ngày thì vi phạm khóa chính
+		if (listHourlyWeather != null) {
+			if (listHourlyWeather.isEmpty()) {
+				errors.add("Hourly forecast data cannot be empty.");
+			}
+
+			Set<Integer> hours = new HashSet<Integer>();
+			for (HourlyWeatherDTO hourlyWeather : listHourlyWeather) {
+				if (!hours.add(hourlyWeather.getHourOfDay())) {
+					errors.add("Duplicate hour_of_day " + hourlyWeather.getHourOfDay() + " in hourly forecast.");
+				}
+			}
+		}
+
+		if (listDailyWeathers != null) {
+			if (listDailyWeathers.isEmpty()) {
+				errors.add("Daily forecast data cannot be empty.");
+			}
+
+			Set<List<Integer>> days = new HashSet<List<Integer>>();
+			for (DailyWeatherDTO dailyWeather : listDailyWeathers) {
+				if (!days.add(List.of(dailyWeather.getDayOfMonth(), dailyWeather.getMonth()))) {
+					errors.add("Duplicate day_of_month " + dailyWeather.getDayOfMonth() + " and month "
+							+ dailyWeather.getMonth() + " in daily forecast.");
+				}
+			}
+		}
+
+		return errors;
+	}
+
+	private void flush(Map<String, IndexedLocationForecast> batch, IngestResultDTO result) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		/*
+		 * 1 query kiểm tra cả batch thay vì findByCode cho từng location, giống
+		 * BatchWeatherService: so khớp theo code chuẩn hóa và ghi bằng code đúng như
+		 * trong DB (các *Merger và cache đều theo code của DB)
+		 */
+		List<String> requestedCodes = batch.values().stream()
+				.map(indexedLocationForecast -> indexedLocationForecast.locationForecast().getLocationCode().trim())
+				.toList();
+		Map<String, String> knownCodes = new HashMap<String, String>();
+		for (String code : this.locationRepository.findUntrashedCodes(requestedCodes)) {
+			knownCodes.put(normalize(code), code);
+		}
+
+		List<LocationForecastDTO> locationForecasts = new ArrayList<LocationForecastDTO>();
+		for (Map.Entry<String, IndexedLocationForecast> entry : batch.entrySet()) {
+			IndexedLocationForecast indexedLocationForecast = entry.getValue();
+			LocationForecastDTO locationForecast = indexedLocationForecast.locationForecast();
+
+			String locationCode = knownCodes.get(entry.getKey());
+			if (locationCode != null) {
+				locationForecast.setLocationCode(locationCode);
+				locationForecasts.add(locationForecast);
+			} else {
+				result.addRejected(indexedLocationForecast.index(), locationForecast.getLocationCode(),
+						List.of("No location found with the given location code."));
+			}
+		}
+
+		if (!locationForecasts.isEmpty()) {
+			SavedBatch savedBatch = this.weatherIngestRepository.saveAll(locationForecasts);
+
+			// xóa cache sau khi transaction đã commit, 1 lần cho cả batch
+			List<String> locationCodes = locationForecasts.stream().map(LocationForecastDTO::getLocationCode).toList();
+			this.cacheInvalidationIndex.evictAll(locationCodes, AFFECTED_CACHE_NAMES);
+
+			result.addBatch(locationForecasts, savedBatch);
+		}
+
+		batch.clear();
+	}
+
+	private static String normalize(String locationCode) {
+		return locationCode.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private record IndexedLocationForecast(int index, LocationForecastDTO locationForecast) {
+	}
+}
@@ -1,13 +1,23 @@
 package com.skyapi.weatherforecast.location;
 
+import java.util.List;
 import java.util.Map;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import com.skyapi.weatherforecast.common.Location;
 
 public interface FilterableLocationRepository {
 	public Page<Location> listWithFilter(Pageable pageable, Map<String, Object> filterFields);
 
+	// totalRows đã biết trước (vd từ LocationCountRegistry) -> ko chạy query đếm
+	public Page<Location> listWithFilter(Pageable pageable, Map<String, Object> filterFields, long totalRows);
+
+	public List<Location> listWithFilterAfter(Sort sort, List<Object> afterValues, int limit,
+			Map<String, Object> filterFields);
+
+	public long countWithFilter(Map<String, Object> filterFields);
+
 }
@@ -1,9 +1,9 @@
 package com.skyapi.weatherforecast.location;
 
-// Import a new class
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -13,86 +13,55 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
 import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationQueryPlanCache.PlanKey;
+import com.skyapi.weatherforecast.location.LocationQueryPlanCache.QueryType;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.TypedQuery;
-import jakarta.persistence.criteria.CriteriaBuilder;
-import jakarta.persistence.criteria.CriteriaQuery;
-import jakarta.persistence.criteria.JoinType;
-import jakarta.persistence.criteria.Order;
-import jakarta.persistence.criteria.Path;
-import jakarta.persistence.criteria.Predicate;
-import jakarta.persistence.criteria.Root;
 
+/*
+ * query dựng thành JPQL theo hình dạng (các field lọc + sort) và giữ lại trong
+ * LocationQueryPlanCache, giá trị lọc chỉ là tham số bind (trước đây dùng
+ * criteria query dựng lại mỗi lần, xem LocationCriteriaQueryTests)
+ *
+ * implement MeterBinder để actuator tự đăng ký thống kê hit/miss của plan cache
+ */
 @Repository
-public class FilterableLocationRepositoryImpl implements FilterableLocationRepository {
+public class FilterableLocationRepositoryImpl implements FilterableLocationRepository, MeterBinder {
 
 	@Autowired
 	private EntityManager entityManager;
 
+	private final LocationQueryPlanCache queryPlanCache = new LocationQueryPlanCache();
+
 	// hàm này phân trang kết quả theo điều kiện nên phải làm thủ công
 	@Override
 	public Page<Location> listWithFilter(Pageable pageable, Map<String, Object> filterFields) {
-		CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
-		CriteriaQuery<Location> criteriaQuery = criteriaBuilder.createQuery(Location.class);
-
-		Root<Location> root = criteriaQuery.from(Location.class);
+		List<Location> locations = this.findWithFilter(pageable, filterFields);
 
 		/*
-		 * root đại diện cho bảng Location, cho LEFT JOIN với bảng RealtimeWeather để
-		 * khi query list location thì sẽ LEFT JOIN trc, sau đó ms query (gộp thành 1
-		 * query)
-		 * 
-		 * cho LEFT JOIN để đảm bảo dù realtimeWeather null thì vẫn lấy location
-		 * 
-		 * do Location-RealtimeWeather quan hệ 1-1 -> hibernate ưu tiên EAGER LOAD,
-		 * nghĩa là 1 query list có n location sẽ bổ sung thêm n query khác cho
-		 * realtimwWeather, còn đối với DailyWeather/HourlyWeather là 1-n nên sẽ là
-		 * LAZY, bao h gọi thì ms query
-		 */
-		root.fetch("realtimeWeather", JoinType.LEFT);
-
-		List<Predicate> predicates = this.createPredicates(filterFields, criteriaBuilder, root);
-		if (!predicates.isEmpty()) {
-			/*
-			 * new Predicate[0] tự động tạo mảng tương ứng và ko cần chỉ định số phần tử
-			 * mảng
-			 */
-			criteriaQuery.where(predicates.toArray(new Predicate[0]));
-		}
-
-		/*
-		 * Order thuộc criteria
-		 * 
-		 * orders để chứa các tiêu chí sắp xếp để criteriaQuery tạo truy vấn, mỗi phần
-		 * tử trong orders là một trường cần sắp xếp theo thứ tự cụ thể.
+		 * totalRows <=> totalElements, phục vụ cho hàm getTotalElements(),
+		 * getTotalPages(),... trong PageImpl
 		 */
-		List<Order> orders = new ArrayList<>();
+		long totalRows = this.getTotalRows(filterFields);
 
-		/*
-		 * Order là nested class của Sort đại diện tiêu chí sort của 1 field truyền vào,
-		 * Order gồm 2 field là property (tên thuộc tính cần sort) và direction (chiều
-		 * cần sort)
-		 * 
-		 * pageable.getSort() trả Sort, trong sort lại có tập orders
-		 */
-		for (Sort.Order sortOrder : pageable.getSort()) {
+		return new PageImpl<Location>(locations, pageable, totalRows);
+	}
 
-			// Lấy đường dẫn tới thuộc tính cần sắp xếp
-			Path<Object> path = root.get(sortOrder.getProperty());
+	@Override
+	public Page<Location> listWithFilter(Pageable pageable, Map<String, Object> filterFields, long totalRows) {
+		return new PageImpl<Location>(this.findWithFilter(pageable, filterFields), pageable, totalRows);
+	}
 
-			// asc()/desc() trả về Order đại diện cho 1 tiêu chí sắp xếp
-			Order order = sortOrder.isAscending() ? criteriaBuilder.asc(path) : criteriaBuilder.desc(path);
-			orders.add(order);
-		}
+	private List<Location> findWithFilter(Pageable pageable, Map<String, Object> filterFields) {
+		Map<String, Object> actualFilterFields = this.removeNullValues(filterFields);
 
-		// Nếu có sắp xếp thì áp dụng vào truy vấn Criteria
-		if (!orders.isEmpty()) {
-			criteriaQuery.orderBy(orders);
-		}
+		TypedQuery<Location> typedQuery = this.entityManager
+				.createQuery(this.getJpql(QueryType.LIST, actualFilterFields, pageable.getSort()), Location.class);
+		this.bindFilterFields(typedQuery, actualFilterFields);
 
-		// phân trang kết quả trả về từ criteriaQuery
-		TypedQuery<Location> typedQuery = entityManager.createQuery(criteriaQuery);
 		/*
 		 * pageable.getOffset() trả về vị trí dòng đầu mỗi trang (vd: trang 1 -> offset
 		 * 0, 2 -> 10, 3 -> 20)
@@ -101,57 +70,172 @@ public class FilterableLocationRepositoryImpl implements FilterableLocationRepos
 		// giới hạn kết quả theo pageSize
 		typedQuery.setMaxResults(pageable.getPageSize());
 
-		List<Location> locations = typedQuery.getResultList();
+		return typedQuery.getResultList();
+	}
+
+	/*
+	 * phân trang kiểu keyset (seek): ko dùng OFFSET mà lọc các row đứng sau
+	 * afterValues theo đúng thứ tự sort, nhờ vậy trang sâu cũng chỉ đọc limit row
+	 * trên index thay vì đọc rồi bỏ qua offset row, cũng ko chạy query đếm
+	 *
+	 * sort phải kết thúc bằng code (unique) để thứ tự ko bị trùng giữa các row,
+	 * afterValues null là trang đầu
+	 */
+	@Override
+	public List<Location> listWithFilterAfter(Sort sort, List<Object> afterValues, int limit,
+			Map<String, Object> filterFields) {
+		Map<String, Object> actualFilterFields = this.removeNullValues(filterFields);
+		QueryType queryType = afterValues == null ? QueryType.LIST : QueryType.LIST_AFTER;
+
+		TypedQuery<Location> typedQuery = this.entityManager
+				.createQuery(this.getJpql(queryType, actualFilterFields, sort), Location.class);
+		this.bindFilterFields(typedQuery, actualFilterFields);
+
+		if (afterValues != null) {
+			for (int i = 0; i < afterValues.size(); i++) {
+				typedQuery.setParameter("after" + i, afterValues.get(i));
+			}
+		}
 
-		/*
-		 * totalRows <=> totalElements, phục vụ cho hàm getTotalElements(),
-		 * getTotalPages(),... trong PageImpl
-		 */
-		long totalRows = this.getTotalRows(filterFields);
+		typedQuery.setMaxResults(limit);
 
-		return new PageImpl<Location>(locations, pageable, totalRows);
+		return typedQuery.getResultList();
 	}
 
-	private List<Predicate> createPredicates(Map<String, Object> filterFields, CriteriaBuilder criteriaBuilder,
-			Root<Location> root) {
-		List<Predicate> predicates = new ArrayList<>();
+	@Override
+	public long countWithFilter(Map<String, Object> filterFields) {
+		return this.getTotalRows(filterFields);
+	}
 
-		// Duyệt từng cặp (fieldName, value) trong filterFields
-		for (Map.Entry<String, Object> entry : filterFields.entrySet()) {
-			String fieldName = entry.getKey();
-			Object fieldValue = entry.getValue();
+	/*
+	 * dựa vào filterFields để đếm số row trong bảng Location thỏa điều kiện bộ lọc
+	 * <=> đếm totalElements
+	 */
+	private long getTotalRows(Map<String, Object> filterFields) {
+		Map<String, Object> actualFilterFields = this.removeNullValues(filterFields);
+
+		TypedQuery<Long> typedQuery = this.entityManager
+				.createQuery(this.getJpql(QueryType.COUNT, actualFilterFields, Sort.unsorted()), Long.class);
+		this.bindFilterFields(typedQuery, actualFilterFields);
 
-			if (fieldValue != null) {
-				predicates.add(criteriaBuilder.equal(root.get(fieldName), fieldValue));
+		return typedQuery.getSingleResult();
+	}
+
+	// field có value null thì ko lọc, TreeMap để thứ tự field (và JPQL) cố định
+	private Map<String, Object> removeNullValues(Map<String, Object> filterFields) {
+		Map<String, Object> actualFilterFields = new TreeMap<String, Object>();
+
+		for (Map.Entry<String, Object> entry : filterFields.entrySet()) {
+			if (entry.getValue() != null) {
+				actualFilterFields.put(entry.getKey(), entry.getValue());
 			}
 		}
 
+		return actualFilterFields;
+	}
+
+	private void bindFilterFields(TypedQuery<?> typedQuery, Map<String, Object> filterFields) {
+		for (Map.Entry<String, Object> entry : filterFields.entrySet()) {
+			typedQuery.setParameter(entry.getKey(), entry.getValue());
+		}
+	}
+
+	private String getJpql(QueryType queryType, Map<String, Object> filterFields, Sort sort) {
+		List<String> sortSpec = new ArrayList<String>();
+		for (Sort.Order sortOrder : sort) {
+			sortSpec.add(sortOrder.getProperty() + " " + sortOrder.getDirection());
+		}
+
+		PlanKey key = new PlanKey(queryType, List.copyOf(filterFields.keySet()), sortSpec);
+
+		return this.queryPlanCache.get(key, this::buildJpql);
+	}
+
+	/*
+	 * tên field được nối thẳng vào JPQL nên phải là thuộc tính của Location,
+	 * getAttribute() ném IllegalArgumentException nếu ko phải (giống root.get()
+	 * của criteria trước đây)
+	 */
+	private String buildJpql(PlanKey key) {
+		StringBuilder jpql = new StringBuilder();
+
+		if (key.queryType() == QueryType.COUNT) {
+			jpql.append("SELECT COUNT(l) FROM Location l");
+		} else {
+			/*
+			 * LEFT JOIN FETCH realtimeWeather để khi query list location thì sẽ LEFT JOIN
+			 * trc, sau đó ms query (gộp thành 1 query)
+			 *
+			 * cho LEFT JOIN để đảm bảo dù realtimeWeather null thì vẫn lấy location
+			 *
+			 * do Location-RealtimeWeather quan hệ 1-1 -> hibernate ưu tiên EAGER LOAD,
+			 * nghĩa là 1 query list có n location sẽ bổ sung thêm n query khác cho
+			 * realtimwWeather, còn đối với DailyWeather/HourlyWeather là 1-n nên sẽ là
+			 * LAZY, bao h gọi thì ms query
+			 */
+			jpql.append("SELECT l FROM Location l LEFT JOIN FETCH l.realtimeWeather");
+		}
+
 		// Only show non-trashed locations
-		predicates.add(criteriaBuilder.isFalse(root.get("trashed")));
+		jpql.append(" WHERE l.trashed = false");
+
+		for (String fieldName : key.filterFieldNames()) {
+			this.checkAttribute(fieldName);
+			jpql.append(" AND l.").append(fieldName).append(" = :").append(fieldName);
+		}
+
+		List<String[]> sortOrders = new ArrayList<String[]>();
+		for (String sortSpec : key.sortSpec()) {
+			String[] propertyAndDirection = sortSpec.split(" ");
+			this.checkAttribute(propertyAndDirection[0]);
+			sortOrders.add(propertyAndDirection);
+		}
+
+		if (key.queryType() == QueryType.LIST_AFTER) {
+			jpql.append(" AND (").append(this.buildSeekCondition(sortOrders)).append(")");
+		}
+
+		if (key.queryType() != QueryType.COUNT && !sortOrders.isEmpty()) {
+			jpql.append(" ORDER BY ");
+			for (int i = 0; i < sortOrders.size(); i++) {
+				jpql.append(i == 0 ? "" : ", ").append("l.").append(sortOrders.get(i)[0]).append(" ")
+						.append(sortOrders.get(i)[1]);
+			}
+		}
 
-		return predicates;
+		return jpql.toString();
 	}
 
 	/*
-	 * dựa vào filterFields để đếm số row trong bảng Location thỏa điều kiện bộ lọc
-	 * <=> đếm totalElements
+	 * sort (a ASC, b DESC, code ASC) sau giá trị (x, y, z) <=> a > x OR (a = x AND
+	 * b < y) OR (a = x AND b = y AND code > z)
 	 */
-	private long getTotalRows(Map<String, Object> filterFields) {
-		CriteriaBuilder criteriaBuilder = this.entityManager.getCriteriaBuilder();
-		CriteriaQuery<Long> criteriaQuery = criteriaBuilder.createQuery(Long.class);
+	private String buildSeekCondition(List<String[]> sortOrders) {
+		List<String> alternatives = new ArrayList<String>();
+		StringBuilder equalPrefix = new StringBuilder();
 
-		Root<Location> root = criteriaQuery.from(Location.class);
+		for (int i = 0; i < sortOrders.size(); i++) {
+			String path = "l." + sortOrders.get(i)[0];
+			String operator = "ASC".equals(sortOrders.get(i)[1]) ? " > " : " < ";
 
-		criteriaQuery.select(criteriaBuilder.count(root));
+			alternatives.add("(" + equalPrefix + path + operator + ":after" + i + ")");
 
-		List<Predicate> predicates = createPredicates(filterFields, criteriaBuilder, root);
-		if (!predicates.isEmpty()) {
-			criteriaQuery.where(predicates.toArray(new Predicate[0]));
+			equalPrefix.append(path).append(" = :after").append(i).append(" AND ");
 		}
 
-		TypedQuery<Long> typedQuery = this.entityManager.createQuery(criteriaQuery);
+		return String.join(" OR ", alternatives);
+	}
+
+	private void checkAttribute(String attributeName) {
+		this.entityManager.getMetamodel().entity(Location.class).getAttribute(attributeName);
+	}
 
-		return typedQuery.getSingleResult();
+	LocationQueryPlanCache getQueryPlanCache() {
+		return this.queryPlanCache;
+	}
 
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		this.queryPlanCache.bindTo(registry);
 	}
 }
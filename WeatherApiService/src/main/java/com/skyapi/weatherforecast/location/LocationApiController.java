@@ -15,7 +15,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.coyote.BadRequestException;
-import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.IanaLinkRelations;
@@ -57,7 +56,6 @@ import lombok.RequiredArgsConstructor;
 @Validated
 public class LocationApiController {
 	private final LocationService locationService;
-	private final ModelMapper modelMapper;
 	private Map<String, String> propertyMap = Map.of("code", "code", "city_name", "cityName", "region_name",
 			"regionName", "country_code", "countryCode", "country_name", "countryName", "enabled", "enabled");
 
@@ -97,9 +95,13 @@ public class LocationApiController {
 			@RequestParam(value = "sort", required = false, defaultValue = "code") String sortOption,
 			@RequestParam(value = "enabled", required = false, defaultValue = "") String enabled,
 			@RequestParam(value = "region_name", required = false, defaultValue = "") String regionName,
-			@RequestParam(value = "country_code", required = false, defaultValue = "") String countryCode)
+			@RequestParam(value = "country_code", required = false, defaultValue = "") String countryCode,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "include_total", required = false, defaultValue = "false") Boolean includeTotal)
 			throws BadRequestException {
 
+		// link của chế độ cursor giữ nguyên sort client gửi (dạng snakecase)
+		String requestedSortOption = sortOption;
 		sortOption = this.validateSortOption(sortOption);
 
 		// tạo map các field được lọc
@@ -114,6 +116,15 @@ public class LocationApiController {
 			filterFields.put("countryCode", countryCode);
 		}
 
+		/*
+		 * có tham số cursor (kể cả rỗng: ?cursor= là trang đầu) thì phân trang theo
+		 * cursor, bỏ qua page
+		 */
+		if (cursor != null) {
+			return this.listLocationsAfterCursor(cursor, size, sortOption, requestedSortOption, filterFields,
+					includeTotal, enabled, regionName, countryCode);
+		}
+
 		/*
 		 * đảm bảo biến sort truyền vào dạng snakecase (tương ứng tên field dạng json),
 		 * sau đó được convert sang camelcase (giống tên field trong entity) để có thể
@@ -140,7 +151,53 @@ public class LocationApiController {
 		return new ResponseEntity<>(body, headers, HttpStatus.OK);
 	}
 
-	private String validateSortOption(String sortOption) throws BadRequestException {
+	/*
+	 * chế độ cursor trả CollectionModel (ko có page vì ko đếm số trang), link next
+	 * mang cursor của trang sau, tổng số row (nếu include_total) nằm ở header
+	 * X-Total-Count
+	 */
+	private ResponseEntity<?> listLocationsAfterCursor(String cursor, Integer size, String sortOption,
+			String requestedSortOption, Map<String, Object> filterFields, Boolean includeTotal, String enabled,
+			String regionName, String countryCode) throws BadRequestException {
+		LocationCursorPage cursorPage = this.locationService.getAllLocationUnTrashedAfterCursor(cursor, size,
+				sortOption, filterFields, Boolean.TRUE.equals(includeTotal));
+
+		HttpHeaders headers = new HttpHeaders();
+		if (cursorPage.getTotalElements() != null) {
+			headers.set("X-Total-Count", String.valueOf(cursorPage.getTotalElements()));
+		}
+
+		if (cursorPage.getLocations().isEmpty()) {
+			return new ResponseEntity<>(headers, HttpStatus.NO_CONTENT);
+		}
+
+		String actualEnabled = "".equals(enabled) ? null : enabled;
+		String actualRegionName = "".equals(regionName) ? null : regionName;
+		String actualCountryCode = "".equals(countryCode) ? null : countryCode;
+		Boolean actualIncludeTotal = Boolean.TRUE.equals(includeTotal) ? true : null;
+
+		List<LocationDTO> locationDTOs = this.convertListLocationEntityToDTO(cursorPage.getLocations());
+		for (LocationDTO locationDTO : locationDTOs) {
+			locationDTO.add(
+					linkTo(methodOn(LocationApiController.class).getLocation(locationDTO.getCode())).withSelfRel());
+		}
+
+		CollectionModel<LocationDTO> collectionModel = CollectionModel.of(locationDTOs);
+		collectionModel.add(linkTo(methodOn(LocationApiController.class).listAllLocations(null, size,
+				requestedSortOption, actualEnabled, actualRegionName, actualCountryCode, cursor, actualIncludeTotal))
+				.withSelfRel());
+
+		if (cursorPage.getNextCursor() != null) {
+			collectionModel.add(linkTo(methodOn(LocationApiController.class).listAllLocations(null, size,
+					requestedSortOption, actualEnabled, actualRegionName, actualCountryCode,
+					cursorPage.getNextCursor(), actualIncludeTotal)).withRel(IanaLinkRelations.NEXT));
+		}
+
+		return new ResponseEntity<>(collectionModel, headers, HttpStatus.OK);
+	}
+
+	// package-private để WeatherApiBenchmarks gọi trực tiếp
+	String validateSortOption(String sortOption) throws BadRequestException {
 		/*
 		 * String là immutable, sau khi biến đổi mà lại gán trực tiếp lại cho sortOption
 		 * có khi gây lỗi vì đổi dữ liệu gốc, hàm replace sẽ trả về chuỗi mới -> dùng
@@ -221,30 +278,33 @@ public class LocationApiController {
 
 		// add _links cho collectionModel
 		collectionModel.add(linkTo(methodOn(LocationApiController.class).listAllLocations(pageNum, pageSize, sortField,
-				actualEnabled, actualRegionName, actualCountryCode)).withSelfRel());
+				actualEnabled, actualRegionName, actualCountryCode, null, null)).withSelfRel());
 
 		// nếu pageNum > 1 thì trả về firstLink và prevLink
 		if (pageNum > 1) {
 			collectionModel.add(linkTo(methodOn(LocationApiController.class).listAllLocations(1, pageSize, sortField,
-					actualEnabled, actualRegionName, actualCountryCode)).withRel(IanaLinkRelations.FIRST));
+					actualEnabled, actualRegionName, actualCountryCode, null, null)).withRel(IanaLinkRelations.FIRST));
 			collectionModel.add(linkTo(methodOn(LocationApiController.class).listAllLocations(pageNum - 1, pageSize,
-					sortField, actualEnabled, actualRegionName, actualCountryCode)).withRel(IanaLinkRelations.PREV));
+					sortField, actualEnabled, actualRegionName, actualCountryCode, null, null))
+					.withRel(IanaLinkRelations.PREV));
 		}
 
 		// nếu vẫn còn trang tiếp theo thì thêm next và last
 		if (pageNum < pageLocations.getTotalPages()) {
 			collectionModel.add(linkTo(methodOn(LocationApiController.class).listAllLocations(pageNum + 1, pageSize,
-					sortField, actualEnabled, actualRegionName, actualCountryCode)).withRel(IanaLinkRelations.NEXT));
+					sortField, actualEnabled, actualRegionName, actualCountryCode, null, null))
+					.withRel(IanaLinkRelations.NEXT));
 			collectionModel
 					.add(linkTo(methodOn(LocationApiController.class).listAllLocations(pageLocations.getTotalPages(),
-							pageSize, sortField, actualEnabled, actualRegionName, actualCountryCode))
+							pageSize, sortField, actualEnabled, actualRegionName, actualCountryCode, null, null))
 							.withRel(IanaLinkRelations.LAST));
 		}
 
 		return collectionModel;
 	}
 
-	private LocationDTO addLinksByLocation(LocationDTO locationDTO) {
+	// package-private để WeatherApiBenchmarks gọi trực tiếp
+	LocationDTO addLinksByLocation(LocationDTO locationDTO) {
 		locationDTO.add(linkTo(methodOn(LocationApiController.class).getLocation(locationDTO.getCode())).withSelfRel());
 		locationDTO.add(
 				linkTo(methodOn(RealtimeWeatherApiController.class).getRealtimeByLocationCode(locationDTO.getCode()))
@@ -305,11 +365,11 @@ public class LocationApiController {
 	}
 
 	private Location convertLocationDTOToEntity(@Valid LocationDTO locationDTO) {
-		return modelMapper.map(locationDTO, Location.class);
+		return LocationMapper.toEntity(locationDTO);
 	}
 
 	private LocationDTO convertLocationEntityToDTO(Location addedLocation) {
-		return modelMapper.map(addedLocation, LocationDTO.class);
+		return LocationMapper.toDTO(addedLocation);
 	}
 
 	private List<LocationDTO> convertListLocationEntityToDTO(List<Location> locations) {
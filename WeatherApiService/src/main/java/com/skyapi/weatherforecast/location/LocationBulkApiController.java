@@ -0,0 +1,70 @@
+package com.skyapi.weatherforecast.location;
+
+import java.io.IOException;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+
+/*
+ * import/export location hàng loạt trên cùng /v1/locations, chọn theo
+ * Content-Type (POST) / Accept (GET) là text/csv hoặc application/x-ndjson nên
+ * ko chiếm path nào của /v1/locations/{code}, quyền giống API location (POST
+ * chỉ SYSTEM, GET thêm READER)
+ */
+@RestController
+@RequestMapping("/v1/locations")
+@RequiredArgsConstructor
+public class LocationBulkApiController {
+	private final LocationImportService locationImportService;
+	private final LocationExportService locationExportService;
+
+	/*
+	 * ko dùng @RequestBody để ko đọc cả file vào bộ nhớ -> service đọc thẳng từ
+	 * InputStream của request giống API ingest
+	 */
+	@PostMapping(consumes = LocationFileFormat.TEXT_CSV_VALUE)
+	public ResponseEntity<LocationImportResultDTO> importLocationsFromCsv(HttpServletRequest request)
+			throws IOException, BadRequestException {
+		return ResponseEntity
+				.ok(this.locationImportService.importLocations(request.getInputStream(), LocationFileFormat.CSV));
+	}
+
+	@PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<LocationImportResultDTO> importLocationsFromNdjson(HttpServletRequest request)
+			throws IOException, BadRequestException {
+		return ResponseEntity
+				.ok(this.locationImportService.importLocations(request.getInputStream(), LocationFileFormat.NDJSON));
+	}
+
+	@GetMapping(produces = LocationFileFormat.TEXT_CSV_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportLocationsAsCsv() {
+		return this.export(LocationFileFormat.CSV);
+	}
+
+	@GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportLocationsAsNdjson() {
+		return this.export(LocationFileFormat.NDJSON);
+	}
+
+	// ghi response trên thread async của MVC, thread request đc trả lại ngay
+	private ResponseEntity<StreamingResponseBody> export(LocationFileFormat format) {
+		StreamingResponseBody body = outputStream -> this.locationExportService.export(outputStream, format);
+
+		return ResponseEntity.ok().contentType(MediaType.parseMediaType(format.getMediaType() + ";charset=UTF-8"))
+				.header(HttpHeaders.CONTENT_DISPOSITION,
+						ContentDisposition.attachment().filename("locations." + format.getFileExtension()).build()
+								.toString())
+				.body(body);
+	}
+}
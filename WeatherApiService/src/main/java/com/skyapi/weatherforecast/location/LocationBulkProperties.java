@@ -0,0 +1,18 @@
+package com.skyapi.weatherforecast.location;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// ánh xạ các cấu hình app.location-bulk.* trong application.properties
+@ConfigurationProperties(prefix = "app.location-bulk")
+@Getter
+@Setter
+public class LocationBulkProperties {
+	/*
+	 * import: số location ghi trong 1 JDBC batch (1 transaction), export: số row
+	 * đọc trong 1 query (theo keyset trên code)
+	 */
+	private int batchSize = 1000;
+}
@@ -0,0 +1,92 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * ghi/đọc bảng locations bằng JDBC cho API import/export: ko qua save() của
+ * JPA (select + insert/update từng location) và ko giữ entity trong
+ * persistence context, câu upsert dùng cú pháp của MySQL (ON DUPLICATE KEY
+ * UPDATE)
+ */
+@Repository
+@RequiredArgsConstructor
+public class LocationBulkRepository {
+	/*
+	 * code đã có thì cập nhật giống PUT, location đã bị xóa (trashed) thì đc khôi
+	 * phục. so khớp code theo collation của DB (ko phân biệt hoa thường) nên code
+	 * đã lưu giữ nguyên cách viết cũ. tham số cuối = false (file ko có enabled)
+	 * thì giữ enabled đang có
+	 */
+	private static final String UPSERT_LOCATION_SQL = "INSERT INTO locations "
+			+ "(code, city_name, region_name, country_name, country_code, enabled, trashed) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, false) "
+			+ "ON DUPLICATE KEY UPDATE city_name = VALUES(city_name), region_name = VALUES(region_name), "
+			+ "country_name = VALUES(country_name), country_code = VALUES(country_code), "
+			+ "enabled = CASE WHEN ? THEN VALUES(enabled) ELSE enabled END, trashed = false";
+
+	private static final String SELECT_BY_CODES_SQL = "SELECT code, city_name, region_name, country_name, "
+			+ "country_code, enabled FROM locations WHERE code IN (%s)";
+
+	// keyset theo khóa chính: mỗi trang là 1 lần seek trên index, ko OFFSET
+	private static final String SELECT_UNTRASHED_AFTER_CODE_SQL = "SELECT code, city_name, region_name, country_name, "
+			+ "country_code, enabled FROM locations WHERE trashed = false AND code > ? ORDER BY code LIMIT ?";
+
+	private static final RowMapper<Location> LOCATION_ROW_MAPPER = (resultSet, rowNum) -> Location.builder()
+			.code(resultSet.getString("code")).cityName(resultSet.getString("city_name"))
+			.regionName(resultSet.getString("region_name")).countryName(resultSet.getString("country_name"))
+			.countryCode(resultSet.getString("country_code")).enabled(resultSet.getBoolean("enabled")).build();
+
+	private final JdbcTemplate jdbcTemplate;
+
+	// cả batch trong 1 transaction, 1 dòng lỗi thì cả batch rollback
+	@Transactional
+	public void upsertAll(List<LocationUpsert> upserts) {
+		List<Object[]> args = new ArrayList<Object[]>(upserts.size());
+		for (LocationUpsert upsert : upserts) {
+			Location location = upsert.location();
+			args.add(new Object[] { location.getCode(), location.getCityName(), location.getRegionName(),
+					location.getCountryName(), location.getCountryCode(), location.isEnabled(),
+					upsert.updateEnabled() });
+		}
+
+		this.jdbcTemplate.batchUpdate(UPSERT_LOCATION_SQL, args);
+	}
+
+	/*
+	 * đọc lại các location vừa ghi: code (cách viết đã lưu) và enabled trong DB
+	 * có thể khác dòng trong file
+	 */
+	public List<Location> findByCodes(Collection<String> codes) {
+		if (codes.isEmpty()) {
+			return List.of();
+		}
+
+		String placeholders = String.join(", ", Collections.nCopies(codes.size(), "?"));
+		return this.jdbcTemplate.query(SELECT_BY_CODES_SQL.formatted(placeholders), LOCATION_ROW_MAPPER,
+				codes.toArray());
+	}
+
+	// afterCode rỗng là trang đầu
+	public List<Location> findUntrashedAfterCode(String afterCode, int limit) {
+		return this.jdbcTemplate.query(SELECT_UNTRASHED_AFTER_CODE_SQL, LOCATION_ROW_MAPPER, afterCode, limit);
+	}
+
+	/*
+	 * 1 dòng cần ghi, updateEnabled = false khi file ko có enabled: location đã có
+	 * giữ nguyên enabled, location mới là false
+	 */
+	public record LocationUpsert(Location location, boolean updateEnabled) {
+	}
+}
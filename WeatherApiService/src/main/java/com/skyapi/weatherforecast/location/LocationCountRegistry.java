@@ -0,0 +1,184 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * số location chưa trashed theo từng tổ hợp bộ lọc (enabled, countryCode,
+ * regionName, trashed) của API list location, nhờ vậy page metadata (totalElements,
+ * totalPages) lấy từ bộ nhớ thay vì chạy thêm 1 query COUNT(*) mỗi trang
+ *
+ * mỗi location được đếm vào (tối đa) 8 tổ hợp (mỗi field có lọc hoặc ko), nạp
+ * từ bảng locations lúc khởi động, LocationService cập nhật khi thêm/sửa/xóa và
+ * nạp lại định kỳ để nhận thay đổi từ instance khác (giống LocationDirectory)
+ */
+@Component
+public class LocationCountRegistry {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationCountRegistry.class);
+
+	// bộ lọc có field khác ngoài các field này thì ko trả lời đc -> đếm bằng DB
+	private static final Set<String> COUNTABLE_FILTER_FIELDS = Set.of("enabled", "countryCode", "regionName",
+			"trashed");
+
+	private final LocationRepository locationRepository;
+
+	private volatile Map<String, CountKey> keysByCode = new ConcurrentHashMap<String, CountKey>();
+	private volatile Map<CountKey, Long> counts = new ConcurrentHashMap<CountKey, Long>();
+
+	// loaded = false (chưa nạp đc, vd DB lỗi lúc khởi động) thì count() trả null
+	private volatile boolean loaded;
+
+	// tăng mỗi lần ghi, refresh thấy đổi thì bỏ kết quả vì có thể đã cũ
+	private long modificationCount;
+
+	public LocationCountRegistry(LocationRepository locationRepository) {
+		this.locationRepository = locationRepository;
+	}
+
+	/*
+	 * field null <=> ko lọc theo field đó
+	 *
+	 * MySQL so sánh chuỗi ko phân biệt hoa thường và dấu (collation mặc định) nên
+	 * key cũng chuẩn hóa về chữ thường, bỏ dấu để số đếm giống query cũ
+	 */
+	private record CountKey(Boolean enabled, String countryCode, String regionName) {
+		private static CountKey of(Boolean enabled, String countryCode, String regionName) {
+			return new CountKey(enabled, LocationKeys.normalize(countryCode), LocationKeys.normalize(regionName));
+		}
+
+		/*
+		 * các tổ hợp bộ lọc mà location (key đầy đủ) khớp, field của location null
+		 * (vd ko có regionName) thì ko bộ lọc nào theo field đó khớp -> bỏ qua, tránh
+		 * trùng với tổ hợp ko lọc
+		 */
+		private List<CountKey> combinations() {
+			List<CountKey> combinations = new ArrayList<CountKey>(8);
+
+			for (int mask = 0; mask < 8; mask++) {
+				if (((mask & 1) != 0 && this.enabled == null) || ((mask & 2) != 0 && this.countryCode == null)
+						|| ((mask & 4) != 0 && this.regionName == null)) {
+					continue;
+				}
+
+				combinations.add(new CountKey((mask & 1) != 0 ? this.enabled : null,
+						(mask & 2) != 0 ? this.countryCode : null, (mask & 4) != 0 ? this.regionName : null));
+			}
+
+			return combinations;
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${app.location-count.refresh-interval:5m}", fixedDelayString = "${app.location-count.refresh-interval:5m}")
+	public void refresh() {
+		long modificationCountBeforeLoad;
+		synchronized (this) {
+			modificationCountBeforeLoad = this.modificationCount;
+		}
+
+		List<Object[]> rows;
+		try {
+			rows = this.locationRepository.findAllCodesWithCountFilterFields();
+		} catch (Exception e) {
+			LOGGER.error("Error Loading Location Counts!", e);
+			return;
+		}
+
+		Map<String, CountKey> newKeysByCode = new ConcurrentHashMap<String, CountKey>();
+		Map<CountKey, Long> newCounts = new HashMap<CountKey, Long>();
+
+		for (Object[] row : rows) {
+			CountKey key = CountKey.of((Boolean) row[1], (String) row[2], (String) row[3]);
+			newKeysByCode.put((String) row[0], key);
+
+			for (CountKey combination : key.combinations()) {
+				newCounts.merge(combination, 1L, Long::sum);
+			}
+		}
+
+		synchronized (this) {
+			// có thêm/sửa/xóa trong lúc đang query thì để lần refresh sau nạp lại
+			if (this.loaded && this.modificationCount != modificationCountBeforeLoad) {
+				return;
+			}
+
+			this.keysByCode = newKeysByCode;
+			this.counts = new ConcurrentHashMap<CountKey, Long>(newCounts);
+			this.loaded = true;
+		}
+	}
+
+	/**
+	 * Số location chưa trashed khớp bộ lọc của API list location.
+	 *
+	 * @param filterFields bộ lọc giống {@link FilterableLocationRepository}
+	 * @return null nếu chưa nạp xong hoặc bộ lọc có field ko đc đếm sẵn
+	 */
+	public Long count(Map<String, Object> filterFields) {
+		if (!this.loaded || !COUNTABLE_FILTER_FIELDS.containsAll(filterFields.keySet())) {
+			return null;
+		}
+
+		/*
+		 * query list luôn có trashed = false (xem FilterableLocationRepositoryImpl),
+		 * lọc thêm trashed = true thì ko row nào khớp, trashed = false thì như ko lọc
+		 */
+		if (Boolean.TRUE.equals(filterFields.get("trashed"))) {
+			return 0L;
+		}
+
+		CountKey key = CountKey.of((Boolean) filterFields.get("enabled"), (String) filterFields.get("countryCode"),
+				(String) filterFields.get("regionName"));
+
+		return this.counts.getOrDefault(key, 0L);
+	}
+
+	// gọi sau khi thêm/sửa location, các tổ hợp của giá trị cũ (nếu đổi) bị trừ đi
+	public synchronized void put(Location location) {
+		this.modificationCount++;
+
+		this.removeByCode(location.getCode());
+
+		if (!location.isTrashed()) {
+			CountKey key = CountKey.of(location.isEnabled(), location.getCountryCode(), location.getRegionName());
+			this.keysByCode.put(location.getCode(), key);
+			this.addToCounts(key, 1L);
+		}
+	}
+
+	public synchronized void remove(String code) {
+		this.modificationCount++;
+
+		this.removeByCode(code);
+	}
+
+	private void removeByCode(String code) {
+		CountKey key = this.keysByCode.remove(code);
+		if (key != null) {
+			this.addToCounts(key, -1L);
+		}
+	}
+
+	private void addToCounts(CountKey key, long delta) {
+		for (CountKey combination : key.combinations()) {
+			// về 0 thì xóa luôn key để map ko phình theo các giá trị đã từng có
+			this.counts.compute(combination, (k, count) -> {
+				long newCount = (count == null ? 0L : count) + delta;
+				return newCount <= 0 ? null : newCount;
+			});
+		}
+	}
+}
@@ -0,0 +1,144 @@
+package com.skyapi.weatherforecast.location;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import lombok.Getter;
+
+/*
+ * đọc/ghi CSV (RFC 4180) cho API import/export location: field có dấu phẩy,
+ * dấu nháy kép hoặc xuống dòng thì nằm trong "...", "" là 1 dấu nháy kép
+ *
+ * project ko có thư viện CSV nên viết tay, chỉ cần đủ cho 6 cột của location
+ */
+final class LocationCsv {
+	// cùng tên và thứ tự với JSON của LocationDTO
+	static final List<String> HEADER = List.of("code", "city_name", "region_name", "country_code", "country_name",
+			"enabled");
+
+	private LocationCsv() {
+	}
+
+	static String toLine(Location location) {
+		return escape(location.getCode()) + ',' + escape(location.getCityName()) + ','
+				+ escape(location.getRegionName()) + ',' + escape(location.getCountryCode()) + ','
+				+ escape(location.getCountryName()) + ',' + location.isEnabled() + '\n';
+	}
+
+	static String headerLine() {
+		return String.join(",", HEADER) + '\n';
+	}
+
+	private static String escape(String value) {
+		if (value == null) {
+			return "";
+		}
+
+		if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+			return value;
+		}
+
+		return '"' + value.replace("\"", "\"\"") + '"';
+	}
+
+	/*
+	 * đọc từng record theo kiểu stream (ko đọc cả file vào bộ nhớ), line là dòng
+	 * bắt đầu của record vừa đọc (tính từ 1) để báo lỗi theo dòng
+	 */
+	static final class RecordReader {
+		private static final int NONE = -2;
+
+		private final Reader reader;
+		private int pushedBack = NONE;
+		private int currentLine = 1;
+		@Getter
+		private int line;
+
+		RecordReader(Reader reader) {
+			this.reader = reader;
+		}
+
+		// null khi hết file
+		List<String> next() throws IOException {
+			int c = this.read();
+			if (c == -1) {
+				return null;
+			}
+			this.line = this.currentLine;
+
+			List<String> fields = new ArrayList<String>();
+			StringBuilder field = new StringBuilder();
+			boolean quoted = false;
+
+			while (true) {
+				if (quoted) {
+					if (c == -1) {
+						throw new MalformedCsvException(this.line, "Unterminated quoted field.");
+					}
+
+					if (c == '"') {
+						int next = this.read();
+						if (next != '"') {
+							// hết phần trong nháy, ký tự sau đó xử lý như bình thường
+							quoted = false;
+							c = next;
+							continue;
+						}
+					} else if (c == '\n') {
+						this.currentLine++;
+					}
+					field.append((char) c);
+				} else if (c == ',') {
+					fields.add(field.toString());
+					field.setLength(0);
+				} else if (c == '\n' || c == '\r' || c == -1) {
+					if (c == '\r') {
+						int next = this.read();
+						if (next != '\n') {
+							this.pushedBack = next;
+						}
+					}
+					if (c != -1) {
+						this.currentLine++;
+					}
+
+					fields.add(field.toString());
+					return fields;
+				} else if (c == '"' && field.isEmpty()) {
+					quoted = true;
+				} else {
+					field.append((char) c);
+				}
+
+				c = this.read();
+			}
+		}
+
+		private int read() throws IOException {
+			if (this.pushedBack != NONE) {
+				int c = this.pushedBack;
+				this.pushedBack = NONE;
+				return c;
+			}
+
+			return this.reader.read();
+		}
+	}
+
+	// lỗi cú pháp làm ko xác định đc record tiếp theo bắt đầu từ đâu -> dừng đọc
+	@Getter
+	static class MalformedCsvException extends IOException {
+		private static final long serialVersionUID = 1L;
+
+		private final int line;
+
+		MalformedCsvException(int line, String message) {
+			super(message);
+			this.line = line;
+		}
+	}
+}
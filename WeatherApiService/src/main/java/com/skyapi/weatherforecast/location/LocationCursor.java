@@ -0,0 +1,63 @@
+package com.skyapi.weatherforecast.location;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * continuation token của chế độ phân trang theo cursor: giá trị các cột sort
+ * (kèm code để ko trùng) của location cuối trang trước, encode base64 để client
+ * coi như chuỗi opaque, chỉ việc gửi lại
+ *
+ * token giữ luôn sortOption để cursor của kiểu sort này ko bị dùng cho kiểu
+ * sort khác
+ */
+public record LocationCursor(String sortOption, List<Object> values) {
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+	public static LocationCursor of(String sortOption, Sort sort, Location lastLocation) {
+		BeanWrapper beanWrapper = PropertyAccessorFactory.forBeanPropertyAccess(lastLocation);
+
+		List<Object> values = new ArrayList<Object>();
+		for (Sort.Order order : sort) {
+			values.add(beanWrapper.getPropertyValue(order.getProperty()));
+		}
+
+		return new LocationCursor(sortOption, values);
+	}
+
+	public static LocationCursor decode(String token, String sortOption, Sort sort) throws BadRequestException {
+		LocationCursor cursor;
+		try {
+			byte[] json = Base64.getUrlDecoder().decode(token);
+			cursor = OBJECT_MAPPER.readValue(json, LocationCursor.class);
+		} catch (IllegalArgumentException | IOException ex) {
+			throw new BadRequestException("Invalid cursor: " + token);
+		}
+
+		if (!sortOption.equals(cursor.sortOption()) || cursor.values() == null
+				|| cursor.values().size() != sort.toList().size()) {
+			throw new BadRequestException("Cursor does not match sort option: " + token);
+		}
+
+		return cursor;
+	}
+
+	public String encode() {
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(OBJECT_MAPPER.writeValueAsBytes(this));
+		} catch (JsonProcessingException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.List;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/*
+ * 1 trang của chế độ cursor, nextCursor null nghĩa là hết dữ liệu,
+ * totalElements null khi client ko yêu cầu đếm
+ */
+@Getter
+@AllArgsConstructor
+public class LocationCursorPage {
+	private List<Location> locations;
+	private String nextCursor;
+	private Long totalElements;
+}
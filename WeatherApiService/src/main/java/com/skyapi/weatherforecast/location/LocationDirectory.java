@@ -0,0 +1,179 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * bảng (countryCode, cityName) -> location code nằm trong bộ nhớ, các API theo
+ * IP tra code ở đây rồi dùng lại cache/query theo code thay vì gọi
+ * findByCountryCodeAndCityName mỗi request
+ *
+ * nạp từ bảng locations lúc khởi động, LocationService cập nhật khi thêm/sửa/xóa
+ * và nạp lại định kỳ để nhận thay đổi từ instance khác
+ */
+@Component
+public class LocationDirectory {
+	private static final Logger LOGGER = LoggerFactory.getLogger(LocationDirectory.class);
+
+	private final LocationRepository locationRepository;
+
+	private volatile Map<DirectoryKey, String> codesByKey = new ConcurrentHashMap<DirectoryKey, String>();
+	private volatile Map<String, DirectoryKey> keysByCode = new ConcurrentHashMap<String, DirectoryKey>();
+
+	/*
+	 * loaded = false (chưa nạp đc, vd DB lỗi lúc khởi động) thì tra thẳng DB;
+	 * loaded = true thì ko có trong bảng <=> location ko tồn tại
+	 */
+	private volatile boolean loaded;
+
+	// tăng mỗi lần ghi, refresh thấy đổi thì bỏ kết quả vì có thể đã cũ
+	private long modificationCount;
+
+	public LocationDirectory(LocationRepository locationRepository) {
+		this.locationRepository = locationRepository;
+	}
+
+	/*
+	 * MySQL so sánh chuỗi ko phân biệt hoa thường và dấu (collation mặc định) nên
+	 * key cũng chuẩn hóa giống LocationCountRegistry để kết quả giống query cũ
+	 */
+	private record DirectoryKey(String countryCode, String cityName) {
+		private static DirectoryKey of(String countryCode, String cityName) {
+			if (countryCode == null || cityName == null) {
+				return null;
+			}
+
+			return new DirectoryKey(LocationKeys.normalize(countryCode.trim()),
+					LocationKeys.normalize(cityName.trim()));
+		}
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(initialDelayString = "${app.location-directory.refresh-interval:5m}", fixedDelayString = "${app.location-directory.refresh-interval:5m}")
+	public void refresh() {
+		long modificationCountBeforeLoad;
+		synchronized (this) {
+			modificationCountBeforeLoad = this.modificationCount;
+		}
+
+		List<Object[]> rows;
+		try {
+			rows = this.locationRepository.findAllCodesWithCountryCodeAndCityName();
+		} catch (Exception e) {
+			LOGGER.error("Error Loading Location Directory!", e);
+			return;
+		}
+
+		Map<DirectoryKey, String> newCodesByKey = new ConcurrentHashMap<DirectoryKey, String>();
+		Map<String, DirectoryKey> newKeysByCode = new ConcurrentHashMap<String, DirectoryKey>();
+
+		Map<DirectoryKey, String> duplicates = new HashMap<DirectoryKey, String>();
+		for (Object[] row : rows) {
+			String code = (String) row[0];
+			DirectoryKey key = DirectoryKey.of((String) row[1], (String) row[2]);
+			if (key == null) {
+				continue;
+			}
+
+			// trùng (countryCode, cityName) thì giữ location đầu tiên
+			if (newCodesByKey.putIfAbsent(key, code) != null) {
+				duplicates.put(key, code);
+				continue;
+			}
+
+			newKeysByCode.put(code, key);
+		}
+
+		if (!duplicates.isEmpty()) {
+			LOGGER.warn("Location Directory found " + duplicates.size() + " duplicated (countryCode, cityName)");
+		}
+
+		synchronized (this) {
+			// có thêm/sửa/xóa trong lúc đang query thì để lần refresh sau nạp lại
+			if (this.loaded && this.modificationCount != modificationCountBeforeLoad) {
+				return;
+			}
+
+			this.codesByKey = newCodesByKey;
+			this.keysByCode = newKeysByCode;
+			this.loaded = true;
+		}
+	}
+
+	/*
+	 * dùng trong SpEL key của @Cacheable (@locationDirectory.resolveCode(...)) để
+	 * API theo IP dùng chung cache với API theo code, ko tìm thấy thì ném
+	 * LocationNotFoundException (SpEL ném lại nguyên RuntimeException)
+	 */
+	public String resolveCode(Location location) {
+		String countryCode = location.getCountryCode();
+		String cityName = location.getCityName();
+
+		String code = this.findCode(countryCode, cityName);
+		if (code == null) {
+			throw new LocationNotFoundException(countryCode, cityName);
+		}
+
+		return code;
+	}
+
+	public String findCode(String countryCode, String cityName) {
+		DirectoryKey key = DirectoryKey.of(countryCode, cityName);
+		if (key == null) {
+			return null;
+		}
+
+		if (this.loaded) {
+			return this.codesByKey.get(key);
+		}
+
+		Location location = this.locationRepository.findByCountryCodeAndCityName(countryCode, cityName);
+		return location == null ? null : location.getCode();
+	}
+
+	// countryCode (chữ thường) của location, null nếu chưa nạp đc hoặc ko có trong bảng
+	public String findCountryCode(String code) {
+		DirectoryKey key = this.keysByCode.get(code);
+		return key == null ? null : key.countryCode();
+	}
+
+	// gọi sau khi thêm/sửa location, countryCode/cityName cũ (nếu đổi) bị xóa
+	public synchronized void put(Location location) {
+		this.modificationCount++;
+
+		this.removeByCode(location.getCode());
+
+		DirectoryKey key = DirectoryKey.of(location.getCountryCode(), location.getCityName());
+		if (key != null && !location.isTrashed() && this.codesByKey.putIfAbsent(key, location.getCode()) == null) {
+			this.keysByCode.put(location.getCode(), key);
+		}
+	}
+
+	public synchronized void remove(String code) {
+		this.modificationCount++;
+
+		this.removeByCode(code);
+	}
+
+	private void removeByCode(String code) {
+		DirectoryKey key = this.keysByCode.remove(code);
+		if (key != null) {
+			this.codesByKey.remove(key, code);
+		}
+	}
+
+	public int size() {
+		return this.codesByKey.size();
+	}
+}
@@ -0,0 +1,76 @@
+package com.skyapi.weatherforecast.location;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * export mọi location chưa trashed ra CSV/NDJSON (cùng định dạng với API
+ * import): đọc từng trang batchSize row theo keyset trên code rồi ghi ngay ra
+ * response, bộ nhớ chỉ giữ 1 trang và mỗi query ngắn (ko giữ connection/
+ * transaction trong lúc chờ client đọc)
+ */
+@Service
+public class LocationExportService {
+	private final LocationBulkRepository locationBulkRepository;
+	private final LocationBulkProperties locationBulkProperties;
+	// ObjectMapper của app bật INDENT_OUTPUT, NDJSON cần mỗi object trên 1 dòng
+	private final ObjectWriter ndjsonWriter;
+
+	public LocationExportService(LocationBulkRepository locationBulkRepository,
+			LocationBulkProperties locationBulkProperties, ObjectMapper objectMapper) {
+		this.locationBulkRepository = locationBulkRepository;
+		this.locationBulkProperties = locationBulkProperties;
+		this.ndjsonWriter = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+	}
+
+	public void export(OutputStream outputStream, LocationFileFormat format) throws IOException {
+		Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		if (format == LocationFileFormat.CSV) {
+			writer.write(LocationCsv.headerLine());
+		}
+
+		int pageSize = this.locationBulkProperties.getBatchSize();
+		String afterCode = "";
+		List<Location> locations;
+		do {
+			locations = this.locationBulkRepository.findUntrashedAfterCode(afterCode, pageSize);
+
+			for (Location location : locations) {
+				writer.write(format == LocationFileFormat.CSV ? LocationCsv.toLine(location) : this.toJsonLine(location));
+			}
+			// đẩy từng trang ra client thay vì chờ hết bảng
+			writer.flush();
+
+			if (!locations.isEmpty()) {
+				afterCode = locations.get(locations.size() - 1).getCode();
+			}
+		} while (locations.size() == pageSize);
+	}
+
+	private String toJsonLine(Location location) throws IOException {
+		return this.ndjsonWriter.writeValueAsString(new LocationLine(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryCode(), location.getCountryName(), location.isEnabled()))
+				+ '\n';
+	}
+
+	// giống JSON của LocationDTO nhưng ko có links (LocationDTO kế thừa CollectionModel)
+	@JsonPropertyOrder({ "code", "city_name", "region_name", "country_code", "country_name", "enabled" })
+	@JsonInclude(JsonInclude.Include.NON_NULL)
+	record LocationLine(String code, String cityName, String regionName, String countryCode, String countryName,
+			boolean enabled) {
+	}
+}
@@ -0,0 +1,18 @@
+package com.skyapi.weatherforecast.location;
+
+import org.springframework.http.MediaType;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// định dạng file của API import/export location, mỗi dòng (record) là 1 location
+@Getter
+@RequiredArgsConstructor
+public enum LocationFileFormat {
+	CSV(LocationFileFormat.TEXT_CSV_VALUE, "csv"), NDJSON(MediaType.APPLICATION_NDJSON_VALUE, "ndjson");
+
+	public static final String TEXT_CSV_VALUE = "text/csv";
+
+	private final String mediaType;
+	private final String fileExtension;
+}
@@ -0,0 +1,22 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Getter;
+
+@Getter
+public class LocationImportResultDTO {
+	private int batches;
+	private int acceptedLocations;
+	private List<RejectedLocationRowDTO> rejectedRows = new ArrayList<RejectedLocationRowDTO>();
+
+	void addBatch(int savedLocations) {
+		this.batches++;
+		this.acceptedLocations += savedLocations;
+	}
+
+	void addRejected(int line, String code, List<String> errors) {
+		this.rejectedRows.add(new RejectedLocationRowDTO(line, code, errors));
+	}
+}
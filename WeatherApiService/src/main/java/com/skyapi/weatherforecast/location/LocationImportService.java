@@ -0,0 +1,327 @@
+package com.skyapi.weatherforecast.location;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.coyote.BadRequestException;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.location.LocationBulkRepository.LocationUpsert;
+import com.skyapi.weatherforecast.location.LocationCsv.MalformedCsvException;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+
+/*
+ * import location từ CSV/NDJSON theo kiểu stream (từng dòng 1, ko đọc cả file
+ * vào bộ nhớ) thay cho gọi POST /v1/locations cho từng location: dòng hợp lệ
+ * (theo ràng buộc của LocationDTO) gom đủ batchSize thì upsert bằng 1 JDBC
+ * batch, dòng lỗi bị bỏ qua và trả về trong rejectedRows
+ *
+ * cache chỉ xóa 1 lần khi kết thúc (kể cả khi dừng giữa chừng vì file lỗi cú
+ * pháp, các batch trước đó đã đc ghi), LocationDirectory/LocationCountRegistry
+ * cập nhật sau mỗi batch giống API thêm location
+ */
+@Service
+@RequiredArgsConstructor
+public class LocationImportService {
+	private static final String PAGINATION_CACHE_NAME = "locationCacheByPagination";
+	// các cache chứa dữ liệu (tên) của location, giống updateLocation
+	private static final String[] AFFECTED_CACHE_NAMES = { "locationCacheByCode", "realtimeWeatherCacheByCode",
+			"hourlyWeatherCacheByLocationCodeAndCurrentHour", "dailyWeatherCacheByLocationCode",
+			SerializedResponseCache.CACHE_NAME };
+
+	private static final List<String> REQUIRED_CSV_COLUMNS = List.of("code", "city_name", "country_code",
+			"country_name");
+
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+	private final LocationBulkRepository locationBulkRepository;
+	private final LocationDirectory locationDirectory;
+	private final LocationCountRegistry locationCountRegistry;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final CacheManager cacheManager;
+	private final LocationBulkProperties locationBulkProperties;
+
+	public LocationImportResultDTO importLocations(InputStream inputStream, LocationFileFormat format)
+			throws IOException, BadRequestException {
+		LocationImportResultDTO result = new LocationImportResultDTO();
+		// code đã ghi, để xóa cache 1 lần khi kết thúc
+		Set<String> importedCodes = new LinkedHashSet<String>();
+		List<LocationRow> batch = new ArrayList<LocationRow>();
+
+		BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+		try {
+			RowReader rowReader = format == LocationFileFormat.CSV ? new CsvRowReader(reader)
+					: new NdjsonRowReader(reader);
+
+			LocationRow row;
+			while ((row = rowReader.next()) != null) {
+				List<String> errors = row.errors() != null ? row.errors() : this.validate(row.location());
+				if (!errors.isEmpty()) {
+					result.addRejected(row.line(), row.code(), errors);
+					continue;
+				}
+
+				batch.add(row);
+				if (batch.size() >= this.locationBulkProperties.getBatchSize()) {
+					this.flush(batch, result, importedCodes);
+				}
+			}
+
+			this.flush(batch, result, importedCodes);
+		} catch (MalformedCsvException ex) {
+			throw new BadRequestException("Malformed CSV at line " + ex.getLine() + " ("
+					+ result.getAcceptedLocations() + " locations already imported): " + ex.getMessage());
+		} finally {
+			this.evictCaches(importedCodes);
+		}
+
+		return result;
+	}
+
+	private List<String> validate(LocationDTO location) {
+		List<String> errors = new ArrayList<String>();
+
+		for (ConstraintViolation<LocationDTO> violation : this.validator.validate(location)) {
+			errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+		}
+
+		return errors;
+	}
+
+	private void flush(List<LocationRow> batch, LocationImportResultDTO result, Set<String> importedCodes) {
+		if (batch.isEmpty()) {
+			return;
+		}
+
+		List<LocationUpsert> upserts = batch.stream()
+				.map(row -> new LocationUpsert(LocationMapper.toEntity(row.location()), row.hasEnabled())).toList();
+		Set<String> savedCodes = new LinkedHashSet<String>();
+		int savedRows = 0;
+
+		try {
+			this.locationBulkRepository.upsertAll(upserts);
+			upserts.forEach(upsert -> savedCodes.add(upsert.location().getCode()));
+			savedRows = upserts.size();
+		} catch (DataIntegrityViolationException e) {
+			// vd: cột NOT NULL trong DB mà DTO cho phép null, ghi lại từng dòng để chỉ bỏ dòng lỗi
+			for (int i = 0; i < batch.size(); i++) {
+				try {
+					this.locationBulkRepository.upsertAll(List.of(upserts.get(i)));
+					savedCodes.add(upserts.get(i).location().getCode());
+					savedRows++;
+				} catch (DataIntegrityViolationException rowException) {
+					result.addRejected(batch.get(i).line(), batch.get(i).code(),
+							List.of("Location could not be saved: " + rowException.getMostSpecificCause().getMessage()));
+				}
+			}
+		}
+
+		/*
+		 * registry/cache dùng code và enabled đã lưu trong DB: "hn_vn" trong file cập
+		 * nhật dòng "HN_VN" đã có, ko đc đếm thành location thứ 2
+		 */
+		Map<String, Location> storedLocations = new HashMap<String, Location>();
+		for (Location location : this.locationBulkRepository.findByCodes(savedCodes)) {
+			storedLocations.put(location.getCode().toLowerCase(Locale.ROOT), location);
+		}
+		for (String code : savedCodes) {
+			Location location = storedLocations.get(code.toLowerCase(Locale.ROOT));
+			if (location != null) {
+				this.locationDirectory.put(location);
+				this.locationCountRegistry.put(location);
+				importedCodes.add(location.getCode());
+			}
+		}
+
+		if (savedRows > 0) {
+			result.addBatch(savedRows);
+		}
+
+		batch.clear();
+	}
+
+	private void evictCaches(Set<String> importedCodes) {
+		if (importedCodes.isEmpty()) {
+			return;
+		}
+
+		this.cacheInvalidationIndex.evictAll(importedCodes, AFFECTED_CACHE_NAMES);
+
+		// location mới/đổi tên có thể rơi vào bất kỳ trang nào giống API thêm location
+		Cache paginationCache = this.cacheManager.getCache(PAGINATION_CACHE_NAME);
+		if (paginationCache != null) {
+			paginationCache.clear();
+		}
+	}
+
+	/*
+	 * 1 dòng đã đọc, errors khác null khi dòng ko đọc đc thành LocationDTO (sai
+	 * kiểu dữ liệu, thiếu/thừa cột,...), hasEnabled = false khi file ko có cột
+	 * (field) enabled thì location đã có giữ nguyên enabled
+	 */
+	private record LocationRow(int line, String code, LocationDTO location, boolean hasEnabled, List<String> errors) {
+		private static LocationRow rejected(int line, String code, String error) {
+			return new LocationRow(line, code, null, false, List.of(error));
+		}
+	}
+
+	private interface RowReader {
+		// null khi hết file
+		LocationRow next() throws IOException;
+	}
+
+	/*
+	 * dòng đầu là header (tên cột giống JSON của LocationDTO, thứ tự tùy ý), ô
+	 * rỗng là null, enabled rỗng là false, ko có cột enabled thì ko đổi enabled
+	 * của location đã có
+	 */
+	private static final class CsvRowReader implements RowReader {
+		private final LocationCsv.RecordReader recordReader;
+		private final Map<String, Integer> columnIndexes = new HashMap<String, Integer>();
+		private final int columnCount;
+
+		private CsvRowReader(BufferedReader reader) throws IOException {
+			// bỏ BOM của file CSV lưu từ Excel
+			reader.mark(1);
+			if (reader.read() != '\uFEFF') {
+				reader.reset();
+			}
+			this.recordReader = new LocationCsv.RecordReader(reader);
+
+			List<String> header = this.recordReader.next();
+			if (header == null) {
+				throw new BadRequestException("CSV header is required: " + String.join(",", LocationCsv.HEADER));
+			}
+
+			for (int i = 0; i < header.size(); i++) {
+				String column = header.get(i).trim().toLowerCase(Locale.ROOT);
+				if (!LocationCsv.HEADER.contains(column)) {
+					throw new BadRequestException("Unknown CSV column: " + column);
+				}
+				if (this.columnIndexes.put(column, i) != null) {
+					throw new BadRequestException("Duplicate CSV column: " + column);
+				}
+			}
+
+			if (!this.columnIndexes.keySet().containsAll(REQUIRED_CSV_COLUMNS)) {
+				throw new BadRequestException("CSV header must have columns: " + String.join(",", REQUIRED_CSV_COLUMNS));
+			}
+			this.columnCount = header.size();
+		}
+
+		@Override
+		public LocationRow next() throws IOException {
+			List<String> fields;
+			do {
+				fields = this.recordReader.next();
+			} while (fields != null && fields.size() == 1 && fields.get(0).isBlank());
+
+			if (fields == null) {
+				return null;
+			}
+
+			int line = this.recordReader.getLine();
+			String code = this.value(fields, "code");
+			if (fields.size() != this.columnCount) {
+				return LocationRow.rejected(line, code,
+						"Expected " + this.columnCount + " fields but found " + fields.size() + ".");
+			}
+
+			LocationDTO location = new LocationDTO();
+			location.setCode(code);
+			location.setCityName(this.value(fields, "city_name"));
+			location.setRegionName(this.value(fields, "region_name"));
+			location.setCountryCode(this.value(fields, "country_code"));
+			location.setCountryName(this.value(fields, "country_name"));
+
+			String enabled = this.value(fields, "enabled");
+			if (enabled != null) {
+				if (!"true".equalsIgnoreCase(enabled) && !"false".equalsIgnoreCase(enabled)) {
+					return LocationRow.rejected(line, code, "enabled: must be true or false");
+				}
+				location.setEnabled(Boolean.parseBoolean(enabled));
+			}
+
+			return new LocationRow(line, code, location, this.columnIndexes.containsKey("enabled"), null);
+		}
+
+		private String value(List<String> fields, String column) {
+			Integer index = this.columnIndexes.get(column);
+			if (index == null || index >= fields.size()) {
+				return null;
+			}
+
+			String value = fields.get(index).trim();
+			return value.isEmpty() ? null : value;
+		}
+	}
+
+	/*
+	 * mỗi dòng là 1 JSON object giống body của POST /v1/locations, dòng lỗi cú
+	 * pháp chỉ làm hỏng dòng đó (dòng sau vẫn đọc đc, khác với mảng JSON của API
+	 * ingest)
+	 */
+	private final class NdjsonRowReader implements RowReader {
+		private final BufferedReader reader;
+		private int line;
+
+		private NdjsonRowReader(BufferedReader reader) {
+			this.reader = reader;
+		}
+
+		@Override
+		public LocationRow next() throws IOException {
+			String text;
+			do {
+				text = this.reader.readLine();
+				this.line++;
+			} while (text != null && text.isBlank());
+
+			if (text == null) {
+				return null;
+			}
+
+			JsonNode node;
+			try {
+				node = LocationImportService.this.objectMapper.readTree(text);
+			} catch (JsonProcessingException ex) {
+				return LocationRow.rejected(this.line, null, "Malformed JSON: " + ex.getOriginalMessage());
+			}
+
+			if (!node.isObject()) {
+				return LocationRow.rejected(this.line, null, "Line must be a JSON object.");
+			}
+			JsonNode code = node.get("code");
+
+			try {
+				LocationDTO location = LocationImportService.this.objectMapper.treeToValue(node, LocationDTO.class);
+				return new LocationRow(this.line, location.getCode(), location, node.has("enabled"), null);
+			} catch (JsonProcessingException ex) {
+				return LocationRow.rejected(this.line, code != null && code.isTextual() ? code.asText() : null,
+						ex.getOriginalMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,27 @@
+package com.skyapi.weatherforecast.location;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/*
+ * chuẩn hóa chuỗi làm key trong các bảng nằm trong bộ nhớ (LocationDirectory,
+ * LocationCountRegistry): MySQL so sánh chuỗi ko phân biệt hoa thường và dấu
+ * (collation mặc định) nên key bỏ dấu (NFD rồi xóa dấu kết hợp) và về chữ
+ * thường để kết quả giống query cũ
+ */
+final class LocationKeys {
+	private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}");
+
+	private LocationKeys() {
+	}
+
+	static String normalize(String value) {
+		if (value == null) {
+			return null;
+		}
+
+		return COMBINING_MARKS.matcher(Normalizer.normalize(value, Normalizer.Form.NFD)).replaceAll("")
+				.toLowerCase(Locale.ROOT);
+	}
+}
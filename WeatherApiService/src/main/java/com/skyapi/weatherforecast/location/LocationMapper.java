@@ -0,0 +1,44 @@
+package com.skyapi.weatherforecast.location;
+
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * map tay Location <-> LocationDTO thay cho modelMapper.map(...), chỉ 6 field
+ * cùng tên (STRICT), trashed/weather giữ giá trị mặc định của entity
+ */
+public final class LocationMapper {
+	private LocationMapper() {
+	}
+
+	public static LocationDTO toDTO(Location location) {
+		if (location == null) {
+			return null;
+		}
+
+		LocationDTO locationDTO = new LocationDTO();
+		locationDTO.setCode(location.getCode());
+		locationDTO.setCityName(location.getCityName());
+		locationDTO.setRegionName(location.getRegionName());
+		locationDTO.setCountryName(location.getCountryName());
+		locationDTO.setCountryCode(location.getCountryCode());
+		locationDTO.setEnabled(location.isEnabled());
+
+		return locationDTO;
+	}
+
+	public static Location toEntity(LocationDTO locationDTO) {
+		if (locationDTO == null) {
+			return null;
+		}
+
+		Location location = new Location();
+		location.setCode(locationDTO.getCode());
+		location.setCityName(locationDTO.getCityName());
+		location.setRegionName(locationDTO.getRegionName());
+		location.setCountryName(locationDTO.getCountryName());
+		location.setCountryCode(locationDTO.getCountryCode());
+		location.setEnabled(locationDTO.isEnabled());
+
+		return location;
+	}
+}
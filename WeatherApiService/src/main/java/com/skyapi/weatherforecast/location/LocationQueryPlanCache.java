@@ -0,0 +1,92 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/*
+ * JPQL đã dựng sẵn của FilterableLocationRepositoryImpl theo hình dạng query
+ * (loại query, các field có lọc, sort), giá trị lọc/cursor chỉ là tham số bind
+ * nên các request cùng hình dạng dùng chung 1 chuỗi JPQL
+ *
+ * Hibernate cache bản dịch JPQL -> SQL theo chuỗi JPQL (query plan cache), còn
+ * criteria query thì mỗi lần đều phải dịch lại, nên giữ chuỗi cố định ở đây là
+ * đủ để bỏ qua bước dựng + dịch query
+ */
+class LocationQueryPlanCache implements MeterBinder {
+	/*
+	 * sort lấy từ request (tổ hợp các field trong propertyMap) nên số hình dạng có
+	 * thể nhiều, quá giới hạn thì vẫn dựng JPQL nhưng ko giữ lại
+	 */
+	static final int MAX_PLANS = 1000;
+
+	enum QueryType {
+		LIST, LIST_AFTER, COUNT
+	}
+
+	/*
+	 * filterFieldNames đã sắp xếp (thứ tự put vào map ko quan trọng), sortSpec dạng
+	 * "regionName DESC"
+	 */
+	record PlanKey(QueryType queryType, List<String> filterFieldNames, List<String> sortSpec) {
+	}
+
+	private final Map<PlanKey, String> plans = new ConcurrentHashMap<PlanKey, String>();
+
+	private final LongAdder hitCount = new LongAdder();
+	private final LongAdder missCount = new LongAdder();
+
+	String get(PlanKey key, Function<PlanKey, String> jpqlBuilder) {
+		String jpql = this.plans.get(key);
+		if (jpql != null) {
+			this.hitCount.increment();
+			return jpql;
+		}
+
+		this.missCount.increment();
+		jpql = jpqlBuilder.apply(key);
+
+		if (this.plans.size() < MAX_PLANS) {
+			this.plans.putIfAbsent(key, jpql);
+		}
+
+		return jpql;
+	}
+
+	long getHitCount() {
+		return this.hitCount.sum();
+	}
+
+	long getMissCount() {
+		return this.missCount.sum();
+	}
+
+	double getHitRate() {
+		long hitCount = this.getHitCount();
+		long requestCount = hitCount + this.getMissCount();
+
+		return requestCount == 0 ? 0 : (double) hitCount / requestCount;
+	}
+
+	int size() {
+		return this.plans.size();
+	}
+
+	// /actuator/metrics/location.query.plans?tag=result:hit, hit rate = hit / (hit + miss)
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("location.query.plans", this, LocationQueryPlanCache::getHitCount)
+				.tag("result", "hit").description("Location queries that reused a prepared JPQL").register(registry);
+		FunctionCounter.builder("location.query.plans", this, LocationQueryPlanCache::getMissCount)
+				.tag("result", "miss").description("Location queries that built a new JPQL").register(registry);
+		Gauge.builder("location.query.plans.size", this, LocationQueryPlanCache::size)
+				.description("Prepared JPQL kept for location queries").register(registry);
+	}
+}
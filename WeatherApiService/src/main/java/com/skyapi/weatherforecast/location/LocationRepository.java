@@ -1,5 +1,6 @@
 package com.skyapi.weatherforecast.location;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.domain.Page;
@@ -26,6 +27,10 @@ public interface LocationRepository extends JpaRepository<Location, String>,
 	@Query("SELECT l FROM Location l WHERE l.trashed = false AND l.code = ?1")
 	public Location findByCode(String code);
 
+	// API GET chỉ cần biết location có tồn tại ko (vd forecast rỗng -> 204 hay 404)
+	@Query("SELECT CASE WHEN COUNT(l) > 0 THEN true ELSE false END FROM Location l WHERE l.trashed = false AND l.code = ?1")
+	public boolean existsUntrashedByCode(String code);
+
 	@Modifying
 	@Transactional
 	@Query("UPDATE Location SET trashed = true WHERE code = ?1")
@@ -33,4 +38,16 @@ public interface LocationRepository extends JpaRepository<Location, String>,
 
 	@Query("SELECT l FROM Location l WHERE l.countryCode = ?1 AND l.cityName = ?2 AND l.trashed = false")
 	public Location findByCountryCodeAndCityName(String countryCode, String cityName);
+
+	// mỗi phần tử: [code, countryCode, cityName], dùng để nạp LocationDirectory
+	@Query("SELECT l.code, l.countryCode, l.cityName FROM Location l WHERE l.trashed = false")
+	public List<Object[]> findAllCodesWithCountryCodeAndCityName();
+
+	// mỗi phần tử: [code, enabled, countryCode, regionName], dùng để nạp LocationCountRegistry
+	@Query("SELECT l.code, l.enabled, l.countryCode, l.regionName FROM Location l WHERE l.trashed = false")
+	public List<Object[]> findAllCodesWithCountFilterFields();
+
+	// lọc ra các code còn tồn tại (chưa trashed) trong 1 batch của API ingest
+	@Query("SELECT l.code FROM Location l WHERE l.trashed = false AND l.code IN ?1")
+	public List<String> findUntrashedCodes(Collection<String> codes);
 }
@@ -3,38 +3,53 @@ package com.skyapi.weatherforecast.location;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.coyote.BadRequestException;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.skyapi.weatherforecast.AbstractLocationService;
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.Location;
 
 @Service
-@EnableCaching
 public class LocationService extends AbstractLocationService {
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final LocationDirectory locationDirectory;
+	private final LocationCountRegistry locationCountRegistry;
 
-	public LocationService(LocationRepository locationRepository) {
+	public LocationService(LocationRepository locationRepository, CacheInvalidationIndex cacheInvalidationIndex,
+			LocationDirectory locationDirectory, LocationCountRegistry locationCountRegistry) {
 		super();
 		// locationRepository kế thừa từ AbstractLocationService
 		this.locationRepository = locationRepository;
+		this.cacheInvalidationIndex = cacheInvalidationIndex;
+		this.locationDirectory = locationDirectory;
+		this.locationCountRegistry = locationCountRegistry;
 	}
 
 	// Luôn chạy method và cập nhật cache với kết quả mới.
 	@CachePut(cacheNames = "locationCacheByCode", key = "#location.code")
 	/*
 	 * sau khi thêm location mới thì xóa hết key trong cache
-	 * locationCacheByPagination
+	 * locationCacheByPagination (location mới có thể rơi vào bất kỳ trang nào nên
+	 * ko xóa theo location được)
 	 */
 	@CacheEvict(cacheNames = "locationCacheByPagination", allEntries = true)
 	public Location add(Location location) {
-		return this.locationRepository.save(location);
+		Location savedLocation = this.locationRepository.save(location);
+
+		this.locationDirectory.put(savedLocation);
+		this.locationCountRegistry.put(savedLocation);
+
+		return savedLocation;
 	}
 
 	// bỏ public để mặc định là default - chỉ dùng trong package
@@ -56,9 +71,63 @@ public class LocationService extends AbstractLocationService {
 	 * số đầu vào làm key
 	 */
 	@Cacheable("locationCacheByPagination")
+	@Transactional(readOnly = true)
 	public Page<Location> getAllLocationUnTrashedWithFilter(Integer pageNum, Integer pageSize, String sortOption,
 			Map<String, Object> filterFields) {
 
+		Pageable pageable = PageRequest.of(pageNum, pageSize, this.createSort(sortOption));
+
+		// có sẵn số đếm thì bỏ query COUNT(*)
+		Long totalRows = this.locationCountRegistry.count(filterFields);
+		if (totalRows != null) {
+			return this.locationRepository.listWithFilter(pageable, filterFields, totalRows);
+		}
+
+		return this.locationRepository.listWithFilter(pageable, filterFields);
+	}
+
+	/*
+	 * phân trang theo cursor (keyset), lấy thêm 1 row để biết còn trang sau hay ko,
+	 * ko đếm tổng số row trừ khi includeTotal (ưu tiên LocationCountRegistry, ko có
+	 * thì query đếm quét hết các row khớp bộ lọc)
+	 *
+	 * ko cache như kiểu page/size vì mỗi cursor là 1 key khác nhau, còn query seek
+	 * đã chỉ đọc đúng pageSize row trên index
+	 */
+	@Transactional(readOnly = true)
+	public LocationCursorPage getAllLocationUnTrashedAfterCursor(String cursor, Integer pageSize, String sortOption,
+			Map<String, Object> filterFields, boolean includeTotal) throws BadRequestException {
+		Sort sort = this.createSort(sortOption);
+
+		// code là khóa chính -> thêm vào cuối để thứ tự sort ko có 2 row ngang nhau
+		if (sort.getOrderFor("code") == null) {
+			sort = sort.and(Sort.by("code").ascending());
+		}
+
+		List<Object> afterValues = cursor.isEmpty() ? null
+				: LocationCursor.decode(cursor, sortOption, sort).values();
+
+		List<Location> locations = this.locationRepository.listWithFilterAfter(sort, afterValues, pageSize + 1,
+				filterFields);
+
+		String nextCursor = null;
+		if (locations.size() > pageSize) {
+			locations = locations.subList(0, pageSize);
+			nextCursor = LocationCursor.of(sortOption, sort, locations.get(pageSize - 1)).encode();
+		}
+
+		Long totalElements = includeTotal ? this.countWithFilter(filterFields) : null;
+
+		return new LocationCursorPage(locations, nextCursor, totalElements);
+	}
+
+	private long countWithFilter(Map<String, Object> filterFields) {
+		Long totalRows = this.locationCountRegistry.count(filterFields);
+
+		return totalRows != null ? totalRows : this.locationRepository.countWithFilter(filterFields);
+	}
+
+	private Sort createSort(String sortOption) {
 		// tránh null
 		Sort sort = Sort.unsorted();
 
@@ -70,15 +139,17 @@ public class LocationService extends AbstractLocationService {
 			sort = sort.and(tempSort);
 		}
 
-		Pageable pageable = PageRequest.of(pageNum, pageSize, sort);
-		return this.locationRepository.listWithFilter(pageable, filterFields);
+		return sort;
 	}
 
 	/*
 	 * cập nhật dữ liệu trong cache locationCacheByCode và tất cả dữ liệu trong
-	 * cache locationCacheByPagination
+	 * cache locationCacheByPagination (đổi tên/bộ lọc làm xê dịch các trang)
+	 *
+	 * code trong request có thể khác hoa thường với code đã lưu (DB so khớp ko
+	 * phân biệt), cache và chỉ mục luôn theo code đã lưu
 	 */
-	@CachePut(cacheNames = "locationCacheByCode", key = "#locationInRequest.code")
+	@CachePut(cacheNames = "locationCacheByCode", key = "#result.code")
 	@CacheEvict(cacheNames = "locationCacheByPagination", allEntries = true)
 	public Location updateLocation(Location locationInRequest) {
 		String code = locationInRequest.getCode();
@@ -87,13 +158,37 @@ public class LocationService extends AbstractLocationService {
 		// reafactor để bên updateFullWeather dùng chung
 		locationInDb.copyFieldsFrom(locationInRequest);
 
-		return this.locationRepository.save(locationInDb);
+		Location updatedLocation = this.locationRepository.save(locationInDb);
+
+		// countryCode/cityName có thể đã đổi -> LocationDirectory bỏ key cũ, thêm key mới
+		this.locationDirectory.put(updatedLocation);
+		// enabled/countryCode/regionName có thể đã đổi -> chuyển location sang tổ hợp mới
+		this.locationCountRegistry.put(updatedLocation);
+
+		/*
+		 * các list weather đang cache cũng giữ tên location cũ -> xóa mọi entry của
+		 * location này trong các cache khác, cả các key locationCacheByCode do GET
+		 * theo code viết khác hoa thường tạo ra
+		 */
+		this.cacheInvalidationIndex.evict(updatedLocation.getCode(), "locationCacheByCode", "realtimeWeatherCacheByCode",
+				"hourlyWeatherCacheByLocationCodeAndCurrentHour", "dailyWeatherCacheByLocationCode",
+				SerializedResponseCache.CACHE_NAME);
+
+		return updatedLocation;
 	}
 
-	// xóa dữ liệu đồng thời trong 2 cache
-	@CacheEvict(cacheNames = { "locationCacheByCode", "locationCacheByPagination" }, allEntries = true)
+	/*
+	 * chỉ locationCacheByPagination phải xóa hết, các cache còn lại chỉ xóa entry
+	 * của location bị xóa (evict ko truyền cacheNames <=> mọi cache)
+	 */
+	@CacheEvict(cacheNames = "locationCacheByPagination", allEntries = true)
 	public void deleteLocation(String code) {
-		this.getLocationByCode(code);
+		// chỉ mục giữ code đã lưu, code trong path có thể viết khác hoa thường
+		String storedCode = this.getLocationByCode(code).getCode();
 		this.locationRepository.trashByCode(code);
+
+		this.locationDirectory.remove(storedCode);
+		this.locationCountRegistry.remove(storedCode);
+		this.cacheInvalidationIndex.evict(storedCode);
 	}
 }
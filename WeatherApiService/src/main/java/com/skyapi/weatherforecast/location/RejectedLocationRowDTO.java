@@ -0,0 +1,18 @@
+package com.skyapi.weatherforecast.location;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// dòng bị bỏ qua khi import, line là dòng trong file (tính từ 1, CSV tính cả dòng header)
+@Getter
+@AllArgsConstructor
+@JsonPropertyOrder({ "line", "code", "errors" })
+public class RejectedLocationRowDTO {
+	private int line;
+	private String code;
+	private List<String> errors;
+}
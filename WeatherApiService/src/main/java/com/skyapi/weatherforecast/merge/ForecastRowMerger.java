@@ -0,0 +1,158 @@
+package com.skyapi.weatherforecast.merge;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+/*
+ * thay danh sách dự báo của location bằng danh sách mới nhưng ko xóa hết rồi
+ * insert lại: đọc các row đang có (1 SELECT cho mọi location), so theo khóa
+ * chính rồi chỉ chạy batch UPDATE cho row đổi giá trị, INSERT cho row mới,
+ * DELETE cho row ko còn trong danh sách mới
+ *
+ * 2 lần merge cùng location chạy song song (2 PUT, PUT + API ingest) đều ko
+ * thấy row mà bên kia chưa commit rồi cùng INSERT, bên sau lỗi trùng khóa
+ * chính: khóa các row cha trong locations (SELECT ... FOR UPDATE, theo thứ tự
+ * code để 2 batch ko deadlock) trước khi đọc, lần merge sau chờ lần trước
+ * commit xong rồi mới đọc row đang có. khóa nằm trong transaction của merge()
+ * nên findByCode() của service chạy ngoài transaction cũng ko sao
+ *
+ * K là phần còn lại của khóa chính ngoài location_code (hourOfDay,
+ * {dayOfMonth, month}), T là entity của bảng
+ */
+public abstract class ForecastRowMerger<K, T> {
+	private static final Logger LOGGER = LoggerFactory.getLogger(ForecastRowMerger.class);
+
+	private static final String LOCK_LOCATIONS_SQL = "SELECT code FROM locations WHERE code IN (:locationCodes) "
+			+ "ORDER BY code FOR UPDATE";
+
+	private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+	protected ForecastRowMerger(NamedParameterJdbcTemplate namedParameterJdbcTemplate) {
+		this.namedParameterJdbcTemplate = namedParameterJdbcTemplate;
+	}
+
+	// SELECT location_code + các cột của bảng, lọc theo location_code IN (:locationCodes)
+	protected abstract String selectSql();
+
+	protected abstract T mapRow(ResultSet resultSet) throws SQLException;
+
+	protected abstract K keyOf(T row);
+
+	protected abstract boolean hasSameValues(T storedRow, T incomingRow);
+
+	protected abstract String insertSql();
+
+	protected abstract Object[] insertArgs(String locationCode, T row);
+
+	protected abstract String updateSql();
+
+	protected abstract Object[] updateArgs(String locationCode, T row);
+
+	protected abstract String deleteSql();
+
+	protected abstract Object[] deleteArgs(String locationCode, T row);
+
+	/**
+	 * Thay toàn bộ row của từng location bằng danh sách mới.
+	 *
+	 * @param rowsByLocationCode danh sách mới theo code, location ko có trong map
+	 *                           thì ko bị đụng tới
+	 * @return số row đã insert/update/delete
+	 */
+	@Transactional
+	public MergeResult merge(Map<String, List<T>> rowsByLocationCode) {
+		if (rowsByLocationCode.isEmpty()) {
+			return new MergeResult();
+		}
+
+		this.lockLocations(rowsByLocationCode);
+		Map<String, Map<K, T>> storedRowsByLocationCode = this.findStoredRows(rowsByLocationCode);
+
+		List<Object[]> insertArgs = new ArrayList<Object[]>();
+		List<Object[]> updateArgs = new ArrayList<Object[]>();
+		List<Object[]> deleteArgs = new ArrayList<Object[]>();
+		int unchanged = 0;
+
+		for (Map.Entry<String, List<T>> entry : rowsByLocationCode.entrySet()) {
+			String locationCode = entry.getKey();
+
+			// trùng khóa trong danh sách mới thì row sau thắng, tránh INSERT trùng khóa chính
+			Map<K, T> incomingRows = new LinkedHashMap<K, T>();
+			entry.getValue().forEach(row -> incomingRows.put(this.keyOf(row), row));
+
+			Map<K, T> storedRows = storedRowsByLocationCode.getOrDefault(normalize(locationCode),
+					new HashMap<K, T>());
+
+			for (Map.Entry<K, T> incomingEntry : incomingRows.entrySet()) {
+				T storedRow = storedRows.remove(incomingEntry.getKey());
+
+				if (storedRow == null) {
+					insertArgs.add(this.insertArgs(locationCode, incomingEntry.getValue()));
+				} else if (this.hasSameValues(storedRow, incomingEntry.getValue())) {
+					unchanged++;
+				} else {
+					updateArgs.add(this.updateArgs(locationCode, incomingEntry.getValue()));
+				}
+			}
+
+			// còn lại trong storedRows là row ko có trong danh sách mới
+			storedRows.values().forEach(storedRow -> deleteArgs.add(this.deleteArgs(locationCode, storedRow)));
+		}
+
+		this.batchUpdate(this.deleteSql(), deleteArgs);
+		this.batchUpdate(this.updateSql(), updateArgs);
+		this.batchUpdate(this.insertSql(), insertArgs);
+
+		MergeResult mergeResult = new MergeResult(insertArgs.size(), updateArgs.size(), deleteArgs.size(), unchanged);
+		LOGGER.debug("Merged rows of {} location(s) by {}: {}", rowsByLocationCode.size(),
+				this.getClass().getSimpleName(), mergeResult);
+
+		return mergeResult;
+	}
+
+	private void lockLocations(Map<String, List<T>> rowsByLocationCode) {
+		this.namedParameterJdbcTemplate.queryForList(LOCK_LOCATIONS_SQL,
+				Map.of("locationCodes", rowsByLocationCode.keySet()), String.class);
+	}
+
+	/*
+	 * key là code chuẩn hóa: MySQL so sánh location_code ko phân biệt hoa thường
+	 * nên SELECT trả về cả row của HN_VN khi caller truyền hn_vn, so khớp chính
+	 * xác sẽ coi các row đó là chưa có rồi INSERT trùng khóa chính
+	 */
+	private Map<String, Map<K, T>> findStoredRows(Map<String, List<T>> rowsByLocationCode) {
+		Map<String, Map<K, T>> storedRowsByLocationCode = new HashMap<String, Map<K, T>>();
+
+		this.namedParameterJdbcTemplate.query(this.selectSql(),
+				Map.of("locationCodes", rowsByLocationCode.keySet()), resultSet -> {
+					String locationCode = resultSet.getString("location_code");
+					T row = this.mapRow(resultSet);
+
+					storedRowsByLocationCode.computeIfAbsent(normalize(locationCode), code -> new HashMap<K, T>())
+							.put(this.keyOf(row), row);
+				});
+
+		return storedRowsByLocationCode;
+	}
+
+	private void batchUpdate(String sql, List<Object[]> batchArgs) {
+		if (!batchArgs.isEmpty()) {
+			this.namedParameterJdbcTemplate.getJdbcOperations().batchUpdate(sql, batchArgs);
+		}
+	}
+
+	private static String normalize(String locationCode) {
+		return locationCode.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,32 @@
+package com.skyapi.weatherforecast.merge;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+// số row mà 1 lần merge đã thay đổi (unchanged là row gửi lên giống hệt trong DB)
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@JsonPropertyOrder({ "inserted", "updated", "deleted", "unchanged" })
+public class MergeResult {
+	private int inserted;
+	private int updated;
+	private int deleted;
+	private int unchanged;
+
+	public int getTouched() {
+		return this.inserted + this.updated + this.deleted;
+	}
+
+	public void add(MergeResult other) {
+		this.inserted += other.inserted;
+		this.updated += other.updated;
+		this.deleted += other.deleted;
+		this.unchanged += other.unchanged;
+	}
+}
@@ -0,0 +1,41 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// ánh xạ các cấu hình app.realtime.stream.* trong application.properties
+@ConfigurationProperties(prefix = "app.realtime.stream")
+@Getter
+@Setter
+public class RealtimeStreamProperties {
+	/*
+	 * số location khác nhau chờ gửi tối đa của 1 subscriber (update của cùng
+	 * location chưa gửi thì bản mới thay bản cũ), vượt thì subscriber quá chậm và
+	 * bị ngắt để client kết nối lại
+	 */
+	private int bufferSize = 64;
+
+	private int maxSubscribers = 1000;
+
+	/*
+	 * số thread ghi event ra các kết nối SSE giữ sẵn, client ko đọc làm thread
+	 * bị chặn thì pool tạo thêm thread cho các subscriber khác
+	 */
+	private int senderThreads = 2;
+
+	/*
+	 * 1 lần ghi event chạy quá thời gian này (client ngừng đọc) thì subscriber bị
+	 * bỏ, ko nhận thêm event
+	 */
+	private Duration sendTimeout = Duration.ofSeconds(10);
+
+	// hết thời gian thì server đóng stream, EventSource của trình duyệt tự kết nối lại
+	private Duration timeout = Duration.ofMinutes(30);
+
+	// comment rỗng gửi định kỳ để proxy ko đóng kết nối im lặng và phát hiện client đã ngắt
+	private Duration heartbeatInterval = Duration.ofSeconds(30);
+}
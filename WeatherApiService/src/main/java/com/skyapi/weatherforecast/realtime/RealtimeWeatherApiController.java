@@ -1,18 +1,12 @@
 package com.skyapi.weatherforecast.realtime;
 
-import org.modelmapper.ModelMapper;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
 
-import java.time.Instant;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Optional;
+import java.util.Arrays;
 import java.util.concurrent.TimeUnit;
 
 import org.springframework.http.CacheControl;
-import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -20,10 +14,10 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
-import org.springframework.web.context.request.RequestContextHolder;
-import org.springframework.web.context.request.ServletRequestAttributes;
 
 import com.skyapi.weatherforecast.GeolocationService;
+import com.skyapi.weatherforecast.cache.SerializedResponse;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.common.RealtimeWeather;
 import com.skyapi.weatherforecast.daily.DailyWeatherApiController;
@@ -41,7 +35,7 @@ import lombok.RequiredArgsConstructor;
 public class RealtimeWeatherApiController {
 	private final GeolocationService geolocationService;
 	private final RealtimeWeatherService realtimeWeatherService;
-	private final ModelMapper modelMapper;
+	private final SerializedResponseCache serializedResponseCache;
 
 	@GetMapping
 	public ResponseEntity<?> getRealtimeByIPAddress(HttpServletRequest request) {
@@ -49,51 +43,52 @@ public class RealtimeWeatherApiController {
 
 		Location location = this.geolocationService.getLocationByIp2Location(ipAddress);
 
-		RealtimeWeather realtimeWeather = this.realtimeWeatherService
-				.getRealtimeWeatherByCountryCodeAndCityName(location);
+		SerializedResponse serializedResponse = this.serializedResponseCache.get("realtime-by-ip",
+				Arrays.asList(location.getCountryCode(), location.getCityName()), () -> {
+					RealtimeWeatherView realtimeWeather = this.realtimeWeatherService
+							.getRealtimeWeatherByCountryCodeAndCityName(location);
 
-		RealtimeWeatherDTO realtimeWeatherDTO = this.modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+					RealtimeWeatherDTO realtimeWeatherDTO = RealtimeWeatherMapper.toDTO(realtimeWeather);
 
-		return includeLastModified(this.addLinksByIp(realtimeWeatherDTO));
+					return this.serialize(realtimeWeather, this.addLinksByIp(realtimeWeatherDTO));
+				});
+
+		return this.toResponseEntity(serializedResponse);
 	}
 
 	@GetMapping("/{locationCode}")
 	public ResponseEntity<?> getRealtimeByLocationCode(@PathVariable("locationCode") String locationCode) {
-		RealtimeWeather realtimeWeather = this.realtimeWeatherService.getRealtimeWeatherByLocationCode(locationCode);
-		RealtimeWeatherDTO realtimeWeatherDTO = this.convertEntityToDTO(realtimeWeather);
+		SerializedResponse serializedResponse = this.serializedResponseCache.get("realtime-by-code", locationCode,
+				() -> {
+					RealtimeWeatherView realtimeWeather = this.realtimeWeatherService
+							.getRealtimeWeatherByLocationCode(locationCode);
+					RealtimeWeatherDTO realtimeWeatherDTO = RealtimeWeatherMapper.toDTO(realtimeWeather);
 
-		return includeLastModified(this.addLinksByLocation(locationCode, realtimeWeatherDTO));
+					return this.serialize(realtimeWeather, this.addLinksByLocation(locationCode, realtimeWeatherDTO));
+				});
+
+		return this.toResponseEntity(serializedResponse);
 	}
 
-	private ResponseEntity<?> includeLastModified(RealtimeWeatherDTO realtimeWeatherDTO) {
-		Instant lastUpdated = realtimeWeatherDTO.getLastUpdated().toInstant();
-
-		HttpServletRequest request = ((ServletRequestAttributes) RequestContextHolder.currentRequestAttributes())
-				.getRequest();
-		Optional<String> ifModifiedSinceHeader = Optional.ofNullable(request.getHeader("If-Modified-Since"));
-
-		if (ifModifiedSinceHeader.isPresent()) {
-			// realtimeWeatherDTO.getLastUpdated() có kiểu Date nên chỉ cần ép Instant là đủ
-			DateTimeFormatter formatter = DateTimeFormatter.RFC_1123_DATE_TIME.withZone(ZoneOffset.UTC);
-			Instant ifModifiedSince = ZonedDateTime.parse(ifModifiedSinceHeader.get(), formatter).toInstant();
-
-			if (!lastUpdated.isAfter(ifModifiedSince)) {
-				return ResponseEntity.status(HttpStatusCode.valueOf(304)).build();
-			}
-		}
-
-		/*
-		 * khi dùng cache-control với max-age > 0, trình duyệt hoặc một proxy ở giữa đã
-		 * lưu header/body nên brower sẽ ko gửi request đến server -> việc check
-		 * last-modified ko diễn ra, việc check last-modified chỉ diễn ra khi cache hết
-		 * hạn
-		 * 
-		 * check last-modified để đảm bảo là dữ liệu ko đổi và trả về 304 (Not Modified)
-		 * hoặc 200 (OK) với body mới, việc check do spring tự thực hiện mà ko cần check
-		 * thủ công như ETag
-		 */
-		return ResponseEntity.ok().cacheControl(CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic())
-				.lastModified(lastUpdated).body(realtimeWeatherDTO);
+	// Last-Modified của response là thời điểm cập nhật realtimeWeather
+	private SerializedResponse serialize(RealtimeWeatherView realtimeWeather, RealtimeWeatherDTO realtimeWeatherDTO) {
+		return this.serializedResponseCache.serialize(realtimeWeather.locationCode(), realtimeWeatherDTO,
+				realtimeWeatherDTO.getLastUpdated().toInstant());
+	}
+
+	/*
+	 * khi dùng cache-control với max-age > 0, trình duyệt hoặc một proxy ở giữa đã
+	 * lưu header/body nên brower sẽ ko gửi request đến server -> việc check
+	 * last-modified ko diễn ra, việc check last-modified chỉ diễn ra khi cache hết
+	 * hạn
+	 * 
+	 * check last-modified/ETag để đảm bảo là dữ liệu ko đổi và trả về 304 (Not
+	 * Modified) hoặc 200 (OK) với body mới, việc check do spring tự thực hiện khi
+	 * ResponseEntity có header Last-Modified/ETag
+	 */
+	private ResponseEntity<byte[]> toResponseEntity(SerializedResponse serializedResponse) {
+		return this.serializedResponseCache.toResponseEntity(serializedResponse,
+				CacheControl.maxAge(30, TimeUnit.MINUTES).cachePublic());
 	}
 
 	@PutMapping("{locationCode}")
@@ -110,11 +105,11 @@ public class RealtimeWeatherApiController {
 	}
 
 	private RealtimeWeatherDTO convertEntityToDTO(RealtimeWeather realtimeWeather) {
-		return this.modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class);
+		return RealtimeWeatherMapper.toDTO(realtimeWeather);
 	}
 
 	private RealtimeWeather convertDTOToEntity(RealtimeWeatherDTO realtimeWeatherDTO) {
-		return this.modelMapper.map(realtimeWeatherDTO, RealtimeWeather.class);
+		return RealtimeWeatherMapper.toEntity(realtimeWeatherDTO);
 	}
 
 	/*
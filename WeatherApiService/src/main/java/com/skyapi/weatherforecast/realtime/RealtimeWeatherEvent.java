@@ -0,0 +1,23 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.util.Date;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+/*
+ * data của 1 event "realtime" trong stream SSE, giống body của GET
+ * /v1/realtime/{code} (ko có links) + location_code để client biết event của
+ * location nào
+ */
+public record RealtimeWeatherEvent(String locationCode, String location, int temperature, int humidity,
+		int precipitation, int windSpeed, String status,
+		@JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss'Z'") Date lastUpdated) {
+
+	static RealtimeWeatherEvent of(String locationCode, RealtimeWeather realtimeWeather) {
+		return new RealtimeWeatherEvent(locationCode,
+				realtimeWeather.getLocation() == null ? null : realtimeWeather.getLocation().toString(),
+				realtimeWeather.getTemperature(), realtimeWeather.getHumidity(), realtimeWeather.getPrecipitation(),
+				realtimeWeather.getWindSpeed(), realtimeWeather.getStatus(), realtimeWeather.getLastUpdated());
+	}
+}
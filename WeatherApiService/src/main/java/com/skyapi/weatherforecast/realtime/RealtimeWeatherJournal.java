@@ -0,0 +1,175 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * log append-only của write-behind, mỗi dòng là 1 RealtimeWeatherView dạng
+ * JSON, dòng sau của cùng location ghi đè dòng trước khi đọc lại
+ *
+ * lúc flush thì file hiện tại đc đổi tên sang .flushing và mở file mới, ghi DB
+ * xong ms xóa .flushing, process chết giữa chừng thì lần khởi động sau đọc lại
+ * cả 2 file (upsert nên ghi lại lần nữa cũng ko sao)
+ *
+ * ko thread-safe, RealtimeWeatherWriteBehind gọi append/startFlush/completeFlush
+ * khi giữ journalLock của nó, riêng encode() gọi đc từ nhiều thread
+ */
+class RealtimeWeatherJournal implements AutoCloseable {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherJournal.class);
+
+	// ObjectMapper riêng: bean ObjectMapper bật INDENT_OUTPUT, 1 entry phải nằm trên 1 dòng
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final Path journalFile;
+	private final Path flushingFile;
+	private final boolean sync;
+
+	private FileChannel channel;
+
+	RealtimeWeatherJournal(Path journalFile, boolean sync) {
+		this.journalFile = journalFile;
+		this.flushingFile = journalFile.resolveSibling(journalFile.getFileName() + ".flushing");
+		this.sync = sync;
+	}
+
+	// đọc lại phần chưa ghi xuống DB của lần chạy trước, .flushing cũ hơn nên đọc trước
+	List<RealtimeWeatherView> recover() throws IOException {
+		List<RealtimeWeatherView> realtimeWeathers = new ArrayList<RealtimeWeatherView>();
+		this.read(this.flushingFile, realtimeWeathers);
+		this.read(this.journalFile, realtimeWeathers);
+
+		if (this.journalFile.getParent() != null) {
+			Files.createDirectories(this.journalFile.getParent());
+		}
+
+		/*
+		 * gộp cả 2 file vào 1 file log mới (ghi ra file tạm rồi đổi tên), lần flush
+		 * đầu tiên đổi tên file log sang .flushing sẽ ko làm mất phần của .flushing cũ
+		 */
+		Path recoveredFile = this.journalFile.resolveSibling(this.journalFile.getFileName() + ".recovered");
+		List<String> lines = new ArrayList<String>();
+		for (RealtimeWeatherView realtimeWeather : realtimeWeathers) {
+			lines.add(this.objectMapper.writeValueAsString(realtimeWeather));
+		}
+		Files.write(recoveredFile, lines, StandardCharsets.UTF_8);
+		Files.move(recoveredFile, this.journalFile, StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+		Files.deleteIfExists(this.flushingFile);
+
+		this.channel = FileChannel.open(this.journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+
+		return realtimeWeathers;
+	}
+
+	private void read(Path file, List<RealtimeWeatherView> realtimeWeathers) throws IOException {
+		if (!Files.exists(file)) {
+			return;
+		}
+
+		try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.isBlank()) {
+					continue;
+				}
+
+				try {
+					realtimeWeathers.add(this.objectMapper.readValue(line, RealtimeWeatherView.class));
+				} catch (JsonProcessingException e) {
+					// dòng cuối bị ghi dở khi process chết, bỏ qua
+					LOGGER.warn("Skipping corrupt realtime write-behind journal entry in " + file + ": "
+							+ e.getOriginalMessage());
+				}
+			}
+		}
+	}
+
+	// 1 dòng của log, serialize trước khi giữ lock để thread khác ko phải chờ
+	byte[] encode(RealtimeWeatherView realtimeWeather) {
+		try {
+			return (this.objectMapper.writeValueAsString(realtimeWeather) + "\n").getBytes(StandardCharsets.UTF_8);
+		} catch (JsonProcessingException e) {
+			throw new UncheckedIOException("Cannot encode realtime write-behind journal entry", e);
+		}
+	}
+
+	/*
+	 * ghi cả nhóm dòng bằng 1 lần write + 1 lần fsync (group commit), các PUT
+	 * đến trong lúc fsync nhóm trước sẽ đc ghi chung ở nhóm sau
+	 */
+	void append(List<byte[]> lines) {
+		if (lines.isEmpty()) {
+			return;
+		}
+
+		ByteBuffer[] buffers = new ByteBuffer[lines.size()];
+		long remaining = 0;
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = ByteBuffer.wrap(lines.get(i));
+			remaining += buffers[i].remaining();
+		}
+
+		try {
+			while (remaining > 0) {
+				remaining -= this.channel.write(buffers);
+			}
+			if (this.sync) {
+				this.channel.force(false);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot append to realtime write-behind journal " + this.journalFile, e);
+		}
+	}
+
+	/*
+	 * các entry đã ghi log tới lúc này chuyển sang .flushing, entry mới ghi vào
+	 * file mới, .flushing của lần flush trước chưa xong (completeFlush ko chạy tới)
+	 * thì nối thêm vào chứ ko ghi đè để ko mất các entry của nó
+	 */
+	void startFlush() {
+		try {
+			this.channel.close();
+			if (Files.exists(this.flushingFile)) {
+				Files.write(this.flushingFile, Files.readAllBytes(this.journalFile), StandardOpenOption.APPEND);
+				Files.delete(this.journalFile);
+			} else {
+				Files.move(this.journalFile, this.flushingFile);
+			}
+			this.channel = FileChannel.open(this.journalFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+					StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot rotate realtime write-behind journal " + this.journalFile, e);
+		}
+	}
+
+	void completeFlush() {
+		try {
+			Files.deleteIfExists(this.flushingFile);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot delete realtime write-behind journal " + this.flushingFile, e);
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (this.channel != null) {
+			this.channel.close();
+		}
+	}
+}
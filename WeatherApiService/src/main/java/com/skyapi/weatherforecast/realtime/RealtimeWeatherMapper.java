@@ -0,0 +1,67 @@
+package com.skyapi.weatherforecast.realtime;
+
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+/*
+ * map tay thay cho modelMapper.map(...) (ModelMapper dò field bằng reflection mỗi
+ * lần gọi), kết quả giống hệt cấu hình STRICT bên class Main:
+ * - entity -> DTO: location là location.toString() (StringConverter của
+ * ModelMapper)
+ * - DTO -> entity: ko map location/locationCode, controller tự gán
+ */
+public final class RealtimeWeatherMapper {
+	private RealtimeWeatherMapper() {
+	}
+
+	public static RealtimeWeatherDTO toDTO(RealtimeWeather realtimeWeather) {
+		if (realtimeWeather == null) {
+			return null;
+		}
+
+		RealtimeWeatherDTO realtimeWeatherDTO = new RealtimeWeatherDTO();
+		realtimeWeatherDTO.setLocation(
+				realtimeWeather.getLocation() == null ? null : realtimeWeather.getLocation().toString());
+		realtimeWeatherDTO.setTemperature(realtimeWeather.getTemperature());
+		realtimeWeatherDTO.setHumidity(realtimeWeather.getHumidity());
+		realtimeWeatherDTO.setPrecipitation(realtimeWeather.getPrecipitation());
+		realtimeWeatherDTO.setWindSpeed(realtimeWeather.getWindSpeed());
+		realtimeWeatherDTO.setStatus(realtimeWeather.getStatus());
+		realtimeWeatherDTO.setLastUpdated(realtimeWeather.getLastUpdated());
+
+		return realtimeWeatherDTO;
+	}
+
+	// view của API GET, location ghép từ tên city/region/country giống location.toString()
+	public static RealtimeWeatherDTO toDTO(RealtimeWeatherView realtimeWeatherView) {
+		if (realtimeWeatherView == null) {
+			return null;
+		}
+
+		RealtimeWeatherDTO realtimeWeatherDTO = new RealtimeWeatherDTO();
+		realtimeWeatherDTO.setLocation(realtimeWeatherView.location());
+		realtimeWeatherDTO.setTemperature(realtimeWeatherView.temperature());
+		realtimeWeatherDTO.setHumidity(realtimeWeatherView.humidity());
+		realtimeWeatherDTO.setPrecipitation(realtimeWeatherView.precipitation());
+		realtimeWeatherDTO.setWindSpeed(realtimeWeatherView.windSpeed());
+		realtimeWeatherDTO.setStatus(realtimeWeatherView.status());
+		realtimeWeatherDTO.setLastUpdated(realtimeWeatherView.lastUpdated());
+
+		return realtimeWeatherDTO;
+	}
+
+	public static RealtimeWeather toEntity(RealtimeWeatherDTO realtimeWeatherDTO) {
+		if (realtimeWeatherDTO == null) {
+			return null;
+		}
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(realtimeWeatherDTO.getTemperature());
+		realtimeWeather.setHumidity(realtimeWeatherDTO.getHumidity());
+		realtimeWeather.setPrecipitation(realtimeWeatherDTO.getPrecipitation());
+		realtimeWeather.setWindSpeed(realtimeWeatherDTO.getWindSpeed());
+		realtimeWeather.setStatus(realtimeWeatherDTO.getStatus());
+		realtimeWeather.setLastUpdated(realtimeWeatherDTO.getLastUpdated());
+
+		return realtimeWeather;
+	}
+}
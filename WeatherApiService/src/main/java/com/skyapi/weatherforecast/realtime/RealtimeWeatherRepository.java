@@ -1,5 +1,8 @@
 package com.skyapi.weatherforecast.realtime;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
@@ -13,4 +16,16 @@ public interface RealtimeWeatherRepository extends JpaRepository<RealtimeWeather
 
 	@Query("SELECT r FROM RealtimeWeather r WHERE r.locationCode = ?1 AND r.location.trashed = false")
 	public RealtimeWeather findByLocationCode(String locationCode);
+
+	// API GET chỉ cần các cột này, ko tạo entity RealtimeWeather/Location
+	@Query("SELECT new com.skyapi.weatherforecast.realtime.RealtimeWeatherView(l.code, l.cityName, l.regionName,"
+			+ " l.countryName, r.temperature, r.humidity, r.precipitation, r.windSpeed, r.status, r.lastUpdated)"
+			+ " FROM RealtimeWeather r JOIN r.location l WHERE l.code = ?1 AND l.trashed = false")
+	public RealtimeWeatherView findViewByLocationCode(String locationCode);
+
+	// API batch: nhiều location trong 1 query IN, location ko có realtime weather thì ko có trong kết quả
+	@Query("SELECT new com.skyapi.weatherforecast.realtime.RealtimeWeatherView(l.code, l.cityName, l.regionName,"
+			+ " l.countryName, r.temperature, r.humidity, r.precipitation, r.windSpeed, r.status, r.lastUpdated)"
+			+ " FROM RealtimeWeather r JOIN r.location l WHERE l.code IN ?1 AND l.trashed = false")
+	public List<RealtimeWeatherView> findViewsByLocationCodes(Collection<String> locationCodes);
 }
@@ -1,14 +1,18 @@
 package com.skyapi.weatherforecast.realtime;
 
 import java.util.Date;
+import java.util.Optional;
 
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.CacheReloader;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationDirectory;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
 import com.skyapi.weatherforecast.location.LocationRepository;
 
@@ -16,27 +20,36 @@ import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
-public class RealtimeWeatherService {
+public class RealtimeWeatherService implements CacheReloader {
 	private final RealtimeWeatherRepository realtimeWeatherRepository;
 	private final LocationRepository locationRepository;
+	private final LocationDirectory locationDirectory;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	// chỉ có khi app.realtime.write-behind.enabled=true
+	private final Optional<RealtimeWeatherWriteBehind> realtimeWeatherWriteBehind;
+	private final RealtimeWeatherStream realtimeWeatherStream;
 
-	@Cacheable(cacheNames = "realtimeWeatherCacheByCountryCodeAndCityName", key = "{#location.countryCode, #location.cityName}")
-	public RealtimeWeather getRealtimeWeatherByCountryCodeAndCityName(Location location) {
-		String countryCode = location.getCountryCode();
-		String cityName = location.getCityName();
+	/*
+	 * location lấy từ IP đc đổi sang code trong bộ nhớ (LocationDirectory) nên dùng
+	 * chung cache realtimeWeatherCacheByCode với API theo code
+	 */
+	@Cacheable(cacheNames = "realtimeWeatherCacheByCode", key = "@locationDirectory.resolveCode(#location)", sync = true)
+	@Transactional(readOnly = true)
+	public RealtimeWeatherView getRealtimeWeatherByCountryCodeAndCityName(Location location) {
+		String locationCode = this.locationDirectory.resolveCode(location);
 
-		RealtimeWeather realtimeWeather = this.realtimeWeatherRepository.findByCountryCodeAndCityName(countryCode,
-				cityName);
+		RealtimeWeatherView realtimeWeather = this.findView(locationCode);
 		if (realtimeWeather == null) {
-			throw new LocationNotFoundException(countryCode, cityName);
+			throw new LocationNotFoundException(location.getCountryCode(), location.getCityName());
 		}
 
 		return realtimeWeather;
 	}
 
-	@Cacheable("realtimeWeatherCacheByCode")
-	public RealtimeWeather getRealtimeWeatherByLocationCode(String locationCode) {
-		RealtimeWeather realtimeWeather = this.realtimeWeatherRepository.findByLocationCode(locationCode);
+	@Cacheable(cacheNames = "realtimeWeatherCacheByCode", key = "#locationCode", sync = true)
+	@Transactional(readOnly = true)
+	public RealtimeWeatherView getRealtimeWeatherByLocationCode(String locationCode) {
+		RealtimeWeatherView realtimeWeather = this.findView(locationCode);
 		if (realtimeWeather == null) {
 			throw new LocationNotFoundException(locationCode);
 		}
@@ -44,9 +57,46 @@ public class RealtimeWeatherService {
 		return realtimeWeather;
 	}
 
-	@CachePut(cacheNames = "realtimeWeatherCacheByCode", key = "#locationCode")
-	@CacheEvict(cacheNames = "realtimeWeatherCacheByCountryCodeAndCityName", allEntries = true)
+	@Override
+	public String getCacheName() {
+		return "realtimeWeatherCacheByCode";
+	}
+
+	// refresh-ahead, key luôn là location code (API theo IP cũng đã đổi sang code)
+	@Override
+	public Object reload(Object key) {
+		return this.findView((String) key);
+	}
+
+	/*
+	 * có write-behind thì bản chưa ghi xuống DB thường là bản mới nhất, đọc DB lúc
+	 * này sẽ đưa dòng cũ vào cache (sống tới hết TTL), nhưng PUT full/ingest ghi
+	 * đồng bộ sau đó thì dòng trong DB mới hơn: đọc bản đang chờ trước rồi mới
+	 * đọc DB, lấy bản mới hơn theo lastUpdated
+	 */
+	private RealtimeWeatherView findView(String locationCode) {
+		RealtimeWeatherView pendingRealtimeWeather = locationCode != null && this.realtimeWeatherWriteBehind.isPresent()
+				? this.realtimeWeatherWriteBehind.get().findPending(locationCode)
+				: null;
+
+		RealtimeWeatherView storedRealtimeWeather = this.realtimeWeatherRepository.findViewByLocationCode(locationCode);
+
+		return RealtimeWeatherWriteBehind.isNewerThanStored(pendingRealtimeWeather,
+				storedRealtimeWeather == null ? null : storedRealtimeWeather.lastUpdated()) ? pendingRealtimeWeather
+						: storedRealtimeWeather;
+	}
+
 	public RealtimeWeather updateRealtimeWeather(String locationCode, RealtimeWeather realtimeWeather) {
+		if (this.realtimeWeatherWriteBehind.isPresent()) {
+			RealtimeWeather bufferedRealtimeWeather = this.realtimeWeatherWriteBehind.get().update(locationCode,
+					realtimeWeather);
+			if (bufferedRealtimeWeather != null) {
+				// code đã lưu (path có thể khác hoa thường), subscriber lọc theo country tra bằng code này
+				this.realtimeWeatherStream.publish(bufferedRealtimeWeather.getLocationCode(), bufferedRealtimeWeather);
+				return bufferedRealtimeWeather;
+			}
+		}
+
 		Location location = this.locationRepository.findByCode(locationCode);
 		if (location == null) {
 			throw new LocationNotFoundException(locationCode);
@@ -55,6 +105,7 @@ public class RealtimeWeatherService {
 		realtimeWeather.setLocation(location);
 		realtimeWeather.setLastUpdated(new Date());
 
+		RealtimeWeather updatedRealtimeWeather;
 		if (location.getRealtimeWeather() != null) {
 			/*
 			 * khi test chỉ cần setLocation là đủ vì @MapsId đã tự ánh xạ location.getCode()
@@ -62,6 +113,8 @@ public class RealtimeWeatherService {
 			 * là cần cập nhật entity
 			 */
 			realtimeWeather.setLocationCode(locationCode);
+
+			updatedRealtimeWeather = this.realtimeWeatherRepository.save(realtimeWeather);
 		}
 		/*
 		 * trường hợp realtimeWeather chưa tồn tại mà lưu trực tiếp realtimeWeather thì
@@ -72,9 +125,17 @@ public class RealtimeWeatherService {
 			location.setRealtimeWeather(realtimeWeather);
 			Location updatedLocation = this.locationRepository.save(location);
 
-			return updatedLocation.getRealtimeWeather();
+			updatedRealtimeWeather = updatedLocation.getRealtimeWeather();
 		}
 
-		return this.realtimeWeatherRepository.save(realtimeWeather);
+		/*
+		 * cache GET giữ RealtimeWeatherView chứ ko phải entity nên ko @CachePut đc, xóa
+		 * để lần GET sau đọc lại (cùng với response JSON đã serialize)
+		 */
+		this.cacheInvalidationIndex.evict(location.getCode(), "realtimeWeatherCacheByCode",
+				SerializedResponseCache.CACHE_NAME);
+		this.realtimeWeatherStream.publish(location.getCode(), updatedRealtimeWeather);
+
+		return updatedRealtimeWeather;
 	}
 }
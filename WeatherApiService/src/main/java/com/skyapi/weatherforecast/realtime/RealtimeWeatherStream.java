@@ -0,0 +1,382 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationDirectory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * đẩy các thay đổi realtime weather tới subscriber SSE thay cho việc dashboard
+ * poll GET /v1/realtime/{code} liên tục, event đc serialize 1 lần rồi đưa vào
+ * buffer của từng subscriber khớp bộ lọc (location codes hoặc country)
+ *
+ * request PUT chỉ đưa event vào buffer (ko chờ IO), thread realtime-stream-N
+ * ghi ra kết nối, mỗi subscriber tối đa 1 lượt gửi đang chạy. buffer giữ bản mới
+ * nhất theo location nên client chậm chỉ bỏ lỡ các bản trung gian, chậm tới mức
+ * quá bufferSize location thì bị ngắt (event "overflow") thay vì giữ bộ nhớ ko
+ * giới hạn
+ *
+ * SseEmitter.send() chặn thread khi client ko đọc (TCP buffer đầy), vì vậy pool
+ * gửi tạo thêm thread khi các thread đang có bị chặn (1 client treo chỉ giữ 1
+ * thread, ko làm các subscriber khác chờ), lượt gửi quá sendTimeout thì
+ * subscriber bị bỏ và ko nhận thêm event
+ *
+ * chỉ nhận thay đổi ghi qua node này (PUT realtime/full), API ingest ko phát event
+ */
+@Component
+public class RealtimeWeatherStream implements MeterBinder {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherStream.class);
+
+	static final String EVENT_NAME = "realtime";
+	static final String OVERFLOW_EVENT_NAME = "overflow";
+
+	private final RealtimeStreamProperties realtimeStreamProperties;
+	private final LocationDirectory locationDirectory;
+	// ObjectMapper của app bật INDENT_OUTPUT, data của SSE phải nằm trên 1 dòng
+	private final ObjectMapper objectMapper;
+	private final ExecutorService senderExecutor;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	private final LongAdder published = new LongAdder();
+	private final LongAdder delivered = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder overflowed = new LongAdder();
+	private final LongAdder timedOut = new LongAdder();
+
+	public RealtimeWeatherStream(RealtimeStreamProperties realtimeStreamProperties,
+			LocationDirectory locationDirectory, ObjectMapper objectMapper) {
+		this.realtimeStreamProperties = realtimeStreamProperties;
+		this.locationDirectory = locationDirectory;
+		this.objectMapper = objectMapper.copy().disable(SerializationFeature.INDENT_OUTPUT);
+
+		/*
+		 * giữ sẵn senderThreads thread, ko xếp hàng (SynchronousQueue) mà tạo thêm
+		 * thread khi các thread đang có đều bận/bị chặn, mỗi subscriber có tối đa 1
+		 * task nên số thread ko vượt maxSubscribers (cộng các thread còn kẹt của
+		 * subscriber đã bị bỏ)
+		 */
+		AtomicInteger threadNumber = new AtomicInteger();
+		int senderThreads = Math.max(1, realtimeStreamProperties.getSenderThreads());
+		int maxSenderThreads = Math.max(senderThreads, 2 * realtimeStreamProperties.getMaxSubscribers());
+		this.senderExecutor = new ThreadPoolExecutor(senderThreads, maxSenderThreads, 60L, TimeUnit.SECONDS,
+				new SynchronousQueue<Runnable>(), runnable -> {
+					Thread thread = new Thread(runnable, "realtime-stream-" + threadNumber.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * @param locationCodes rỗng thì ko lọc theo location code
+	 * @param countryCode   null/rỗng thì ko lọc theo quốc gia
+	 */
+	public SseEmitter subscribe(Set<String> locationCodes, String countryCode) {
+		if (this.subscribers.size() >= this.realtimeStreamProperties.getMaxSubscribers()) {
+			throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+					"Too many realtime weather stream subscribers, retry later");
+		}
+
+		return this.subscribe(new SseEmitter(this.realtimeStreamProperties.getTimeout().toMillis()), locationCodes,
+				countryCode);
+	}
+
+	SseEmitter subscribe(SseEmitter emitter, Set<String> locationCodes, String countryCode) {
+		Subscriber subscriber = new Subscriber(emitter, normalize(locationCodes), normalize(countryCode));
+
+		this.subscribers.add(subscriber);
+		emitter.onCompletion(() -> this.subscribers.remove(subscriber));
+		emitter.onTimeout(() -> this.subscribers.remove(subscriber));
+		emitter.onError(error -> this.subscribers.remove(subscriber));
+
+		return emitter;
+	}
+
+	// MySQL so sánh code ko phân biệt hoa thường nên bộ lọc cũng vậy
+	private static Set<String> normalize(Set<String> locationCodes) {
+		return locationCodes.stream().map(RealtimeWeatherStream::normalize).filter(code -> code != null)
+				.collect(Collectors.toUnmodifiableSet());
+	}
+
+	private static String normalize(String code) {
+		return code == null || code.isBlank() ? null : code.trim().toLowerCase(Locale.ROOT);
+	}
+
+	// gọi sau khi đã ghi xong (hoặc đã nhận vào write-behind), ko ném lỗi cho request PUT
+	public void publish(String locationCode, RealtimeWeather realtimeWeather) {
+		if (this.subscribers.isEmpty()) {
+			return;
+		}
+
+		String countryCode = realtimeWeather.getLocation() == null ? null
+				: realtimeWeather.getLocation().getCountryCode();
+		if (countryCode == null) {
+			countryCode = this.locationDirectory.findCountryCode(locationCode);
+		}
+
+		String data;
+		try {
+			data = this.objectMapper.writeValueAsString(RealtimeWeatherEvent.of(locationCode, realtimeWeather));
+		} catch (JsonProcessingException e) {
+			LOGGER.warn("Cannot serialize realtime weather event of " + locationCode + ": " + e.getMessage());
+			return;
+		}
+
+		this.published.increment();
+
+		String normalizedLocationCode = normalize(locationCode);
+		String normalizedCountryCode = normalize(countryCode);
+		for (Subscriber subscriber : this.subscribers) {
+			if (subscriber.matches(normalizedLocationCode, normalizedCountryCode)) {
+				subscriber.offer(normalizedLocationCode, data);
+			}
+		}
+	}
+
+	@Scheduled(initialDelayString = "${app.realtime.stream.heartbeat-interval:30s}", fixedDelayString = "${app.realtime.stream.heartbeat-interval:30s}")
+	public void heartbeat() {
+		for (Subscriber subscriber : this.subscribers) {
+			subscriber.offerHeartbeat();
+		}
+	}
+
+	/*
+	 * bỏ subscriber có lượt gửi chạy quá sendTimeout, ko gọi emitter ở đây vì
+	 * send() đang chặn giữ lock của emitter: thread gửi tự đóng emitter khi lệnh
+	 * ghi trả về hoặc lỗi (hết write timeout của Tomcat). chạy mỗi sendTimeout
+	 * nên subscriber treo bị bỏ sau khoảng sendTimeout tới 2 lần sendTimeout
+	 */
+	@Scheduled(initialDelayString = "${app.realtime.stream.send-timeout:10s}", fixedDelayString = "${app.realtime.stream.send-timeout:10s}")
+	public void expireStalledSends() {
+		long now = System.nanoTime();
+		long sendTimeoutNanos = this.realtimeStreamProperties.getSendTimeout().toNanos();
+
+		for (Subscriber subscriber : this.subscribers) {
+			subscriber.expireIfStalled(now, sendTimeoutNanos);
+		}
+	}
+
+	int subscriberCount() {
+		return this.subscribers.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		this.subscribers.forEach(subscriber -> subscriber.emitter.complete());
+		this.senderExecutor.shutdownNow();
+	}
+
+	/*
+	 * /actuator/metrics/realtime.stream.events?tag=result:overflowed, số kết nối
+	 * đang mở ở realtime.stream.subscribers
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		bindCounter(registry, this.published, "published", "Realtime weather changes published to the stream");
+		bindCounter(registry, this.delivered, "delivered", "Events written to subscriber connections");
+		bindCounter(registry, this.coalesced, "coalesced",
+				"Undelivered events replaced by a newer change of the same location");
+		bindCounter(registry, this.overflowed, "overflowed", "Subscribers disconnected because their buffer was full");
+		bindCounter(registry, this.timedOut, "timed-out",
+				"Subscribers dropped because a write took longer than the send timeout");
+
+		Gauge.builder("realtime.stream.subscribers", this, RealtimeWeatherStream::subscriberCount)
+				.description("Open realtime weather stream connections").register(registry);
+	}
+
+	private static void bindCounter(MeterRegistry registry, LongAdder counter, String result, String description) {
+		FunctionCounter.builder("realtime.stream.events", counter, LongAdder::sum).tag("result", result)
+				.description(description).register(registry);
+	}
+
+	final class Subscriber {
+		private final SseEmitter emitter;
+		private final Set<String> locationCodes;
+		private final String countryCode;
+
+		// location -> data chưa gửi, các field bên dưới đều đc bảo vệ bởi lock của Subscriber
+		private final Map<String, String> buffer = new LinkedHashMap<String, String>();
+		private boolean heartbeatPending;
+		private boolean overflow;
+		private boolean sending;
+		private boolean closed;
+		// bị expireIfStalled() bỏ, thread gửi đóng emitter sau khi lệnh ghi trả về
+		private boolean expired;
+
+		// System.nanoTime() lúc bắt đầu lệnh ghi đang chạy, 0 khi ko ghi
+		private volatile long sendStartedAt;
+
+		Subscriber(SseEmitter emitter, Set<String> locationCodes, String countryCode) {
+			this.emitter = emitter;
+			this.locationCodes = locationCodes;
+			this.countryCode = countryCode;
+		}
+
+		boolean matches(String locationCode, String countryCode) {
+			return (this.locationCodes.isEmpty() || this.locationCodes.contains(locationCode))
+					&& (this.countryCode == null || this.countryCode.equals(countryCode));
+		}
+
+		synchronized void offer(String locationCode, String data) {
+			if (this.closed || this.overflow) {
+				return;
+			}
+
+			if (this.buffer.put(locationCode, data) != null) {
+				RealtimeWeatherStream.this.coalesced.increment();
+			} else if (this.buffer.size() > RealtimeWeatherStream.this.realtimeStreamProperties.getBufferSize()) {
+				this.buffer.clear();
+				this.overflow = true;
+				RealtimeWeatherStream.this.overflowed.increment();
+			}
+
+			this.scheduleSend();
+		}
+
+		synchronized void offerHeartbeat() {
+			if (this.closed) {
+				return;
+			}
+
+			this.heartbeatPending = true;
+			this.scheduleSend();
+		}
+
+		private void scheduleSend() {
+			if (!this.sending) {
+				this.sending = true;
+				try {
+					RealtimeWeatherStream.this.senderExecutor.execute(this::send);
+				} catch (RejectedExecutionException e) {
+					// hết thread (quá nhiều kết nối treo) hoặc app đang tắt
+					this.sending = false;
+					this.close();
+				}
+			}
+		}
+
+		void expireIfStalled(long now, long sendTimeoutNanos) {
+			long sendStartedAt = this.sendStartedAt;
+			if (sendStartedAt == 0 || now - sendStartedAt < sendTimeoutNanos) {
+				return;
+			}
+
+			synchronized (this) {
+				if (this.closed) {
+					// đang gửi event overflow mà bị treo
+					RealtimeWeatherStream.this.subscribers.remove(this);
+					return;
+				}
+				this.closed = true;
+				this.expired = true;
+				this.buffer.clear();
+			}
+			RealtimeWeatherStream.this.subscribers.remove(this);
+			RealtimeWeatherStream.this.timedOut.increment();
+		}
+
+		// chạy trên thread realtime-stream-N, ghi ngoài lock để publish ko phải chờ IO
+		private void send() {
+			while (true) {
+				String data = null;
+				boolean heartbeat = false;
+				boolean overflow = false;
+				boolean expired = false;
+
+				synchronized (this) {
+					if (this.closed) {
+						this.sending = false;
+						expired = this.expired;
+						this.expired = false;
+					}
+				}
+				if (expired) {
+					// lệnh ghi bị treo đã trả về, lúc này mới đóng được emitter
+					this.emitter.completeWithError(new IOException("Realtime weather stream send timed out"));
+				}
+
+				synchronized (this) {
+					if (this.closed) {
+						this.sending = false;
+						return;
+					}
+
+					if (this.overflow) {
+						overflow = true;
+						this.closed = true;
+					} else if (!this.buffer.isEmpty()) {
+						Iterator<String> iterator = this.buffer.values().iterator();
+						data = iterator.next();
+						iterator.remove();
+					} else if (this.heartbeatPending) {
+						heartbeat = true;
+						this.heartbeatPending = false;
+					} else {
+						this.sending = false;
+						return;
+					}
+				}
+
+				this.sendStartedAt = System.nanoTime();
+				try {
+					if (overflow) {
+						this.emitter.send(SseEmitter.event().name(OVERFLOW_EVENT_NAME)
+								.data("Subscriber too slow, reconnect to resume"));
+						RealtimeWeatherStream.this.subscribers.remove(this);
+						this.emitter.complete();
+					} else if (heartbeat) {
+						this.emitter.send(SseEmitter.event().comment(""));
+					} else {
+						this.emitter.send(SseEmitter.event().name(EVENT_NAME).data(data));
+						RealtimeWeatherStream.this.delivered.increment();
+					}
+				} catch (IOException | IllegalStateException e) {
+					// client đã ngắt hoặc emitter đã đóng (timeout)
+					this.close();
+				} finally {
+					this.sendStartedAt = 0;
+				}
+			}
+		}
+
+		private void close() {
+			synchronized (this) {
+				this.closed = true;
+				this.buffer.clear();
+			}
+			RealtimeWeatherStream.this.subscribers.remove(this);
+			this.emitter.completeWithError(new IOException("Realtime weather stream subscriber disconnected"));
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * GET /v1/realtime/stream?location_codes=HN_VN,DN_VN hoặc ?country_code=VN:
+ * mỗi lần realtime weather của location khớp bộ lọc thay đổi thì nhận 1 event
+ * "realtime" (data giống GET /v1/realtime/{code}), ko truyền bộ lọc thì nhận
+ * mọi location
+ *
+ * đường dẫn cụ thể "/stream" đc ưu tiên hơn "/{locationCode}" của
+ * RealtimeWeatherApiController, quyền giống GET realtime
+ */
+@RestController
+@RequestMapping("/v1/realtime")
+@RequiredArgsConstructor
+public class RealtimeWeatherStreamController {
+	private final RealtimeWeatherStream realtimeWeatherStream;
+
+	@GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter streamRealtimeWeather(
+			@RequestParam(value = "location_codes", required = false, defaultValue = "") List<String> locationCodes,
+			@RequestParam(value = "country_code", required = false, defaultValue = "") String countryCode) {
+		return this.realtimeWeatherStream.subscribe(Set.copyOf(locationCodes), countryCode);
+	}
+}
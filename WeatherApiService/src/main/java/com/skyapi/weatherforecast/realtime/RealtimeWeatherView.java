@@ -0,0 +1,11 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.util.Date;
+
+import com.skyapi.weatherforecast.base.LocationScopedView;
+
+// realtime_weather + tên location, tạo bằng constructor expression trong JPQL
+public record RealtimeWeatherView(String locationCode, String cityName, String regionName, String countryName,
+		int temperature, int humidity, int precipitation, int windSpeed, String status, Date lastUpdated)
+		implements LocationScopedView {
+}
@@ -0,0 +1,494 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.realtime.RealtimeWriteBehindProperties.Durability;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+
+/*
+ * write-behind cho PUT /v1/realtime/{code}: cập nhật cache realtime + trả
+ * response ngay, DB đc ghi sau theo chu kỳ flushInterval bằng JDBC batch
+ * (thay cho findByCode + save trong 1 transaction mỗi request), nhiều update
+ * của cùng location trong 1 chu kỳ chỉ ghi bản cuối
+ *
+ * trong lúc chờ flush, request đọc cache vẫn thấy bản mới, request miss cache
+ * (bị đẩy ra, bị xóa do sửa location,...) đọc bản đang chờ/đang ghi qua
+ * findPending() trước khi đọc DB và chỉ dùng nó khi ko cũ hơn dòng trong DB
+ * (isNewerThanStored) nên ko đưa dòng cũ vào cache (API realtime, full và
+ * batch đều đọc qua đây, kể cả response đã serialize). tầng reactive
+ * đọc thẳng DB nên thấy bản cũ tới khi flush xong
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.realtime.write-behind", name = "enabled", havingValue = "true")
+public class RealtimeWeatherWriteBehind implements MeterBinder {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RealtimeWeatherWriteBehind.class);
+
+	private static final String REALTIME_CACHE_NAME = "realtimeWeatherCacheByCode";
+
+	/*
+	 * chỉ ghi đè khi bản đang chờ mới hơn dòng trong DB để ko đè lên dữ liệu ghi
+	 * đồng bộ (API ingest, node khác) sau lúc request này nhận, last_updated phải
+	 * gán sau cùng vì MySQL gán lần lượt từ trái sang phải
+	 */
+	private static final String NEWER = "last_updated IS NULL OR VALUES(last_updated) >= last_updated";
+	private static final String UPSERT_REALTIME_WEATHER_SQL = "INSERT INTO realtime_weather "
+			+ "(location_code, temperature, humidity, precipitation, wind_speed, status, last_updated) "
+			+ "VALUES (?, ?, ?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE "
+			+ "temperature = IF(" + NEWER + ", VALUES(temperature), temperature), "
+			+ "humidity = IF(" + NEWER + ", VALUES(humidity), humidity), "
+			+ "precipitation = IF(" + NEWER + ", VALUES(precipitation), precipitation), "
+			+ "wind_speed = IF(" + NEWER + ", VALUES(wind_speed), wind_speed), "
+			+ "status = IF(" + NEWER + ", VALUES(status), status), "
+			+ "last_updated = IF(" + NEWER + ", VALUES(last_updated), last_updated)";
+
+	private final JdbcTemplate jdbcTemplate;
+	private final RealtimeWeatherRepository realtimeWeatherRepository;
+	private final CacheManager cacheManager;
+	private final CacheInvalidationIndex cacheInvalidationIndex;
+	private final RealtimeWriteBehindProperties realtimeWriteBehindProperties;
+
+	// null ở chế độ MEMORY
+	private final RealtimeWeatherJournal journal;
+
+	// giữ trong thời gian ngắn, ko làm I/O khi giữ lock này
+	private final ReentrantLock lock = new ReentrantLock();
+	/*
+	 * bản mới nhất đang chờ ghi của mỗi location, key là pendingKey() của code
+	 * trong DB để findPending() tra đc theo code viết khác hoa thường
+	 */
+	private final Map<String, RealtimeWeatherView> pending = new LinkedHashMap<String, RealtimeWeatherView>();
+	// batch flush() đang ghi xuống DB (đã ra khỏi pending nhưng DB chưa có), giữ lock khi đọc/ghi
+	private final Map<String, RealtimeWeatherView> flushing = new LinkedHashMap<String, RealtimeWeatherView>();
+
+	/*
+	 * JOURNAL: entry đã serialize chờ ghi log (giữ lock khi đọc/ghi list), thread
+	 * giữ journalLock ghi cả nhóm rồi mới đưa vào pending, đổi file log lúc flush
+	 * cũng giữ journalLock (thứ tự lấy lock luôn là journalLock rồi tới lock)
+	 */
+	private final List<JournalEntry> journalQueue = new ArrayList<JournalEntry>();
+	private final ReentrantLock journalLock = new ReentrantLock();
+
+	/*
+	 * lock theo location (key là code trong DB): đưa vào hàng chờ và ghi cache
+	 * trong cùng 1 lần giữ lock để 2 PUT cùng location ghi cache đúng thứ tự đã
+	 * nhận, ko để bản cũ ghi cache sau cùng, ReentrantLock để virtual thread chờ
+	 * ko giữ carrier thread (ghi cache có thể gọi Redis)
+	 */
+	private final Map<String, ReentrantLock> locationLocks = new ConcurrentHashMap<String, ReentrantLock>();
+
+	private final LongAdder submitted = new LongAdder();
+	private final LongAdder coalesced = new LongAdder();
+	private final LongAdder flushed = new LongAdder();
+	private final LongAdder dropped = new LongAdder();
+
+	public RealtimeWeatherWriteBehind(JdbcTemplate jdbcTemplate, RealtimeWeatherRepository realtimeWeatherRepository,
+			CacheManager cacheManager, CacheInvalidationIndex cacheInvalidationIndex,
+			RealtimeWriteBehindProperties realtimeWriteBehindProperties) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.realtimeWeatherRepository = realtimeWeatherRepository;
+		this.cacheManager = cacheManager;
+		this.cacheInvalidationIndex = cacheInvalidationIndex;
+		this.realtimeWriteBehindProperties = realtimeWriteBehindProperties;
+
+		if (realtimeWriteBehindProperties.getDurability() != Durability.JOURNAL) {
+			this.journal = null;
+			return;
+		}
+
+		this.journal = new RealtimeWeatherJournal(Path.of(realtimeWriteBehindProperties.getJournalFile()),
+				realtimeWriteBehindProperties.isJournalSync());
+		try {
+			// update chưa flush của lần chạy trước, lần flush đầu tiên sẽ ghi xuống DB
+			List<RealtimeWeatherView> recovered = this.journal.recover();
+			recovered.forEach(
+					realtimeWeather -> this.pending.put(pendingKey(realtimeWeather.locationCode()), realtimeWeather));
+
+			if (!recovered.isEmpty()) {
+				LOGGER.info("Recovered " + this.pending.size() + " pending realtime weather updates from "
+						+ realtimeWriteBehindProperties.getJournalFile());
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(
+					"Cannot recover realtime write-behind journal " + realtimeWriteBehindProperties.getJournalFile(),
+					e);
+		}
+	}
+
+	/*
+	 * trả về null nếu location chưa có realtime weather hoặc ko tồn tại, khi đó
+	 * RealtimeWeatherService ghi đồng bộ như cũ (tạo dòng mới qua location hoặc
+	 * trả 404)
+	 */
+	public RealtimeWeather update(String locationCode, RealtimeWeather realtimeWeather) {
+		Cache realtimeCache = this.cacheManager.getCache(REALTIME_CACHE_NAME);
+
+		RealtimeWeatherView current = realtimeCache == null ? null
+				: realtimeCache.get(locationCode, RealtimeWeatherView.class);
+		if (current == null) {
+			current = this.realtimeWeatherRepository.findViewByLocationCode(locationCode);
+		}
+		if (current == null) {
+			return null;
+		}
+
+		RealtimeWeatherView updated;
+		ReentrantLock locationLock = this.locationLocks.computeIfAbsent(current.locationCode(),
+				code -> new ReentrantLock());
+		locationLock.lock();
+		try {
+			updated = new RealtimeWeatherView(current.locationCode(), current.cityName(), current.regionName(),
+					current.countryName(), realtimeWeather.getTemperature(), realtimeWeather.getHumidity(),
+					realtimeWeather.getPrecipitation(), realtimeWeather.getWindSpeed(), realtimeWeather.getStatus(),
+					new Date());
+			this.submit(updated);
+
+			// GET đọc đc bản mới ngay, key theo code đã lưu giống các API GET
+			if (realtimeCache != null) {
+				realtimeCache.put(current.locationCode(), updated);
+			}
+		} finally {
+			locationLock.unlock();
+		}
+
+		// response JSON đã serialize của location thì xóa như khi ghi đồng bộ
+		this.cacheInvalidationIndex.evict(current.locationCode(), SerializedResponseCache.CACHE_NAME);
+
+		return toEntity(updated);
+	}
+
+	/*
+	 * bản chưa có trong DB (đang chờ hoặc đang ghi) của location, null nếu ko
+	 * có: RealtimeWeatherService đọc ở đây trước khi đọc DB lúc miss cache
+	 */
+	public RealtimeWeatherView findPending(String locationCode) {
+		String key = pendingKey(locationCode);
+
+		this.lock.lock();
+		try {
+			RealtimeWeatherView realtimeWeather = this.pending.get(key);
+			return realtimeWeather != null ? realtimeWeather : this.flushing.get(key);
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	/*
+	 * bản đang chờ chỉ là bản mới nhất khi ko cũ hơn dòng trong DB: API ghi đồng
+	 * bộ (PUT full, ingest, node khác) ghi thẳng DB mà ko bỏ bản đang chờ ở đây,
+	 * lúc flush dòng mới hơn cũng ko bị ghi đè (xem NEWER). storedLastUpdated là
+	 * last_updated của dòng đọc SAU findPending() (null nếu ko có dòng) để ko lọt
+	 * bản vừa flush xong
+	 */
+	public static boolean isNewerThanStored(RealtimeWeatherView pending, Date storedLastUpdated) {
+		return pending != null
+				&& (storedLastUpdated == null || pending.lastUpdated().getTime() >= storedLastUpdated.getTime());
+	}
+
+	// DB so khớp code ko phân biệt hoa thường
+	private static String pendingKey(String locationCode) {
+		return locationCode.toLowerCase(Locale.ROOT);
+	}
+
+	// controller map entity sang DTO, location.toString() giống updated.location()
+	private static RealtimeWeather toEntity(RealtimeWeatherView realtimeWeatherView) {
+		Location location = new Location();
+		location.setCode(realtimeWeatherView.locationCode());
+		location.setCityName(realtimeWeatherView.cityName());
+		location.setRegionName(realtimeWeatherView.regionName());
+		location.setCountryName(realtimeWeatherView.countryName());
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode(realtimeWeatherView.locationCode());
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setTemperature(realtimeWeatherView.temperature());
+		realtimeWeather.setHumidity(realtimeWeatherView.humidity());
+		realtimeWeather.setPrecipitation(realtimeWeatherView.precipitation());
+		realtimeWeather.setWindSpeed(realtimeWeatherView.windSpeed());
+		realtimeWeather.setStatus(realtimeWeatherView.status());
+		realtimeWeather.setLastUpdated(realtimeWeatherView.lastUpdated());
+
+		return realtimeWeather;
+	}
+
+	/*
+	 * ghi log (JOURNAL) trước khi nhận vào hàng chờ, ghi log lỗi thì request lỗi
+	 * theo: entry serialize ngoài lock rồi xếp hàng, thread nào lấy đc journalLock
+	 * thì ghi hộ cả các entry đang xếp hàng (1 lần fsync cho cả nhóm), thread
+	 * khác chờ lock xong thấy entry của mình đã ghi thì trả về luôn
+	 */
+	void submit(RealtimeWeatherView realtimeWeather) {
+		if (this.journal == null) {
+			this.lock.lock();
+			try {
+				this.enqueue(realtimeWeather);
+			} finally {
+				this.lock.unlock();
+			}
+			return;
+		}
+
+		JournalEntry journalEntry = new JournalEntry(realtimeWeather, this.journal.encode(realtimeWeather));
+		this.lock.lock();
+		try {
+			this.journalQueue.add(journalEntry);
+		} finally {
+			this.lock.unlock();
+		}
+
+		this.journalLock.lock();
+		try {
+			if (!journalEntry.committed) {
+				this.commitJournalQueue();
+			}
+		} finally {
+			this.journalLock.unlock();
+		}
+
+		if (journalEntry.failure != null) {
+			throw journalEntry.failure;
+		}
+	}
+
+	// gọi khi giữ journalLock
+	private void commitJournalQueue() {
+		List<JournalEntry> group;
+		this.lock.lock();
+		try {
+			group = new ArrayList<JournalEntry>(this.journalQueue);
+			this.journalQueue.clear();
+		} finally {
+			this.lock.unlock();
+		}
+
+		try {
+			this.journal.append(group.stream().map(JournalEntry::line).toList());
+
+			this.lock.lock();
+			try {
+				group.forEach(journalEntry -> this.enqueue(journalEntry.realtimeWeather));
+			} finally {
+				this.lock.unlock();
+			}
+		} catch (RuntimeException e) {
+			group.forEach(journalEntry -> journalEntry.failure = e);
+		}
+
+		group.forEach(journalEntry -> journalEntry.committed = true);
+	}
+
+	// gọi khi giữ lock
+	private void enqueue(RealtimeWeatherView realtimeWeather) {
+		if (this.pending.put(pendingKey(realtimeWeather.locationCode()), realtimeWeather) != null) {
+			this.coalesced.increment();
+		}
+		this.submitted.increment();
+	}
+
+	@Scheduled(initialDelayString = "${app.realtime.write-behind.flush-interval:1s}", fixedDelayString = "${app.realtime.write-behind.flush-interval:1s}")
+	public void flush() {
+		List<RealtimeWeatherView> batch;
+
+		this.journalLock.lock();
+		this.lock.lock();
+		try {
+			if (this.pending.isEmpty()) {
+				return;
+			}
+
+			if (this.journal != null) {
+				this.journal.startFlush();
+			}
+			batch = new ArrayList<RealtimeWeatherView>(this.pending.values());
+			this.flushing.putAll(this.pending);
+			this.pending.clear();
+		} finally {
+			this.lock.unlock();
+			this.journalLock.unlock();
+		}
+
+		List<RealtimeWeatherView> unwritten = this.write(batch);
+
+		this.journalLock.lock();
+		try {
+			/*
+			 * lỗi tạm thời (DB ko kết nối đc,...): đưa lại vào hàng chờ, trừ location đã
+			 * có bản mới hơn, cùng lần giữ lock với việc bỏ batch khỏi flushing để
+			 * findPending() ko có lúc nào bỏ sót bản chưa ghi
+			 */
+			List<RealtimeWeatherView> requeued = new ArrayList<RealtimeWeatherView>();
+			this.lock.lock();
+			try {
+				for (RealtimeWeatherView realtimeWeather : unwritten) {
+					if (this.pending.putIfAbsent(pendingKey(realtimeWeather.locationCode()), realtimeWeather) == null) {
+						requeued.add(realtimeWeather);
+					}
+				}
+				this.flushing.clear();
+			} finally {
+				this.lock.unlock();
+			}
+
+			/*
+			 * ghi lại vào log mới rồi mới xóa .flushing, ghi log lỗi thì .flushing còn
+			 * nguyên và lần startFlush sau nối tiếp vào nó
+			 */
+			if (this.journal != null) {
+				this.journal.append(requeued.stream().map(this.journal::encode).toList());
+				this.journal.completeFlush();
+			}
+		} finally {
+			this.journalLock.unlock();
+		}
+	}
+
+	/*
+	 * trả về các dòng chưa ghi đc do lỗi tạm thời, lỗi bất kỳ (ko chỉ
+	 * DataAccessException) cũng giữ lại để flush() luôn chạy tới completeFlush()
+	 */
+	private List<RealtimeWeatherView> write(List<RealtimeWeatherView> batch) {
+		int batchSize = Math.max(1, this.realtimeWriteBehindProperties.getBatchSize());
+
+		for (int from = 0; from < batch.size(); from += batchSize) {
+			List<RealtimeWeatherView> chunk = batch.subList(from, Math.min(from + batchSize, batch.size()));
+
+			try {
+				try {
+					this.jdbcTemplate.batchUpdate(UPSERT_REALTIME_WEATHER_SQL, toArgs(chunk));
+					this.flushed.add(chunk.size());
+				} catch (DataIntegrityViolationException e) {
+					// vd: location bị xóa trước khi flush, ghi lại từng dòng để chỉ bỏ dòng lỗi
+					this.writeOneByOne(chunk);
+				}
+			} catch (RuntimeException e) {
+				LOGGER.warn("Realtime write-behind flush failed, " + (batch.size() - from)
+						+ " updates will be retried: " + e.getMessage());
+				return batch.subList(from, batch.size());
+			}
+		}
+
+		return List.of();
+	}
+
+	private void writeOneByOne(List<RealtimeWeatherView> chunk) {
+		for (RealtimeWeatherView realtimeWeather : chunk) {
+			try {
+				this.jdbcTemplate.update(UPSERT_REALTIME_WEATHER_SQL, toArgs(realtimeWeather));
+				this.flushed.increment();
+			} catch (DataIntegrityViolationException e) {
+				this.dropped.increment();
+				LOGGER.warn("Dropping realtime weather update of " + realtimeWeather.locationCode() + ": "
+						+ e.getMessage());
+			}
+		}
+	}
+
+	private static List<Object[]> toArgs(List<RealtimeWeatherView> realtimeWeathers) {
+		List<Object[]> args = new ArrayList<Object[]>(realtimeWeathers.size());
+		realtimeWeathers.forEach(realtimeWeather -> args.add(toArgs(realtimeWeather)));
+
+		return args;
+	}
+
+	private static Object[] toArgs(RealtimeWeatherView realtimeWeather) {
+		return new Object[] { realtimeWeather.locationCode(), realtimeWeather.temperature(),
+				realtimeWeather.humidity(), realtimeWeather.precipitation(), realtimeWeather.windSpeed(),
+				realtimeWeather.status(), new Timestamp(realtimeWeather.lastUpdated().getTime()) };
+	}
+
+	int pendingCount() {
+		this.lock.lock();
+		try {
+			return this.pending.size();
+		} finally {
+			this.lock.unlock();
+		}
+	}
+
+	// tắt app thì ghi nốt phần đang chờ, lỗi thì ở chế độ JOURNAL vẫn còn trong log
+	@PreDestroy
+	public void shutdown() throws IOException {
+		this.flush();
+
+		if (this.journal != null) {
+			this.journalLock.lock();
+			try {
+				this.journal.close();
+			} finally {
+				this.journalLock.unlock();
+			}
+		}
+
+		int remaining = this.pendingCount();
+		if (remaining > 0) {
+			LOGGER.warn(remaining + " realtime weather updates were not written on shutdown"
+					+ (this.journal == null ? " and are lost" : ", they stay in the journal"));
+		}
+	}
+
+	/*
+	 * /actuator/metrics/realtime.writebehind.updates?tag=result:coalesced, số
+	 * dòng đang chờ ở realtime.writebehind.pending
+	 */
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		bindCounter(registry, this.submitted, "submitted", "Realtime weather updates accepted by the write-behind buffer");
+		bindCounter(registry, this.coalesced, "coalesced", "Updates that replaced a pending update of the same location");
+		bindCounter(registry, this.flushed, "flushed", "Updates written to realtime_weather");
+		bindCounter(registry, this.dropped, "dropped", "Updates rejected by the database and not retried");
+
+		Gauge.builder("realtime.writebehind.pending", this, RealtimeWeatherWriteBehind::pendingCount)
+				.description("Realtime weather updates waiting to be written").register(registry);
+	}
+
+	private static void bindCounter(MeterRegistry registry, LongAdder counter, String result, String description) {
+		FunctionCounter.builder("realtime.writebehind.updates", counter, LongAdder::sum).tag("result", result)
+				.description(description).register(registry);
+	}
+
+	// committed/failure đc ghi và đọc khi giữ journalLock
+	private static final class JournalEntry {
+		private final RealtimeWeatherView realtimeWeather;
+		private final byte[] line;
+		private boolean committed;
+		private RuntimeException failure;
+
+		private JournalEntry(RealtimeWeatherView realtimeWeather, byte[] line) {
+			this.realtimeWeather = realtimeWeather;
+			this.line = line;
+		}
+
+		private byte[] line() {
+			return this.line;
+		}
+	}
+}
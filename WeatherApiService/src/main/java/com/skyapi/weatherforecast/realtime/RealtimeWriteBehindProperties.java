@@ -0,0 +1,44 @@
+package com.skyapi.weatherforecast.realtime;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+// ánh xạ các cấu hình app.realtime.write-behind.* trong application.properties
+@ConfigurationProperties(prefix = "app.realtime.write-behind")
+@Getter
+@Setter
+public class RealtimeWriteBehindProperties {
+	/*
+	 * bật thì PUT /v1/realtime/{code} cập nhật cache + trả response ngay, ghi DB
+	 * gom lại theo chu kỳ flushInterval
+	 */
+	private boolean enabled;
+
+	private Duration flushInterval = Duration.ofSeconds(1);
+
+	// số dòng tối đa của 1 lần batchUpdate
+	private int batchSize = 500;
+
+	private Durability durability = Durability.MEMORY;
+
+	// file log của chế độ JOURNAL, file .flushing bên cạnh là phần đang đc ghi xuống DB
+	private String journalFile = "data/realtime-write-behind.journal";
+
+	/*
+	 * JOURNAL + journalSync = true thì fsync mỗi lần ghi log (ko mất khi máy tắt
+	 * đột ngột nhưng chậm hơn, các PUT đồng thời dùng chung 1 lần fsync), false
+	 * thì chỉ chắc chắn khi process chết
+	 */
+	private boolean journalSync;
+
+	public enum Durability {
+		// update chưa flush mất khi process dừng đột ngột
+		MEMORY,
+		// ghi log append-only trước khi trả response, khởi động lại thì đọc lại log
+		JOURNAL
+	}
+}
@@ -0,0 +1,138 @@
+package com.skyapi.weatherforecast.schema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/*
+ * lúc khởi động chạy EXPLAIN các query nóng (SQL tương đương JPQL của các
+ * repository, tham số mẫu) và cảnh báo query nào đang quét cả bảng mà ko có
+ * index nào dùng đc (type = ALL, possible_keys = NULL), vd DB thiếu migration
+ * V2__hot_query_indexes hoặc query mới chưa có index
+ *
+ * chỉ chạy trên MySQL (cột của EXPLAIN khác nhau giữa các DB), lỗi thì chỉ log
+ * chứ ko chặn khởi động
+ */
+@Component
+public class QueryIndexAdvisor {
+	private static final Logger LOGGER = LoggerFactory.getLogger(QueryIndexAdvisor.class);
+
+	record HotQuery(String name, String sql, Object... sampleArgs) {
+	}
+
+	static final List<HotQuery> HOT_QUERIES = List.of(
+			new HotQuery("LocationRepository.findByCountryCodeAndCityName",
+					"SELECT * FROM locations WHERE country_code = ? AND city_name = ? AND trashed = false", "VN",
+					"Hanoi"),
+			new HotQuery("LocationDirectory (findAllCodesWithCountryCodeAndCityName)",
+					"SELECT code, country_code, city_name FROM locations WHERE trashed = false"),
+			new HotQuery("LocationCountRegistry (findAllCodesWithCountFilterFields)",
+					"SELECT code, enabled, country_code, region_name FROM locations WHERE trashed = false"),
+			new HotQuery("FilterableLocationRepositoryImpl (enabled, country_code)",
+					"SELECT * FROM locations l LEFT JOIN realtime_weather r ON r.location_code = l.code"
+							+ " WHERE l.trashed = false AND l.enabled = true AND l.country_code = ? ORDER BY l.code LIMIT 10",
+					"VN"),
+			new HotQuery("FilterableLocationRepositoryImpl (region_name)",
+					"SELECT COUNT(*) FROM locations WHERE trashed = false AND region_name = ?", "Ha Noi"),
+			new HotQuery("RealtimeWeatherRepository.findViewByLocationCode",
+					"SELECT l.code, l.city_name, l.region_name, l.country_name, r.temperature, r.humidity,"
+							+ " r.precipitation, r.wind_speed, r.status, r.last_updated FROM realtime_weather r"
+							+ " JOIN locations l ON l.code = r.location_code WHERE l.code = ? AND l.trashed = false",
+					"HN_VN"),
+			new HotQuery("HourlyWeatherRepository.findViewsByLocationCodeAndHourOfDay",
+					"SELECT l.code, l.city_name, l.region_name, l.country_name, h.hour_of_day, h.temperature,"
+							+ " h.precipitation, h.status FROM weather_hourly h JOIN locations l ON l.code = h.location_code"
+							+ " WHERE l.code = ? AND h.hour_of_day > ? AND l.trashed = false",
+					"HN_VN", 12),
+			new HotQuery("DailyWeatherRepository.findViewsByLocationCode",
+					"SELECT l.code, l.city_name, l.region_name, l.country_name, d.day_of_month, d.month, d.min_temp,"
+							+ " d.max_temp, d.precipitation, d.status FROM daily_weather d"
+							+ " JOIN locations l ON l.code = d.location_code WHERE l.code = ? AND l.trashed = false",
+					"HN_VN"),
+			new HotQuery("RealtimeWeatherRepository.findViewsByLocationCodes (API batch)",
+					"SELECT l.code, l.city_name, l.region_name, l.country_name, r.temperature, r.humidity,"
+							+ " r.precipitation, r.wind_speed, r.status, r.last_updated FROM realtime_weather r"
+							+ " JOIN locations l ON l.code = r.location_code WHERE l.code IN (?, ?) AND l.trashed = false",
+					"HN_VN", "DN_VN"),
+			new HotQuery("HourlyWeatherRepository.findViewsByLocationCodesAndHourOfDay (API batch)",
+					"SELECT l.code, l.city_name, l.region_name, l.country_name, h.hour_of_day, h.temperature,"
+							+ " h.precipitation, h.status FROM weather_hourly h JOIN locations l ON l.code = h.location_code"
+							+ " WHERE l.code IN (?, ?) AND h.hour_of_day > ? AND l.trashed = false",
+					"HN_VN", "DN_VN", 12),
+			new HotQuery("DailyWeatherRepository.findViewsByLocationCodes (API batch)",
+					"SELECT l.code, l.city_name, l.region_name, l.country_name, d.day_of_month, d.month, d.min_temp,"
+							+ " d.max_temp, d.precipitation, d.status FROM daily_weather d"
+							+ " JOIN locations l ON l.code = d.location_code WHERE l.code IN (?, ?) AND l.trashed = false",
+					"HN_VN", "DN_VN"),
+			new HotQuery("LocationBulkRepository.findUntrashedAfterCode (API export)",
+					"SELECT code, city_name, region_name, country_name, country_code, enabled FROM locations"
+							+ " WHERE trashed = false AND code > ? ORDER BY code LIMIT ?",
+					"HN_VN", 1000),
+			new HotQuery("LocationRepository.existsUntrashedByCode",
+					"SELECT COUNT(*) FROM locations WHERE trashed = false AND code = ?", "HN_VN"),
+			new HotQuery("ClientAppRepository.findByClientId",
+					"SELECT * FROM client_apps WHERE client_id = ? AND enabled = true AND trashed = false",
+					"client-id"));
+
+	private final JdbcTemplate jdbcTemplate;
+	private final boolean enabled;
+
+	public QueryIndexAdvisor(JdbcTemplate jdbcTemplate,
+			@Value("${app.query-index-advisor.enabled:true}") boolean enabled) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.enabled = enabled;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void checkHotQueries() {
+		if (!this.enabled) {
+			return;
+		}
+
+		try {
+			String databaseProductName = this.jdbcTemplate.execute(
+					(ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+			if (!"MySQL".equalsIgnoreCase(databaseProductName)) {
+				LOGGER.info("Query Index Advisor skipped on " + databaseProductName);
+				return;
+			}
+
+			List<String> queriesWithoutIndex = this.findQueriesWithoutIndex();
+			if (queriesWithoutIndex.isEmpty()) {
+				LOGGER.info("Query Index Advisor: all " + HOT_QUERIES.size() + " hot queries use an index");
+			} else {
+				queriesWithoutIndex.forEach(problem -> LOGGER.warn("Query Index Advisor: " + problem));
+			}
+		} catch (Exception e) {
+			LOGGER.error("Error Running Query Index Advisor!", e);
+		}
+	}
+
+	// mỗi phần tử: "<tên query> scans table <bảng> without any usable index"
+	List<String> findQueriesWithoutIndex() {
+		List<String> queriesWithoutIndex = new ArrayList<String>();
+
+		for (HotQuery hotQuery : HOT_QUERIES) {
+			List<Map<String, Object>> plan = this.jdbcTemplate.queryForList("EXPLAIN " + hotQuery.sql(),
+					hotQuery.sampleArgs());
+
+			for (Map<String, Object> step : plan) {
+				if ("ALL".equals(step.get("type")) && step.get("possible_keys") == null) {
+					queriesWithoutIndex
+							.add(hotQuery.name() + " scans table " + step.get("table") + " without any usable index");
+				}
+			}
+		}
+
+		return queriesWithoutIndex;
+	}
+}
@@ -9,6 +9,8 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 
+import jakarta.servlet.DispatcherType;
+
 @Configuration
 @Profile("production")
 public class ResourceServerConfig {
@@ -17,6 +19,8 @@ public class ResourceServerConfig {
 	private static final String HOURLY_WEATHER_ENDPOINT_PATTERN = "/v1/hourly/**";
 	private static final String DAILY_WEATHER_ENDPOINT_PATTERN = "/v1/daily/**";
 	private static final String FULL_WEATHER_ENDPOINT_PATTERN = "/v1/full/**";
+	private static final String INGEST_ENDPOINT_PATTERN = "/v1/ingest/**";
+	private static final String BATCH_WEATHER_ENDPOINT_PATTERN = "/v1/batch/**";
 
 	private static final String SCOPE_READER = "SCOPE_READER";
 	private static final String SCOPE_UPDATER = "SCOPE_UPDATER";
@@ -28,6 +32,11 @@ public class ResourceServerConfig {
 				.sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
 				.oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))
 				.authorizeHttpRequests(auth -> auth.requestMatchers("/").permitAll()
+						/*
+						 * stream SSE (/v1/realtime/stream) ghi event qua async dispatch, quyền đã
+						 * kiểm tra ở request ban đầu
+						 */
+						.dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
 						// SYSTEM full quyền, UPDATER ko có quyền j, READER chỉ get
 						.requestMatchers(HttpMethod.GET, LOCATION_ENDPOINT_PATTERN)
 						.hasAnyAuthority(SCOPE_READER, SCOPE_SYSTEM)
@@ -57,6 +66,14 @@ public class ResourceServerConfig {
 						.requestMatchers(HttpMethod.PUT, FULL_WEATHER_ENDPOINT_PATTERN)
 						.hasAnyAuthority(SCOPE_SYSTEM, SCOPE_UPDATER)
 
+						// ingest ghi dữ liệu thời tiết hàng loạt, quyền giống PUT
+						.requestMatchers(HttpMethod.POST, INGEST_ENDPOINT_PATTERN)
+						.hasAnyAuthority(SCOPE_SYSTEM, SCOPE_UPDATER)
+
+						// đọc nhiều location 1 lần, quyền giống GET
+						.requestMatchers(HttpMethod.GET, BATCH_WEATHER_ENDPOINT_PATTERN)
+						.hasAnyAuthority(SCOPE_SYSTEM, SCOPE_UPDATER, SCOPE_READER)
+
 						.anyRequest().authenticated());
 
 		return http.build();
@@ -0,0 +1,159 @@
+package com.skyapi.weatherforecast;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.modelmapper.ModelMapper;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.DailyWeatherId;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.daily.DailyWeatherMapper;
+import com.skyapi.weatherforecast.full.FullWeatherDTO;
+import com.skyapi.weatherforecast.full.FullWeatherMapper;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherMapper;
+import com.skyapi.weatherforecast.location.LocationDTO;
+import com.skyapi.weatherforecast.location.LocationMapper;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherDTO;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherMapper;
+
+/*
+ * các *Mapper map tay phải cho kết quả giống hệt cấu hình ModelMapper cũ
+ * (ModelMapperConfig, kể cả các trường hợp null)
+ */
+public class MapperEquivalenceTests {
+	private final ModelMapper modelMapper = ModelMapperConfig.createModelMapper();
+
+	private Location createLocation() {
+		Location location = Location.builder().code("HN_VN").cityName("Hanoi").regionName("Ha Noi")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocationCode(location.getCode());
+		realtimeWeather.setTemperature(25);
+		realtimeWeather.setHumidity(80);
+		realtimeWeather.setPrecipitation(40);
+		realtimeWeather.setWindSpeed(12);
+		realtimeWeather.setStatus("Cloudy");
+		realtimeWeather.setLastUpdated(new Date());
+		realtimeWeather.setLocation(location);
+		location.setRealtimeWeather(realtimeWeather);
+
+		HourlyWeather hourlyWeather = HourlyWeather.builder().temperature(20).precipitation(10).status("Sunny")
+				.build();
+		hourlyWeather.getId().setHourOfDay(8);
+		hourlyWeather.getId().setLocation(location);
+		location.getListHourlyWeather().add(hourlyWeather);
+
+		// temperature/precipitation null -> DTO nhận 0
+		HourlyWeather hourlyWeatherWithNulls = HourlyWeather.builder().status("Rainy").build();
+		hourlyWeatherWithNulls.getId().setHourOfDay(9);
+		location.getListHourlyWeather().add(hourlyWeatherWithNulls);
+
+		DailyWeather dailyWeather = DailyWeather.builder().id(new DailyWeatherId(16, 7, location)).maxTemp(30)
+				.minTemp(22).precipitation(60).status("Cloudy").build();
+		location.getListDailyWeathers().add(dailyWeather);
+
+		return location;
+	}
+
+	@Test
+	public void testRealtimeWeatherMapper() {
+		RealtimeWeather realtimeWeather = createLocation().getRealtimeWeather();
+
+		RealtimeWeatherDTO realtimeWeatherDTO = RealtimeWeatherMapper.toDTO(realtimeWeather);
+		assertThat(realtimeWeatherDTO).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class));
+		assertThat(realtimeWeatherDTO.getLocation()).isEqualTo("Hanoi, Ha Noi, Viet Nam");
+
+		realtimeWeather.setLocation(null);
+		assertThat(RealtimeWeatherMapper.toDTO(realtimeWeather)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(realtimeWeather, RealtimeWeatherDTO.class));
+
+		assertThat(RealtimeWeatherMapper.toEntity(realtimeWeatherDTO)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(realtimeWeatherDTO, RealtimeWeather.class));
+	}
+
+	@Test
+	public void testHourlyWeatherMapper() {
+		for (HourlyWeather hourlyWeather : createLocation().getListHourlyWeather()) {
+			HourlyWeatherDTO hourlyWeatherDTO = HourlyWeatherMapper.toDTO(hourlyWeather);
+			assertThat(hourlyWeatherDTO).usingRecursiveComparison()
+					.isEqualTo(this.modelMapper.map(hourlyWeather, HourlyWeatherDTO.class));
+
+			assertThat(HourlyWeatherMapper.toEntity(hourlyWeatherDTO)).usingRecursiveComparison()
+					.isEqualTo(this.modelMapper.map(hourlyWeatherDTO, HourlyWeather.class));
+		}
+
+		HourlyWeather hourlyWeatherWithoutId = new HourlyWeather();
+		hourlyWeatherWithoutId.setId(null);
+		assertThat(HourlyWeatherMapper.toDTO(hourlyWeatherWithoutId)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(hourlyWeatherWithoutId, HourlyWeatherDTO.class));
+	}
+
+	@Test
+	public void testDailyWeatherMapper() {
+		DailyWeather dailyWeather = createLocation().getListDailyWeathers().get(0);
+
+		DailyWeatherDTO dailyWeatherDTO = DailyWeatherMapper.toDTO(dailyWeather);
+		assertThat(dailyWeatherDTO).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(dailyWeather, DailyWeatherDTO.class));
+
+		assertThat(DailyWeatherMapper.toEntity(dailyWeatherDTO)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(dailyWeatherDTO, DailyWeather.class));
+
+		DailyWeather dailyWeatherWithoutId = new DailyWeather();
+		assertThat(DailyWeatherMapper.toDTO(dailyWeatherWithoutId)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(dailyWeatherWithoutId, DailyWeatherDTO.class));
+	}
+
+	@Test
+	public void testFullWeatherMapper() {
+		Location location = createLocation();
+
+		FullWeatherDTO fullWeatherDTO = FullWeatherMapper.toDTO(location);
+		assertThat(fullWeatherDTO).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(location, FullWeatherDTO.class));
+
+		/*
+		 * giống response của FullWeatherApiController (realtime ko có location), nếu
+		 * còn chuỗi location thì ModelMapper tạo Location rỗng hoặc để null tùy thứ
+		 * tự tạo typeMap
+		 */
+		fullWeatherDTO.getRealtimeWeather().setLocation(null);
+		assertThat(FullWeatherMapper.toEntity(fullWeatherDTO)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(fullWeatherDTO, Location.class));
+
+		// location chưa có dữ liệu weather
+		Location emptyLocation = Location.builder().code("DN_VN").cityName("Da Nang").countryName("Viet Nam")
+				.countryCode("VN").build();
+		assertThat(FullWeatherMapper.toDTO(emptyLocation)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(emptyLocation, FullWeatherDTO.class));
+
+		FullWeatherDTO fullWeatherDTOWithNulls = new FullWeatherDTO();
+		fullWeatherDTOWithNulls.setRealtimeWeather(null);
+		fullWeatherDTOWithNulls.setListHourlyWeather(null);
+		fullWeatherDTOWithNulls.setListDailyWeathers(List.of());
+		assertThat(FullWeatherMapper.toEntity(fullWeatherDTOWithNulls)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(fullWeatherDTOWithNulls, Location.class));
+	}
+
+	@Test
+	public void testLocationMapper() {
+		Location location = createLocation();
+
+		LocationDTO locationDTO = LocationMapper.toDTO(location);
+		assertThat(locationDTO).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(location, LocationDTO.class));
+
+		assertThat(LocationMapper.toEntity(locationDTO)).usingRecursiveComparison()
+				.isEqualTo(this.modelMapper.map(locationDTO, Location.class));
+	}
+}
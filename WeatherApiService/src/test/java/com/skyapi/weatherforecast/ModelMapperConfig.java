@@ -0,0 +1,68 @@
+package com.skyapi.weatherforecast;
+
+import org.modelmapper.ModelMapper;
+import org.modelmapper.convention.MatchingStrategies;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.daily.DailyWeatherDTO;
+import com.skyapi.weatherforecast.full.FullWeatherDTO;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherDTO;
+
+/*
+ * cấu hình ModelMapper trước đây là Bean bên class Main, controller đã chuyển
+ * sang các *Mapper map tay nên chỉ giữ lại ở test làm chuẩn để so sánh kết quả
+ * (MapperEquivalenceTests) và cho WeatherApiBenchmarks (qua test-jar), ứng dụng
+ * ko còn phụ thuộc ModelMapper
+ */
+public final class ModelMapperConfig {
+
+	private ModelMapperConfig() {
+	}
+
+	public static ModelMapper createModelMapper() {
+		ModelMapper modelMapper = new ModelMapper();
+		modelMapper.getConfiguration().setMatchingStrategy(MatchingStrategies.STRICT);
+
+		configureMappingForHourlyWeather(modelMapper);
+
+		configureMappingForDailyWeather(modelMapper);
+
+		configureMappingForFullWeather(modelMapper);
+
+		return modelMapper;
+	}
+
+	private static void configureMappingForFullWeather(ModelMapper modelMapper) {
+		modelMapper.typeMap(Location.class, FullWeatherDTO.class).addMapping(location -> location.toString(),
+				FullWeatherDTO::setLocation);
+	}
+
+	private static void configureMappingForDailyWeather(ModelMapper modelMapper) {
+		modelMapper.typeMap(DailyWeather.class, DailyWeatherDTO.class)
+				.addMapping(dailyWeather -> dailyWeather.getId().getDayOfMonth(), DailyWeatherDTO::setDayOfMonth)
+				.addMapping(dailyWeather -> dailyWeather.getId().getMonth(), DailyWeatherDTO::setMonth);
+
+		modelMapper.typeMap(DailyWeatherDTO.class, DailyWeather.class)
+				.addMapping(dailyWeatherDTO -> dailyWeatherDTO.getDayOfMonth(),
+						(dailyWeather, value) -> dailyWeather.getId().setDayOfMonth(value == null ? 0 : (int) value))
+				.addMapping(dailyWeatherDTO -> dailyWeatherDTO.getMonth(),
+						(dailyWeather, value) -> dailyWeather.getId().setMonth(value == null ? 0 : (int) value));
+	}
+
+	private static void configureMappingForHourlyWeather(ModelMapper modelMapper) {
+		/*
+		 * typeMap() tạo 1 ánh xạ tùy chỉnh từ class nguồn -> đích, Mặc định,
+		 * ModelMapper chỉ ánh xạ các thuộc tính cùng tên, cùng cấp. Vì hourOfDay nằm
+		 * trong id (một field lồng) nên dùng addMapping để tùy chỉnh ánh xạ cụ thể
+		 */
+		modelMapper.typeMap(HourlyWeather.class, HourlyWeatherDTO.class)
+				.addMapping(hourlyWeather -> hourlyWeather.getId().getHourOfDay(), HourlyWeatherDTO::setHourOfDay);
+
+		// ánh xạ ngược lại từ hourOfDay của DTO sang hourOfDay của entity
+		modelMapper.typeMap(HourlyWeatherDTO.class, HourlyWeather.class).addMapping(
+				hourlyWeatherDTO -> hourlyWeatherDTO.getHourOfDay(),
+				(hourlyWeather, value) -> hourlyWeather.getId().setHourOfDay(value == null ? 0 : (int) value));
+	}
+}
@@ -0,0 +1,343 @@
+package com.skyapi.weatherforecast.base;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.apache.coyote.BadRequestException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import com.skyapi.weatherforecast.batch.BatchProperties;
+import com.skyapi.weatherforecast.batch.BatchWeatherDTO;
+import com.skyapi.weatherforecast.batch.BatchWeatherService;
+import com.skyapi.weatherforecast.batch.LocationWeatherDTO;
+import com.skyapi.weatherforecast.batch.WeatherPart;
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.DailyWeatherId;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.daily.DailyWeatherRepository;
+import com.skyapi.weatherforecast.daily.DailyWeatherService;
+import com.skyapi.weatherforecast.daily.DailyWeatherView;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherRepository;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherService;
+import com.skyapi.weatherforecast.hourly.HourlyWeatherView;
+import com.skyapi.weatherforecast.location.FilterableLocationRepositoryImpl;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.location.LocationRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherService;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherWriteBehind;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * API GET realtime/hourly/daily đọc bằng projection: 1 câu SQL, ko entity nào
+ * đc load vào persistence context, chạy trên H2 (chế độ MySQL) với thống kê
+ * của Hibernate
+ */
+public class WeatherViewQueryTests {
+	private static EntityManagerFactory entityManagerFactory;
+	private static Statistics statistics;
+
+	private EntityManager entityManager;
+	private HourlyWeatherService hourlyWeatherService;
+	private DailyWeatherService dailyWeatherService;
+	private RealtimeWeatherService realtimeWeatherService;
+	private BatchWeatherService batchWeatherService;
+
+	@BeforeAll
+	public static void createEntityManagerFactory() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:views;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1");
+
+		LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setPackagesToScan("com.skyapi.weatherforecast.common");
+		factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factoryBean.setJpaPropertyMap(
+				Map.of("hibernate.hbm2ddl.auto", "create-drop", "hibernate.generate_statistics", "true"));
+		factoryBean.afterPropertiesSet();
+
+		entityManagerFactory = factoryBean.getObject();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterAll
+	public static void closeEntityManagerFactory() {
+		entityManagerFactory.close();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		this.entityManager = entityManagerFactory.createEntityManager();
+
+		Location location = Location.builder().code("HN_VN").cityName("Hanoi").regionName("Ha Noi")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(25);
+		realtimeWeather.setHumidity(80);
+		realtimeWeather.setPrecipitation(40);
+		realtimeWeather.setWindSpeed(12);
+		realtimeWeather.setStatus("Cloudy");
+		realtimeWeather.setLastUpdated(new Date());
+		realtimeWeather.setLocation(location);
+		location.setRealtimeWeather(realtimeWeather);
+
+		for (int hour = 0; hour < 24; hour++) {
+			HourlyWeather hourlyWeather = HourlyWeather.builder().temperature(20 + hour % 5).precipitation(hour)
+					.status("Sunny").build();
+			hourlyWeather.getId().setHourOfDay(hour);
+			hourlyWeather.getId().setLocation(location);
+			location.getListHourlyWeather().add(hourlyWeather);
+		}
+
+		for (int day = 1; day <= 7; day++) {
+			location.getListDailyWeathers().add(DailyWeather.builder().id(new DailyWeatherId(day, 7, location))
+					.minTemp(22).maxTemp(30).precipitation(60).status("Cloudy").build());
+		}
+
+		// location ko có dự báo nào, và location đã bị xóa (trashed)
+		Location emptyLocation = Location.builder().code("DN_VN").cityName("Da Nang").regionName("Da Nang")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+		Location trashedLocation = Location.builder().code("HUE_VN").cityName("Hue").regionName("Thua Thien Hue")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).trashed(true).build();
+		trashedLocation.getListDailyWeathers().add(DailyWeather.builder()
+				.id(new DailyWeatherId(1, 7, trashedLocation)).minTemp(22).maxTemp(30).status("Rainy").build());
+
+		this.entityManager.getTransaction().begin();
+		this.entityManager.persist(location);
+		this.entityManager.persist(emptyLocation);
+		this.entityManager.persist(trashedLocation);
+		this.entityManager.getTransaction().commit();
+		this.entityManager.clear();
+
+		JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(this.entityManager);
+		LocationRepository locationRepository = repositoryFactory.getRepository(LocationRepository.class,
+				RepositoryFragments.just(new FilterableLocationRepositoryImpl()));
+
+		this.hourlyWeatherService = new HourlyWeatherService(
+				repositoryFactory.getRepository(HourlyWeatherRepository.class), null, locationRepository, null, null);
+		this.dailyWeatherService = new DailyWeatherService(
+				repositoryFactory.getRepository(DailyWeatherRepository.class), null, locationRepository, null, null);
+		this.realtimeWeatherService = new RealtimeWeatherService(
+				repositoryFactory.getRepository(RealtimeWeatherRepository.class), locationRepository, null, null,
+				Optional.empty(), null);
+
+		BatchProperties batchProperties = new BatchProperties();
+		batchProperties.setMaxLocations(4);
+		this.batchWeatherService = new BatchWeatherService(
+				repositoryFactory.getRepository(RealtimeWeatherRepository.class),
+				repositoryFactory.getRepository(HourlyWeatherRepository.class),
+				repositoryFactory.getRepository(DailyWeatherRepository.class), locationRepository,
+				new ConcurrentMapCacheManager(), batchProperties, Optional.empty());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.entityManager.getTransaction().begin();
+		this.entityManager.createQuery("DELETE FROM HourlyWeather").executeUpdate();
+		this.entityManager.createQuery("DELETE FROM DailyWeather").executeUpdate();
+		this.entityManager.createQuery("DELETE FROM RealtimeWeather").executeUpdate();
+		this.entityManager.createQuery("DELETE FROM Location").executeUpdate();
+		this.entityManager.getTransaction().commit();
+		this.entityManager.close();
+	}
+
+	private void startRequest() {
+		this.entityManager.clear();
+		statistics.clear();
+	}
+
+	// ko entity nào đc load, persistence context vẫn rỗng sau request
+	private void assertNoEntityLoaded() {
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(this.entityManager.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+	}
+
+	@Test
+	public void testHourlyWeatherIsReadAsViewsWithOneStatement() {
+		startRequest();
+		List<HourlyWeatherView> hourlyWeathers = this.hourlyWeatherService
+				.getHourlyWeatherByLocationCodeAndCurrentHour("HN_VN", 20);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertNoEntityLoaded();
+
+		assertThat(hourlyWeathers).extracting(HourlyWeatherView::hourOfDay).containsExactlyInAnyOrder(21, 22, 23);
+		assertThat(hourlyWeathers.get(0).locationCode()).isEqualTo("HN_VN");
+		assertThat(hourlyWeathers.get(0).location()).isEqualTo("Hanoi, Ha Noi, Viet Nam");
+	}
+
+	@Test
+	public void testDailyWeatherIsReadAsViewsWithOneStatement() {
+		startRequest();
+		List<DailyWeatherView> dailyWeathers = this.dailyWeatherService.getDailyWeatherByLocationCode("HN_VN");
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertNoEntityLoaded();
+
+		assertThat(dailyWeathers).hasSize(7);
+		assertThat(dailyWeathers).allSatisfy(dailyWeather -> {
+			assertThat(dailyWeather.month()).isEqualTo(7);
+			assertThat(dailyWeather.maxTemp()).isEqualTo(30);
+		});
+	}
+
+	@Test
+	public void testRealtimeWeatherIsReadAsViewWithOneStatement() {
+		startRequest();
+		RealtimeWeatherView realtimeWeather = this.realtimeWeatherService.getRealtimeWeatherByLocationCode("HN_VN");
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertNoEntityLoaded();
+
+		assertThat(realtimeWeather.temperature()).isEqualTo(25);
+		assertThat(realtimeWeather.windSpeed()).isEqualTo(12);
+		assertThat(realtimeWeather.lastUpdated()).isNotNull();
+		assertThat(realtimeWeather.location()).isEqualTo("Hanoi, Ha Noi, Viet Nam");
+	}
+
+	// list rỗng: location có tồn tại -> 204 (list rỗng), ko tồn tại/trashed -> 404
+	@Test
+	public void testEmptyViewsDistinguishMissingLocation() {
+		startRequest();
+		assertThat(this.hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour("HN_VN", 23)).isEmpty();
+		assertThat(this.dailyWeatherService.getDailyWeatherByLocationCode("DN_VN")).isEmpty();
+		assertNoEntityLoaded();
+
+		assertThatThrownBy(() -> this.hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour("ABC", 0))
+				.isInstanceOf(LocationNotFoundException.class);
+		assertThatThrownBy(() -> this.dailyWeatherService.getDailyWeatherByLocationCode("HUE_VN"))
+				.isInstanceOf(LocationNotFoundException.class);
+		assertThatThrownBy(() -> this.realtimeWeatherService.getRealtimeWeatherByLocationCode("DN_VN"))
+				.isInstanceOf(LocationNotFoundException.class);
+	}
+
+	// API batch: 1 query locations + 1 query IN cho mỗi phần, ko phụ thuộc số location
+	@Test
+	public void testBatchReadsEachPartWithOneStatement() throws BadRequestException {
+		startRequest();
+		BatchWeatherDTO batchWeather = this.batchWeatherService.getWeather(List.of("HN_VN", "DN_VN", "HUE_VN", "ABC"),
+				EnumSet.allOf(WeatherPart.class), 20);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(4);
+		assertNoEntityLoaded();
+
+		assertThat(batchWeather.getNotFound()).containsExactly("HUE_VN", "ABC");
+		assertThat(batchWeather.getLocations()).extracting(LocationWeatherDTO::getLocationCode)
+				.containsExactly("HN_VN", "DN_VN");
+
+		LocationWeatherDTO hanoi = batchWeather.getLocations().get(0);
+		assertThat(hanoi.getLocation()).isEqualTo("Hanoi, Ha Noi, Viet Nam");
+		assertThat(hanoi.getRealtimeWeather().temperature()).isEqualTo(25);
+		assertThat(hanoi.getHourlyForecast()).hasSize(3);
+		assertThat(hanoi.getDailyForecast()).hasSize(7);
+
+		// location tồn tại nhưng chưa có dữ liệu: ko có realtime, forecast là list rỗng
+		LocationWeatherDTO danang = batchWeather.getLocations().get(1);
+		assertThat(danang.getRealtimeWeather()).isNull();
+		assertThat(danang.getHourlyForecast()).isEmpty();
+		assertThat(danang.getDailyForecast()).isEmpty();
+	}
+
+	// lần sau đọc từ cache, chỉ các code ko tồn tại còn phải kiểm tra lại ở DB
+	@Test
+	public void testBatchReusesCacheOfPreviousRead() throws BadRequestException {
+		this.batchWeatherService.getWeather(List.of("HN_VN", "DN_VN", "ABC"), EnumSet.allOf(WeatherPart.class), 20);
+
+		startRequest();
+		BatchWeatherDTO batchWeather = this.batchWeatherService.getWeather(List.of("HN_VN", "DN_VN", "ABC"),
+				EnumSet.of(WeatherPart.HOURLY, WeatherPart.DAILY), 20);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(batchWeather.getNotFound()).containsExactly("ABC");
+		assertThat(batchWeather.getLocations().get(0).getRealtimeWeather()).isNull();
+		assertThat(batchWeather.getLocations().get(0).getHourlyForecast()).hasSize(3);
+	}
+
+	// miss cache lúc update realtime còn chờ ghi thì trả và cache bản đang chờ chứ ko phải dòng cũ trong DB
+	@Test
+	public void testBatchReadsPendingWriteBehindUpdate() throws BadRequestException {
+		RealtimeWeatherWriteBehind realtimeWeatherWriteBehind = mock(RealtimeWeatherWriteBehind.class);
+		RealtimeWeatherView pending = new RealtimeWeatherView("HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 30, 60, 20, 5,
+				"Sunny", new Date());
+		when(realtimeWeatherWriteBehind.findPending("HN_VN")).thenReturn(pending);
+
+		JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(this.entityManager);
+		ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+		BatchWeatherService writeBehindService = new BatchWeatherService(
+				repositoryFactory.getRepository(RealtimeWeatherRepository.class),
+				repositoryFactory.getRepository(HourlyWeatherRepository.class),
+				repositoryFactory.getRepository(DailyWeatherRepository.class),
+				repositoryFactory.getRepository(LocationRepository.class,
+						RepositoryFragments.just(new FilterableLocationRepositoryImpl())),
+				cacheManager, new BatchProperties(), Optional.of(realtimeWeatherWriteBehind));
+
+		BatchWeatherDTO batchWeather = writeBehindService.getWeather(List.of("HN_VN", "DN_VN"),
+				EnumSet.of(WeatherPart.REALTIME), null);
+
+		assertThat(batchWeather.getLocations().get(0).getRealtimeWeather().temperature()).isEqualTo(30);
+		assertThat(batchWeather.getLocations().get(1).getRealtimeWeather()).isNull();
+		assertThat(cacheManager.getCache("realtimeWeatherCacheByCode").get("HN_VN").get()).isSameAs(pending);
+	}
+
+	// PUT full/ingest ghi đồng bộ sau PUT realtime còn chờ ghi: dòng trong DB mới hơn nên đc dùng và cache
+	@Test
+	public void testBatchPrefersNewerStoredRealtimeWeatherOverPendingUpdate() throws BadRequestException {
+		RealtimeWeatherWriteBehind realtimeWeatherWriteBehind = mock(RealtimeWeatherWriteBehind.class);
+		when(realtimeWeatherWriteBehind.findPending("HN_VN")).thenReturn(new RealtimeWeatherView("HN_VN", "Hanoi",
+				"Ha Noi", "Viet Nam", 30, 60, 20, 5, "Sunny", new Date(0)));
+
+		JpaRepositoryFactory repositoryFactory = new JpaRepositoryFactory(this.entityManager);
+		ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager();
+		BatchWeatherService writeBehindService = new BatchWeatherService(
+				repositoryFactory.getRepository(RealtimeWeatherRepository.class),
+				repositoryFactory.getRepository(HourlyWeatherRepository.class),
+				repositoryFactory.getRepository(DailyWeatherRepository.class),
+				repositoryFactory.getRepository(LocationRepository.class,
+						RepositoryFragments.just(new FilterableLocationRepositoryImpl())),
+				cacheManager, new BatchProperties(), Optional.of(realtimeWeatherWriteBehind));
+
+		BatchWeatherDTO batchWeather = writeBehindService.getWeather(List.of("HN_VN"),
+				EnumSet.of(WeatherPart.REALTIME), null);
+
+		assertThat(batchWeather.getLocations().get(0).getRealtimeWeather().temperature()).isEqualTo(25);
+		assertThat(cacheManager.getCache("realtimeWeatherCacheByCode").get("HN_VN", RealtimeWeatherView.class)
+				.temperature()).isEqualTo(25);
+	}
+
+	@Test
+	public void testBatchRejectsTooManyLocations() {
+		assertThatThrownBy(() -> this.batchWeatherService.getWeather(List.of("A", "B", "C", "D", "E"),
+				EnumSet.of(WeatherPart.REALTIME), null)).isInstanceOf(BadRequestException.class);
+		// code trùng chỉ tính 1 lần
+		assertThatCode(() -> this.batchWeatherService.getWeather(List.of("A", "A", "B", "C", "D"),
+				EnumSet.of(WeatherPart.REALTIME), null)).doesNotThrowAnyException();
+	}
+}
@@ -0,0 +1,65 @@
+package com.skyapi.weatherforecast.batch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.skyapi.weatherforecast.SecurityConfigForControllerTests;
+
+@WebMvcTest(BatchWeatherApiController.class)
+@Import(SecurityConfigForControllerTests.class)
+@ActiveProfiles("test")
+public class BatchWeatherApiControllerTests {
+	private static final String END_POINT_PATH = "/v1/batch";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@MockBean
+	private BatchWeatherService batchWeatherService;
+
+	@Test
+	public void testGetShouldReturn400BadRequestBecauseUnknownInclude() throws Exception {
+		this.mockMvc.perform(get(END_POINT_PATH).param("location_codes", "HN_VN").param("include", "realtime,weekly"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testGetShouldReturn400BadRequestBecauseNoCurrentHourForHourly() throws Exception {
+		this.mockMvc.perform(get(END_POINT_PATH).param("location_codes", "HN_VN").param("include", "hourly"))
+				.andExpect(status().isBadRequest());
+		this.mockMvc.perform(get(END_POINT_PATH).param("location_codes", "HN_VN").header("X-Current-Hour", "24"))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void testGetShouldReturn200OK() throws Exception {
+		BatchWeatherDTO batchWeather = new BatchWeatherDTO();
+		LocationWeatherDTO locationWeather = new LocationWeatherDTO("HN_VN");
+		locationWeather.setLocation("Hanoi, Ha Noi, Viet Nam");
+		locationWeather.setDailyForecast(List.of());
+		batchWeather.getLocations().add(locationWeather);
+		batchWeather.getNotFound().add("ABC");
+
+		Mockito.when(this.batchWeatherService.getWeather(List.of("HN_VN", "ABC"),
+				EnumSet.of(WeatherPart.REALTIME, WeatherPart.DAILY), null)).thenReturn(batchWeather);
+
+		// ko có hourly thì ko cần X-Current-Hour
+		this.mockMvc.perform(get(END_POINT_PATH).param("location_codes", "HN_VN,ABC").param("include", "daily,realtime"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.locations[0].location_code").value("HN_VN"))
+				.andExpect(jsonPath("$.locations[0].daily_forecast").isEmpty())
+				.andExpect(jsonPath("$.locations[0].realtime_weather").doesNotExist())
+				.andExpect(jsonPath("$.not_found[0]").value("ABC"));
+	}
+}
@@ -0,0 +1,120 @@
+package com.skyapi.weatherforecast.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.skyapi.weatherforecast.cache.CacheSpecProperties.CacheSpec;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+public class CacheConfigTests {
+
+	private CacheSpecProperties createProperties() {
+		CacheSpecProperties properties = new CacheSpecProperties();
+		properties.getDefaultSpec().setMaximumSize(100L);
+		properties.getDefaultSpec().setExpireAfterWrite(Duration.ofHours(1));
+		properties.getDefaultSpec().setRecordStats(true);
+
+		CacheSpec geolocationSpec = new CacheSpec();
+		geolocationSpec.setMaximumSize(2L);
+		properties.getSpecs().put("geolocationCache", geolocationSpec);
+
+		CacheSpec hourlySpec = new CacheSpec();
+		hourlySpec.setMaximumWeight(48L);
+		hourlySpec.setExpireAfterWrite(Duration.ofMinutes(60));
+		properties.getSpecs().put("hourlyWeatherCacheByLocationCodeAndCurrentHour", hourlySpec);
+
+		return properties;
+	}
+
+	@SuppressWarnings("unchecked")
+	private Cache<Object, Object> getNativeCache(CacheManager cacheManager, String cacheName) {
+		return (Cache<Object, Object>) cacheManager.getCache(cacheName).getNativeCache();
+	}
+
+	static CacheManager createCacheManager(CacheSpecProperties properties,
+			CacheInvalidationIndex cacheInvalidationIndex) {
+		return new CacheConfig().cacheManager(properties, cacheInvalidationIndex, new CacheLoadCoalescer(),
+				new CacheRefresher(properties, cacheInvalidationIndex, List::of), Optional.empty());
+	}
+
+	private CacheManager createCacheManager() {
+		return createCacheManager(createProperties(), new CacheInvalidationIndex());
+	}
+
+	@Test
+	public void testConfiguredCacheIsBoundedBySize() {
+		CacheManager cacheManager = createCacheManager();
+
+		Cache<Object, Object> geolocationCache = getNativeCache(cacheManager, "geolocationCache");
+
+		assertThat(geolocationCache.policy().eviction().get().getMaximum()).isEqualTo(2L);
+		// expireAfterWrite lấy từ defaultSpec
+		assertThat(geolocationCache.policy().expireAfterWrite().get().getExpiresAfter())
+				.isEqualTo(Duration.ofHours(1));
+		assertThat(geolocationCache.policy().isRecordingStats()).isTrue();
+	}
+
+	@Test
+	public void testConfiguredCacheIsBoundedByWeight() {
+		CacheManager cacheManager = createCacheManager();
+
+		Cache<Object, Object> hourlyCache = getNativeCache(cacheManager,
+				"hourlyWeatherCacheByLocationCodeAndCurrentHour");
+
+		assertThat(hourlyCache.policy().eviction().get().isWeighted()).isTrue();
+		assertThat(hourlyCache.policy().eviction().get().getMaximum()).isEqualTo(48L);
+	}
+
+	@Test
+	public void testUndeclaredCacheUsesDefaultSpec() {
+		CacheManager cacheManager = createCacheManager();
+
+		Cache<Object, Object> unknownCache = getNativeCache(cacheManager, "unknownCache");
+
+		assertThat(unknownCache.policy().eviction().get().getMaximum()).isEqualTo(100L);
+	}
+
+	@Test
+	public void testWeigherCountsElementsOfList() {
+		CacheEntryWeigher weigher = new CacheEntryWeigher();
+
+		assertThat(weigher.weigh("HN_VN", List.of(1, 2, 3))).isEqualTo(3);
+		assertThat(weigher.weigh("HN_VN", List.of())).isEqualTo(1);
+		assertThat(weigher.weigh("HN_VN", "value")).isEqualTo(1);
+	}
+
+	// chế độ async: retrieve() của @Cacheable trên hàm trả về Mono vẫn ghi chỉ mục location
+	@Test
+	public void testAsyncModeKeepsSpecAndLocationIndex() {
+		CacheSpecProperties properties = createProperties();
+		properties.setAsyncMode(true);
+		CacheInvalidationIndex cacheInvalidationIndex = new CacheInvalidationIndex();
+		CacheManager cacheManager = createCacheManager(properties, cacheInvalidationIndex);
+
+		Cache<Object, Object> geolocationCache = getNativeCache(cacheManager, "geolocationCache");
+		assertThat(geolocationCache.policy().eviction().get().getMaximum()).isEqualTo(2L);
+
+		org.springframework.cache.Cache realtimeCache = cacheManager.getCache("realtimeWeatherCacheByCode");
+		RealtimeWeatherView realtimeWeather = new RealtimeWeatherView("HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 25, 80,
+				40, 12, "Cloudy", new Date());
+
+		assertThat(realtimeCache.retrieve("HN_VN", () -> CompletableFuture.completedFuture(realtimeWeather)).join())
+				.isSameAs(realtimeWeather);
+		// hàm đồng bộ đọc chung entry qua synchronous()
+		assertThat(realtimeCache.get("HN_VN", RealtimeWeatherView.class)).isSameAs(realtimeWeather);
+		assertThat(cacheInvalidationIndex.size()).isEqualTo(1);
+
+		cacheInvalidationIndex.evict("HN_VN", "realtimeWeatherCacheByCode");
+		assertThat(realtimeCache.retrieve("HN_VN")).isNull();
+		assertThat(cacheInvalidationIndex.size()).isZero();
+	}
+}
@@ -0,0 +1,264 @@
+package com.skyapi.weatherforecast.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeatherId;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+
+public class CacheInvalidationIndexTests {
+	private static final String REALTIME_CACHE_BY_CODE = "realtimeWeatherCacheByCode";
+	private static final String HOURLY_CACHE_BY_CODE = "hourlyWeatherCacheByLocationCodeAndCurrentHour";
+
+	private CacheInvalidationIndex cacheInvalidationIndex = new CacheInvalidationIndex();
+
+	private CacheManager createCacheManager() {
+		CacheSpecProperties properties = new CacheSpecProperties();
+		properties.getDefaultSpec().setMaximumSize(100L);
+		properties.getDefaultSpec().setExpireAfterWrite(Duration.ofHours(1));
+
+		return CacheConfigTests.createCacheManager(properties, this.cacheInvalidationIndex);
+	}
+
+	private Location createLocation(String code, String cityName) {
+		return new Location(code, cityName, "Region", "Vietnam", "VN");
+	}
+
+	private RealtimeWeather createRealtimeWeather(Location location) {
+		return RealtimeWeather.builder().locationCode(location.getCode()).location(location).temperature(30)
+				.status("Sunny").build();
+	}
+
+	private List<HourlyWeather> createHourlyWeathers(Location location) {
+		List<HourlyWeather> hourlyWeathers = new ArrayList<HourlyWeather>();
+		hourlyWeathers.add(HourlyWeather.builder().id(new HourlyWeatherId(10, location)).temperature(25)
+				.precipitation(40).status("Cloudy").build());
+
+		return hourlyWeathers;
+	}
+
+	@Test
+	public void testEvictOnlyRemovesEntriesOfGivenLocation() {
+		CacheManager cacheManager = createCacheManager();
+		Cache realtimeCache = cacheManager.getCache(REALTIME_CACHE_BY_CODE);
+
+		Location hanoi = createLocation("HN_VN", "Hanoi");
+		Location danang = createLocation("DN_VN", "Da Nang");
+
+		realtimeCache.put("HN_VN", createRealtimeWeather(hanoi));
+		realtimeCache.put("DN_VN", createRealtimeWeather(danang));
+
+		this.cacheInvalidationIndex.evict("HN_VN", REALTIME_CACHE_BY_CODE);
+
+		assertThat(realtimeCache.get("HN_VN")).isNull();
+		assertThat(realtimeCache.get("DN_VN")).isNotNull();
+	}
+
+	@Test
+	public void testEvictRemovesEveryHourKeyOfLocation() {
+		CacheManager cacheManager = createCacheManager();
+		Cache hourlyCache = cacheManager.getCache(HOURLY_CACHE_BY_CODE);
+
+		Location hanoi = createLocation("HN_VN", "Hanoi");
+		Location danang = createLocation("DN_VN", "Da Nang");
+
+		hourlyCache.put(List.of("HN_VN", 8), createHourlyWeathers(hanoi));
+		hourlyCache.put(List.of("HN_VN", 9), createHourlyWeathers(hanoi));
+		hourlyCache.put(List.of("DN_VN", 9), createHourlyWeathers(danang));
+
+		this.cacheInvalidationIndex.evict("HN_VN", HOURLY_CACHE_BY_CODE);
+
+		assertThat(hourlyCache.get(List.of("HN_VN", 8))).isNull();
+		assertThat(hourlyCache.get(List.of("HN_VN", 9))).isNull();
+		assertThat(hourlyCache.get(List.of("DN_VN", 9))).isNotNull();
+	}
+
+	@Test
+	public void testEvictRemovesEmptyListsBecauseLocationIsUnknown() {
+		CacheManager cacheManager = createCacheManager();
+		Cache hourlyCache = cacheManager.getCache(HOURLY_CACHE_BY_CODE);
+
+		Location danang = createLocation("DN_VN", "Da Nang");
+
+		hourlyCache.put(List.of("HN_VN", 23), new ArrayList<HourlyWeather>());
+		hourlyCache.put(List.of("DN_VN", 9), createHourlyWeathers(danang));
+
+		this.cacheInvalidationIndex.evict("HN_VN", HOURLY_CACHE_BY_CODE);
+
+		assertThat(hourlyCache.get(List.of("HN_VN", 23))).isNull();
+		assertThat(hourlyCache.get(List.of("DN_VN", 9))).isNotNull();
+	}
+
+	@Test
+	public void testEvictedKeysAreRemovedFromIndex() {
+		CacheManager cacheManager = createCacheManager();
+		Cache realtimeCache = cacheManager.getCache(REALTIME_CACHE_BY_CODE);
+
+		Location hanoi = createLocation("HN_VN", "Hanoi");
+		realtimeCache.put("HN_VN", createRealtimeWeather(hanoi));
+
+		assertThat(this.cacheInvalidationIndex.size()).isEqualTo(1);
+
+		realtimeCache.evict("HN_VN");
+
+		assertThat(this.cacheInvalidationIndex.size()).isZero();
+	}
+
+	@Test
+	public void testEvictRemovesSerializedResponsesOfLocation() {
+		CacheManager cacheManager = createCacheManager();
+		Cache responseCache = cacheManager.getCache(SerializedResponseCache.CACHE_NAME);
+
+		responseCache.put(List.of("realtime-by-code", "HN_VN"),
+				new SerializedResponse("HN_VN", new byte[] { '{', '}' }, "application/hal+json", "\"1\"", Instant.now()));
+		responseCache.put(List.of("realtime-by-code", "DN_VN"),
+				new SerializedResponse("DN_VN", new byte[] { '{', '}' }, "application/hal+json", "\"2\"", Instant.now()));
+
+		this.cacheInvalidationIndex.evict("HN_VN", SerializedResponseCache.CACHE_NAME);
+
+		assertThat(responseCache.get(List.of("realtime-by-code", "HN_VN"))).isNull();
+		assertThat(responseCache.get(List.of("realtime-by-code", "DN_VN"))).isNotNull();
+	}
+
+	@Test
+	public void testEvictAllRemovesEntriesOfEveryLocationInBatch() {
+		CacheManager cacheManager = createCacheManager();
+		Cache realtimeCache = cacheManager.getCache(REALTIME_CACHE_BY_CODE);
+		Cache hourlyCache = cacheManager.getCache(HOURLY_CACHE_BY_CODE);
+
+		Location hanoi = createLocation("HN_VN", "Hanoi");
+		Location danang = createLocation("DN_VN", "Da Nang");
+		Location hue = createLocation("HUE_VN", "Hue");
+
+		realtimeCache.put("HN_VN", createRealtimeWeather(hanoi));
+		realtimeCache.put("DN_VN", createRealtimeWeather(danang));
+		realtimeCache.put("HUE_VN", createRealtimeWeather(hue));
+		hourlyCache.put(List.of("HN_VN", 8), createHourlyWeathers(hanoi));
+		hourlyCache.put(List.of("HP_VN", 23), new ArrayList<HourlyWeather>());
+
+		this.cacheInvalidationIndex.evictAll(List.of("HN_VN", "DN_VN"), REALTIME_CACHE_BY_CODE, HOURLY_CACHE_BY_CODE);
+
+		assertThat(realtimeCache.get("HN_VN")).isNull();
+		assertThat(realtimeCache.get("DN_VN")).isNull();
+		assertThat(hourlyCache.get(List.of("HN_VN", 8))).isNull();
+		assertThat(hourlyCache.get(List.of("HP_VN", 23))).isNull();
+		assertThat(realtimeCache.get("HUE_VN")).isNotNull();
+	}
+
+	// evict theo location chen vào giữa lúc put (ghi cache gốc) ko để lại entry cũ ngoài chỉ mục
+	@Test
+	public void testEvictDuringPutDoesNotLeaveUnindexedEntry() {
+		Location hanoi = createLocation("HN_VN", "Hanoi");
+
+		Cache evictingBeforeWrite = new ConcurrentMapCache(REALTIME_CACHE_BY_CODE) {
+			@Override
+			public void put(Object key, Object value) {
+				cacheInvalidationIndex.evict("HN_VN", REALTIME_CACHE_BY_CODE);
+				super.put(key, value);
+			}
+		};
+		Cache evictingAfterWrite = new ConcurrentMapCache(HOURLY_CACHE_BY_CODE) {
+			@Override
+			public void put(Object key, Object value) {
+				super.put(key, value);
+				cacheInvalidationIndex.evict("HN_VN", HOURLY_CACHE_BY_CODE);
+			}
+		};
+
+		for (Cache delegate : List.of(evictingBeforeWrite, evictingAfterWrite)) {
+			LocationIndexedCache cache = new LocationIndexedCache(delegate, this.cacheInvalidationIndex,
+					new CacheLoadCoalescer());
+			this.cacheInvalidationIndex.registerCache(cache);
+
+			cache.put("HN_VN", createRealtimeWeather(hanoi));
+
+			assertThat(cache.get("HN_VN")).isNull();
+		}
+		assertThat(this.cacheInvalidationIndex.size()).isZero();
+	}
+
+	/*
+	 * put vào key có entry đã hết hạn mà Caffeine chưa dọn: evictionListener chạy
+	 * trong put() với value cũ, ko đc gỡ đăng ký của value mới (rồi xóa luôn value
+	 * vừa ghi)
+	 */
+	@Test
+	public void testPutOverExpiredEntryKeepsNewValue() {
+		AtomicLong nanos = new AtomicLong();
+		Ticker ticker = nanos::get;
+
+		CacheSpecProperties properties = new CacheSpecProperties();
+		properties.getDefaultSpec().setMaximumSize(100L);
+		properties.getDefaultSpec().setExpireAfterWrite(Duration.ofMillis(50));
+		CacheManager cacheManager = new LocationIndexedCaffeineCacheManager(properties, this.cacheInvalidationIndex,
+				new CacheLoadCoalescer(), new CacheRefresher(properties, this.cacheInvalidationIndex, List::of), null,
+				ticker);
+		Cache realtimeCache = cacheManager.getCache(REALTIME_CACHE_BY_CODE);
+		Cache responseCache = cacheManager.getCache(SerializedResponseCache.CACHE_NAME);
+
+		Location hanoi = createLocation("HN_VN", "Hanoi");
+		realtimeCache.put("HN_VN", createRealtimeWeather(hanoi));
+		responseCache.putIfAbsent(List.of("realtime-by-code", "HN_VN"),
+				new SerializedResponse("HN_VN", new byte[] { '{', '}' }, "application/hal+json", "\"1\"", Instant.now()));
+		nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+
+		RealtimeWeather latest = createRealtimeWeather(hanoi);
+		realtimeCache.put("HN_VN", latest);
+		SerializedResponse latestResponse = new SerializedResponse("HN_VN", new byte[] { '{', '}' },
+				"application/hal+json", "\"2\"", Instant.now());
+		assertThat(responseCache.putIfAbsent(List.of("realtime-by-code", "HN_VN"), latestResponse)).isNull();
+
+		assertThat(realtimeCache.get("HN_VN").get()).isSameAs(latest);
+		assertThat(responseCache.get(List.of("realtime-by-code", "HN_VN")).get()).isSameAs(latestResponse);
+		assertThat(this.cacheInvalidationIndex.size()).isEqualTo(2);
+
+		// entry hết hạn thật thì vẫn được gỡ khỏi chỉ mục
+		nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+		((com.github.benmanes.caffeine.cache.Cache<?, ?>) realtimeCache.getNativeCache()).cleanUp();
+		((com.github.benmanes.caffeine.cache.Cache<?, ?>) responseCache.getNativeCache()).cleanUp();
+
+		assertThat(this.cacheInvalidationIndex.size()).isZero();
+	}
+
+	// putIfAbsent thua entry đang có: chỉ mục trỏ lại entry đang có, entry đó hết hạn thì key đc gỡ
+	@Test
+	public void testRejectedPutIfAbsentKeepsExistingEntryIndexed() {
+		AtomicLong nanos = new AtomicLong();
+		Ticker ticker = nanos::get;
+
+		CacheSpecProperties properties = new CacheSpecProperties();
+		properties.getDefaultSpec().setMaximumSize(100L);
+		properties.getDefaultSpec().setExpireAfterWrite(Duration.ofMillis(50));
+		CacheManager cacheManager = new LocationIndexedCaffeineCacheManager(properties, this.cacheInvalidationIndex,
+				new CacheLoadCoalescer(), new CacheRefresher(properties, this.cacheInvalidationIndex, List::of), null,
+				ticker);
+		Cache realtimeCache = cacheManager.getCache(REALTIME_CACHE_BY_CODE);
+
+		Location hanoi = createLocation("HN_VN", "Hanoi");
+		RealtimeWeather existing = createRealtimeWeather(hanoi);
+		realtimeCache.put("HN_VN", existing);
+
+		assertThat(realtimeCache.putIfAbsent("HN_VN", createRealtimeWeather(hanoi)).get()).isSameAs(existing);
+		assertThat(this.cacheInvalidationIndex.isRegistered(REALTIME_CACHE_BY_CODE, "HN_VN")).isTrue();
+
+		nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+		((com.github.benmanes.caffeine.cache.Cache<?, ?>) realtimeCache.getNativeCache()).cleanUp();
+
+		assertThat(this.cacheInvalidationIndex.isRegistered(REALTIME_CACHE_BY_CODE, "HN_VN")).isFalse();
+		assertThat(this.cacheInvalidationIndex.size()).isZero();
+	}
+}
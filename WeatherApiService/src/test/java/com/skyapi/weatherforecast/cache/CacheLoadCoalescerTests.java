@@ -0,0 +1,132 @@
+package com.skyapi.weatherforecast.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class CacheLoadCoalescerTests {
+	private static final String REALTIME_CACHE_BY_CODE = "realtimeWeatherCacheByCode";
+	private static final int CONCURRENT_REQUESTS = 8;
+
+	private final CacheLoadCoalescer cacheLoadCoalescer = new CacheLoadCoalescer();
+	private final CacheInvalidationIndex cacheInvalidationIndex = new CacheInvalidationIndex();
+	private final ExecutorService executorService = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+
+	@AfterEach
+	public void tearDown() {
+		this.executorService.shutdownNow();
+	}
+
+	private Cache createCache() {
+		CacheSpecProperties properties = new CacheSpecProperties();
+		properties.getDefaultSpec().setMaximumSize(100L);
+		properties.getDefaultSpec().setExpireAfterWrite(Duration.ofHours(1));
+
+		CacheManager cacheManager = new CacheConfig().cacheManager(properties, this.cacheInvalidationIndex,
+				this.cacheLoadCoalescer, new CacheRefresher(properties, this.cacheInvalidationIndex, List::of), Optional.empty());
+		return cacheManager.getCache(REALTIME_CACHE_BY_CODE);
+	}
+
+	// gửi CONCURRENT_REQUESTS request cùng miss 1 key, loader giữ leader lại tới khi mọi request đã vào chờ
+	private List<Future<String>> missConcurrently(Cache cache, CountDownLatch releaseLoad, AtomicInteger loadCount,
+			RuntimeException loadFailure) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(CONCURRENT_REQUESTS);
+		List<Future<String>> results = new ArrayList<Future<String>>();
+
+		for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+			results.add(this.executorService.submit(() -> {
+				started.countDown();
+				return cache.get("HN_VN", () -> {
+					loadCount.incrementAndGet();
+					releaseLoad.await(5, TimeUnit.SECONDS);
+					if (loadFailure != null) {
+						throw loadFailure;
+					}
+					return "Hanoi";
+				});
+			}));
+		}
+
+		started.await(5, TimeUnit.SECONDS);
+		// chờ tới khi các request còn lại đã vào hàng chờ của leader
+		while (this.cacheLoadCoalescer.getCoalescedCount(REALTIME_CACHE_BY_CODE) < CONCURRENT_REQUESTS - 1) {
+			Thread.sleep(5);
+		}
+		releaseLoad.countDown();
+
+		return results;
+	}
+
+	@Test
+	public void testConcurrentMissesShareOneLoad() throws Exception {
+		Cache cache = createCache();
+		AtomicInteger loadCount = new AtomicInteger();
+
+		List<Future<String>> results = missConcurrently(cache, new CountDownLatch(1), loadCount, null);
+		for (Future<String> result : results) {
+			assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("Hanoi");
+		}
+
+		assertThat(loadCount.get()).isEqualTo(1);
+		assertThat(this.cacheLoadCoalescer.getLoadedCount(REALTIME_CACHE_BY_CODE)).isEqualTo(1);
+		assertThat(this.cacheLoadCoalescer.getCoalescedCount(REALTIME_CACHE_BY_CODE))
+				.isEqualTo(CONCURRENT_REQUESTS - 1);
+		assertThat(this.cacheLoadCoalescer.inFlightCount()).isZero();
+
+		// đã có trong cache: ko load, ko tính vào loaded/coalesced
+		assertThat(cache.get("HN_VN", () -> "other")).isEqualTo("Hanoi");
+		assertThat(this.cacheLoadCoalescer.getLoadedCount(REALTIME_CACHE_BY_CODE)).isEqualTo(1);
+	}
+
+	// lỗi của leader (vd: location ko tồn tại) trả về cho mọi request đang chờ và ko bị cache lại
+	@Test
+	public void testLoadFailureIsSharedButNotCached() throws Exception {
+		Cache cache = createCache();
+		AtomicInteger loadCount = new AtomicInteger();
+
+		List<Future<String>> results = missConcurrently(cache, new CountDownLatch(1), loadCount,
+				new LocationNotFoundException("HN_VN"));
+		for (Future<String> result : results) {
+			assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+					.hasRootCauseInstanceOf(LocationNotFoundException.class);
+		}
+		assertThat(loadCount.get()).isEqualTo(1);
+
+		assertThat(cache.get("HN_VN", () -> "Hanoi")).isEqualTo("Hanoi");
+		assertThat(this.cacheLoadCoalescer.getLoadedCount(REALTIME_CACHE_BY_CODE)).isEqualTo(2);
+	}
+
+	@Test
+	public void testMetricsAreBoundPerCache() {
+		Cache cache = createCache();
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		this.cacheLoadCoalescer.bindTo(registry);
+
+		cache.get("HN_VN", () -> "Hanoi");
+
+		assertThat(registry.get("cache.singleflight.loads").tag("cache", REALTIME_CACHE_BY_CODE)
+				.tag("result", "loaded").functionCounter().count()).isEqualTo(1);
+		assertThat(registry.get("cache.singleflight.loads").tag("cache", REALTIME_CACHE_BY_CODE)
+				.tag("result", "coalesced").functionCounter().count()).isZero();
+		assertThat(registry.get("cache.singleflight.inflight").gauge().value()).isZero();
+	}
+}
@@ -0,0 +1,184 @@
+package com.skyapi.weatherforecast.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.cache.CacheSpecProperties.CacheSpec;
+
+public class CacheRefresherTests {
+	private static final String REALTIME_CACHE_BY_CODE = "realtimeWeatherCacheByCode";
+
+	private final CacheInvalidationIndex cacheInvalidationIndex = new CacheInvalidationIndex();
+	private final CountDownLatch releaseReload = new CountDownLatch(1);
+	private final AtomicInteger reloadCount = new AtomicInteger();
+
+	private CacheRefresher cacheRefresher;
+
+	@AfterEach
+	public void tearDown() {
+		this.releaseReload.countDown();
+		this.cacheRefresher.shutdown();
+	}
+
+	// reloader giữ lượt đọc lại tới khi releaseReload để kiểm tra request ko phải chờ
+	private CacheManager createCacheManager(Supplier<Object> reloadedValue) {
+		CacheSpecProperties properties = new CacheSpecProperties();
+		properties.getDefaultSpec().setMaximumSize(100L);
+		properties.getDefaultSpec().setExpireAfterWrite(Duration.ofHours(1));
+
+		CacheSpec realtimeSpec = new CacheSpec();
+		realtimeSpec.setRefreshAfterWrite(Duration.ofMillis(200));
+		properties.getSpecs().put(REALTIME_CACHE_BY_CODE, realtimeSpec);
+
+		CacheReloader cacheReloader = new CacheReloader() {
+			@Override
+			public String getCacheName() {
+				return REALTIME_CACHE_BY_CODE;
+			}
+
+			@Override
+			public Object reload(Object key) {
+				CacheRefresherTests.this.reloadCount.incrementAndGet();
+				try {
+					CacheRefresherTests.this.releaseReload.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return reloadedValue.get();
+			}
+		};
+
+		this.cacheRefresher = new CacheRefresher(properties, this.cacheInvalidationIndex, () -> List.of(cacheReloader));
+		return new CacheConfig().cacheManager(properties, this.cacheInvalidationIndex, new CacheLoadCoalescer(),
+				this.cacheRefresher, Optional.empty());
+	}
+
+	private Object valueOf(Cache cache, String key) {
+		Cache.ValueWrapper valueWrapper = cache.get(key);
+		return valueWrapper == null ? null : valueWrapper.get();
+	}
+
+	private void awaitValue(Cache cache, String key, Object expectedValue) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline && !Objects.equals(valueOf(cache, key), expectedValue)) {
+			Thread.sleep(10);
+		}
+		assertThat(valueOf(cache, key)).isEqualTo(expectedValue);
+	}
+
+	@Test
+	public void testStaleEntryIsServedWhileReloading() throws InterruptedException {
+		Cache realtimeCache = createCacheManager(() -> "Hanoi 26C").getCache(REALTIME_CACHE_BY_CODE);
+
+		realtimeCache.put("HN_VN", "Hanoi 25C");
+		Thread.sleep(300);
+
+		// quá refreshAfterWrite: vẫn trả về value cũ ngay, lượt đọc lại chạy ngầm
+		assertThat(valueOf(realtimeCache, "HN_VN")).isEqualTo("Hanoi 25C");
+		assertThat(valueOf(realtimeCache, "HN_VN")).isEqualTo("Hanoi 25C");
+
+		this.releaseReload.countDown();
+		awaitValue(realtimeCache, "HN_VN", "Hanoi 26C");
+		assertThat(this.reloadCount.get()).isEqualTo(1);
+	}
+
+	@Test
+	public void testReloadOfMissingLocationRemovesEntry() throws InterruptedException {
+		Cache realtimeCache = createCacheManager(() -> null).getCache(REALTIME_CACHE_BY_CODE);
+
+		realtimeCache.put("HN_VN", "Hanoi 25C");
+		Thread.sleep(300);
+		valueOf(realtimeCache, "HN_VN");
+
+		this.releaseReload.countDown();
+		awaitValue(realtimeCache, "HN_VN", null);
+	}
+
+	// dữ liệu ghi trong lúc đang đọc lại ko bị kết quả refresh (cũ hơn) ghi đè
+	@Test
+	public void testWriteDuringReloadWins() throws InterruptedException {
+		Cache realtimeCache = createCacheManager(() -> "Hanoi 26C").getCache(REALTIME_CACHE_BY_CODE);
+
+		realtimeCache.put("HN_VN", "Hanoi 25C");
+		Thread.sleep(300);
+		valueOf(realtimeCache, "HN_VN");
+
+		realtimeCache.evict("HN_VN");
+		realtimeCache.put("HN_VN", "Hanoi 30C");
+		this.releaseReload.countDown();
+
+		Thread.sleep(100);
+		assertThat(valueOf(realtimeCache, "HN_VN")).isEqualTo("Hanoi 30C");
+	}
+
+	// value refresh ghi vào đc đăng ký vào chỉ mục, evict theo location xóa đc
+	@Test
+	public void testRefreshedValueIsIndexed() throws InterruptedException {
+		RealtimeWeather reloaded = RealtimeWeather.builder().locationCode("HN_VN").temperature(26).build();
+		Cache realtimeCache = createCacheManager(() -> reloaded).getCache(REALTIME_CACHE_BY_CODE);
+
+		realtimeCache.put("HN_VN", RealtimeWeather.builder().locationCode("HN_VN").temperature(25).build());
+		Thread.sleep(300);
+		valueOf(realtimeCache, "HN_VN");
+
+		this.releaseReload.countDown();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline && valueOf(realtimeCache, "HN_VN") != reloaded) {
+			Thread.sleep(10);
+		}
+		assertThat(valueOf(realtimeCache, "HN_VN")).isSameAs(reloaded);
+
+		this.cacheInvalidationIndex.evict("HN_VN", REALTIME_CACHE_BY_CODE);
+		assertThat(realtimeCache.get("HN_VN")).isNull();
+		assertThat(this.cacheInvalidationIndex.size()).isZero();
+	}
+
+	// evict theo location trong lúc đang đọc lại: kết quả refresh bị bỏ và ko đăng ký lại vào chỉ mục
+	@Test
+	public void testLocationEvictDuringReloadIsNotUndone() throws InterruptedException {
+		Cache realtimeCache = createCacheManager(
+				() -> RealtimeWeather.builder().locationCode("HN_VN").temperature(26).build())
+				.getCache(REALTIME_CACHE_BY_CODE);
+
+		realtimeCache.put("HN_VN", RealtimeWeather.builder().locationCode("HN_VN").temperature(25).build());
+		Thread.sleep(300);
+		valueOf(realtimeCache, "HN_VN");
+
+		this.cacheInvalidationIndex.evict("HN_VN", REALTIME_CACHE_BY_CODE);
+		this.releaseReload.countDown();
+
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline && this.reloadCount.get() == 0) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(100);
+		assertThat(realtimeCache.get("HN_VN")).isNull();
+		assertThat(this.cacheInvalidationIndex.isRegistered(REALTIME_CACHE_BY_CODE, "HN_VN")).isFalse();
+	}
+
+	@Test
+	public void testCacheWithoutRefreshSpecIsNotLoading() {
+		CacheManager cacheManager = createCacheManager(() -> "Hanoi 26C");
+
+		assertThat(cacheManager.getCache(REALTIME_CACHE_BY_CODE).getNativeCache()).isInstanceOf(LoadingCache.class);
+		assertThat(cacheManager.getCache("geolocationCache").getNativeCache()).isNotInstanceOf(LoadingCache.class);
+		// miss vẫn là miss, loader ko load
+		assertThat(cacheManager.getCache(REALTIME_CACHE_BY_CODE).get("DN_VN")).isNull();
+		assertThat(this.reloadCount.get()).isZero();
+	}
+}
@@ -0,0 +1,126 @@
+package com.skyapi.weatherforecast.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherView;
+
+// 2 node trong cùng JVM dùng chung bus và tầng chung trong bộ nhớ
+public class ClusteredCacheTests {
+	private static final String REALTIME_CACHE_BY_CODE = "realtimeWeatherCacheByCode";
+	private static final String LOCATION_CACHE_BY_CODE = "locationCacheByCode";
+
+	private final InProcessCacheInvalidationBus cacheInvalidationBus = new InProcessCacheInvalidationBus();
+	private final InMemorySharedCacheTier sharedCacheTier = new InMemorySharedCacheTier();
+
+	private final CacheInvalidationIndex indexOfNodeA = new CacheInvalidationIndex();
+	private final CacheInvalidationIndex indexOfNodeB = new CacheInvalidationIndex();
+	private final CacheManager nodeA = createCacheManager("node-a", this.indexOfNodeA);
+	private final CacheManager nodeB = createCacheManager("node-b", this.indexOfNodeB);
+
+	private CacheManager createCacheManager(String nodeId, CacheInvalidationIndex cacheInvalidationIndex) {
+		CacheSpecProperties properties = new CacheSpecProperties();
+		properties.getDefaultSpec().setMaximumSize(100L);
+		properties.getDefaultSpec().setExpireAfterWrite(Duration.ofHours(1));
+
+		CacheCluster cacheCluster = new CacheCluster(nodeId, this.cacheInvalidationBus, this.sharedCacheTier,
+				Set.of(REALTIME_CACHE_BY_CODE));
+
+		return new CacheConfig().cacheManager(properties, cacheInvalidationIndex, new CacheLoadCoalescer(),
+				new CacheRefresher(properties, cacheInvalidationIndex, List::of), Optional.of(cacheCluster));
+	}
+
+	private RealtimeWeatherView realtimeWeather(String locationCode, int temperature) {
+		return new RealtimeWeatherView(locationCode, "Hanoi", "Ha Noi", "Viet Nam", temperature, 80, 40, 12, "Cloudy",
+				new Date());
+	}
+
+	@SuppressWarnings("unchecked")
+	private Object localValueOf(CacheManager cacheManager, String cacheName, Object key) {
+		return ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) cacheManager.getCache(cacheName)
+				.getNativeCache()).getIfPresent(key);
+	}
+
+	@Test
+	public void testPutOnOneNodeEvictsLocalCopyOfOtherNode() {
+		Cache realtimeCacheOfA = this.nodeA.getCache(REALTIME_CACHE_BY_CODE);
+		Cache realtimeCacheOfB = this.nodeB.getCache(REALTIME_CACHE_BY_CODE);
+
+		realtimeCacheOfB.put("HN_VN", realtimeWeather("HN_VN", 25));
+		RealtimeWeatherView updated = realtimeWeather("HN_VN", 30);
+		realtimeCacheOfA.put("HN_VN", updated);
+
+		// B bỏ bản local cũ, lần đọc sau lấy bản mới từ tầng chung và giữ lại ở local
+		assertThat(localValueOf(this.nodeB, REALTIME_CACHE_BY_CODE, "HN_VN")).isNull();
+		assertThat(realtimeCacheOfB.get("HN_VN").get()).isEqualTo(updated);
+		assertThat(localValueOf(this.nodeB, REALTIME_CACHE_BY_CODE, "HN_VN")).isEqualTo(updated);
+	}
+
+	@Test
+	public void testSharedHitSkipsLoader() {
+		AtomicInteger loadCount = new AtomicInteger();
+		RealtimeWeatherView loaded = realtimeWeather("HN_VN", 25);
+
+		this.nodeA.getCache(REALTIME_CACHE_BY_CODE).get("HN_VN", () -> {
+			loadCount.incrementAndGet();
+			return loaded;
+		});
+		Object valueOfB = this.nodeB.getCache(REALTIME_CACHE_BY_CODE).get("HN_VN", () -> {
+			loadCount.incrementAndGet();
+			return realtimeWeather("HN_VN", 26);
+		});
+
+		assertThat(loadCount.get()).isEqualTo(1);
+		assertThat(valueOfB).isEqualTo(loaded);
+		// đọc do miss (putIfAbsent) ko phát xóa bản local của A
+		assertThat(localValueOf(this.nodeA, REALTIME_CACHE_BY_CODE, "HN_VN")).isNotNull();
+	}
+
+	@Test
+	public void testLocationEvictionReachesOtherNodeAndSharedTier() {
+		this.nodeA.getCache(REALTIME_CACHE_BY_CODE).get("HN_VN", () -> realtimeWeather("HN_VN", 25));
+		this.nodeB.getCache(REALTIME_CACHE_BY_CODE).get("HN_VN", () -> realtimeWeather("HN_VN", 25));
+		this.nodeB.getCache(REALTIME_CACHE_BY_CODE).get("DN_VN", () -> realtimeWeather("DN_VN", 30));
+		assertThat(this.sharedCacheTier.size()).isEqualTo(2);
+
+		this.indexOfNodeA.evict("HN_VN");
+
+		assertThat(localValueOf(this.nodeB, REALTIME_CACHE_BY_CODE, "HN_VN")).isNull();
+		assertThat(localValueOf(this.nodeB, REALTIME_CACHE_BY_CODE, "DN_VN")).isNotNull();
+		assertThat(this.sharedCacheTier.get(REALTIME_CACHE_BY_CODE, "HN_VN")).isNull();
+		assertThat(this.sharedCacheTier.size()).isEqualTo(1);
+		assertThat(this.indexOfNodeB.size()).isEqualTo(1);
+	}
+
+	// cache ko nằm trong sharedCaches: ko ghi tầng chung, chỉ phát xóa
+	@Test
+	public void testLocalOnlyCacheStillBroadcastsEviction() {
+		this.nodeA.getCache(LOCATION_CACHE_BY_CODE).put("HN_VN", "Hanoi");
+		this.nodeB.getCache(LOCATION_CACHE_BY_CODE).put("HN_VN", "Hanoi");
+		assertThat(this.sharedCacheTier.size()).isZero();
+
+		this.nodeA.getCache(LOCATION_CACHE_BY_CODE).evict("HN_VN");
+
+		assertThat(this.nodeB.getCache(LOCATION_CACHE_BY_CODE).get("HN_VN")).isNull();
+	}
+
+	@Test
+	public void testClearReachesOtherNode() {
+		this.nodeB.getCache(REALTIME_CACHE_BY_CODE).get("HN_VN", () -> realtimeWeather("HN_VN", 25));
+
+		this.nodeA.getCache(REALTIME_CACHE_BY_CODE).clear();
+
+		assertThat(localValueOf(this.nodeB, REALTIME_CACHE_BY_CODE, "HN_VN")).isNull();
+		assertThat(this.sharedCacheTier.size()).isZero();
+	}
+}
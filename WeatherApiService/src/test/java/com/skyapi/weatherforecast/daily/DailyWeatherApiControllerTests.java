@@ -19,6 +19,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -27,6 +28,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skyapi.weatherforecast.GeolocationException;
 import com.skyapi.weatherforecast.GeolocationService;
 import com.skyapi.weatherforecast.SecurityConfigForControllerTests;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.DailyWeatherId;
 import com.skyapi.weatherforecast.common.Location;
@@ -46,6 +48,9 @@ public class DailyWeatherApiControllerTests {
 	private GeolocationService geolocationService;
 	@MockBean
 	private DailyWeatherService dailyWeatherService;
+	// controller serialize response qua bean thật (ko có CacheManager nên ko cache)
+	@SpyBean
+	private SerializedResponseCache serializedResponseCache;
 	@Autowired
 	private ObjectMapper objectMapper;
 
@@ -80,7 +85,7 @@ public class DailyWeatherApiControllerTests {
 
 		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.anyString())).thenReturn(location);
 
-		List<DailyWeather> dailyWeathers = new ArrayList<DailyWeather>();
+		List<DailyWeatherView> dailyWeathers = new ArrayList<DailyWeatherView>();
 
 		Mockito.when(this.dailyWeatherService.getDailyWeatherByLocation(Mockito.any())).thenReturn(dailyWeathers);
 
@@ -92,13 +97,11 @@ public class DailyWeatherApiControllerTests {
 		Location location = Location.builder().code("HCM_VN").cityName("Ho Chi Minh City").regionName("Ho Chi Minh")
 				.countryName("Viet Nam").countryCode("VN").build();
 
-		DailyWeather dailyWeather01 = DailyWeather.builder().id(new DailyWeatherId(2, 6, location)).maxTemp(30)
-				.minTemp(20).precipitation(25).status("Sunny").build();
-		DailyWeather dailyWeather02 = DailyWeather.builder().id(new DailyWeatherId(4, 7, location)).maxTemp(40)
-				.minTemp(30).precipitation(35).status("Rainy").build();
-		List<DailyWeather> dailyWeathers = List.of(dailyWeather01, dailyWeather02);
-
-		location.setListDailyWeathers(dailyWeathers);
+		DailyWeatherView dailyWeather01 = new DailyWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), 2, 6, 20, 30, 25, "Sunny");
+		DailyWeatherView dailyWeather02 = new DailyWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), 4, 7, 30, 40, 35, "Rainy");
+		List<DailyWeatherView> dailyWeathers = List.of(dailyWeather01, dailyWeather02);
 
 		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.anyString())).thenReturn(location);
 		Mockito.when(this.dailyWeatherService.getDailyWeatherByLocation(Mockito.any())).thenReturn(dailyWeathers);
@@ -136,7 +139,7 @@ public class DailyWeatherApiControllerTests {
 		String locationCode = "HCM_VN";
 		String requestURI = END_POINT_PATH + "/" + locationCode;
 
-		List<DailyWeather> dailyWeathers = new ArrayList<DailyWeather>();
+		List<DailyWeatherView> dailyWeathers = new ArrayList<DailyWeatherView>();
 
 		Mockito.when(this.dailyWeatherService.getDailyWeatherByLocationCode(locationCode)).thenReturn(dailyWeathers);
 
@@ -151,13 +154,11 @@ public class DailyWeatherApiControllerTests {
 		Location location = Location.builder().code(locationCode).cityName("Ho Chi Minh City").regionName("Ho Chi Minh")
 				.countryName("Viet Nam").countryCode("VN").build();
 
-		DailyWeather dailyWeather01 = DailyWeather.builder().id(new DailyWeatherId(2, 6, location)).maxTemp(30)
-				.minTemp(20).precipitation(25).status("Sunny").build();
-		DailyWeather dailyWeather02 = DailyWeather.builder().id(new DailyWeatherId(4, 7, location)).maxTemp(40)
-				.minTemp(30).precipitation(35).status("Rainy").build();
-		List<DailyWeather> dailyWeathers = List.of(dailyWeather01, dailyWeather02);
-
-		location.setListDailyWeathers(dailyWeathers);
+		DailyWeatherView dailyWeather01 = new DailyWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), 2, 6, 20, 30, 25, "Sunny");
+		DailyWeatherView dailyWeather02 = new DailyWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), 4, 7, 30, 40, 35, "Rainy");
+		List<DailyWeatherView> dailyWeathers = List.of(dailyWeather01, dailyWeather02);
 
 		Mockito.when(this.dailyWeatherService.getDailyWeatherByLocationCode(locationCode)).thenReturn(dailyWeathers);
 
@@ -0,0 +1,68 @@
+package com.skyapi.weatherforecast.daily;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.DailyWeatherId;
+import com.skyapi.weatherforecast.merge.MergeResult;
+
+// chạy SQL thật trên H2 chế độ MySQL, month là từ khóa của H2 nên phải tắt
+public class DailyWeatherMergerTests {
+	private JdbcTemplate jdbcTemplate;
+	private DailyWeatherMerger dailyWeatherMerger;
+
+	@BeforeEach
+	public void setUp() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL(
+				"jdbc:h2:mem:daily_merger;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1");
+
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.jdbcTemplate.execute("CREATE TABLE daily_weather (location_code VARCHAR(12) NOT NULL, "
+				+ "day_of_month INT NOT NULL, month INT NOT NULL, min_temp INT NOT NULL, max_temp INT NOT NULL, "
+				+ "precipitation INT NOT NULL, status VARCHAR(50), PRIMARY KEY (location_code, day_of_month, month))");
+		this.jdbcTemplate.execute("CREATE TABLE locations (code VARCHAR(12) NOT NULL PRIMARY KEY)");
+
+		this.dailyWeatherMerger = new DailyWeatherMerger(new NamedParameterJdbcTemplate(this.jdbcTemplate));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.jdbcTemplate.execute("DROP TABLE daily_weather");
+		this.jdbcTemplate.execute("DROP TABLE locations");
+	}
+
+	private DailyWeather createDailyWeather(int dayOfMonth, int month, int maxTemp) {
+		return DailyWeather.builder().id(new DailyWeatherId(dayOfMonth, month, null)).minTemp(20).maxTemp(maxTemp)
+				.precipitation(60).status("Cloudy").build();
+	}
+
+	@Test
+	public void testMergeByDayOfMonthAndMonth() {
+		this.dailyWeatherMerger.merge(Map.of("HN_VN", List.of(createDailyWeather(16, 7, 30),
+				createDailyWeather(17, 7, 31), createDailyWeather(16, 8, 32))));
+
+		// 16/7 giữ nguyên, 17/7 đổi maxTemp, 16/8 bị bỏ, 18/7 thêm mới
+		MergeResult mergeResult = this.dailyWeatherMerger.merge(Map.of("HN_VN", List.of(createDailyWeather(16, 7, 30),
+				createDailyWeather(17, 7, 35), createDailyWeather(18, 7, 29))));
+
+		assertThat(mergeResult.getInserted()).isEqualTo(1);
+		assertThat(mergeResult.getUpdated()).isEqualTo(1);
+		assertThat(mergeResult.getDeleted()).isEqualTo(1);
+		assertThat(mergeResult.getUnchanged()).isEqualTo(1);
+
+		assertThat(this.jdbcTemplate.queryForList(
+				"SELECT max_temp FROM daily_weather WHERE location_code = 'HN_VN' ORDER BY month, day_of_month",
+				Integer.class)).containsExactly(30, 35, 29);
+	}
+}
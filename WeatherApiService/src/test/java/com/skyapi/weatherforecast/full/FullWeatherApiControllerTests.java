@@ -27,6 +27,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skyapi.weatherforecast.GeolocationException;
 import com.skyapi.weatherforecast.GeolocationService;
 import com.skyapi.weatherforecast.SecurityConfigForControllerTests;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.DailyWeather;
 import com.skyapi.weatherforecast.common.DailyWeatherId;
 import com.skyapi.weatherforecast.common.HourlyWeather;
@@ -64,6 +65,9 @@ public class FullWeatherApiControllerTests {
 	 */
 	@SpyBean
 	private FullWeatherModelAssembler fullWeatherModelAssembler;
+	// controller serialize response qua bean thật (ko có CacheManager nên ko cache)
+	@SpyBean
+	private SerializedResponseCache serializedResponseCache;
 
 	@Test
 	public void testGetFullWeatherByIpShouldReturn400BadRequest() throws Exception {
@@ -83,7 +87,7 @@ public class FullWeatherApiControllerTests {
 
 		LocationNotFoundException locationNotFoundException = new LocationNotFoundException(location.getCode());
 
-		Mockito.when(this.fullWeatherService.getLocationByIpAddress(location)).thenThrow(locationNotFoundException);
+		Mockito.when(this.fullWeatherService.getFullWeatherByIpAddress(location)).thenThrow(locationNotFoundException);
 
 		mockMvc.perform(get(END_POINT_PATH)).andExpect(status().isNotFound())
 				.andExpect(jsonPath("$.errors[0]", is(locationNotFoundException.getMessage()))).andDo(print());
@@ -129,7 +133,7 @@ public class FullWeatherApiControllerTests {
 		location.setListHourlyWeather(List.of(hourlyForecast1, hourlyForecast2));
 
 		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.anyString())).thenReturn(location);
-		Mockito.when(this.fullWeatherService.getLocationByIpAddress(location)).thenReturn(location);
+		Mockito.when(this.fullWeatherService.getFullWeatherByIpAddress(location)).thenReturn(location);
 
 		String expectedLocation = location.toString();
 
@@ -145,7 +149,7 @@ public class FullWeatherApiControllerTests {
 
 		LocationNotFoundException locationNotFoundException = new LocationNotFoundException(locationCode);
 
-		Mockito.when(this.fullWeatherService.getLocationByCode(locationCode)).thenThrow(locationNotFoundException);
+		Mockito.when(this.fullWeatherService.getFullWeatherByCode(locationCode)).thenThrow(locationNotFoundException);
 
 		mockMvc.perform(get(requestURI)).andExpect(status().isNotFound())
 				.andExpect(jsonPath("$.errors[0]", is(locationNotFoundException.getMessage()))).andDo(print());
@@ -193,7 +197,7 @@ public class FullWeatherApiControllerTests {
 
 		location.setListHourlyWeather(List.of(hourlyForecast1, hourlyForecast2));
 
-		Mockito.when(this.fullWeatherService.getLocationByCode(locationCode)).thenReturn(location);
+		Mockito.when(this.fullWeatherService.getFullWeatherByCode(locationCode)).thenReturn(location);
 
 		String expectedLocation = location.toString();
 
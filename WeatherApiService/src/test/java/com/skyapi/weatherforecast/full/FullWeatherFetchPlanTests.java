@@ -0,0 +1,257 @@
+package com.skyapi.weatherforecast.full;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+import com.skyapi.weatherforecast.common.DailyWeather;
+import com.skyapi.weatherforecast.common.DailyWeatherId;
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationNotFoundException;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherRepository;
+import com.skyapi.weatherforecast.realtime.RealtimeWeatherWriteBehind;
+import com.skyapi.weatherforecast.realtime.RealtimeWriteBehindProperties;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * đếm số câu SQL của 1 request API full (nạp location + map sang DTO), chạy
+ * trên H2 (chế độ MySQL) với thống kê của Hibernate
+ */
+public class FullWeatherFetchPlanTests {
+	private static EntityManagerFactory entityManagerFactory;
+	private static Statistics statistics;
+
+	private EntityManager entityManager;
+	private FullWeatherRepository fullWeatherRepository;
+	private FullWeatherService fullWeatherService;
+
+	@BeforeAll
+	public static void createEntityManagerFactory() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:full;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1");
+
+		LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setPackagesToScan("com.skyapi.weatherforecast.common");
+		factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factoryBean.setJpaPropertyMap(
+				Map.of("hibernate.hbm2ddl.auto", "create-drop", "hibernate.generate_statistics", "true"));
+		factoryBean.afterPropertiesSet();
+
+		entityManagerFactory = factoryBean.getObject();
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	@AfterAll
+	public static void closeEntityManagerFactory() {
+		entityManagerFactory.close();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		this.entityManager = entityManagerFactory.createEntityManager();
+
+		Location location = Location.builder().code("HN_VN").cityName("Hanoi").regionName("Ha Noi")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(25);
+		realtimeWeather.setHumidity(80);
+		realtimeWeather.setPrecipitation(40);
+		realtimeWeather.setWindSpeed(12);
+		realtimeWeather.setStatus("Cloudy");
+		realtimeWeather.setLastUpdated(new Date());
+		realtimeWeather.setLocation(location);
+		location.setRealtimeWeather(realtimeWeather);
+
+		for (int hour = 23; hour >= 0; hour--) {
+			HourlyWeather hourlyWeather = HourlyWeather.builder().temperature(20 + hour % 5).precipitation(hour)
+					.status("Sunny").build();
+			hourlyWeather.getId().setHourOfDay(hour);
+			hourlyWeather.getId().setLocation(location);
+			location.getListHourlyWeather().add(hourlyWeather);
+		}
+
+		for (int day = 1; day <= 7; day++) {
+			location.getListDailyWeathers().add(DailyWeather.builder().id(new DailyWeatherId(day, 7, location))
+					.minTemp(22).maxTemp(30).precipitation(60).status("Cloudy").build());
+		}
+
+		this.entityManager.getTransaction().begin();
+		this.entityManager.persist(location);
+		this.entityManager.getTransaction().commit();
+		this.entityManager.clear();
+
+		this.fullWeatherRepository = new JpaRepositoryFactory(this.entityManager)
+				.getRepository(FullWeatherRepository.class);
+		this.fullWeatherService = new FullWeatherService(null, null, null, this.fullWeatherRepository, null,
+				Optional.empty());
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.entityManager.getTransaction().begin();
+		this.entityManager.createQuery("DELETE FROM HourlyWeather").executeUpdate();
+		this.entityManager.createQuery("DELETE FROM DailyWeather").executeUpdate();
+		this.entityManager.createQuery("DELETE FROM RealtimeWeather").executeUpdate();
+		this.entityManager.createQuery("DELETE FROM Location").executeUpdate();
+		this.entityManager.getTransaction().commit();
+		this.entityManager.close();
+	}
+
+	// giống 1 request: transaction mới, persistence context rỗng, map xong mới đếm
+	private long countStatements(Supplier<Location> loader) {
+		this.entityManager.clear();
+		statistics.clear();
+
+		this.entityManager.getTransaction().begin();
+		FullWeatherDTO fullWeatherDTO = FullWeatherMapper.toDTO(loader.get());
+		this.entityManager.getTransaction().commit();
+
+		assertThat(fullWeatherDTO.getRealtimeWeather().getTemperature()).isEqualTo(25);
+		assertThat(fullWeatherDTO.getListHourlyWeather()).hasSize(24);
+		assertThat(fullWeatherDTO.getListDailyWeathers()).hasSize(7);
+
+		return statistics.getPrepareStatementCount();
+	}
+
+	@Test
+	public void testFullWeatherIsLoadedWithTwoStatements() {
+		assertThat(countStatements(() -> this.fullWeatherService.getFullWeatherByCode("HN_VN"))).isEqualTo(2);
+	}
+
+	@Test
+	public void testHourlyWeatherIsOrderedByHour() {
+		this.entityManager.getTransaction().begin();
+		Location location = this.fullWeatherService.getFullWeatherByCode("HN_VN");
+		this.entityManager.getTransaction().commit();
+
+		assertThat(location.getListHourlyWeather()).extracting(hourlyWeather -> hourlyWeather.getId().getHourOfDay())
+				.isSorted();
+	}
+
+	// cách cũ: findByCode rồi để mapper nạp từng quan hệ
+	@Test
+	public void testLazyLoadingUsedMoreStatements() {
+		long statementCount = countStatements(() -> this.entityManager
+				.createQuery("SELECT l FROM Location l WHERE l.trashed = false AND l.code = ?1", Location.class)
+				.setParameter(1, "HN_VN").getSingleResult());
+
+		assertThat(statementCount).isGreaterThan(2);
+	}
+
+	@Test
+	public void testUnknownLocationCodeThrowsException() {
+		this.entityManager.getTransaction().begin();
+		try {
+			assertThatThrownBy(() -> this.fullWeatherService.getFullWeatherByCode("ABC_XYZ"))
+					.isInstanceOf(LocationNotFoundException.class);
+		} finally {
+			this.entityManager.getTransaction().rollback();
+		}
+	}
+
+	/*
+	 * PUT realtime đã vào write-behind nhưng chưa flush: GET full phải trả bản
+	 * đang chờ (response đc cache tới hết TTL) và ko ghi gì xuống DB
+	 */
+	@Test
+	public void testFullWeatherReadsPendingWriteBehindUpdate() {
+		JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+		RealtimeWeatherWriteBehind writeBehind = new RealtimeWeatherWriteBehind(jdbcTemplate,
+				new JpaRepositoryFactory(this.entityManager).getRepository(RealtimeWeatherRepository.class),
+				new ConcurrentMapCacheManager(), mock(CacheInvalidationIndex.class),
+				new RealtimeWriteBehindProperties());
+		FullWeatherService writeBehindService = new FullWeatherService(null, null, null, this.fullWeatherRepository,
+				null, Optional.of(writeBehind));
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(30);
+		realtimeWeather.setHumidity(60);
+		realtimeWeather.setPrecipitation(20);
+		realtimeWeather.setWindSpeed(5);
+		realtimeWeather.setStatus("Sunny");
+		writeBehind.update("HN_VN", realtimeWeather);
+
+		// giống @Transactional(readOnly = true): Spring đặt FlushMode.MANUAL cho session
+		this.entityManager.clear();
+		this.entityManager.unwrap(Session.class).setHibernateFlushMode(FlushMode.MANUAL);
+		this.entityManager.getTransaction().begin();
+		FullWeatherDTO fullWeatherDTO = FullWeatherMapper.toDTO(writeBehindService.getFullWeatherByCode("HN_VN"));
+		this.entityManager.getTransaction().commit();
+		this.entityManager.unwrap(Session.class).setHibernateFlushMode(FlushMode.AUTO);
+
+		assertThat(fullWeatherDTO.getRealtimeWeather().getTemperature()).isEqualTo(30);
+		assertThat(fullWeatherDTO.getRealtimeWeather().getStatus()).isEqualTo("Sunny");
+		assertThat(fullWeatherDTO.getListHourlyWeather()).hasSize(24);
+		verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+		this.entityManager.clear();
+		assertThat(this.entityManager.find(RealtimeWeather.class, "HN_VN").getTemperature()).isEqualTo(25);
+	}
+
+	/*
+	 * PUT realtime còn chờ ghi, sau đó PUT full ghi đồng bộ (mới hơn): GET full
+	 * phải trả dữ liệu của PUT full chứ ko phải bản đang chờ
+	 */
+	@Test
+	public void testNewerStoredRealtimeWeatherWinsOverPendingWriteBehindUpdate() {
+		RealtimeWeatherWriteBehind writeBehind = new RealtimeWeatherWriteBehind(mock(JdbcTemplate.class),
+				new JpaRepositoryFactory(this.entityManager).getRepository(RealtimeWeatherRepository.class),
+				new ConcurrentMapCacheManager(), mock(CacheInvalidationIndex.class),
+				new RealtimeWriteBehindProperties());
+		FullWeatherService writeBehindService = new FullWeatherService(null, null, null, this.fullWeatherRepository,
+				null, Optional.of(writeBehind));
+
+		RealtimeWeather buffered = new RealtimeWeather();
+		buffered.setTemperature(30);
+		buffered.setStatus("Sunny");
+		writeBehind.update("HN_VN", buffered);
+		Date bufferedAt = writeBehind.findPending("HN_VN").lastUpdated();
+
+		// dòng PUT full vừa commit
+		this.entityManager.getTransaction().begin();
+		this.entityManager.createQuery(
+				"UPDATE RealtimeWeather SET temperature = 31, status = 'Clear', lastUpdated = :lastUpdated")
+				.setParameter("lastUpdated", new Date(bufferedAt.getTime() + 1)).executeUpdate();
+		this.entityManager.getTransaction().commit();
+
+		this.entityManager.clear();
+		this.entityManager.getTransaction().begin();
+		FullWeatherDTO fullWeatherDTO = FullWeatherMapper.toDTO(writeBehindService.getFullWeatherByCode("HN_VN"));
+		this.entityManager.getTransaction().commit();
+
+		assertThat(fullWeatherDTO.getRealtimeWeather().getTemperature()).isEqualTo(31);
+		assertThat(fullWeatherDTO.getRealtimeWeather().getStatus()).isEqualTo("Clear");
+	}
+}
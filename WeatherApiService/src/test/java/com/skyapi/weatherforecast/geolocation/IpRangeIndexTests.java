@@ -0,0 +1,200 @@
+package com.skyapi.weatherforecast.geolocation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.skyapi.weatherforecast.common.Location;
+
+public class IpRangeIndexTests {
+	private IpRangeIndex ipRangeIndex;
+
+	@TempDir
+	private Path tempDir;
+
+	/*
+	 * tạo file BIN nhỏ theo đúng cấu trúc DB3 (4 cột: ip_from, country, region,
+	 * city) để ko phụ thuộc file thật
+	 */
+	private byte[] createDatabase() {
+		ByteBuffer buffer = ByteBuffer.allocate(512).order(ByteOrder.LITTLE_ENDIAN);
+
+		int ipv4Rows = 4;
+		int ipv6Rows = 2;
+		int ipv4Offset = 64;
+		int ipv6Offset = ipv4Offset + ipv4Rows * 16;
+		int stringOffset = ipv6Offset + ipv6Rows * 28;
+
+		buffer.put(0, (byte) 3).put(1, (byte) 4).put(2, (byte) 24).put(3, (byte) 10).put(4, (byte) 1);
+		buffer.putInt(5, ipv4Rows).putInt(9, ipv4Offset + 1);
+		buffer.putInt(13, ipv6Rows).putInt(17, ipv6Offset + 1);
+		buffer.put(29, (byte) 1);
+
+		buffer.position(stringOffset);
+		int unknownCountry = putCountry(buffer, "-", "-");
+		int unknown = putString(buffer, "-");
+		int vietnam = putCountry(buffer, "VN", "Viet Nam");
+		int hanoi = putString(buffer, "Ha Noi");
+		int unitedStates = putCountry(buffer, "US", "United States of America");
+		int california = putString(buffer, "California");
+		int losAngeles = putString(buffer, "Los Angeles");
+
+		putIpv4Row(buffer, ipv4Offset, 0L, unknownCountry, unknown, unknown);
+		putIpv4Row(buffer, ipv4Offset + 16, 0x01000000L, vietnam, hanoi, hanoi);
+		putIpv4Row(buffer, ipv4Offset + 32, 0x01000100L, vietnam, hanoi, hanoi);
+		putIpv4Row(buffer, ipv4Offset + 48, 0x02000000L, unitedStates, california, losAngeles);
+
+		putIpv6Row(buffer, ipv6Offset, 0L, 0L, unknownCountry, unknown, unknown);
+		putIpv6Row(buffer, ipv6Offset + 28, 0x2400000000000000L, 0L, vietnam, hanoi, hanoi);
+
+		return buffer.array();
+	}
+
+	private int putString(ByteBuffer buffer, String value) {
+		int pointer = buffer.position();
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		buffer.put((byte) bytes.length).put(bytes);
+
+		return pointer;
+	}
+
+	// country long name nằm sau country short name 3 byte
+	private int putCountry(ByteBuffer buffer, String countryCode, String countryName) {
+		int pointer = buffer.position();
+		putString(buffer, countryCode);
+		buffer.position(pointer + 3);
+		putString(buffer, countryName);
+
+		return pointer;
+	}
+
+	private void putIpv4Row(ByteBuffer buffer, int offset, long ipFrom, int country, int region, int city) {
+		buffer.putInt(offset, (int) ipFrom).putInt(offset + 4, country).putInt(offset + 8, region)
+				.putInt(offset + 12, city);
+	}
+
+	private void putIpv6Row(ByteBuffer buffer, int offset, long high, long low, int country, int region, int city) {
+		buffer.putLong(offset, low).putLong(offset + 8, high).putInt(offset + 16, country)
+				.putInt(offset + 20, region).putInt(offset + 24, city);
+	}
+
+	@BeforeEach
+	public void loadIndex() throws IOException {
+		this.ipRangeIndex = IpRangeIndexLoader.load(createDatabase());
+	}
+
+	@Test
+	public void testLookupIpv4() {
+		GeolocationRecord geolocationRecord = this.ipRangeIndex.lookup("1.0.0.5");
+
+		assertThat(geolocationRecord.countryCode()).isEqualTo("VN");
+		assertThat(geolocationRecord.countryName()).isEqualTo("Viet Nam");
+		assertThat(geolocationRecord.cityName()).isEqualTo("Ha Noi");
+
+		assertThat(this.ipRangeIndex.lookup("255.255.255.255").cityName()).isEqualTo("Los Angeles");
+		assertThat(this.ipRangeIndex.lookup("0.0.0.1").countryCode()).isEqualTo("-");
+		assertThat(this.ipRangeIndex.getVersion()).isEqualTo("2024.10.1");
+	}
+
+	@Test
+	public void testAdjacentRangesOfSameLocationAreMergedAndInterned() {
+		assertThat(this.ipRangeIndex.getIpv4RangeCount()).isEqualTo(3);
+		assertThat(this.ipRangeIndex.getRecordCount()).isEqualTo(3);
+
+		assertThat(this.ipRangeIndex.lookup("1.0.1.200")).isSameAs(this.ipRangeIndex.lookup("1.0.0.5"));
+	}
+
+	@Test
+	public void testLookupIpv6AndIpv4MappedAddress() {
+		assertThat(this.ipRangeIndex.lookup("2400:cb00::1").cityName()).isEqualTo("Ha Noi");
+		assertThat(this.ipRangeIndex.lookup("::1").countryCode()).isEqualTo("-");
+
+		assertThat(this.ipRangeIndex.lookup("::ffff:2.1.1.1").cityName()).isEqualTo("Los Angeles");
+		assertThat(this.ipRangeIndex.lookup("::ffff:0100:0005").cityName()).isEqualTo("Ha Noi");
+	}
+
+	@Test
+	public void testLookupInvalidIpReturnsNull() {
+		assertThat(this.ipRangeIndex.lookup("abc")).isNull();
+		assertThat(this.ipRangeIndex.lookup("1.2.3")).isNull();
+		assertThat(this.ipRangeIndex.lookup("256.1.1.1")).isNull();
+		assertThat(this.ipRangeIndex.lookup("1.2.3.4.5")).isNull();
+		assertThat(this.ipRangeIndex.lookup("1:::2")).isNull();
+		assertThat(this.ipRangeIndex.lookup("")).isNull();
+	}
+
+	@Test
+	public void testParseIpv6() {
+		assertThat(IpAddressParser.isValidIpv6("2001:db8::8a2e:370:7334")).isTrue();
+		assertThat(IpAddressParser.parseIpv6High("2001:db8::8a2e:370:7334")).isEqualTo(0x20010DB800000000L);
+		assertThat(IpAddressParser.parseIpv6Low("2001:db8::8a2e:370:7334")).isEqualTo(0x00008A2E03707334L);
+
+		assertThat(IpAddressParser.isValidIpv6("::ffff:192.168.1.1")).isTrue();
+		assertThat(IpAddressParser.parseIpv6High("::ffff:192.168.1.1")).isZero();
+		assertThat(IpAddressParser.parseIpv6Low("::ffff:192.168.1.1")).isEqualTo(0x0000FFFFC0A80101L);
+
+		assertThat(IpAddressParser.isValidIpv6("1:2:3:4:5:6:7:8")).isTrue();
+		assertThat(IpAddressParser.parseIpv6Low("1:2:3:4:5:6:7:8")).isEqualTo(0x0005000600070008L);
+		assertThat(IpAddressParser.isValidIpv6("1:2:3:4:5:6:7")).isFalse();
+		assertThat(IpAddressParser.isValidIpv6("1:2:3:4::5:6:7:8")).isFalse();
+	}
+
+	// mỗi lần lấy Location là 1 bản mới, sửa bản này ko ảnh hưởng record dùng chung
+	@Test
+	public void testToLocationReturnsDetachedCopy() {
+		GeolocationRecord geolocationRecord = this.ipRangeIndex.lookup("1.0.0.5");
+		Location location = geolocationRecord.toLocation();
+
+		assertThat(location).isNotSameAs(this.ipRangeIndex.lookup("1.0.1.200").toLocation());
+		assertThat(location.getCountryCode()).isEqualTo("VN");
+		assertThat(location.getCityName()).isEqualTo("Ha Noi");
+		assertThat(location.getCode()).isNull();
+
+		location.setCityName("Hanoi");
+		location.setCode("HN_VN");
+		assertThat(geolocationRecord.toLocation().getCityName()).isEqualTo("Ha Noi");
+		assertThat(this.ipRangeIndex.lookup("1.0.0.5").cityName()).isEqualTo("Ha Noi");
+	}
+
+	/*
+	 * load(Path) ghi bảng dải ra file .ranges cạnh file BIN, lần nạp sau (instance
+	 * khác trên cùng máy) map lại file đó chứ ko dựng lại, file BIN đổi thì dựng
+	 * lại
+	 */
+	@Test
+	public void testRangeFileIsWrittenOnceAndReused() throws IOException {
+		Path databaseFile = this.tempDir.resolve("IP2LOCATION-LITE-DB3.BIN");
+		Files.write(databaseFile, createDatabase());
+		Path rangeFile = this.tempDir.resolve("IP2LOCATION-LITE-DB3.BIN" + IpRangeIndexLoader.RANGE_FILE_SUFFIX);
+
+		IpRangeIndex firstIndex = IpRangeIndexLoader.load(databaseFile);
+		assertThat(rangeFile).exists();
+		assertThat(firstIndex.lookup("1.0.0.5").cityName()).isEqualTo("Ha Noi");
+		assertThat(firstIndex.getIpv4RangeCount()).isEqualTo(3);
+
+		Object rangeFileKey = Files.readAttributes(rangeFile, "fileKey").get("fileKey");
+
+		IpRangeIndex reusedIndex = IpRangeIndexLoader.load(databaseFile);
+		assertThat(Files.readAttributes(rangeFile, "fileKey").get("fileKey")).isEqualTo(rangeFileKey);
+		assertThat(reusedIndex.lookup("2.1.1.1").cityName()).isEqualTo("Los Angeles");
+		assertThat(reusedIndex.lookup("2400:cb00::1").countryName()).isEqualTo("Viet Nam");
+		assertThat(reusedIndex.lookup("1.0.1.200")).isSameAs(reusedIndex.lookup("1.0.0.5"));
+		assertThat(reusedIndex.getRecordCount()).isEqualTo(3);
+
+		// bản BIN mới
+		long lastModified = Files.getLastModifiedTime(databaseFile).toMillis();
+		Files.setLastModifiedTime(databaseFile, FileTime.fromMillis(lastModified + 60_000));
+		IpRangeIndexLoader.load(databaseFile);
+		assertThat(Files.readAttributes(rangeFile, "fileKey").get("fileKey")).isNotEqualTo(rangeFileKey);
+	}
+}
@@ -19,6 +19,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
@@ -28,6 +29,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skyapi.weatherforecast.GeolocationException;
 import com.skyapi.weatherforecast.GeolocationService;
 import com.skyapi.weatherforecast.SecurityConfigForControllerTests;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.HourlyWeather;
 import com.skyapi.weatherforecast.common.HourlyWeatherId;
 import com.skyapi.weatherforecast.common.Location;
@@ -47,6 +49,9 @@ public class HourlyWeatherApiControllerTests {
 	private GeolocationService geolocationService;
 	@MockBean
 	private HourlyWeatherService hourlyWeatherService;
+	// controller serialize response qua bean thật (ko có CacheManager nên ko cache)
+	@SpyBean
+	private SerializedResponseCache serializedResponseCache;
 	@Autowired
 	private ObjectMapper objectMapper;
 
@@ -73,7 +78,7 @@ public class HourlyWeatherApiControllerTests {
 		int currentHour = 10;
 		Location location = Location.builder().code("HCM_VN").build();
 
-		List<HourlyWeather> hourlyWeathers = new ArrayList<HourlyWeather>();
+		List<HourlyWeatherView> hourlyWeathers = new ArrayList<HourlyWeatherView>();
 
 		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.anyString())).thenReturn(location);
 		Mockito.when(this.hourlyWeatherService.getListHourlyWeather(location, currentHour)).thenReturn(hourlyWeathers);
@@ -92,14 +97,12 @@ public class HourlyWeatherApiControllerTests {
 		location.setCountryName("Vietnam");
 		location.setCountryCode("VN");
 
-		HourlyWeather hourlyWeather1 = HourlyWeather.builder().id(new HourlyWeatherId(5, location)).temperature(20)
-				.precipitation(20).status("Snowy").build();
-		HourlyWeather hourlyWeather2 = HourlyWeather.builder().id(new HourlyWeatherId(6, location)).temperature(30)
-				.precipitation(30).status("Rainy").build();
+		HourlyWeatherView hourlyWeather1 = new HourlyWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), 5, 20, 20, "Snowy");
+		HourlyWeatherView hourlyWeather2 = new HourlyWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), 6, 30, 30, "Rainy");
 
-		List<HourlyWeather> hourlyWeathers = location.getListHourlyWeather();
-		hourlyWeathers.add(hourlyWeather1);
-		hourlyWeathers.add(hourlyWeather2);
+		List<HourlyWeatherView> hourlyWeathers = List.of(hourlyWeather1, hourlyWeather2);
 
 		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.anyString())).thenReturn(location);
 		Mockito.when(this.hourlyWeatherService.getListHourlyWeather(location, currentHour)).thenReturn(hourlyWeathers);
@@ -138,7 +141,7 @@ public class HourlyWeatherApiControllerTests {
 	@Test
 	public void testListHourlyForecastByLocationCodeShouldReturn204NoContent() throws Exception {
 		int currentHour = 9;
-		List<HourlyWeather> emptyList = new ArrayList<>();
+		List<HourlyWeatherView> emptyList = new ArrayList<>();
 
 		Mockito.when(hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour(Mockito.eq("HCM_VN"),
 				Mockito.eq(currentHour))).thenReturn(emptyList);
@@ -151,13 +154,9 @@ public class HourlyWeatherApiControllerTests {
 	public void testListHourlyForecastByLocationCodeShouldReturn200Ok() throws Exception {
 		int currentHour = 10;
 		String locationCode = "HCM_VN";
-		Location location = Location.builder().code(locationCode).build();
-
-		HourlyWeather hw1 = HourlyWeather.builder().id(new HourlyWeatherId(10, location)).status("Sunny")
-				.temperature(32).build();
-		HourlyWeather hw2 = HourlyWeather.builder().id(new HourlyWeatherId(11, location)).status("Rainy")
-				.temperature(28).build();
-		List<HourlyWeather> list = List.of(hw1, hw2);
+		HourlyWeatherView hw1 = new HourlyWeatherView(locationCode, null, null, null, 10, 32, null, "Sunny");
+		HourlyWeatherView hw2 = new HourlyWeatherView(locationCode, null, null, null, 11, 28, null, "Rainy");
+		List<HourlyWeatherView> list = List.of(hw1, hw2);
 
 		Mockito.when(hourlyWeatherService.getHourlyWeatherByLocationCodeAndCurrentHour(Mockito.eq("HCM_VN"),
 				Mockito.eq(currentHour))).thenReturn(list);
@@ -165,6 +164,8 @@ public class HourlyWeatherApiControllerTests {
 		mockMvc.perform(get(END_POINT_PATH + "/HCM_VN").header("X-Current-Hour", String.valueOf(currentHour)))
 				.andExpect(status().isOk()).andExpect(jsonPath("$.hourly_forecast[0].status", is("Sunny")))
 				.andExpect(header().string("Cache-Control", containsString("max-age=3600")))
+				// hourly ko lưu thời gian cập nhật -> chỉ có ETag
+				.andExpect(header().exists("ETag")).andExpect(header().doesNotExist("Last-Modified"))
 				.andExpect(jsonPath("$.hourly_forecast[1].status", is("Rainy")))
 				.andExpect(content().contentType(RESPONSE_CONTENT_TYPE))
 				.andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/hourly/" + locationCode)))
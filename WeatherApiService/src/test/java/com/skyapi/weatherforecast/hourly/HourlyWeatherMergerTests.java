@@ -0,0 +1,186 @@
+package com.skyapi.weatherforecast.hourly;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.skyapi.weatherforecast.common.HourlyWeather;
+import com.skyapi.weatherforecast.common.HourlyWeatherId;
+import com.skyapi.weatherforecast.merge.MergeResult;
+
+// chạy SQL thật trên H2 chế độ MySQL, bảng tạo tay giống bảng Hibernate sinh ra
+public class HourlyWeatherMergerTests {
+	private JdbcDataSource dataSource;
+	private JdbcTemplate jdbcTemplate;
+	private HourlyWeatherMerger hourlyWeatherMerger;
+
+	@BeforeEach
+	public void setUp() {
+		this.dataSource = new JdbcDataSource();
+		this.dataSource.setURL("jdbc:h2:mem:hourly_merger;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+
+		this.jdbcTemplate = new JdbcTemplate(this.dataSource);
+		this.jdbcTemplate.execute("CREATE TABLE weather_hourly (location_code VARCHAR(12) NOT NULL, "
+				+ "hour_of_day INT NOT NULL, temperature INT, precipitation INT, status VARCHAR(50), "
+				+ "PRIMARY KEY (location_code, hour_of_day))");
+		this.jdbcTemplate.execute("CREATE TABLE locations (code VARCHAR(12) NOT NULL PRIMARY KEY)");
+
+		this.hourlyWeatherMerger = new HourlyWeatherMerger(new NamedParameterJdbcTemplate(this.jdbcTemplate));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.jdbcTemplate.execute("DROP TABLE weather_hourly");
+		this.jdbcTemplate.execute("DROP TABLE locations");
+	}
+
+	private HourlyWeather createHourlyWeather(int hourOfDay, int temperature, String status) {
+		return HourlyWeather.builder().id(new HourlyWeatherId(hourOfDay, null)).temperature(temperature)
+				.precipitation(10).status(status).build();
+	}
+
+	private void insertRow(String locationCode, int hourOfDay, int temperature, String status) {
+		this.jdbcTemplate.update("INSERT INTO weather_hourly VALUES (?, ?, ?, 10, ?)", locationCode, hourOfDay,
+				temperature, status);
+	}
+
+	@Test
+	public void testMergeOnlyTouchesChangedRows() {
+		insertRow("HN_VN", 8, 20, "Sunny");
+		insertRow("HN_VN", 9, 21, "Sunny");
+		insertRow("HN_VN", 10, 22, "Cloudy");
+		insertRow("DN_VN", 8, 30, "Sunny");
+
+		// 8 giữ nguyên, 9 đổi giá trị, 10 bị bỏ, 11 thêm mới
+		List<HourlyWeather> hourlyWeathers = List.of(createHourlyWeather(8, 20, "Sunny"),
+				createHourlyWeather(9, 25, "Rainy"), createHourlyWeather(11, 23, "Cloudy"));
+
+		MergeResult mergeResult = this.hourlyWeatherMerger.merge(Map.of("HN_VN", hourlyWeathers));
+
+		assertThat(mergeResult.getInserted()).isEqualTo(1);
+		assertThat(mergeResult.getUpdated()).isEqualTo(1);
+		assertThat(mergeResult.getDeleted()).isEqualTo(1);
+		assertThat(mergeResult.getUnchanged()).isEqualTo(1);
+		assertThat(mergeResult.getTouched()).isEqualTo(3);
+
+		assertThat(this.jdbcTemplate.queryForList(
+				"SELECT hour_of_day FROM weather_hourly WHERE location_code = 'HN_VN' ORDER BY hour_of_day",
+				Integer.class)).containsExactly(8, 9, 11);
+		assertThat(this.jdbcTemplate.queryForObject(
+				"SELECT status FROM weather_hourly WHERE location_code = 'HN_VN' AND hour_of_day = 9", String.class))
+				.isEqualTo("Rainy");
+
+		// location ko có trong request ko bị đụng tới
+		assertThat(this.jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM weather_hourly WHERE location_code = 'DN_VN'", Integer.class)).isEqualTo(1);
+	}
+
+	@Test
+	public void testMergeSameRowsTwiceTouchesNothing() {
+		Map<String, List<HourlyWeather>> hourlyWeathersByLocationCode = Map.of("HN_VN",
+				List.of(createHourlyWeather(8, 20, "Sunny"), createHourlyWeather(9, 21, "Sunny")), "DN_VN",
+				List.of(createHourlyWeather(8, 30, "Sunny")));
+
+		assertThat(this.hourlyWeatherMerger.merge(hourlyWeathersByLocationCode).getInserted()).isEqualTo(3);
+
+		MergeResult mergeResult = this.hourlyWeatherMerger.merge(hourlyWeathersByLocationCode);
+		assertThat(mergeResult.getTouched()).isZero();
+		assertThat(mergeResult.getUnchanged()).isEqualTo(3);
+	}
+
+	// MySQL so sánh location_code ko phân biệt hoa thường (giả lập bằng IGNORECASE của H2)
+	@Test
+	public void testMergeMatchesStoredRowsRegardlessOfCodeCase() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL(
+				"jdbc:h2:mem:hourly_merger_ci;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE weather_hourly (location_code VARCHAR(12) NOT NULL, "
+				+ "hour_of_day INT NOT NULL, temperature INT, precipitation INT, status VARCHAR(50), "
+				+ "PRIMARY KEY (location_code, hour_of_day))");
+		jdbcTemplate.execute("CREATE TABLE locations (code VARCHAR(12) NOT NULL PRIMARY KEY)");
+		jdbcTemplate.update("INSERT INTO weather_hourly VALUES ('HN_VN', 8, 20, 10, 'Sunny')");
+
+		try {
+			MergeResult mergeResult = new HourlyWeatherMerger(new NamedParameterJdbcTemplate(jdbcTemplate))
+					.merge(Map.of("hn_vn", List.of(createHourlyWeather(8, 25, "Rainy"))));
+
+			assertThat(mergeResult.getInserted()).isZero();
+			assertThat(mergeResult.getUpdated()).isEqualTo(1);
+			assertThat(jdbcTemplate.queryForObject("SELECT status FROM weather_hourly WHERE hour_of_day = 8",
+					String.class)).isEqualTo("Rainy");
+		} finally {
+			jdbcTemplate.execute("DROP TABLE weather_hourly");
+			jdbcTemplate.execute("DROP TABLE locations");
+		}
+	}
+
+	@Test
+	public void testMergeDuplicateHourKeepsLastRow() {
+		List<HourlyWeather> hourlyWeathers = List.of(createHourlyWeather(8, 20, "Sunny"),
+				createHourlyWeather(8, 24, "Cloudy"));
+
+		MergeResult mergeResult = this.hourlyWeatherMerger.merge(Map.of("HN_VN", hourlyWeathers));
+
+		assertThat(mergeResult.getInserted()).isEqualTo(1);
+		assertThat(this.jdbcTemplate.queryForObject(
+				"SELECT temperature FROM weather_hourly WHERE location_code = 'HN_VN' AND hour_of_day = 8",
+				Integer.class)).isEqualTo(24);
+	}
+
+	/*
+	 * 2 transaction merge cùng location: lần sau chờ khóa row locations tới khi
+	 * lần trước commit rồi UPDATE row vừa insert thay vì INSERT trùng khóa chính
+	 */
+	@Test
+	public void testConcurrentMergesOfSameLocationDoNotInsertTwice() throws Exception {
+		this.jdbcTemplate.update("INSERT INTO locations VALUES ('HN_VN')");
+		TransactionTemplate transactionTemplate = new TransactionTemplate(
+				new DataSourceTransactionManager(this.dataSource));
+
+		CountDownLatch firstMerged = new CountDownLatch(1);
+		CountDownLatch commitFirst = new CountDownLatch(1);
+		CompletableFuture<MergeResult> first = CompletableFuture.supplyAsync(() -> transactionTemplate
+				.execute(status -> {
+					MergeResult mergeResult = this.hourlyWeatherMerger
+							.merge(Map.of("HN_VN", List.of(createHourlyWeather(8, 20, "Sunny"))));
+					firstMerged.countDown();
+					try {
+						commitFirst.await(5, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					return mergeResult;
+				}));
+		assertThat(firstMerged.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture<MergeResult> second = CompletableFuture.supplyAsync(() -> transactionTemplate
+				.execute(status -> this.hourlyWeatherMerger
+						.merge(Map.of("HN_VN", List.of(createHourlyWeather(8, 25, "Rainy"))))));
+		Thread.sleep(200);
+		assertThat(second).isNotDone();
+
+		commitFirst.countDown();
+		assertThat(first.get(5, TimeUnit.SECONDS).getInserted()).isEqualTo(1);
+		MergeResult secondResult = second.get(5, TimeUnit.SECONDS);
+		assertThat(secondResult.getInserted()).isZero();
+		assertThat(secondResult.getUpdated()).isEqualTo(1);
+
+		assertThat(this.jdbcTemplate.queryForObject(
+				"SELECT status FROM weather_hourly WHERE location_code = 'HN_VN' AND hour_of_day = 8", String.class))
+				.isEqualTo("Rainy");
+	}
+}
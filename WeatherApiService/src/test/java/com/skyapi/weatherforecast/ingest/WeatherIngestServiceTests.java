@@ -0,0 +1,196 @@
+package com.skyapi.weatherforecast.ingest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import org.apache.coyote.BadRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import com.skyapi.weatherforecast.WeatherApiServiceApplication;
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.ingest.WeatherIngestRepository.SavedBatch;
+import com.skyapi.weatherforecast.location.LocationRepository;
+import com.skyapi.weatherforecast.merge.MergeResult;
+
+import jakarta.validation.Validation;
+
+public class WeatherIngestServiceTests {
+	private static final String HOURLY_FORECAST = "\"hourly_forecast\": [{\"hour_of_day\": 8, \"temperature\": 20, \"precipitation\": 10, \"status\": \"Sunny\"},"
+			+ " {\"hour_of_day\": 9, \"temperature\": 21, \"precipitation\": 12, \"status\": \"Cloudy\"}]";
+	private static final String DAILY_FORECAST = "\"daily_forecast\": [{\"day_of_month\": 16, \"month\": 7, \"min_temp\": 22, \"max_temp\": 30, \"precipitation\": 60, \"status\": \"Cloudy\"}]";
+	private static final String REALTIME_WEATHER = "\"realtime_weather\": {\"temperature\": 25, \"humidity\": 80, \"precipitation\": 40, \"wind_speed\": 12, \"status\": \"Cloudy\"}";
+
+	private LocationRepository locationRepository = mock(LocationRepository.class);
+	private WeatherIngestRepository weatherIngestRepository = mock(WeatherIngestRepository.class);
+	private CacheInvalidationIndex cacheInvalidationIndex = mock(CacheInvalidationIndex.class);
+	private IngestProperties ingestProperties = new IngestProperties();
+
+	private WeatherIngestService weatherIngestService = new WeatherIngestService(
+			new WeatherApiServiceApplication().objectMapper(),
+			Validation.buildDefaultValidatorFactory().getValidator(), locationRepository, weatherIngestRepository,
+			cacheInvalidationIndex, ingestProperties);
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	public void setUp() {
+		this.ingestProperties.setBatchSize(2);
+
+		// mọi code đều tồn tại trừ code bắt đầu bằng UNKNOWN
+		when(this.locationRepository.findUntrashedCodes(anyCollection()))
+				.thenAnswer(invocation -> ((Collection<String>) invocation.getArgument(0)).stream()
+						.filter(code -> !code.startsWith("UNKNOWN")).toList());
+		when(this.weatherIngestRepository.saveAll(any()))
+				.thenReturn(new SavedBatch(new MergeResult(), new MergeResult()));
+	}
+
+	private IngestResultDTO ingest(String payload) throws Exception {
+		return this.weatherIngestService.ingest(new ByteArrayInputStream(payload.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private String element(String locationCode, String... sections) {
+		return "{\"location_code\": \"" + locationCode + "\", " + String.join(", ", sections) + "}";
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testIngestWritesAndEvictsOncePerBatch() throws Exception {
+		String payload = "[" + element("HN_VN", REALTIME_WEATHER, HOURLY_FORECAST, DAILY_FORECAST) + ", "
+				+ element("DN_VN", HOURLY_FORECAST) + ", " + element("HCM_VN", DAILY_FORECAST) + "]";
+
+		IngestResultDTO result = ingest(payload);
+
+		assertThat(result.getBatches()).isEqualTo(2);
+		assertThat(result.getAcceptedLocations()).isEqualTo(3);
+		assertThat(result.getRealtimeWeathers()).isEqualTo(1);
+		assertThat(result.getHourlyWeathers()).isEqualTo(4);
+		assertThat(result.getDailyWeathers()).isEqualTo(2);
+		assertThat(result.getRejectedLocations()).isEmpty();
+
+		ArgumentCaptor<List<LocationForecastDTO>> batchCaptor = ArgumentCaptor.forClass(List.class);
+		verify(this.weatherIngestRepository, times(2)).saveAll(batchCaptor.capture());
+		assertThat(batchCaptor.getAllValues().get(0)).extracting(LocationForecastDTO::getLocationCode)
+				.containsExactly("HN_VN", "DN_VN");
+		assertThat(batchCaptor.getAllValues().get(1)).extracting(LocationForecastDTO::getLocationCode)
+				.containsExactly("HCM_VN");
+
+		// phần ko gửi thì để null -> repository giữ nguyên dữ liệu cũ
+		assertThat(batchCaptor.getAllValues().get(0).get(1).getRealtimeWeather()).isNull();
+		assertThat(batchCaptor.getAllValues().get(0).get(1).getListDailyWeathers()).isNull();
+
+		ArgumentCaptor<Collection<String>> codesCaptor = ArgumentCaptor.forClass(Collection.class);
+		verify(this.cacheInvalidationIndex, times(2)).evictAll(codesCaptor.capture(), any(String[].class));
+		assertThat(codesCaptor.getAllValues().get(0)).containsExactly("HN_VN", "DN_VN");
+		assertThat(codesCaptor.getAllValues().get(1)).containsExactly("HCM_VN");
+		verify(this.cacheInvalidationIndex, never()).evict(any(), any(String[].class));
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testInvalidElementsAreRejectedWithoutStoppingIngest() throws Exception {
+		String invalidTemperature = HOURLY_FORECAST.replace("\"temperature\": 20", "\"temperature\": 100");
+		String duplicateHour = HOURLY_FORECAST.replace("\"hour_of_day\": 9", "\"hour_of_day\": 8");
+
+		String payload = "[" + element("HN_VN", invalidTemperature) + ", " + element("DN_VN", duplicateHour) + ", "
+				+ element("HP_VN", "\"hourly_forecast\": []") + ", " + element("UNKNOWN_XX", DAILY_FORECAST) + ", "
+				+ element("HUE_VN", "\"unknown_field\": 1") + ", " + element("HCM_VN", REALTIME_WEATHER) + "]";
+
+		IngestResultDTO result = ingest(payload);
+
+		assertThat(result.getAcceptedLocations()).isEqualTo(1);
+		assertThat(result.getRejectedLocations()).extracting(RejectedLocationDTO::getIndex).containsExactlyInAnyOrder(0,
+				1, 2, 3, 4);
+		assertThat(result.getRejectedLocations()).extracting(RejectedLocationDTO::getLocationCode)
+				.containsExactlyInAnyOrder("HN_VN", "DN_VN", "HP_VN", "UNKNOWN_XX", "HUE_VN");
+
+		ArgumentCaptor<List<LocationForecastDTO>> batchCaptor = ArgumentCaptor.forClass(List.class);
+		verify(this.weatherIngestRepository).saveAll(batchCaptor.capture());
+		assertThat(batchCaptor.getValue()).extracting(LocationForecastDTO::getLocationCode).containsExactly("HCM_VN");
+	}
+
+	@Test
+	public void testSameLocationTwiceIsWrittenInPayloadOrder() throws Exception {
+		this.ingestProperties.setBatchSize(500);
+
+		String payload = "[" + element("HN_VN", HOURLY_FORECAST) + ", " + element("DN_VN", DAILY_FORECAST) + ", "
+				+ element("HN_VN", REALTIME_WEATHER) + "]";
+
+		IngestResultDTO result = ingest(payload);
+
+		// phần tử HN_VN thứ 2 ko đc gộp/ghi đè phần tử thứ 1 trong cùng batch
+		assertThat(result.getBatches()).isEqualTo(2);
+		assertThat(result.getAcceptedLocations()).isEqualTo(3);
+		verify(this.weatherIngestRepository, times(2)).saveAll(any());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testLocationCodeIsMatchedIgnoringCaseAndWrittenWithStoredCode() throws Exception {
+		this.ingestProperties.setBatchSize(500);
+		// DB (MySQL) so sánh code ko phân biệt hoa thường, trả về code đã lưu
+		when(this.locationRepository.findUntrashedCodes(anyCollection()))
+				.thenAnswer(invocation -> ((Collection<String>) invocation.getArgument(0)).stream()
+						.map(code -> code.toUpperCase()).distinct().toList());
+
+		String payload = "[" + element("hn_vn", HOURLY_FORECAST) + ", " + element("Dn_Vn", DAILY_FORECAST) + ", "
+				+ element("HN_VN", REALTIME_WEATHER) + "]";
+
+		IngestResultDTO result = ingest(payload);
+
+		// hn_vn và HN_VN là cùng location -> vẫn ghi thành 2 batch theo thứ tự payload
+		assertThat(result.getBatches()).isEqualTo(2);
+		assertThat(result.getAcceptedLocations()).isEqualTo(3);
+		assertThat(result.getRejectedLocations()).isEmpty();
+
+		ArgumentCaptor<List<LocationForecastDTO>> batchCaptor = ArgumentCaptor.forClass(List.class);
+		verify(this.weatherIngestRepository, times(2)).saveAll(batchCaptor.capture());
+		assertThat(batchCaptor.getAllValues().get(0)).extracting(LocationForecastDTO::getLocationCode)
+				.containsExactly("HN_VN", "DN_VN");
+		assertThat(batchCaptor.getAllValues().get(1)).extracting(LocationForecastDTO::getLocationCode)
+				.containsExactly("HN_VN");
+
+		ArgumentCaptor<Collection<String>> codesCaptor = ArgumentCaptor.forClass(Collection.class);
+		verify(this.cacheInvalidationIndex, times(2)).evictAll(codesCaptor.capture(), any(String[].class));
+		assertThat(codesCaptor.getAllValues().get(0)).containsExactly("HN_VN", "DN_VN");
+	}
+
+	@Test
+	public void testPayloadNotArrayThrowsBadRequest() {
+		assertThatThrownBy(() -> ingest(element("HN_VN", HOURLY_FORECAST))).isInstanceOf(BadRequestException.class);
+
+		verify(this.weatherIngestRepository, never()).saveAll(any());
+	}
+
+	@Test
+	public void testMalformedJsonKeepsPreviousBatches() {
+		String payload = "[" + element("HN_VN", HOURLY_FORECAST) + ", " + element("DN_VN", HOURLY_FORECAST) + ", "
+				+ "{\"location_code\": \"HCM_VN\", ";
+
+		assertThatThrownBy(() -> ingest(payload)).isInstanceOf(BadRequestException.class)
+				.hasMessageContaining("2 locations already ingested");
+
+		verify(this.weatherIngestRepository, times(1)).saveAll(any());
+	}
+
+	@Test
+	public void testEmptyArray() throws Exception {
+		IngestResultDTO result = ingest("[]");
+
+		assertThat(result.getAcceptedLocations()).isZero();
+		assertThat(result.getRejectedLocations()).isEmpty();
+		verify(this.weatherIngestRepository, never()).saveAll(any());
+	}
+}
@@ -17,6 +17,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.coyote.BadRequestException;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -540,4 +541,64 @@ public class LocationApiControllerTests {
 		assertThat(responseBody).contains("Location code cannot be null");
 	}
 
+	// ?cursor= (rỗng) là trang đầu của chế độ cursor, có next thì link next mang cursor mới
+	@Test
+	public void testListLocationsByCursorShouldReturnNextLink() throws Exception {
+		Location location = new Location();
+		location.setCode("DN_VN");
+		location.setCityName("Da Nang");
+		location.setRegionName("Central Vietnam");
+		location.setCountryName("Vietnam");
+		location.setCountryCode("VN");
+		location.setEnabled(true);
+
+		String nextCursor = "eyJzb3J0T3B0aW9uIjoiY29kZSJ9";
+		LocationCursorPage cursorPage = new LocationCursorPage(List.of(location), nextCursor, 18L);
+
+		Mockito.when(this.locationService.getAllLocationUnTrashedAfterCursor(Mockito.eq(""), Mockito.eq(1),
+				Mockito.eq("cityName"), Mockito.anyMap(), Mockito.eq(true))).thenReturn(cursorPage);
+
+		String requestURI = END_POINT_PATH + "?cursor=&size=1&sort=city_name&include_total=true";
+
+		mockMvc.perform(get(requestURI)).andExpect(status().isOk())
+				.andExpect(content().contentType(RESPONSE_CONTENT_TYPE))
+				.andExpect(header().string("X-Total-Count", "18"))
+				.andExpect(jsonPath("_embedded.locations[0].code", is("DN_VN")))
+				.andExpect(jsonPath("$.page").doesNotExist())
+				.andExpect(jsonPath("$._links.next.href", containsString("cursor=" + nextCursor)))
+				.andExpect(jsonPath("$._links.next.href", containsString("sort=city_name")))
+				.andDo(print());
+
+		Mockito.verify(this.locationService, Mockito.never()).getAllLocationUnTrashedWithFilter(Mockito.anyInt(),
+				Mockito.anyInt(), Mockito.anyString(), Mockito.anyMap());
+	}
+
+	@Test
+	public void testListLocationsByCursorLastPageShouldHaveNoNextLink() throws Exception {
+		Location location = new Location();
+		location.setCode("HCM_VN");
+		location.setCityName("Ho Chi Minh City");
+		location.setRegionName("Southern Vietnam");
+		location.setCountryName("Vietnam");
+		location.setCountryCode("VN");
+
+		Mockito.when(this.locationService.getAllLocationUnTrashedAfterCursor(Mockito.anyString(), Mockito.anyInt(),
+				Mockito.anyString(), Mockito.anyMap(), Mockito.anyBoolean()))
+				.thenReturn(new LocationCursorPage(List.of(location), null, null));
+
+		mockMvc.perform(get(END_POINT_PATH + "?cursor=abc")).andExpect(status().isOk())
+				.andExpect(header().doesNotExist("X-Total-Count"))
+				.andExpect(jsonPath("$._links.self.href", containsString("cursor=abc")))
+				.andExpect(jsonPath("$._links.next").doesNotExist()).andDo(print());
+	}
+
+	@Test
+	public void testListLocationsByInvalidCursorShouldReturn400BadRequest() throws Exception {
+		Mockito.when(this.locationService.getAllLocationUnTrashedAfterCursor(Mockito.anyString(), Mockito.anyInt(),
+				Mockito.anyString(), Mockito.anyMap(), Mockito.anyBoolean()))
+				.thenThrow(new BadRequestException("Invalid cursor: abc"));
+
+		mockMvc.perform(get(END_POINT_PATH + "?cursor=abc")).andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.errors[0]", is("Invalid cursor: abc"))).andDo(print());
+	}
 }
@@ -0,0 +1,92 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.skyapi.weatherforecast.SecurityConfigForControllerTests;
+
+// import/export dùng chung path với LocationApiController, chọn theo Content-Type/Accept
+@WebMvcTest({ LocationApiController.class, LocationBulkApiController.class })
+@Import(SecurityConfigForControllerTests.class)
+@ActiveProfiles("test")
+public class LocationBulkApiControllerTests {
+	private static final String END_POINT_PATH = "/v1/locations";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@MockBean
+	private LocationService locationService;
+	@MockBean
+	private LocationImportService locationImportService;
+	@MockBean
+	private LocationExportService locationExportService;
+
+	@Test
+	public void testGetWithoutCsvOrNdjsonAcceptStillListsLocations() throws Exception {
+		Mockito.when(this.locationService.getAllLocationUnTrashedWithFilter(Mockito.anyInt(), Mockito.anyInt(),
+				Mockito.anyString(), Mockito.anyMap())).thenReturn(Page.empty());
+
+		this.mockMvc.perform(get(END_POINT_PATH)).andExpect(status().isNoContent());
+		this.mockMvc.perform(get(END_POINT_PATH).accept("application/hal+json")).andExpect(status().isNoContent());
+
+		Mockito.verifyNoInteractions(this.locationExportService);
+	}
+
+	@Test
+	public void testExportShouldStreamCsv() throws Exception {
+		Mockito.doAnswer(invocation -> {
+			invocation.getArgument(0, OutputStream.class)
+					.write("code,city_name\nHN_VN,Hanoi\n".getBytes(StandardCharsets.UTF_8));
+			return null;
+		}).when(this.locationExportService).export(Mockito.any(), Mockito.eq(LocationFileFormat.CSV));
+
+		MvcResult mvcResult = this.mockMvc.perform(get(END_POINT_PATH).accept("text/csv"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		this.mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith("text/csv"))
+				.andExpect(header().string("Content-Disposition", "attachment; filename=\"locations.csv\""))
+				.andExpect(content().string("code,city_name\nHN_VN,Hanoi\n"));
+	}
+
+	@Test
+	public void testImportShouldReturnResultByContentType() throws Exception {
+		LocationImportResultDTO result = new LocationImportResultDTO();
+		result.addBatch(2);
+		result.addRejected(3, "X", List.of("code: Location code must have 3-12 characters"));
+		Mockito.when(this.locationImportService.importLocations(Mockito.any(), Mockito.eq(LocationFileFormat.NDJSON)))
+				.thenReturn(result);
+
+		this.mockMvc.perform(post(END_POINT_PATH).contentType("application/x-ndjson").content("{}\n"))
+				.andExpect(status().isOk()).andExpect(jsonPath("$.accepted_locations").value(2))
+				.andExpect(jsonPath("$.rejected_rows[0].line").value(3))
+				.andExpect(jsonPath("$.rejected_rows[0].code").value("X"));
+
+		// JSON vẫn là API thêm 1 location
+		this.mockMvc.perform(post(END_POINT_PATH).contentType("application/json").content("{}"))
+				.andExpect(status().isBadRequest());
+		Mockito.verify(this.locationImportService, Mockito.never()).importLocations(Mockito.any(),
+				Mockito.eq(LocationFileFormat.CSV));
+	}
+}
@@ -0,0 +1,105 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationCountRegistryTests {
+	private LocationRepository locationRepository = mock(LocationRepository.class);
+	private LocationCountRegistry locationCountRegistry = new LocationCountRegistry(locationRepository);
+
+	private void loadRegistry() {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		rows.add(new Object[] { "HN_VN", true, "VN", "Hà Nội" });
+		rows.add(new Object[] { "DN_VN", false, "VN", "Da Nang" });
+		rows.add(new Object[] { "NYC_USA", true, "US", null });
+
+		when(this.locationRepository.findAllCodesWithCountFilterFields()).thenReturn(rows);
+		this.locationCountRegistry.refresh();
+	}
+
+	private Location createLocation(String code, boolean enabled, String countryCode, String regionName) {
+		return Location.builder().code(code).enabled(enabled).countryCode(countryCode).regionName(regionName)
+				.build();
+	}
+
+	@Test
+	public void testCountEveryFilterCombination() {
+		loadRegistry();
+
+		assertThat(this.locationCountRegistry.count(Map.of())).isEqualTo(3);
+		assertThat(this.locationCountRegistry.count(Map.of("enabled", true))).isEqualTo(2);
+		assertThat(this.locationCountRegistry.count(Map.of("countryCode", "VN"))).isEqualTo(2);
+		assertThat(this.locationCountRegistry.count(Map.of("enabled", true, "countryCode", "VN"))).isEqualTo(1);
+		assertThat(this.locationCountRegistry.count(Map.of("countryCode", "JP"))).isEqualTo(0);
+		// giống collation ko phân biệt hoa thường, dấu của MySQL
+		assertThat(this.locationCountRegistry.count(Map.of("countryCode", "vn", "regionName", "ha noi")))
+				.isEqualTo(1);
+	}
+
+	// giống query list (luôn lọc trashed = false): trashed = true ko khớp row nào
+	@Test
+	public void testCountTrashedFilter() {
+		loadRegistry();
+
+		assertThat(this.locationCountRegistry.count(Map.of("trashed", false))).isEqualTo(3);
+		assertThat(this.locationCountRegistry.count(Map.of("trashed", false, "enabled", true))).isEqualTo(2);
+		assertThat(this.locationCountRegistry.count(Map.of("trashed", true, "countryCode", "VN"))).isEqualTo(0);
+	}
+
+	@Test
+	public void testPutMovesLocationToNewCombination() {
+		loadRegistry();
+
+		this.locationCountRegistry.put(createLocation("DN_VN", true, "VN", "Da Nang"));
+		assertThat(this.locationCountRegistry.count(Map.of("enabled", true))).isEqualTo(3);
+		assertThat(this.locationCountRegistry.count(Map.of("enabled", false))).isEqualTo(0);
+		assertThat(this.locationCountRegistry.count(Map.of())).isEqualTo(3);
+
+		this.locationCountRegistry.put(createLocation("HCM_VN", true, "VN", "Ho Chi Minh"));
+		assertThat(this.locationCountRegistry.count(Map.of("countryCode", "VN"))).isEqualTo(3);
+	}
+
+	@Test
+	public void testRemove() {
+		loadRegistry();
+
+		this.locationCountRegistry.remove("HN_VN");
+		this.locationCountRegistry.remove("UNKNOWN");
+
+		assertThat(this.locationCountRegistry.count(Map.of())).isEqualTo(2);
+		assertThat(this.locationCountRegistry.count(Map.of("regionName", "Ha Noi"))).isEqualTo(0);
+	}
+
+	@Test
+	public void testCountIsNullWhenNotLoaded() {
+		assertThat(this.locationCountRegistry.count(Map.of())).isNull();
+	}
+
+	@Test
+	public void testListWithFilterSkipsCountQueryWhenLoaded() {
+		loadRegistry();
+
+		LocationService locationService = new LocationService(this.locationRepository, null, null,
+				this.locationCountRegistry);
+		locationService.getAllLocationUnTrashedWithFilter(0, 10, "code", Map.of("countryCode", "VN"));
+
+		verify(this.locationRepository).listWithFilter(any(Pageable.class), anyMap(), eq(2L));
+		verify(this.locationRepository, never()).listWithFilter(any(Pageable.class), anyMap());
+		verify(this.locationRepository, never()).countWithFilter(anyMap());
+	}
+}
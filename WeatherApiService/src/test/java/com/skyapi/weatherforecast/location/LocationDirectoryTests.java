@@ -0,0 +1,84 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.common.Location;
+
+public class LocationDirectoryTests {
+	private LocationRepository locationRepository = mock(LocationRepository.class);
+	private LocationDirectory locationDirectory = new LocationDirectory(locationRepository);
+
+	private void loadDirectory() {
+		List<Object[]> rows = new ArrayList<Object[]>();
+		rows.add(new Object[] { "HN_VN", "VN", "Hanoi" });
+		rows.add(new Object[] { "DN_VN", "VN", "Da Nang" });
+
+		when(this.locationRepository.findAllCodesWithCountryCodeAndCityName()).thenReturn(rows);
+		this.locationDirectory.refresh();
+	}
+
+	private Location createLocation(String code, String countryCode, String cityName) {
+		return Location.builder().code(code).countryCode(countryCode).cityName(cityName).build();
+	}
+
+	@Test
+	public void testResolveCodeWithoutQueryingDatabase() {
+		loadDirectory();
+
+		assertThat(this.locationDirectory.resolveCode(createLocation(null, "VN", "Hanoi"))).isEqualTo("HN_VN");
+		// giống collation ko phân biệt hoa thường của MySQL
+		assertThat(this.locationDirectory.findCode("vn", "DA NANG")).isEqualTo("DN_VN");
+		// và ko phân biệt dấu (tên thành phố từ IP2Location có thể khác dấu với tên đã lưu)
+		assertThat(this.locationDirectory.findCode("VN", "Dà Nẵng")).isEqualTo("DN_VN");
+
+		verify(this.locationRepository, never()).findByCountryCodeAndCityName(anyString(), anyString());
+	}
+
+	@Test
+	public void testResolveUnknownLocationThrowsException() {
+		loadDirectory();
+
+		assertThatThrownBy(() -> this.locationDirectory.resolveCode(createLocation(null, "US", "New York")))
+				.isInstanceOf(LocationNotFoundException.class);
+	}
+
+	@Test
+	public void testPutReplacesOldCountryCodeAndCityName() {
+		loadDirectory();
+
+		this.locationDirectory.put(createLocation("HN_VN", "VN", "Ha Noi"));
+
+		assertThat(this.locationDirectory.findCode("VN", "Hanoi")).isNull();
+		assertThat(this.locationDirectory.findCode("VN", "Ha Noi")).isEqualTo("HN_VN");
+		assertThat(this.locationDirectory.size()).isEqualTo(2);
+	}
+
+	@Test
+	public void testRemove() {
+		loadDirectory();
+
+		this.locationDirectory.remove("DN_VN");
+
+		assertThat(this.locationDirectory.findCode("VN", "Da Nang")).isNull();
+		assertThat(this.locationDirectory.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void testFallbackToDatabaseWhenNotLoaded() {
+		when(this.locationRepository.findByCountryCodeAndCityName("VN", "Hanoi"))
+				.thenReturn(createLocation("HN_VN", "VN", "Hanoi"));
+
+		assertThat(this.locationDirectory.findCode("VN", "Hanoi")).isEqualTo("HN_VN");
+	}
+}
@@ -0,0 +1,265 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.coyote.BadRequestException;
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.skyapi.weatherforecast.WeatherApiServiceApplication;
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+
+import jakarta.validation.Validation;
+
+/*
+ * import/export location qua JDBC batch, chạy trên H2 (chế độ MySQL) để kiểm
+ * tra cả câu upsert ON DUPLICATE KEY UPDATE
+ */
+public class LocationImportExportTests {
+	private static final String CSV_HEADER = "code,city_name,region_name,country_code,country_name,enabled\n";
+
+	private static JdbcTemplate jdbcTemplate;
+
+	private final CacheInvalidationIndex cacheInvalidationIndex = mock(CacheInvalidationIndex.class);
+	private final LocationBulkProperties locationBulkProperties = new LocationBulkProperties();
+	private final CacheManager cacheManager = new ConcurrentMapCacheManager();
+
+	private LocationDirectory locationDirectory;
+	private LocationCountRegistry locationCountRegistry;
+	private LocationImportService locationImportService;
+	private LocationExportService locationExportService;
+
+	/*
+	 * schema tạo bằng chính các migration của Flyway (tên cột giống MySQL thật),
+	 * IGNORECASE giống collation mặc định của MySQL (code ko phân biệt hoa thường)
+	 */
+	@BeforeAll
+	public static void migrate() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL(
+				"jdbc:h2:mem:bulk;MODE=MySQL;DATABASE_TO_LOWER=TRUE;IGNORECASE=TRUE;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1");
+
+		Flyway.configure().dataSource(dataSource).load().migrate();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	@BeforeEach
+	public void setUp() {
+		this.locationBulkProperties.setBatchSize(2);
+
+		ObjectMapper objectMapper = new WeatherApiServiceApplication().objectMapper();
+		LocationRepository locationRepository = mock(LocationRepository.class);
+		LocationBulkRepository locationBulkRepository = new LocationBulkRepository(jdbcTemplate);
+		this.locationDirectory = new LocationDirectory(locationRepository);
+		this.locationCountRegistry = new LocationCountRegistry(locationRepository);
+		this.locationCountRegistry.refresh();
+
+		this.locationImportService = new LocationImportService(objectMapper,
+				Validation.buildDefaultValidatorFactory().getValidator(), locationBulkRepository,
+				this.locationDirectory, this.locationCountRegistry, this.cacheInvalidationIndex,
+				this.cacheManager, this.locationBulkProperties);
+		this.locationExportService = new LocationExportService(locationBulkRepository, this.locationBulkProperties,
+				objectMapper);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		jdbcTemplate.update("DELETE FROM locations");
+	}
+
+	private LocationImportResultDTO importLocations(String content, LocationFileFormat format) throws Exception {
+		return this.locationImportService
+				.importLocations(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), format);
+	}
+
+	private String export(LocationFileFormat format) throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		this.locationExportService.export(outputStream, format);
+
+		return outputStream.toString(StandardCharsets.UTF_8);
+	}
+
+	private List<String> untrashedCodes() {
+		return jdbcTemplate.queryForList("SELECT code FROM locations WHERE trashed = false ORDER BY code",
+				String.class);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testCsvImportWritesBatchesAndEvictsCachesOnce() throws Exception {
+		this.cacheManager.getCache("locationCacheByPagination").put("page-1", "stale");
+
+		String csv = CSV_HEADER + "HN_VN,Hanoi,Ha Noi,VN,Viet Nam,true\n"
+				+ "DN_VN,Da Nang,\"Central, Coast\",VN,Viet Nam,false\r\n"
+				// code quá ngắn, enabled sai, thiếu cột
+				+ "X,Nowhere,Region,VN,Viet Nam,true\n" + "HP_VN,Hai Phong,Northern,VN,Viet Nam,yes\n"
+				+ "HUE_VN,Hue\n"
+				+ "\n" + "HCM_VN,Ho Chi Minh City,\"Southern \"\"South\"\"\",VN,Viet Nam,\n";
+
+		LocationImportResultDTO result = importLocations(csv, LocationFileFormat.CSV);
+
+		assertThat(result.getAcceptedLocations()).isEqualTo(3);
+		assertThat(result.getBatches()).isEqualTo(2);
+		assertThat(result.getRejectedRows()).extracting(RejectedLocationRowDTO::getLine).containsExactly(4, 5, 6);
+		assertThat(result.getRejectedRows()).extracting(RejectedLocationRowDTO::getCode).containsExactly("X",
+				"HP_VN", "HUE_VN");
+
+		assertThat(untrashedCodes()).containsExactly("DN_VN", "HCM_VN", "HN_VN");
+		assertThat(jdbcTemplate.queryForObject("SELECT region_name FROM locations WHERE code = 'HCM_VN'",
+				String.class)).isEqualTo("Southern \"South\"");
+		assertThat(this.locationDirectory.findCountryCode("DN_VN")).isEqualTo("vn");
+
+		// xóa cache 1 lần cho cả file
+		ArgumentCaptor<Collection<String>> codesCaptor = ArgumentCaptor.forClass(Collection.class);
+		verify(this.cacheInvalidationIndex, times(1)).evictAll(codesCaptor.capture(), any(String[].class));
+		assertThat(codesCaptor.getValue()).containsExactly("HN_VN", "DN_VN", "HCM_VN");
+		assertThat(this.cacheManager.getCache("locationCacheByPagination").get("page-1")).isNull();
+	}
+
+	// dòng lỗi ở DB (region_name NOT NULL) chỉ bỏ dòng đó, các dòng khác trong batch vẫn đc ghi
+	@Test
+	public void testRowRejectedByDatabaseDoesNotFailBatch() throws Exception {
+		String csv = CSV_HEADER + "HN_VN,Hanoi,Ha Noi,VN,Viet Nam,true\n" + "DN_VN,Da Nang,,VN,Viet Nam,true\n";
+
+		LocationImportResultDTO result = importLocations(csv, LocationFileFormat.CSV);
+
+		assertThat(result.getAcceptedLocations()).isEqualTo(1);
+		assertThat(result.getRejectedRows()).singleElement().satisfies(row -> {
+			assertThat(row.getLine()).isEqualTo(3);
+			assertThat(row.getErrors().get(0)).startsWith("Location could not be saved");
+		});
+		assertThat(untrashedCodes()).containsExactly("HN_VN");
+	}
+
+	@Test
+	public void testNdjsonImportUpsertsAndRestoresTrashedLocation() throws Exception {
+		jdbcTemplate.update("INSERT INTO locations (code, city_name, region_name, country_name, country_code,"
+				+ " enabled, trashed) VALUES ('HN_VN', 'Old Hanoi', 'Ha Noi', 'Viet Nam', 'VN', false, true)");
+
+		String ndjson = "{\"code\": \"HN_VN\", \"city_name\": \"Hanoi\", \"region_name\": \"Ha Noi\", \"country_code\": \"VN\", \"country_name\": \"Viet Nam\", \"enabled\": true}\n"
+				+ "{\"code\": \"DN_VN\", \"city_name\": \"Da Nang\"\n" + "[1, 2]\n"
+				+ "{\"code\": \"HUE_VN\", \"unknown_field\": 1}\n" + "\n"
+				+ "{\"code\": \"HP_VN\", \"city_name\": \"Hai Phong\", \"region_name\": \"Northern\", \"country_code\": \"VN\", \"country_name\": \"Viet Nam\"}\n";
+
+		LocationImportResultDTO result = importLocations(ndjson, LocationFileFormat.NDJSON);
+
+		assertThat(result.getAcceptedLocations()).isEqualTo(2);
+		assertThat(result.getRejectedRows()).extracting(RejectedLocationRowDTO::getLine).containsExactly(2, 3, 4);
+		assertThat(result.getRejectedRows().get(2).getCode()).isEqualTo("HUE_VN");
+
+		assertThat(untrashedCodes()).containsExactly("HN_VN", "HP_VN");
+		assertThat(jdbcTemplate.queryForObject("SELECT city_name FROM locations WHERE code = 'HN_VN'", String.class))
+				.isEqualTo("Hanoi");
+	}
+
+	// lỗi cú pháp CSV thì dừng, các batch trước đó vẫn đc ghi và xóa cache
+	@Test
+	public void testMalformedCsvStopsImportAfterWrittenBatches() throws Exception {
+		String csv = CSV_HEADER + "HN_VN,Hanoi,Ha Noi,VN,Viet Nam,true\n" + "DN_VN,Da Nang,Central,VN,Viet Nam,true\n"
+				+ "HUE_VN,\"Hue,Central,VN,Viet Nam,true\n";
+
+		assertThatThrownBy(() -> importLocations(csv, LocationFileFormat.CSV))
+				.isInstanceOf(BadRequestException.class).hasMessageContaining("line 4")
+				.hasMessageContaining("2 locations already imported");
+
+		assertThat(untrashedCodes()).containsExactly("DN_VN", "HN_VN");
+		verify(this.cacheInvalidationIndex).evictAll(any(), any(String[].class));
+	}
+
+	@Test
+	public void testCsvHeaderIsValidated() {
+		assertThatThrownBy(() -> importLocations("code,city_name,country_name\n", LocationFileFormat.CSV))
+				.isInstanceOf(BadRequestException.class).hasMessageContaining("country_code");
+		assertThatThrownBy(() -> importLocations("code,city,country_code,country_name\n", LocationFileFormat.CSV))
+				.isInstanceOf(BadRequestException.class).hasMessageContaining("Unknown CSV column: city");
+	}
+
+	// code khác hoa thường cập nhật đúng dòng đã có, registry/cache dùng code đã lưu trong DB
+	@Test
+	@SuppressWarnings("unchecked")
+	public void testReimportWithDifferentCaseUpdatesStoredLocation() throws Exception {
+		importLocations(CSV_HEADER + "HN_VN,Hanoi,Ha Noi,VN,Viet Nam,true\n", LocationFileFormat.CSV);
+		importLocations(CSV_HEADER + "hn_vn,Ha Noi City,Ha Noi,VN,Viet Nam,true\n", LocationFileFormat.CSV);
+
+		assertThat(untrashedCodes()).containsExactly("HN_VN");
+		assertThat(jdbcTemplate.queryForObject("SELECT city_name FROM locations WHERE code = 'HN_VN'", String.class))
+				.isEqualTo("Ha Noi City");
+		assertThat(this.locationCountRegistry.count(Map.of())).isEqualTo(1);
+		assertThat(this.locationDirectory.size()).isEqualTo(1);
+		assertThat(this.locationDirectory.findCountryCode("HN_VN")).isEqualTo("vn");
+
+		ArgumentCaptor<Collection<String>> codesCaptor = ArgumentCaptor.forClass(Collection.class);
+		verify(this.cacheInvalidationIndex, times(2)).evictAll(codesCaptor.capture(), any(String[].class));
+		assertThat(codesCaptor.getValue()).containsExactly("HN_VN");
+	}
+
+	// file ko có cột/field enabled thì ko tắt các location đang bật
+	@Test
+	public void testImportWithoutEnabledKeepsStoredEnabled() throws Exception {
+		importLocations(CSV_HEADER + "HN_VN,Hanoi,Ha Noi,VN,Viet Nam,true\n" + "DN_VN,Da Nang,Central,VN,Viet Nam,true\n",
+				LocationFileFormat.CSV);
+
+		importLocations("code,city_name,region_name,country_code,country_name\n" + "HN_VN,Ha Noi,Ha Noi,VN,Viet Nam\n"
+				+ "HUE_VN,Hue,Central,VN,Viet Nam\n", LocationFileFormat.CSV);
+		importLocations(
+				"{\"code\": \"DN_VN\", \"city_name\": \"Danang\", \"region_name\": \"Central\", \"country_code\": \"VN\", \"country_name\": \"Viet Nam\"}\n",
+				LocationFileFormat.NDJSON);
+
+		assertThat(jdbcTemplate.queryForList("SELECT code FROM locations WHERE enabled = true ORDER BY code",
+				String.class)).containsExactly("DN_VN", "HN_VN");
+		assertThat(jdbcTemplate.queryForObject("SELECT city_name FROM locations WHERE code = 'DN_VN'", String.class))
+				.isEqualTo("Danang");
+		assertThat(this.locationCountRegistry.count(Map.of("enabled", true))).isEqualTo(2);
+		assertThat(this.locationCountRegistry.count(Map.of("enabled", false))).isEqualTo(1);
+
+		// cột enabled có mặt thì vẫn ghi đè như trước
+		importLocations(CSV_HEADER + "HN_VN,Ha Noi,Ha Noi,VN,Viet Nam,false\n", LocationFileFormat.CSV);
+		assertThat(jdbcTemplate.queryForObject("SELECT enabled FROM locations WHERE code = 'HN_VN'", Boolean.class))
+				.isFalse();
+	}
+
+	// export đọc theo trang (batchSize = 2) và import lại đc chính file đã export
+	@Test
+	public void testExportRoundTripsThroughImport() throws Exception {
+		String csv = CSV_HEADER + "HN_VN,Hanoi,Ha Noi,VN,Viet Nam,true\n"
+				+ "DN_VN,Da Nang,\"Central, Coast\",VN,Viet Nam,false\n" + "HCM_VN,Ho Chi Minh City,Southern,VN,Viet Nam,true\n"
+				+ "HP_VN,Hai Phong,Northern,VN,Viet Nam,true\n";
+		importLocations(csv, LocationFileFormat.CSV);
+		jdbcTemplate.update("UPDATE locations SET trashed = true WHERE code = 'HP_VN'");
+
+		String exportedCsv = export(LocationFileFormat.CSV);
+		assertThat(exportedCsv).isEqualTo(CSV_HEADER + "DN_VN,Da Nang,\"Central, Coast\",VN,Viet Nam,false\n"
+				+ "HCM_VN,Ho Chi Minh City,Southern,VN,Viet Nam,true\n" + "HN_VN,Hanoi,Ha Noi,VN,Viet Nam,true\n");
+
+		String exportedNdjson = export(LocationFileFormat.NDJSON);
+		assertThat(exportedNdjson.split("\n")).hasSize(3);
+		assertThat(exportedNdjson).startsWith(
+				"{\"code\":\"DN_VN\",\"city_name\":\"Da Nang\",\"region_name\":\"Central, Coast\",\"country_code\":\"VN\",\"country_name\":\"Viet Nam\",\"enabled\":false}\n");
+
+		jdbcTemplate.update("DELETE FROM locations");
+		assertThat(importLocations(exportedNdjson, LocationFileFormat.NDJSON).getAcceptedLocations()).isEqualTo(3);
+		assertThat(importLocations(exportedCsv, LocationFileFormat.CSV).getRejectedRows()).isEmpty();
+		assertThat(export(LocationFileFormat.CSV)).isEqualTo(exportedCsv);
+	}
+}
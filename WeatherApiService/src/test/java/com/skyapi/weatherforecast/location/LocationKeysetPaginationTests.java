@@ -0,0 +1,192 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.coyote.BadRequestException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.skyapi.weatherforecast.common.Location;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+/*
+ * duyệt hết các trang theo cursor phải ra đúng thứ tự và đủ các row như
+ * phân trang theo page, chạy trên H2 (chế độ MySQL) để ko phụ thuộc dữ liệu
+ * có sẵn trong MySQL, JPA dựng tay giống WeatherApiBenchmarks
+ */
+public class LocationKeysetPaginationTests {
+	private static EntityManagerFactory entityManagerFactory;
+
+	private EntityManager entityManager;
+	private LocationService locationService;
+	private FilterableLocationRepositoryImpl filterableLocationRepository;
+
+	@BeforeAll
+	public static void createEntityManagerFactory() {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:keyset;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1");
+
+		LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setPackagesToScan("com.skyapi.weatherforecast.common");
+		factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "create-drop"));
+		factoryBean.afterPropertiesSet();
+
+		entityManagerFactory = factoryBean.getObject();
+	}
+
+	@AfterAll
+	public static void closeEntityManagerFactory() {
+		entityManagerFactory.close();
+	}
+
+	@BeforeEach
+	public void setUp() {
+		this.entityManager = entityManagerFactory.createEntityManager();
+
+		String[] regionNames = { "Northern", "Central", "Southern" };
+		this.entityManager.getTransaction().begin();
+		for (int i = 0; i < 23; i++) {
+			this.entityManager.persist(Location.builder().code(String.format("LOC_%02d", i)).cityName("City " + i)
+					.regionName(regionNames[i % 3]).countryName("Vietnam").countryCode("VN").enabled(i % 4 != 0)
+					.trashed(i == 7).build());
+		}
+		this.entityManager.getTransaction().commit();
+		this.entityManager.clear();
+
+		FilterableLocationRepositoryImpl filterableLocationRepository = new FilterableLocationRepositoryImpl();
+		ReflectionTestUtils.setField(filterableLocationRepository, "entityManager", this.entityManager);
+		this.filterableLocationRepository = filterableLocationRepository;
+
+		// LocationRepository chỉ cần các hàm của FilterableLocationRepository
+		LocationRepository locationRepository = mock(LocationRepository.class,
+				invocation -> invocation.getMethod().invoke(filterableLocationRepository, invocation.getArguments()));
+
+		// LocationCountRegistry chưa nạp -> include_total đếm bằng query
+		this.locationService = new LocationService(locationRepository, null, null,
+				new LocationCountRegistry(locationRepository));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		this.entityManager.getTransaction().begin();
+		this.entityManager.createQuery("DELETE FROM Location").executeUpdate();
+		this.entityManager.getTransaction().commit();
+		this.entityManager.close();
+	}
+
+	private List<String> readAllPages(String sortOption, Map<String, Object> filterFields)
+			throws BadRequestException {
+		List<String> codes = new ArrayList<String>();
+
+		String cursor = "";
+		do {
+			LocationCursorPage cursorPage = this.locationService.getAllLocationUnTrashedAfterCursor(cursor, 5,
+					sortOption, filterFields, false);
+			assertThat(cursorPage.getLocations().size()).isLessThanOrEqualTo(5);
+			assertThat(cursorPage.getTotalElements()).isNull();
+
+			cursorPage.getLocations().forEach(location -> codes.add(location.getCode()));
+			cursor = cursorPage.getNextCursor();
+		} while (cursor != null);
+
+		return codes;
+	}
+
+	private List<String> readOffsetPage(String sortOption, Map<String, Object> filterFields) {
+		return this.locationService.getAllLocationUnTrashedWithFilter(0, 100, sortOption + ",code", filterFields)
+				.getContent().stream().map(Location::getCode).toList();
+	}
+
+	@Test
+	public void testCursorPagesMatchOffsetPagesSortedByCode() throws BadRequestException {
+		List<String> codes = readAllPages("code", new HashMap<String, Object>());
+
+		// 23 location trừ 1 location bị trashed
+		assertThat(codes).hasSize(22).doesNotContain("LOC_07").isSorted();
+	}
+
+	@Test
+	public void testCursorPagesWithMixedDirectionsAndDuplicateSortValues() throws BadRequestException {
+		List<String> codes = readAllPages("-regionName,enabled", new HashMap<String, Object>());
+
+		assertThat(codes).doesNotHaveDuplicates()
+				.containsExactlyElementsOf(readOffsetPage("-regionName,enabled", new HashMap<String, Object>()));
+	}
+
+	@Test
+	public void testCursorPagesWithFilter() throws BadRequestException {
+		Map<String, Object> filterFields = new HashMap<String, Object>();
+		filterFields.put("enabled", true);
+
+		List<String> codes = readAllPages("cityName", filterFields);
+
+		assertThat(codes).containsExactlyElementsOf(readOffsetPage("cityName", filterFields));
+
+		LocationCursorPage cursorPage = this.locationService.getAllLocationUnTrashedAfterCursor("", 5, "cityName",
+				filterFields, true);
+		assertThat(cursorPage.getTotalElements()).isEqualTo(codes.size());
+	}
+
+	@Test
+	public void testCursorOfOtherSortOptionIsRejected() throws BadRequestException {
+		String nextCursor = this.locationService
+				.getAllLocationUnTrashedAfterCursor("", 5, "code", new HashMap<String, Object>(), false)
+				.getNextCursor();
+
+		assertThatThrownBy(() -> this.locationService.getAllLocationUnTrashedAfterCursor(nextCursor, 5, "cityName",
+				new HashMap<String, Object>(), false)).isInstanceOf(BadRequestException.class);
+		assertThatThrownBy(() -> this.locationService.getAllLocationUnTrashedAfterCursor("not-a-cursor", 5, "code",
+				new HashMap<String, Object>(), false)).isInstanceOf(BadRequestException.class);
+	}
+
+	// mọi trang cùng bộ lọc + sort dùng chung 1 JPQL, chỉ giá trị bind là khác
+	@Test
+	public void testQueryPlansAreReusedAcrossPagesAndFilterValues() throws BadRequestException {
+		readAllPages("-regionName,enabled", new HashMap<String, Object>(Map.of("regionName", "Central")));
+		readAllPages("-regionName,enabled", new HashMap<String, Object>(Map.of("regionName", "Northern")));
+
+		LocationQueryPlanCache queryPlanCache = this.filterableLocationRepository.getQueryPlanCache();
+		// mỗi lượt 2 trang: lượt đầu dựng JPQL trang đầu + trang sau cursor, lượt 2 dùng lại
+		assertThat(queryPlanCache.getMissCount()).isEqualTo(2);
+		assertThat(queryPlanCache.getHitCount()).isEqualTo(2);
+
+		Map<String, Object> filterFields = new HashMap<String, Object>();
+		filterFields.put("enabled", true);
+		filterFields.put("countryCode", "VN");
+		this.locationService.getAllLocationUnTrashedAfterCursor("", 5, "code", filterFields, true);
+
+		Map<String, Object> sameFilterFieldsInOtherOrder = new LinkedHashMap<String, Object>();
+		sameFilterFieldsInOtherOrder.put("countryCode", "US");
+		sameFilterFieldsInOtherOrder.put("enabled", false);
+		this.locationService.getAllLocationUnTrashedAfterCursor("", 5, "code", sameFilterFieldsInOtherOrder, true);
+
+		// list + count của bộ lọc mới, lần 2 trúng cả 2
+		assertThat(queryPlanCache.getMissCount()).isEqualTo(4);
+		assertThat(queryPlanCache.size()).isEqualTo(4);
+	}
+
+	@Test
+	public void testUnknownFieldIsRejected() {
+		assertThatThrownBy(() -> this.filterableLocationRepository.countWithFilter(Map.of("name; DROP", "x")))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+}
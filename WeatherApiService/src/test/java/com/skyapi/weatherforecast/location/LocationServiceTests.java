@@ -0,0 +1,85 @@
+package com.skyapi.weatherforecast.location;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.common.Location;
+
+/*
+ * DB so khớp code ko phân biệt hoa thường nên request theo "hn_vn" sửa/xóa
+ * đúng location "HN_VN", các bộ nhớ đệm phải dùng code đã lưu
+ */
+public class LocationServiceTests {
+	private LocationRepository locationRepository = mock(LocationRepository.class);
+	private CacheInvalidationIndex cacheInvalidationIndex = mock(CacheInvalidationIndex.class);
+	private LocationDirectory locationDirectory = new LocationDirectory(locationRepository);
+	private LocationCountRegistry locationCountRegistry = new LocationCountRegistry(locationRepository);
+
+	private LocationService locationService = new LocationService(locationRepository, cacheInvalidationIndex,
+			locationDirectory, locationCountRegistry);
+
+	private Location storedLocation;
+
+	@BeforeEach
+	public void setUp() {
+		this.storedLocation = Location.builder().code("HN_VN").cityName("Hanoi").regionName("Ha Noi")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+
+		when(this.locationRepository.findByCode("hn_vn")).thenReturn(this.storedLocation);
+		when(this.locationRepository.save(any(Location.class))).thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	public void testUpdateWithDifferentCaseEvictsStoredCode() {
+		Location locationInRequest = Location.builder().code("hn_vn").cityName("Ha Noi City").regionName("Ha Noi")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+
+		this.locationService.updateLocation(locationInRequest);
+
+		verify(this.cacheInvalidationIndex).evict(eq("HN_VN"), any(String[].class));
+	}
+
+	@Test
+	public void testDeleteWithDifferentCaseEvictsStoredCode() {
+		this.locationService.deleteLocation("hn_vn");
+
+		verify(this.locationRepository).trashByCode("hn_vn");
+		verify(this.cacheInvalidationIndex).evict(eq("HN_VN"), any(String[].class));
+	}
+
+	// registry giữ code đã lưu, xóa theo code trong path thì tổng số trang vẫn đếm location đã xóa
+	@Test
+	public void testDeleteWithDifferentCaseRemovesLocationFromCounts() {
+		List<Object[]> rows = List.<Object[]>of(new Object[] { "HN_VN", true, "VN", "Ha Noi" });
+		when(this.locationRepository.findAllCodesWithCountFilterFields()).thenReturn(rows);
+		this.locationCountRegistry.refresh();
+
+		this.locationService.deleteLocation("hn_vn");
+
+		assertThat(this.locationCountRegistry.count(Map.of())).isZero();
+	}
+
+	// LocationDirectory giữ code đã lưu, xóa sót thì API theo IP vẫn tra ra location đã xóa
+	@Test
+	public void testDeleteWithDifferentCaseRemovesLocationFromDirectory() {
+		List<Object[]> rows = List.<Object[]>of(new Object[] { "HN_VN", "VN", "Hanoi" });
+		when(this.locationRepository.findAllCodesWithCountryCodeAndCityName()).thenReturn(rows);
+		this.locationDirectory.refresh();
+
+		this.locationService.deleteLocation("hn_vn");
+
+		assertThat(this.locationDirectory.findCode("VN", "Hanoi")).isNull();
+		assertThat(this.locationDirectory.size()).isZero();
+	}
+}
@@ -17,6 +17,7 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.context.annotation.Import;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,6 +26,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.skyapi.weatherforecast.GeolocationException;
 import com.skyapi.weatherforecast.GeolocationService;
 import com.skyapi.weatherforecast.SecurityConfigForControllerTests;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
 import com.skyapi.weatherforecast.common.Location;
 import com.skyapi.weatherforecast.common.RealtimeWeather;
 import com.skyapi.weatherforecast.location.LocationNotFoundException;
@@ -47,6 +49,9 @@ public class RealtimeWeatherApiControllerTests {
 	private RealtimeWeatherService realtimeWeatherService;
 	@MockBean
 	private GeolocationService geolocationService;
+	// controller serialize response qua bean thật (ko có CacheManager nên ko cache)
+	@SpyBean
+	private SerializedResponseCache serializedResponseCache;
 
 	@Test
 	public void testGetRealtimeWeatherShouldReturn400BadRequest() throws Exception {
@@ -76,17 +81,8 @@ public class RealtimeWeatherApiControllerTests {
 		location.setCountryName("Vietnam");
 		location.setCountryCode("VN");
 
-		RealtimeWeather realtimeWeather = new RealtimeWeather();
-		realtimeWeather.setLocationCode(location.getCode());
-		realtimeWeather.setTemperature(-100);
-		realtimeWeather.setHumidity(60);
-		realtimeWeather.setPrecipitation(50);
-		realtimeWeather.setWindSpeed(5);
-		realtimeWeather.setStatus("Snowy");
-		realtimeWeather.setLastUpdated(new Date());
-
-		realtimeWeather.setLocation(location);
-		location.setRealtimeWeather(realtimeWeather);
+		RealtimeWeatherView realtimeWeather = new RealtimeWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), -100, 60, 50, 5, "Snowy", new Date());
 
 		Mockito.when(this.geolocationService.getLocationByIp2Location(Mockito.anyString())).thenReturn(location);
 		Mockito.when(this.realtimeWeatherService.getRealtimeWeatherByCountryCodeAndCityName(location))
@@ -102,6 +98,27 @@ public class RealtimeWeatherApiControllerTests {
 				.andExpect(jsonPath("$._links.full_forecast.href", is("http://localhost/v1/full"))).andDo(print());
 	}
 
+	// Accept: application/json thì Content-Type theo Accept (giống khi trả về object), ko dùng chung cache với HAL
+	@Test
+	public void testGetRealtimeWeatherByLocationCodeShouldHonorAcceptHeader() throws Exception {
+		String locationCode = "HCM_VN";
+
+		RealtimeWeatherView realtimeWeather = new RealtimeWeatherView(locationCode, "Ho Chi Minh City",
+				"Southern Vietnam", "Vietnam", -100, 60, 50, 5, "Snowy", new Date());
+
+		Mockito.when(this.realtimeWeatherService.getRealtimeWeatherByLocationCode(locationCode))
+				.thenReturn(realtimeWeather);
+
+		mockMvc.perform(get(END_POINT_PATH + "/" + locationCode).accept("application/json"))
+				.andExpect(status().isOk()).andExpect(content().contentType("application/json"))
+				.andExpect(header().string("Vary", containsString("Accept")))
+				.andExpect(jsonPath("$._links.self.href", is("http://localhost/v1/realtime/" + locationCode)));
+
+		mockMvc.perform(get(END_POINT_PATH + "/" + locationCode).accept("application/json;q=0.5",
+				"application/hal+json")).andExpect(status().isOk())
+				.andExpect(content().contentType(RESPONSE_CONTENT_TYPE));
+	}
+
 	@Test
 	public void testGetRealtimeWeatherByLocationCodeShouldReturn404NotFound() throws Exception {
 		String locationCode = "ABC";
@@ -125,17 +142,8 @@ public class RealtimeWeatherApiControllerTests {
 		location.setCountryName("Vietnam");
 		location.setCountryCode("VN");
 
-		RealtimeWeather realtimeWeather = new RealtimeWeather();
-		realtimeWeather.setLocationCode(location.getCode());
-		realtimeWeather.setTemperature(-100);
-		realtimeWeather.setHumidity(60);
-		realtimeWeather.setPrecipitation(50);
-		realtimeWeather.setWindSpeed(5);
-		realtimeWeather.setStatus("Snowy");
-		realtimeWeather.setLastUpdated(new Date());
-
-		realtimeWeather.setLocation(location);
-		location.setRealtimeWeather(realtimeWeather);
+		RealtimeWeatherView realtimeWeather = new RealtimeWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), -100, 60, 50, 5, "Snowy", new Date());
 
 		Mockito.when(this.realtimeWeatherService.getRealtimeWeatherByLocationCode(location.getCode()))
 				.thenReturn(realtimeWeather);
@@ -153,6 +161,31 @@ public class RealtimeWeatherApiControllerTests {
 				.andDo(print());
 	}
 
+	@Test
+	public void testGetRealtimeWeatherByLocationCodeShouldReturn304NotModified() throws Exception {
+		String locationCode = "HCM_VN";
+
+		Location location = new Location();
+		location.setCode(locationCode);
+		location.setCityName("Ho Chi Minh City");
+		location.setCountryCode("VN");
+
+		RealtimeWeatherView realtimeWeather = new RealtimeWeatherView(location.getCode(), location.getCityName(),
+				location.getRegionName(), location.getCountryName(), 30, 60, 50, 5, "Sunny", new Date());
+
+		Mockito.when(this.realtimeWeatherService.getRealtimeWeatherByLocationCode(locationCode))
+				.thenReturn(realtimeWeather);
+
+		String requestUri = END_POINT_PATH + "/" + locationCode;
+
+		String eTag = mockMvc.perform(get(requestUri)).andExpect(status().isOk())
+				.andExpect(header().exists("ETag")).andReturn().getResponse().getHeader("ETag");
+
+		// ETag là md5 của body đã serialize nên request lại với If-None-Match -> 304
+		mockMvc.perform(get(requestUri).header("If-None-Match", eTag)).andExpect(status().isNotModified())
+				.andDo(print());
+	}
+
 	@Test
 	public void testUpdateRealtimeWeatherShouldReturn400BadRequest() throws Exception {
 		String locationCode = "HCM_VN";
@@ -0,0 +1,127 @@
+package com.skyapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationDirectory;
+import com.skyapi.weatherforecast.location.LocationRepository;
+
+// PUT theo code viết khác hoa thường vẫn phải xóa/phát theo code đã lưu
+public class RealtimeWeatherServiceTests {
+	private RealtimeWeatherRepository realtimeWeatherRepository = mock(RealtimeWeatherRepository.class);
+	private LocationRepository locationRepository = mock(LocationRepository.class);
+	private CacheInvalidationIndex cacheInvalidationIndex = mock(CacheInvalidationIndex.class);
+	private RealtimeWeatherStream realtimeWeatherStream = mock(RealtimeWeatherStream.class);
+
+	private RealtimeWeatherService realtimeWeatherService = new RealtimeWeatherService(realtimeWeatherRepository,
+			locationRepository, new LocationDirectory(locationRepository), cacheInvalidationIndex, Optional.empty(),
+			realtimeWeatherStream);
+
+	@BeforeEach
+	public void setUp() {
+		Location storedLocation = Location.builder().code("HN_VN").cityName("Hanoi").regionName("Ha Noi")
+				.countryName("Viet Nam").countryCode("VN").enabled(true).build();
+		storedLocation.setRealtimeWeather(new RealtimeWeather());
+
+		when(this.locationRepository.findByCode("hn_vn")).thenReturn(storedLocation);
+		when(this.realtimeWeatherRepository.save(any(RealtimeWeather.class)))
+				.thenAnswer(invocation -> invocation.getArgument(0));
+	}
+
+	@Test
+	public void testUpdateWithDifferentCaseEvictsStoredCode() {
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(26);
+		realtimeWeather.setStatus("Sunny");
+
+		this.realtimeWeatherService.updateRealtimeWeather("hn_vn", realtimeWeather);
+
+		verify(this.cacheInvalidationIndex).evict(eq("HN_VN"), any(String[].class));
+		verify(this.realtimeWeatherStream).publish(eq("HN_VN"), any(RealtimeWeather.class));
+	}
+
+	// event phát với code đã lưu để location_code và lọc theo country_code đúng
+	@Test
+	public void testBufferedUpdateWithDifferentCasePublishesStoredCode() {
+		RealtimeWeatherWriteBehind realtimeWeatherWriteBehind = mock(RealtimeWeatherWriteBehind.class);
+		RealtimeWeatherService writeBehindService = new RealtimeWeatherService(this.realtimeWeatherRepository,
+				this.locationRepository, new LocationDirectory(this.locationRepository), this.cacheInvalidationIndex,
+				Optional.of(realtimeWeatherWriteBehind), this.realtimeWeatherStream);
+
+		RealtimeWeather buffered = new RealtimeWeather();
+		buffered.setLocationCode("HN_VN");
+		when(realtimeWeatherWriteBehind.update(eq("hn_vn"), any(RealtimeWeather.class))).thenReturn(buffered);
+
+		writeBehindService.updateRealtimeWeather("hn_vn", new RealtimeWeather());
+
+		verify(this.realtimeWeatherStream).publish("HN_VN", buffered);
+	}
+
+	// miss cache lúc update còn chờ ghi thì trả bản đang chờ chứ ko đưa dòng cũ trong DB vào cache
+	@Test
+	public void testCacheMissReadsPendingWriteBehindUpdate() {
+		RealtimeWeatherWriteBehind realtimeWeatherWriteBehind = mock(RealtimeWeatherWriteBehind.class);
+		RealtimeWeatherService writeBehindService = new RealtimeWeatherService(this.realtimeWeatherRepository,
+				this.locationRepository, new LocationDirectory(this.locationRepository), this.cacheInvalidationIndex,
+				Optional.of(realtimeWeatherWriteBehind), this.realtimeWeatherStream);
+
+		RealtimeWeatherView pending = new RealtimeWeatherView("HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 27, 60, 20, 5,
+				"Sunny", new Date());
+		when(realtimeWeatherWriteBehind.findPending("HN_VN")).thenReturn(pending);
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(new RealtimeWeatherView(
+				"HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 25, 80, 40, 12, "Cloudy", new Date(0)));
+
+		assertThat(writeBehindService.getRealtimeWeatherByLocationCode("HN_VN")).isSameAs(pending);
+		assertThat(writeBehindService.reload("HN_VN")).isSameAs(pending);
+
+		when(realtimeWeatherWriteBehind.findPending("HN_VN")).thenReturn(null);
+		assertThat(writeBehindService.getRealtimeWeatherByLocationCode("HN_VN").temperature()).isEqualTo(25);
+	}
+
+	/*
+	 * PUT realtime còn chờ ghi, sau đó PUT full ghi đồng bộ (mới hơn) rồi xóa
+	 * cache: GET phải trả dữ liệu của PUT full chứ ko phải bản đang chờ
+	 */
+	@Test
+	public void testNewerSynchronousWriteWinsOverPendingWriteBehindUpdate() {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(new RealtimeWeatherView(
+				"HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 25, 80, 40, 12, "Cloudy", new Date(0)));
+
+		RealtimeWeatherWriteBehind realtimeWeatherWriteBehind = new RealtimeWeatherWriteBehind(
+				mock(JdbcTemplate.class), this.realtimeWeatherRepository, new ConcurrentMapCacheManager(),
+				this.cacheInvalidationIndex, new RealtimeWriteBehindProperties());
+		RealtimeWeatherService writeBehindService = new RealtimeWeatherService(this.realtimeWeatherRepository,
+				this.locationRepository, new LocationDirectory(this.locationRepository), this.cacheInvalidationIndex,
+				Optional.of(realtimeWeatherWriteBehind), this.realtimeWeatherStream);
+
+		RealtimeWeather buffered = new RealtimeWeather();
+		buffered.setTemperature(27);
+		buffered.setStatus("Sunny");
+		writeBehindService.updateRealtimeWeather("HN_VN", buffered);
+		Date bufferedAt = realtimeWeatherWriteBehind.findPending("HN_VN").lastUpdated();
+
+		// dòng PUT full vừa commit
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(new RealtimeWeatherView(
+				"HN_VN", "Hanoi", "Ha Noi", "Viet Nam", 31, 50, 10, 8, "Clear", new Date(bufferedAt.getTime() + 1)));
+
+		RealtimeWeatherView realtimeWeather = writeBehindService.getRealtimeWeatherByLocationCode("HN_VN");
+		assertThat(realtimeWeather.temperature()).isEqualTo(31);
+		assertThat(realtimeWeather.status()).isEqualTo("Clear");
+		assertThat(writeBehindService.reload("HN_VN")).isSameAs(realtimeWeather);
+	}
+}
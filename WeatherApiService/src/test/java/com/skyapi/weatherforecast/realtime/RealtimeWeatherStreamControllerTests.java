@@ -0,0 +1,159 @@
+package com.skyapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.skyapi.weatherforecast.SecurityConfigForControllerTests;
+import com.skyapi.weatherforecast.common.Location;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.location.LocationDirectory;
+
+@WebMvcTest(RealtimeWeatherStreamController.class)
+@Import({ SecurityConfigForControllerTests.class, RealtimeWeatherStream.class })
+@ActiveProfiles("test")
+public class RealtimeWeatherStreamControllerTests {
+	private static final String END_POINT_PATH = "/v1/realtime/stream";
+
+	@Autowired
+	private MockMvc mockMvc;
+	@Autowired
+	private RealtimeWeatherStream realtimeWeatherStream;
+	@Autowired
+	private RealtimeStreamProperties realtimeStreamProperties;
+	@MockBean
+	private LocationDirectory locationDirectory;
+
+	@AfterEach
+	public void tearDown() {
+		this.realtimeStreamProperties.setMaxSubscribers(1000);
+		this.realtimeStreamProperties.setSendTimeout(Duration.ofSeconds(10));
+	}
+
+	private RealtimeWeather realtimeWeather(String code, String countryCode, int temperature) {
+		Location location = new Location();
+		location.setCode(code);
+		location.setCityName("City " + code);
+		location.setCountryName("Country " + countryCode);
+		location.setCountryCode(countryCode);
+
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setLocation(location);
+		realtimeWeather.setTemperature(temperature);
+		realtimeWeather.setStatus("Sunny");
+		realtimeWeather.setLastUpdated(new Date());
+
+		return realtimeWeather;
+	}
+
+	// event ghi trên thread realtime-stream-N nên chờ tới khi response có đủ nội dung
+	private String awaitContent(MvcResult mvcResult, String expected) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (System.nanoTime() < deadline && !mvcResult.getResponse().getContentAsString().contains(expected)) {
+			Thread.sleep(10);
+		}
+
+		return mvcResult.getResponse().getContentAsString();
+	}
+
+	@Test
+	public void testStreamFiltersByLocationCodes() throws Exception {
+		MvcResult mvcResult = this.mockMvc.perform(get(END_POINT_PATH).param("location_codes", "hn_vn,HCM_VN"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		this.realtimeWeatherStream.publish("DN_VN", realtimeWeather("DN_VN", "VN", 30));
+		this.realtimeWeatherStream.publish("HN_VN", realtimeWeather("HN_VN", "VN", 26));
+
+		String content = awaitContent(mvcResult, "HN_VN");
+		assertThat(content).contains("event:realtime").contains("\"location_code\":\"HN_VN\"")
+				.contains("\"temperature\":26").doesNotContain("DN_VN");
+		assertThat(mvcResult.getResponse().getContentType()).startsWith("text/event-stream");
+	}
+
+	// location ghi qua write-behind ko có countryCode trong entity, lấy từ LocationDirectory
+	@Test
+	public void testStreamFiltersByCountryCode() throws Exception {
+		Mockito.when(this.locationDirectory.findCountryCode("HN_VN")).thenReturn("vn");
+		MvcResult mvcResult = this.mockMvc.perform(get(END_POINT_PATH).param("country_code", "VN"))
+				.andExpect(request().asyncStarted()).andReturn();
+
+		this.realtimeWeatherStream.publish("NYC_US", realtimeWeather("NYC_US", "US", 10));
+		RealtimeWeather withoutCountryCode = realtimeWeather("HN_VN", null, 26);
+		this.realtimeWeatherStream.publish("HN_VN", withoutCountryCode);
+
+		String content = awaitContent(mvcResult, "HN_VN");
+		assertThat(content).contains("\"location_code\":\"HN_VN\"").doesNotContain("NYC_US");
+	}
+
+	@Test
+	public void testStreamShouldReturn503WhenSubscribersAreFull() throws Exception {
+		this.realtimeStreamProperties.setMaxSubscribers(0);
+
+		this.mockMvc.perform(get(END_POINT_PATH)).andExpect(status().isServiceUnavailable());
+	}
+
+	// client ngừng đọc làm send() bị chặn ko được làm các subscriber khác chờ
+	@Test
+	public void testStalledSubscribersDoNotBlockOthersAndAreDropped() throws Exception {
+		// đủ kết nối treo để chiếm hết các thread giữ sẵn
+		int stalledSubscribers = this.realtimeStreamProperties.getSenderThreads();
+		CountDownLatch sendStarted = new CountDownLatch(stalledSubscribers);
+		CountDownLatch release = new CountDownLatch(1);
+
+		try {
+			int subscriberCount = this.realtimeWeatherStream.subscriberCount();
+			for (int i = 0; i < stalledSubscribers; i++) {
+				this.realtimeWeatherStream.subscribe(new SseEmitter() {
+					@Override
+					public void send(SseEventBuilder builder) throws IOException {
+						sendStarted.countDown();
+						try {
+							release.await();
+						} catch (InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+						throw new IOException("Broken pipe");
+					}
+				}, Set.of("HN_VN"), null);
+			}
+
+			this.realtimeWeatherStream.publish("HN_VN", realtimeWeather("HN_VN", "VN", 26));
+			assertThat(sendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+			MvcResult mvcResult = this.mockMvc.perform(get(END_POINT_PATH).param("location_codes", "HN_VN"))
+					.andExpect(request().asyncStarted()).andReturn();
+			this.realtimeWeatherStream.publish("HN_VN", realtimeWeather("HN_VN", "VN", 27));
+
+			assertThat(awaitContent(mvcResult, "\"temperature\":27")).contains("\"temperature\":27");
+
+			this.realtimeStreamProperties.setSendTimeout(Duration.ofMillis(1));
+			Thread.sleep(5);
+			this.realtimeWeatherStream.expireStalledSends();
+
+			// chỉ còn kết nối qua MockMvc
+			assertThat(this.realtimeWeatherStream.subscriberCount()).isEqualTo(subscriberCount + 1);
+		} finally {
+			release.countDown();
+		}
+	}
+}
@@ -0,0 +1,337 @@
+package com.skyapi.weatherforecast.realtime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.skyapi.weatherforecast.cache.CacheInvalidationIndex;
+import com.skyapi.weatherforecast.cache.SerializedResponseCache;
+import com.skyapi.weatherforecast.common.RealtimeWeather;
+import com.skyapi.weatherforecast.realtime.RealtimeWriteBehindProperties.Durability;
+
+public class RealtimeWeatherWriteBehindTests {
+	private static final String REALTIME_CACHE_BY_CODE = "realtimeWeatherCacheByCode";
+
+	private JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private RealtimeWeatherRepository realtimeWeatherRepository = mock(RealtimeWeatherRepository.class);
+	private CacheInvalidationIndex cacheInvalidationIndex = mock(CacheInvalidationIndex.class);
+	private CacheManager cacheManager = new ConcurrentMapCacheManager();
+	private RealtimeWriteBehindProperties properties = new RealtimeWriteBehindProperties();
+
+	@TempDir
+	private Path tempDir;
+
+	private RealtimeWeatherWriteBehind createWriteBehind() {
+		return new RealtimeWeatherWriteBehind(this.jdbcTemplate, this.realtimeWeatherRepository, this.cacheManager,
+				this.cacheInvalidationIndex, this.properties);
+	}
+
+	private RealtimeWeatherView storedView(String locationCode, int temperature) {
+		return new RealtimeWeatherView(locationCode, "Hanoi", "Ha Noi", "Viet Nam", temperature, 80, 40, 12, "Cloudy",
+				new Date(0));
+	}
+
+	private RealtimeWeather request(int temperature) {
+		RealtimeWeather realtimeWeather = new RealtimeWeather();
+		realtimeWeather.setTemperature(temperature);
+		realtimeWeather.setHumidity(60);
+		realtimeWeather.setPrecipitation(20);
+		realtimeWeather.setWindSpeed(5);
+		realtimeWeather.setStatus("Sunny");
+
+		return realtimeWeather;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Object[]> capturedBatch() {
+		ArgumentCaptor<List<Object[]>> argsCaptor = ArgumentCaptor.forClass(List.class);
+		verify(this.jdbcTemplate).batchUpdate(anyString(), argsCaptor.capture());
+
+		return argsCaptor.getValue();
+	}
+
+	@Test
+	public void testUpdatesAreCachedAndCoalescedPerLocation() {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		writeBehind.update("HN_VN", request(26));
+		RealtimeWeather updated = writeBehind.update("HN_VN", request(27));
+
+		// response dựng từ bản mới, GET đọc cache thấy bản mới trước khi ghi DB
+		assertThat(updated.getTemperature()).isEqualTo(27);
+		assertThat(updated.getLocation().toString()).isEqualTo("Hanoi, Ha Noi, Viet Nam");
+		assertThat(this.cacheManager.getCache(REALTIME_CACHE_BY_CODE).get("HN_VN", RealtimeWeatherView.class)
+				.temperature()).isEqualTo(27);
+		verify(this.cacheInvalidationIndex, times(2)).evict("HN_VN", SerializedResponseCache.CACHE_NAME);
+		verify(this.jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+
+		writeBehind.flush();
+
+		List<Object[]> batch = capturedBatch();
+		assertThat(batch).hasSize(1);
+		assertThat(batch.get(0)[0]).isEqualTo("HN_VN");
+		assertThat(batch.get(0)[1]).isEqualTo(27);
+		assertThat(writeBehind.pendingCount()).isZero();
+	}
+
+	// PUT trước đang ghi cache thì PUT sau của cùng location chờ, bản cuối trong cache là bản nhận sau
+	@Test
+	public void testConcurrentUpdatesOfSameLocationLeaveLatestInCache() throws Exception {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+
+		CountDownLatch firstPutStarted = new CountDownLatch(1);
+		CountDownLatch releaseFirstPut = new CountDownLatch(1);
+		this.cacheManager = new ConcurrentMapCacheManager() {
+			@Override
+			protected Cache createConcurrentMapCache(String name) {
+				return new ConcurrentMapCache(name) {
+					@Override
+					public void put(Object key, Object value) {
+						if (((RealtimeWeatherView) value).temperature() == 26) {
+							firstPutStarted.countDown();
+							try {
+								releaseFirstPut.await(5, TimeUnit.SECONDS);
+							} catch (InterruptedException e) {
+								Thread.currentThread().interrupt();
+							}
+						}
+						super.put(key, value);
+					}
+				};
+			}
+		};
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		Thread first = new Thread(() -> writeBehind.update("HN_VN", request(26)));
+		first.start();
+		assertThat(firstPutStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+		Thread second = new Thread(() -> writeBehind.update("HN_VN", request(27)));
+		second.start();
+		second.join(200);
+		releaseFirstPut.countDown();
+		first.join();
+		second.join();
+
+		assertThat(this.cacheManager.getCache(REALTIME_CACHE_BY_CODE).get("HN_VN", RealtimeWeatherView.class)
+				.temperature()).isEqualTo(27);
+
+		writeBehind.flush();
+		assertThat(capturedBatch().get(0)[1]).isEqualTo(27);
+	}
+
+	// chưa có dòng realtime_weather (hoặc location ko tồn tại): để RealtimeWeatherService ghi đồng bộ
+	@Test
+	public void testLocationWithoutRealtimeWeatherIsNotBuffered() {
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		assertThat(writeBehind.update("HN_VN", request(26))).isNull();
+		assertThat(writeBehind.pendingCount()).isZero();
+	}
+
+	@Test
+	public void testTransientFailureIsRetriedOnNextFlush() {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+		when(this.jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"))
+				.thenReturn(new int[] { 1 });
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		writeBehind.update("HN_VN", request(26));
+		writeBehind.flush();
+		assertThat(writeBehind.pendingCount()).isEqualTo(1);
+
+		writeBehind.flush();
+		assertThat(writeBehind.pendingCount()).isZero();
+		verify(this.jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+	}
+
+	// dòng bị DB từ chối (location đã xóa) bị bỏ, các dòng khác trong batch vẫn đc ghi
+	@Test
+	public void testRejectedRowIsDroppedWithoutBlockingOthers() {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+		when(this.realtimeWeatherRepository.findViewByLocationCode("DN_VN")).thenReturn(storedView("DN_VN", 30));
+		when(this.jdbcTemplate.batchUpdate(anyString(), anyList()))
+				.thenThrow(new DataIntegrityViolationException("fk"));
+		when(this.jdbcTemplate.update(anyString(), any(Object[].class))).thenAnswer(invocation -> {
+			if ("HN_VN".equals(invocation.getArgument(1))) {
+				throw new DataIntegrityViolationException("fk");
+			}
+			return 1;
+		});
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		writeBehind.update("HN_VN", request(26));
+		writeBehind.update("DN_VN", request(31));
+		writeBehind.flush();
+
+		assertThat(writeBehind.pendingCount()).isZero();
+		verify(this.jdbcTemplate, times(2)).update(anyString(), any(Object[].class));
+	}
+
+	// process dừng trước khi flush: lần khởi động sau đọc lại log và ghi xuống DB
+	@Test
+	public void testJournalRecoversUnflushedUpdates() {
+		this.properties.setDurability(Durability.JOURNAL);
+		this.properties.setJournalFile(this.tempDir.resolve("realtime.journal").toString());
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+		when(this.realtimeWeatherRepository.findViewByLocationCode("DN_VN")).thenReturn(storedView("DN_VN", 30));
+
+		RealtimeWeatherWriteBehind crashed = createWriteBehind();
+		crashed.update("HN_VN", request(26));
+		crashed.update("DN_VN", request(31));
+		crashed.update("HN_VN", request(27));
+
+		RealtimeWeatherWriteBehind restarted = createWriteBehind();
+		assertThat(restarted.pendingCount()).isEqualTo(2);
+
+		restarted.flush();
+
+		List<Object[]> batch = capturedBatch();
+		assertThat(batch).hasSize(2);
+		assertThat(batch.stream().filter(args -> "HN_VN".equals(args[0])).findFirst().get()[1]).isEqualTo(27);
+
+		// đã ghi xong thì log ko còn gì để đọc lại
+		assertThat(createWriteBehind().pendingCount()).isZero();
+	}
+
+	// lỗi ko phải DataAccessException khi flush vẫn giữ lại update (cả trong log) để ghi lại lần sau
+	@Test
+	public void testUnexpectedFlushFailureKeepsUpdates() {
+		this.properties.setDurability(Durability.JOURNAL);
+		this.properties.setJournalFile(this.tempDir.resolve("realtime.journal").toString());
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+		when(this.jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new IllegalStateException("bug"));
+
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+		writeBehind.update("HN_VN", request(26));
+		writeBehind.flush();
+		assertThat(writeBehind.pendingCount()).isEqualTo(1);
+
+		// .flushing đã xóa sau khi update đc ghi lại vào log mới
+		assertThat(createWriteBehind().pendingCount()).isEqualTo(1);
+	}
+
+	// .flushing của lần flush chưa xong ko bị lần startFlush sau ghi đè
+	@Test
+	public void testJournalRotationKeepsUnfinishedFlush() throws Exception {
+		RealtimeWeatherJournal journal = new RealtimeWeatherJournal(this.tempDir.resolve("realtime.journal"), false);
+		journal.recover();
+
+		journal.append(List.of(journal.encode(storedView("HN_VN", 26))));
+		journal.startFlush();
+		journal.append(List.of(journal.encode(storedView("DN_VN", 31))));
+		journal.startFlush();
+		journal.close();
+
+		assertThat(new RealtimeWeatherJournal(this.tempDir.resolve("realtime.journal"), false).recover())
+				.extracting(RealtimeWeatherView::locationCode).containsExactly("HN_VN", "DN_VN");
+	}
+
+	// PUT đồng thời ghi log theo nhóm, ko mất entry nào
+	@Test
+	public void testConcurrentJournalAppendsAreAllRecovered() throws Exception {
+		this.properties.setDurability(Durability.JOURNAL);
+		this.properties.setJournalSync(true);
+		this.properties.setJournalFile(this.tempDir.resolve("realtime.journal").toString());
+		when(this.realtimeWeatherRepository.findViewByLocationCode(anyString()))
+				.thenAnswer(invocation -> storedView(invocation.getArgument(0), 25));
+
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 16; i++) {
+			String locationCode = "LOC" + i + "_VN";
+			Thread thread = new Thread(() -> {
+				for (int temperature = 0; temperature < 20; temperature++) {
+					writeBehind.update(locationCode, request(temperature));
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+
+		assertThat(writeBehind.pendingCount()).isEqualTo(16);
+
+		RealtimeWeatherWriteBehind restarted = createWriteBehind();
+		assertThat(restarted.pendingCount()).isEqualTo(16);
+		restarted.flush();
+		assertThat(capturedBatch()).allSatisfy(args -> assertThat(args[1]).isEqualTo(19));
+	}
+
+	// PUT theo code viết khác hoa thường ghi cache/xóa response theo code đã lưu
+	@Test
+	public void testUpdateWithDifferentCaseUsesStoredCode() {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("hn_vn")).thenReturn(storedView("HN_VN", 25));
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		writeBehind.update("hn_vn", request(26));
+
+		Cache realtimeCache = this.cacheManager.getCache(REALTIME_CACHE_BY_CODE);
+		assertThat(realtimeCache.get("HN_VN", RealtimeWeatherView.class).temperature()).isEqualTo(26);
+		assertThat(realtimeCache.get("hn_vn")).isNull();
+		verify(this.cacheInvalidationIndex).evict("HN_VN", SerializedResponseCache.CACHE_NAME);
+	}
+
+	/*
+	 * miss cache lúc update chưa ghi xuống DB (đang chờ hoặc đang flush) đọc bản
+	 * chưa ghi, flush xong thì đọc DB
+	 */
+	@Test
+	public void testPendingUpdateIsFoundUntilFlushCompletes() {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		writeBehind.update("HN_VN", request(26));
+		assertThat(writeBehind.findPending("hn_vn").temperature()).isEqualTo(26);
+
+		List<RealtimeWeatherView> foundWhileWriting = new ArrayList<RealtimeWeatherView>();
+		when(this.jdbcTemplate.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+			foundWhileWriting.add(writeBehind.findPending("HN_VN"));
+			return new int[] { 1 };
+		});
+		writeBehind.flush();
+
+		assertThat(foundWhileWriting).singleElement().extracting(RealtimeWeatherView::temperature).isEqualTo(26);
+		assertThat(writeBehind.findPending("HN_VN")).isNull();
+	}
+
+	// ghi lỗi thì bản chưa ghi quay lại hàng chờ, vẫn đc tìm thấy
+	@Test
+	public void testFailedFlushKeepsUpdateFindable() {
+		when(this.realtimeWeatherRepository.findViewByLocationCode("HN_VN")).thenReturn(storedView("HN_VN", 25));
+		when(this.jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+		RealtimeWeatherWriteBehind writeBehind = createWriteBehind();
+
+		writeBehind.update("HN_VN", request(26));
+		writeBehind.flush();
+
+		assertThat(writeBehind.findPending("HN_VN").temperature()).isEqualTo(26);
+	}
+}
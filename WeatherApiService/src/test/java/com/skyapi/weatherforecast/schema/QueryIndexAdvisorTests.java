@@ -0,0 +1,49 @@
+package com.skyapi.weatherforecast.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class QueryIndexAdvisorTests {
+	private JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+	private QueryIndexAdvisor queryIndexAdvisor = new QueryIndexAdvisor(jdbcTemplate, true);
+
+	private Map<String, Object> createPlanStep(String table, String type, String possibleKeys) {
+		Map<String, Object> step = new HashMap<String, Object>();
+		step.put("table", table);
+		step.put("type", type);
+		step.put("possible_keys", possibleKeys);
+
+		return step;
+	}
+
+	@Test
+	public void testFullScanWithoutPossibleKeysIsReported() {
+		when(this.jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+				.thenReturn(List.of(createPlanStep("locations", "ref", "idx_locations_trashed_country_city")));
+		when(this.jdbcTemplate.queryForList(startsWith("EXPLAIN SELECT * FROM client_apps"), any(Object[].class)))
+				.thenReturn(List.of(createPlanStep("client_apps", "ALL", null)));
+
+		assertThat(this.queryIndexAdvisor.findQueriesWithoutIndex())
+				.containsExactly("ClientAppRepository.findByClientId scans table client_apps without any usable index");
+	}
+
+	// bảng ít row thì MySQL có thể chọn quét cả bảng dù có index -> ko báo
+	@Test
+	public void testFullScanWithPossibleKeysIsNotReported() {
+		when(this.jdbcTemplate.queryForList(anyString(), any(Object[].class)))
+				.thenReturn(List.of(createPlanStep("locations", "ALL", "idx_locations_trashed_region")));
+
+		assertThat(this.queryIndexAdvisor.findQueriesWithoutIndex()).isEmpty();
+	}
+}
@@ -0,0 +1,57 @@
+package com.skyapi.weatherforecast.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.hibernate.boot.model.naming.CamelCaseToUnderscoresNamingStrategy;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.orm.jpa.hibernate.SpringImplicitNamingStrategy;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/*
+ * chạy các migration trong db/migration (WeatherApiCommon) trên H2 (chế độ
+ * MySQL) rồi để Hibernate validate các entity với schema vừa tạo (giống
+ * ddl-auto=validate lúc chạy thật của WeatherApiService và
+ * WeatherApiClientManager)
+ */
+public class SchemaMigrationTests {
+
+	@Test
+	public void testMigrationsMatchEntityMappings() throws Exception {
+		JdbcDataSource dataSource = new JdbcDataSource();
+		dataSource.setURL("jdbc:h2:mem:migration;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=MONTH;DB_CLOSE_DELAY=-1");
+
+		Flyway flyway = Flyway.configure().dataSource(dataSource).load();
+		assertThat(flyway.migrate().migrationsExecuted).isEqualTo(2);
+
+		// naming strategy giống spring boot (cityName -> city_name)
+		LocalContainerEntityManagerFactoryBean factoryBean = new LocalContainerEntityManagerFactoryBean();
+		factoryBean.setDataSource(dataSource);
+		factoryBean.setPackagesToScan("com.skyapi.weatherforecast.common");
+		factoryBean.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+		factoryBean.setJpaPropertyMap(Map.of("hibernate.hbm2ddl.auto", "validate", "hibernate.physical_naming_strategy",
+				CamelCaseToUnderscoresNamingStrategy.class.getName(), "hibernate.implicit_naming_strategy",
+				SpringImplicitNamingStrategy.class.getName()));
+		factoryBean.afterPropertiesSet();
+		factoryBean.getObject().close();
+
+		Set<String> indexNames = new HashSet<String>();
+		try (Connection connection = dataSource.getConnection();
+				ResultSet indexes = connection.getMetaData().getIndexInfo(null, null, "locations", false, false)) {
+			while (indexes.next()) {
+				indexNames.add(indexes.getString("INDEX_NAME").toLowerCase());
+			}
+		}
+
+		assertThat(indexNames).contains("idx_locations_trashed_country_city",
+				"idx_locations_trashed_enabled_country_region", "idx_locations_trashed_region");
+	}
+}